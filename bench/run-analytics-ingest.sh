@@ -0,0 +1,92 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Compares analytics-service ingest throughput of POST /api/analytics/track (one event per request) with
+# POST /api/analytics/track/batch (BATCH_SIZE events per request) against a running analytics-service.
+
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULT_BASE="$ROOT_DIR/bench/results"
+ANALYTICS_URL="${ANALYTICS_URL:-http://localhost:8084}"
+EVENTS="${EVENTS:-200000}"
+BATCH_SIZE="${BATCH_SIZE:-200}"
+CONCURRENCY="${CONCURRENCY:-16}"
+WARMUP_EVENTS="${WARMUP_EVENTS:-20000}"
+
+if ! command -v python3 >/dev/null 2>&1; then
+  echo "required command 'python3' is missing" >&2
+  exit 1
+fi
+
+timestamp="$(date -u +"%Y%m%dT%H%M%SZ")"
+RESULT_DIR="$RESULT_BASE/${timestamp}--analytics-ingest"
+mkdir -p "$RESULT_DIR"
+
+python3 - "$ANALYTICS_URL" "$EVENTS" "$BATCH_SIZE" "$CONCURRENCY" "$WARMUP_EVENTS" "$RESULT_DIR" <<'PY'
+import http.client, json, sys, threading, time, urllib.parse
+
+url, events, batch_size, concurrency, warmup, result_dir = sys.argv[1:7]
+events, batch_size, concurrency, warmup = int(events), int(batch_size), int(concurrency), int(warmup)
+target = urllib.parse.urlparse(url)
+names = ["orders.created", "orders.confirmed", "orders.cancelled",
+         "billing.invoice.created", "billing.invoice.paid", "notification.sent"]
+
+def bodies(mode, total):
+    if mode == "single":
+        for i in range(total):
+            yield "/api/analytics/track", json.dumps({"event": names[i % len(names)], "metadata": {"i": i}}), 1
+    else:
+        for start in range(0, total, batch_size):
+            n = min(batch_size, total - start)
+            batch = [{"event": names[(start + j) % len(names)], "metadata": {"i": start + j}} for j in range(n)]
+            yield "/api/analytics/track/batch", json.dumps({"events": batch}), n
+
+def run(mode, total):
+    work = list(bodies(mode, total))
+    latencies, lock, cursor = [], threading.Lock(), [0]
+    def worker():
+        conn = http.client.HTTPConnection(target.hostname, target.port or 80)
+        while True:
+            with lock:
+                if cursor[0] >= len(work):
+                    break
+                path, body, _ = work[cursor[0]]
+                cursor[0] += 1
+            start = time.perf_counter()
+            conn.request("POST", path, body, {"Content-Type": "application/json"})
+            response = conn.getresponse()
+            response.read()
+            if response.status != 202:
+                raise SystemExit(f"{path} returned {response.status}")
+            latencies.append((time.perf_counter() - start) * 1000)
+        conn.close()
+    threads = [threading.Thread(target=worker) for _ in range(concurrency)]
+    started = time.perf_counter()
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+    elapsed = time.perf_counter() - started
+    latencies.sort()
+    pct = lambda p: latencies[min(len(latencies) - 1, int(round(p / 100 * (len(latencies) - 1))))]
+    return {"events": total, "requests": len(work), "seconds": round(elapsed, 2),
+            "events_per_second": round(total / elapsed), "request_p50_ms": round(pct(50), 2),
+            "request_p95_ms": round(pct(95), 2)}
+
+summary = {}
+for mode in ("single", "batch"):
+    run(mode, warmup)
+    summary[mode] = run(mode, events)
+    print(mode, summary[mode], flush=True)
+
+with open(f"{result_dir}/summary.json", "w") as fh:
+    json.dump({"batch_size": batch_size, "concurrency": concurrency, "modes": summary}, fh, indent=2)
+with open(f"{result_dir}/summary.md", "w") as fh:
+    fh.write(f"# Analytics ingest (batch size {batch_size}, concurrency {concurrency})\n\n")
+    fh.write("| mode | events | requests | events/s | request p50 ms | request p95 ms |\n|---|---|---|---|---|---|\n")
+    for mode, s in summary.items():
+        fh.write(f"| {mode} | {s['events']} | {s['requests']} | {s['events_per_second']} | "
+                 f"{s['request_p50_ms']} | {s['request_p95_ms']} |\n")
+print(open(f"{result_dir}/summary.md").read())
+PY
+
+echo "Results written to $RESULT_DIR"
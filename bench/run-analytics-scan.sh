@@ -0,0 +1,108 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Measures how fast analytics-service aggregates the events it keeps in memory: seeds SEED_EVENTS events through
+# POST /api/analytics/track/batch, then runs a few GET /api/analytics/events/aggregate queries RUNS times each and
+# reports the rows scanned per second, overall and per scan thread.
+
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULT_BASE="$ROOT_DIR/bench/results"
+ANALYTICS_URL="${ANALYTICS_URL:-http://localhost:8084}"
+SEED_EVENTS="${SEED_EVENTS:-1000000}"
+BATCH_SIZE="${BATCH_SIZE:-500}"
+CONCURRENCY="${CONCURRENCY:-8}"
+RUNS="${RUNS:-20}"
+
+if ! command -v python3 >/dev/null 2>&1; then
+  echo "required command 'python3' is missing" >&2
+  exit 1
+fi
+
+timestamp="$(date -u +"%Y%m%dT%H%M%SZ")"
+RESULT_DIR="$RESULT_BASE/${timestamp}--analytics-scan"
+mkdir -p "$RESULT_DIR"
+
+python3 - "$ANALYTICS_URL" "$SEED_EVENTS" "$BATCH_SIZE" "$CONCURRENCY" "$RUNS" "$RESULT_DIR" <<'PY'
+import http.client, json, sys, threading, time, urllib.parse
+
+url, seed, batch_size, concurrency, runs, result_dir = sys.argv[1:7]
+seed, batch_size, concurrency, runs = int(seed), int(batch_size), int(concurrency), int(runs)
+target = urllib.parse.urlparse(url)
+names = ["orders.created", "billing.invoice.created", "billing.invoice.paid", "notification.sent"]
+currencies = ["EUR", "USD", "GBP", "CHF"]
+methods = ["CARD", "DEMO", "BANK_TRANSFER"]
+queries = {
+    "count by event": "groupBy=event",
+    "paid by currency and method, sum amount": "event=billing.invoice.paid&groupBy=currency&groupBy=paymentMethod&sum=amount",
+    "filter currency, group by amount": "filter=currency:EUR&groupBy=amount",
+}
+
+def event(i):
+    return {"event": names[i % len(names)],
+            "metadata": {"orderNumber": f"ORD-{i}", "currency": currencies[(i // len(names)) % len(currencies)],
+                         "paymentMethod": methods[i % len(methods)], "amount": (i % 500) + 0.99}}
+
+def seed_events():
+    cursor, lock = [0], threading.Lock()
+    def worker():
+        conn = http.client.HTTPConnection(target.hostname, target.port or 80)
+        while True:
+            with lock:
+                start = cursor[0]
+                if start >= seed:
+                    break
+                cursor[0] += batch_size
+            body = json.dumps({"events": [event(i) for i in range(start, min(seed, start + batch_size))]})
+            conn.request("POST", "/api/analytics/track/batch", body, {"Content-Type": "application/json"})
+            response = conn.getresponse()
+            response.read()
+            if response.status != 202:
+                raise SystemExit(f"track/batch returned {response.status}")
+        conn.close()
+    threads = [threading.Thread(target=worker) for _ in range(concurrency)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+
+def aggregate(conn, query):
+    conn.request("GET", "/api/analytics/events/aggregate?" + query)
+    response = conn.getresponse()
+    body = response.read()
+    if response.status != 200:
+        raise SystemExit(f"aggregate returned {response.status}: {body[:200]}")
+    return json.loads(body)
+
+started = time.perf_counter()
+seed_events()
+print(f"seeded {seed} events in {time.perf_counter() - started:.1f}s", flush=True)
+
+conn = http.client.HTTPConnection(target.hostname, target.port or 80)
+summary = {}
+for name, query in queries.items():
+    aggregate(conn, query)
+    results = [aggregate(conn, query) for _ in range(runs)]
+    micros = sorted(r["elapsedMicros"] for r in results)
+    p50 = max(micros[len(micros) // 2], 1)
+    rows, threads = results[0]["scannedRows"], results[0]["threads"]
+    summary[name] = {"query": query, "scanned_rows": rows, "matched_rows": results[0]["matchedRows"],
+                     "groups": results[0]["groupCount"], "threads": threads, "scan_p50_ms": round(p50 / 1000, 2),
+                     "scan_max_ms": round(micros[-1] / 1000, 2),
+                     "rows_per_second": round(rows / (p50 / 1e6)),
+                     "rows_per_second_per_thread": round(rows / (p50 / 1e6) / max(threads, 1))}
+    print(name, summary[name], flush=True)
+conn.close()
+
+with open(f"{result_dir}/summary.json", "w") as fh:
+    json.dump({"seed_events": seed, "runs": runs, "queries": summary}, fh, indent=2)
+with open(f"{result_dir}/summary.md", "w") as fh:
+    fh.write(f"# Analytics event store scans ({seed} events, {runs} runs per query)\n\n")
+    fh.write("| query | scanned rows | groups | threads | scan p50 ms | scan max ms | rows/s | rows/s/thread |\n"
+             "|---|---|---|---|---|---|---|---|\n")
+    for name, s in summary.items():
+        fh.write(f"| {name} | {s['scanned_rows']} | {s['groups']} | {s['threads']} | {s['scan_p50_ms']} | "
+                 f"{s['scan_max_ms']} | {s['rows_per_second']} | {s['rows_per_second_per_thread']} |\n")
+print(open(f"{result_dir}/summary.md").read())
+PY
+
+echo "Results written to $RESULT_DIR"
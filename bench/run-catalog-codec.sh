@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Compares the catalog cache codecs: JMH encode/decode timings for a typical product, then the Redis memory taken by
+# PRODUCTS cached products written with each codec. The Redis database at REDIS_URL is flushed.
+
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULT_BASE="$ROOT_DIR/bench/results"
+CATALOG_DIR="$ROOT_DIR/services/quarkus/catalog-service"
+REDIS_URL="${REDIS_URL:-redis://localhost:6379}"
+PRODUCTS="${PRODUCTS:-100000}"
+JMH_ARGS="${JMH_ARGS:-}"
+
+for cmd in mvn java; do
+  if ! command -v "$cmd" >/dev/null 2>&1; then
+    echo "required command '$cmd' is missing" >&2
+    exit 1
+  fi
+done
+
+timestamp="$(date -u +"%Y%m%dT%H%M%SZ")"
+RESULT_DIR="$RESULT_BASE/${timestamp}--catalog-codec"
+mkdir -p "$RESULT_DIR"
+
+(cd "$CATALOG_DIR" && mvn -B -q -Pjmh test-compile dependency:build-classpath \
+  -Dmdep.includeScope=test -Dmdep.outputFile="$RESULT_DIR/classpath.txt")
+CLASSPATH="$CATALOG_DIR/target/test-classes:$CATALOG_DIR/target/classes:$(cat "$RESULT_DIR/classpath.txt")"
+
+# shellcheck disable=SC2086
+java -cp "$CLASSPATH" org.openjdk.jmh.Main CachedProductCodecBenchmark \
+  -rf json -rff "$RESULT_DIR/jmh.json" $JMH_ARGS | tee "$RESULT_DIR/jmh.txt"
+
+java -cp "$CLASSPATH" com.acmecorp.catalog.service.CachedProductRedisFootprint "$REDIS_URL" "$PRODUCTS" \
+  | tee "$RESULT_DIR/redis-memory.txt"
+
+rm -f "$RESULT_DIR/classpath.txt"
+echo "Results written to $RESULT_DIR"
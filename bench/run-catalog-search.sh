@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Compares ranked catalog searches against the in-memory index with the linear scan behind LIKE '%term%', over
+# PRODUCTS synthetic products (1M by default). Needs about 3 GB of heap.
+
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULT_BASE="$ROOT_DIR/bench/results"
+CATALOG_DIR="$ROOT_DIR/services/quarkus/catalog-service"
+PRODUCTS="${PRODUCTS:-1000000}"
+JMH_ARGS="${JMH_ARGS:-}"
+
+for cmd in mvn java; do
+  if ! command -v "$cmd" >/dev/null 2>&1; then
+    echo "required command '$cmd' is missing" >&2
+    exit 1
+  fi
+done
+
+timestamp="$(date -u +"%Y%m%dT%H%M%SZ")"
+RESULT_DIR="$RESULT_BASE/${timestamp}--catalog-search"
+mkdir -p "$RESULT_DIR"
+
+(cd "$CATALOG_DIR" && mvn -B -q -Pjmh test-compile dependency:build-classpath \
+  -Dmdep.includeScope=test -Dmdep.outputFile="$RESULT_DIR/classpath.txt")
+CLASSPATH="$CATALOG_DIR/target/test-classes:$CATALOG_DIR/target/classes:$(cat "$RESULT_DIR/classpath.txt")"
+
+# shellcheck disable=SC2086
+java -cp "$CLASSPATH" org.openjdk.jmh.Main ProductSearchIndexBenchmark -p products="$PRODUCTS" \
+  -rf json -rff "$RESULT_DIR/jmh.json" $JMH_ARGS | tee "$RESULT_DIR/jmh.txt"
+
+rm -f "$RESULT_DIR/classpath.txt"
+echo "Results written to $RESULT_DIR"
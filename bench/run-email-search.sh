@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Measures GET /api/orders?customerEmail=... latency for the three search shapes (complete address,
+# short prefix, substring) against a running orders-service. Run it once on a build without the
+# normalized email column and once with it, against the same database, and compare the summaries.
+
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULT_BASE="$ROOT_DIR/bench/results"
+ORDERS_URL="${ORDERS_URL:-http://localhost:8081}"
+SEED_ORDERS="${SEED_ORDERS:-10000000}"
+SEED_PARALLELISM="${SEED_PARALLELISM:-4}"
+ITERATIONS="${ITERATIONS:-20}"
+WARMUP="${WARMUP:-5}"
+LABEL="${LABEL:-current}"
+
+for cmd in curl python3; do
+  if ! command -v "$cmd" >/dev/null 2>&1; then
+    echo "required command '$cmd' is missing" >&2
+    exit 1
+  fi
+done
+
+timestamp="$(date -u +"%Y%m%dT%H%M%SZ")"
+RESULT_DIR="$RESULT_BASE/${timestamp}--email-search-${LABEL}"
+mkdir -p "$RESULT_DIR"
+
+if [[ "$SEED_ORDERS" -gt 0 ]]; then
+  echo "Seeding ${SEED_ORDERS} orders via bulk loader..."
+  curl -fsS -X POST "${ORDERS_URL}/api/orders/seed/bulk?orders=${SEED_ORDERS}&parallelism=${SEED_PARALLELISM}" \
+    >"$RESULT_DIR/seed.json"
+  cat "$RESULT_DIR/seed.json"
+  echo
+fi
+
+# Seed customers are seed+<n>@acme.test; pick inputs that hit each strategy.
+middle=$(( SEED_ORDERS > 0 ? SEED_ORDERS / 2 : 4242 ))
+declare -A queries=(
+  [exact]="seed%2B${middle}%40acme.test"
+  [prefix]="se"
+  [contains]="%2B${middle}%40"
+)
+
+samples_file="$RESULT_DIR/samples.csv"
+echo "strategy,iteration,seconds" >"$samples_file"
+for strategy in exact prefix contains; do
+  url="${ORDERS_URL}/api/orders?customerEmail=${queries[$strategy]}&size=20"
+  echo "Measuring ${strategy}: ${url}"
+  for i in $(seq 1 "$WARMUP"); do
+    curl -fsS -o /dev/null "$url"
+  done
+  for i in $(seq 1 "$ITERATIONS"); do
+    seconds="$(curl -fsS -o /dev/null -w "%{time_total}" "$url")"
+    echo "${strategy},${i},${seconds}" >>"$samples_file"
+  done
+done
+
+python3 - "$samples_file" "$RESULT_DIR" "$LABEL" <<'PY'
+import csv, json, sys
+
+samples_file, result_dir, label = sys.argv[1:4]
+by_strategy = {}
+with open(samples_file) as fh:
+    for row in csv.DictReader(fh):
+        by_strategy.setdefault(row["strategy"], []).append(float(row["seconds"]) * 1000)
+
+def pct(values, p):
+    ordered = sorted(values)
+    return ordered[min(len(ordered) - 1, int(round(p / 100 * (len(ordered) - 1))))]
+
+summary = {
+    name: {"p50_ms": round(pct(v, 50), 1), "p95_ms": round(pct(v, 95), 1), "max_ms": round(max(v), 1)}
+    for name, v in by_strategy.items()
+}
+with open(f"{result_dir}/summary.json", "w") as fh:
+    json.dump({"label": label, "strategies": summary}, fh, indent=2)
+with open(f"{result_dir}/summary.md", "w") as fh:
+    fh.write(f"# Email search latency: {label}\n\n| strategy | p50 ms | p95 ms | max ms |\n|---|---|---|---|\n")
+    for name, s in summary.items():
+        fh.write(f"| {name} | {s['p50_ms']} | {s['p95_ms']} | {s['max_ms']} |\n")
+print(open(f"{result_dir}/summary.md").read())
+PY
+
+echo "Results written to $RESULT_DIR"
@@ -0,0 +1,126 @@
+package com.acmecorp.catalog.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranked searches against an index of {@code products} synthetic products, next to the linear scan that
+ * {@code lower(name) like '%term%' or lower(description) like '%term%'} amounts to: every active product is read and
+ * matched, and the page is only cut after sorting. Both return the first page of 100.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class ProductSearchIndexBenchmark {
+
+    private static final int PAGE = 100;
+    private static final String[] BRANDS = {"Acme", "Globex", "Initech", "Umbrella", "Hooli", "Stark", "Wayne",
+            "Wonka", "Cyberdyne", "Tyrell"};
+    private static final String[] NOUNS = {"Streamer", "Backup", "Vault", "Gateway", "Monitor", "Analytics", "Mailer",
+            "Scheduler", "Ledger", "Router", "Archive", "Console", "Sensor", "Tracker", "Notebook", "Planner"};
+    private static final String[] TIERS = {"Lite", "Pro", "Team", "Enterprise", "Plus"};
+    private static final String[] CATEGORIES = {"SAAS", "ADDON", "STORAGE"};
+
+    @Param("1000000")
+    public int products;
+
+    private ProductTextIndex index;
+    private List<String[]> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> vocabulary = vocabulary(20_000);
+        index = new ProductTextIndex();
+        rows = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            String sku = "SKU-" + i;
+            String name = pick(random, BRANDS) + " " + pick(random, NOUNS) + " " + pick(random, TIERS);
+            StringBuilder description = new StringBuilder();
+            for (int word = 0, words = 8 + random.nextInt(12); word < words; word++) {
+                description.append(word == 0 ? "" : " ").append(vocabulary.get(zipf(random, vocabulary.size())));
+            }
+            String category = pick(random, CATEGORIES);
+            index.add(UUID.randomUUID(), sku, name, description.toString(), category);
+            rows.add(new String[] {name.toLowerCase(Locale.ROOT), description.toString().toLowerCase(Locale.ROOT)});
+        }
+    }
+
+    @Benchmark
+    public List<UUID> indexSingleTerm() {
+        return index.search("vault", null, 0, PAGE).ids();
+    }
+
+    @Benchmark
+    public List<UUID> indexTwoTerms() {
+        return index.search("acme streamer", null, 0, PAGE).ids();
+    }
+
+    @Benchmark
+    public List<UUID> indexPrefixAsTyped() {
+        return index.search("globex sched", null, 0, PAGE).ids();
+    }
+
+    @Benchmark
+    public List<UUID> indexRareTermInCategory() {
+        return index.search("w19999", "STORAGE", 0, PAGE).ids();
+    }
+
+    @Benchmark
+    public List<String[]> likeScanSingleTerm() {
+        return likeScan("vault");
+    }
+
+    @Benchmark
+    public List<String[]> likeScanRareTerm() {
+        return likeScan("w19999");
+    }
+
+    private List<String[]> likeScan(String term) {
+        List<String[]> matches = new ArrayList<>();
+        for (String[] row : rows) {
+            if (row[0].contains(term) || row[1].contains(term)) {
+                matches.add(row);
+            }
+        }
+        matches.sort((left, right) -> left[0].compareTo(right[0]));
+        return matches.subList(0, Math.min(PAGE, matches.size()));
+    }
+
+    private static List<String> vocabulary(int size) {
+        List<String> words = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            words.add("w" + i);
+        }
+        return words;
+    }
+
+    // Word frequencies in descriptions roughly follow Zipf's law, so a few terms are very common.
+    private static int zipf(SplittableRandom random, int size) {
+        return (int) Math.min(size - 1, Math.floor(Math.pow(size, random.nextDouble())) - 1);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
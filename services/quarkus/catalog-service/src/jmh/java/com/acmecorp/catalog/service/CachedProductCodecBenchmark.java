@@ -0,0 +1,84 @@
+package com.acmecorp.catalog.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes a typical catalog product with each codec, the work the cache does on every put and L2 hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CachedProductCodecBenchmark {
+
+    private CachedProductCodec binary;
+    private CachedProductCodec json;
+    private CachedProduct product;
+    private byte[] binaryPayload;
+    private byte[] jsonPayload;
+
+    @Setup
+    public void setUp() {
+        binary = new BinaryCachedProductCodec();
+        json = new JsonCachedProductCodec(quarkusObjectMapper());
+        product = sampleProduct(UUID.randomUUID());
+        binaryPayload = binary.encode(product);
+        jsonPayload = json.encode(product);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binary.encode(product);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return json.encode(product);
+    }
+
+    @Benchmark
+    public CachedProduct decodeBinary() {
+        return binary.decode(binaryPayload);
+    }
+
+    @Benchmark
+    public CachedProduct decodeJson() {
+        return json.decode(jsonPayload);
+    }
+
+    // The settings Quarkus applies to the application's ObjectMapper.
+    static ObjectMapper quarkusObjectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    static CachedProduct sampleProduct(UUID id) {
+        Instant updatedAt = Instant.parse("2024-06-01T12:34:56.789123Z");
+        return new CachedProduct(id, "ACME-STREAM-" + id.toString().substring(0, 8), "Acme Streamer Pro",
+                "HD streaming subscription with analytics dashboard", new BigDecimal("49.00"), "USD", "SAAS", true,
+                Instant.parse("2024-01-01T00:00:00Z"), updatedAt, updatedAt.toEpochMilli() + 300_000L, 3L);
+    }
+}
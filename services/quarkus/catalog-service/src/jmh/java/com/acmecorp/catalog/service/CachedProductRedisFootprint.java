@@ -0,0 +1,84 @@
+package com.acmecorp.catalog.service;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.redis.client.Command;
+import io.vertx.redis.client.Redis;
+import io.vertx.redis.client.RedisConnection;
+import io.vertx.redis.client.Request;
+import io.vertx.redis.client.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Writes the same products to an empty Redis database with each codec, the way the cache does, and prints how much
+ * memory Redis needed per entry. Usage: {@code CachedProductRedisFootprint [redis-url] [products]}; the database is
+ * flushed before and after.
+ */
+public final class CachedProductRedisFootprint {
+
+    private static final int BATCH = 1_000;
+
+    private CachedProductRedisFootprint() {
+    }
+
+    public static void main(String[] args) {
+        String url = args.length > 0 ? args[0] : "redis://localhost:6379";
+        int products = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Map<String, CachedProductCodec> codecs = Map.of(
+                "json", new JsonCachedProductCodec(CachedProductCodecBenchmark.quarkusObjectMapper()),
+                "binary", new BinaryCachedProductCodec());
+        List<UUID> ids = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            ids.add(UUID.randomUUID());
+        }
+
+        Vertx vertx = Vertx.vertx();
+        try {
+            RedisConnection connection = await(Redis.createClient(vertx, url).connect().toCompletionStage());
+            System.out.printf("%-8s %10s %14s %16s %18s%n",
+                    "codec", "products", "payload bytes", "used_memory MiB", "bytes per product");
+            for (String name : List.of("json", "binary")) {
+                CachedProductCodec codec = codecs.get(name);
+                await(connection.send(Request.cmd(Command.FLUSHDB)).toCompletionStage());
+                long before = usedMemory(connection);
+                long payloadBytes = 0;
+                for (int from = 0; from < products; from += BATCH) {
+                    List<Request> batch = new ArrayList<>(BATCH);
+                    for (UUID id : ids.subList(from, Math.min(products, from + BATCH))) {
+                        byte[] payload = codec.encode(CachedProductCodecBenchmark.sampleProduct(id));
+                        payloadBytes += payload.length;
+                        batch.add(Request.cmd(Command.SET).arg(CatalogProductCache.productKey(id))
+                                .arg(Buffer.buffer(payload)).arg("PX").arg(300_000));
+                    }
+                    await(connection.batch(batch).toCompletionStage());
+                }
+                long used = usedMemory(connection) - before;
+                System.out.printf("%-8s %10d %14.1f %16.1f %18.1f%n", name, products,
+                        (double) payloadBytes / products, used / 1024.0 / 1024.0, (double) used / products);
+            }
+            await(connection.send(Request.cmd(Command.FLUSHDB)).toCompletionStage());
+            connection.close();
+        } finally {
+            vertx.close();
+        }
+    }
+
+    private static long usedMemory(RedisConnection connection) {
+        Response info = await(connection.send(Request.cmd(Command.INFO).arg("memory")).toCompletionStage());
+        for (String line : info.toString().split("\r\n")) {
+            if (line.startsWith("used_memory:")) {
+                return Long.parseLong(line.substring("used_memory:".length()).trim());
+            }
+        }
+        throw new IllegalStateException("INFO memory has no used_memory");
+    }
+
+    private static <T> T await(CompletionStage<T> stage) {
+        return stage.toCompletableFuture().join();
+    }
+}
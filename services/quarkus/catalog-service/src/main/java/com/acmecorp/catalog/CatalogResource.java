@@ -2,8 +2,11 @@ package com.acmecorp.catalog;
 
 import com.acmecorp.catalog.service.CatalogService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
+import org.jboss.resteasy.reactive.RestResponse;
 
 import java.util.List;
 import java.util.UUID;
@@ -13,16 +16,25 @@ import java.util.UUID;
 @Consumes(MediaType.APPLICATION_JSON)
 public class CatalogResource {
 
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final CatalogService catalogService;
 
     public CatalogResource(CatalogService catalogService) {
         this.catalogService = catalogService;
     }
 
+    // Without search, active products by name; with search, the best matches first. X-Total-Count tells callers
+    // how many products the listing has beyond this page.
     @GET
-    public List<Product> list(@QueryParam("category") String category,
-                              @QueryParam("search") String search) {
-        return catalogService.listProducts(category, search);
+    public RestResponse<List<Product>> list(@QueryParam("category") String category,
+                                            @QueryParam("search") String search,
+                                            @QueryParam("page") @DefaultValue("0") @Min(0) @Max(10_000) int page,
+                                            @QueryParam("size") @DefaultValue("100") @Min(1) @Max(500) int size) {
+        ProductPage listing = catalogService.listProducts(category, search, page, size);
+        return RestResponse.ResponseBuilder.ok(listing.products())
+                .header(TOTAL_COUNT_HEADER, listing.total())
+                .build();
     }
 
     @GET
@@ -31,6 +43,12 @@ public class CatalogResource {
         return catalogService.getProductById(id);
     }
 
+    @POST
+    @Path("/batch")
+    public ProductBatchResponse batch(@Valid ProductBatchRequest request) {
+        return catalogService.getProductsByIds(request.ids());
+    }
+
     @POST
     public Product create(@Valid ProductRequest request) {
         return catalogService.createProduct(request);
@@ -0,0 +1,11 @@
+package com.acmecorp.catalog;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ProductBatchRequest(
+        @NotNull @Size(max = 500) List<String> ids
+) {
+}
@@ -0,0 +1,9 @@
+package com.acmecorp.catalog;
+
+import java.util.List;
+
+public record ProductBatchResponse(
+        List<Product> products,
+        List<String> missingIds
+) {
+}
@@ -0,0 +1,12 @@
+package com.acmecorp.catalog;
+
+import java.util.List;
+
+/**
+ * One page of a product listing, with how many products the whole listing has.
+ */
+public record ProductPage(
+        List<Product> products,
+        long total
+) {
+}
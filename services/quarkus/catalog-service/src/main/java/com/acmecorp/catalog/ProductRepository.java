@@ -1,6 +1,8 @@
 package com.acmecorp.catalog;
 
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.util.List;
@@ -9,20 +11,18 @@ import java.util.UUID;
 @ApplicationScoped
 public class ProductRepository implements PanacheRepositoryBase<Product, UUID> {
 
-    public List<Product> active(String category, String search) {
-        StringBuilder query = new StringBuilder("active = true");
-        if (category != null && !category.isBlank()) {
-            query.append(" and lower(category) = ?1");
-            if (search != null && !search.isBlank()) {
-                query.append(" and (lower(name) like ?2 or lower(description) like ?2)");
-                return list(query.toString(), category.toLowerCase(), "%" + search.toLowerCase() + "%");
-            }
-            return list(query.toString(), category.toLowerCase());
-        }
-        if (search != null && !search.isBlank()) {
-            query.append(" and (lower(name) like ?1 or lower(description) like ?1)");
-            return list(query.toString(), "%" + search.toLowerCase() + "%");
-        }
-        return list(query.toString());
+    // Text search goes through ProductSearchIndex; this only pages through the active products by name.
+    public List<Product> active(String category, int page, int size) {
+        Sort sort = Sort.by("name").and("id");
+        PanacheQuery<Product> query = category != null && !category.isBlank()
+                ? find("active = true and lower(category) = ?1", sort, category.toLowerCase())
+                : find("active = true", sort);
+        return query.page(page, size).list();
+    }
+
+    public long countActive(String category) {
+        return category != null && !category.isBlank()
+                ? count("active = true and lower(category) = ?1", category.toLowerCase())
+                : count("active = true");
     }
 }
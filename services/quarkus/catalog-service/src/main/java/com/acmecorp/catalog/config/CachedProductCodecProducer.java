@@ -0,0 +1,26 @@
+package com.acmecorp.catalog.config;
+
+import com.acmecorp.catalog.service.BinaryCachedProductCodec;
+import com.acmecorp.catalog.service.CachedProductCodec;
+import com.acmecorp.catalog.service.CatalogCacheProperties;
+import com.acmecorp.catalog.service.JsonCachedProductCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class CachedProductCodecProducer {
+
+    // Whichever codec writes, the other keeps reading entries written before catalog.cache.codec changed.
+    @Produces
+    @ApplicationScoped
+    public CachedProductCodec cachedProductCodec(CatalogCacheProperties cacheProperties, ObjectMapper objectMapper) {
+        CachedProductCodec binary = new BinaryCachedProductCodec();
+        CachedProductCodec json = new JsonCachedProductCodec(objectMapper);
+        return switch (cacheProperties.codec()) {
+            case BINARY -> CachedProductCodec.withFallback(binary, json);
+            case JSON -> CachedProductCodec.withFallback(json, binary);
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.acmecorp.catalog.messaging;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+@ConfigMapping(prefix = "catalog.events")
+public interface CatalogEventsProperties {
+
+    @WithDefault("true")
+    boolean enabled();
+
+    @WithDefault("catalog.product-changes")
+    String exchange();
+
+    Rabbitmq rabbitmq();
+
+    interface Rabbitmq {
+
+        @WithDefault("localhost")
+        String host();
+
+        @WithDefault("5672")
+        int port();
+
+        @WithDefault("guest")
+        String username();
+
+        @WithDefault("guest")
+        String password();
+
+        @WithDefault("PT2S")
+        Duration connectionTimeout();
+    }
+}
@@ -0,0 +1,17 @@
+package com.acmecorp.catalog.messaging;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ProductChangeEvent(UUID productId, Type type, Instant changedAt) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DEACTIVATED
+    }
+
+    public static ProductChangeEvent of(UUID productId, Type type) {
+        return new ProductChangeEvent(productId, type, Instant.now());
+    }
+}
@@ -0,0 +1,10 @@
+package com.acmecorp.catalog.messaging;
+
+/**
+ * Announces committed product changes to other services so they can drop their own copies of the product.
+ * Implementations must not throw: a lost event only delays consumers until their cache TTL expires.
+ */
+public interface ProductChangePublisher {
+
+    void publish(ProductChangeEvent event);
+}
@@ -0,0 +1,112 @@
+package com.acmecorp.catalog.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.BuiltinExchangeType;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+import com.rabbitmq.client.MessageProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Publishes product changes as JSON to a fanout exchange with the plain AMQP client. Sends happen on a single
+ * background thread so a slow or unreachable broker never holds up the committing request, and events for the
+ * same product leave in commit order. The connection is opened lazily and reopened after a failed send.
+ */
+@ApplicationScoped
+public class RabbitProductChangePublisher implements ProductChangePublisher {
+
+    private static final Logger LOG = Logger.getLogger(RabbitProductChangePublisher.class);
+    private static final AMQP.BasicProperties MESSAGE_PROPERTIES = MessageProperties.PERSISTENT_BASIC.builder()
+            .contentType("application/json")
+            .build();
+
+    private final CatalogEventsProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ConnectionFactory connectionFactory;
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("catalog-events").daemon().factory());
+    private final Counter publishedEvents;
+    private final Counter failedEvents;
+
+    private Connection connection;
+    private Channel channel;
+
+    public RabbitProductChangePublisher(CatalogEventsProperties properties,
+                                        ObjectMapper objectMapper,
+                                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.connectionFactory = new ConnectionFactory();
+        connectionFactory.setHost(properties.rabbitmq().host());
+        connectionFactory.setPort(properties.rabbitmq().port());
+        connectionFactory.setUsername(properties.rabbitmq().username());
+        connectionFactory.setPassword(properties.rabbitmq().password());
+        connectionFactory.setConnectionTimeout((int) properties.rabbitmq().connectionTimeout().toMillis());
+        connectionFactory.setAutomaticRecoveryEnabled(false);
+        this.publishedEvents = Counter.builder("acmecorp.catalog.events.published")
+                .description("Product change events handed to RabbitMQ")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("acmecorp.catalog.events.failed")
+                .description("Product change events that could not be published")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(ProductChangeEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        sender.execute(() -> send(event));
+    }
+
+    private void send(ProductChangeEvent event) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(event);
+            channel().basicPublish(properties.exchange(), "", MESSAGE_PROPERTIES, body);
+            publishedEvents.increment();
+        } catch (Exception exception) {
+            failedEvents.increment();
+            LOG.warnf("Could not publish %s event for product %s: %s",
+                    event.type(), event.productId(), exception.getMessage());
+            closeQuietly();
+        }
+    }
+
+    private Channel channel() throws Exception {
+        if (channel == null || !channel.isOpen()) {
+            closeQuietly();
+            connection = connectionFactory.newConnection("catalog-service");
+            channel = connection.createChannel();
+            channel.exchangeDeclare(properties.exchange(), BuiltinExchangeType.FANOUT, true);
+        }
+        return channel;
+    }
+
+    private void closeQuietly() {
+        try {
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (Exception ignored) {
+            // The connection is being discarded either way.
+        } finally {
+            connection = null;
+            channel = null;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.execute(this::closeQuietly);
+        sender.shutdown();
+    }
+}
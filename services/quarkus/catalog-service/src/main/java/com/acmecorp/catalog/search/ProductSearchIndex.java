@@ -0,0 +1,239 @@
+package com.acmecorp.catalog.search;
+
+import com.acmecorp.catalog.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Named;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.TypedQuery;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text index of the active products, held in memory by every replica. It is built from the database at
+ * startup and then kept current product by product: {@link #reindex} is called after this replica commits a change
+ * and when the invalidation channel announces the changes of any replica, and {@link #rebuild} when announcements
+ * may have been missed.
+ * <p>
+ * Changed products are reloaded in batches by a single drain task on a virtual thread. A product changed while its
+ * batch is being loaded is queued again, so the index converges on the committed state.
+ */
+@ApplicationScoped
+public class ProductSearchIndex {
+
+    private static final Logger LOG = Logger.getLogger(ProductSearchIndex.class);
+    private static final int RELOAD_BATCH = 1_000;
+    private static final int REBUILD_PAGE = 10_000;
+    private static final long READY_TIMEOUT_SECONDS = 10;
+    private static final long REBUILD_RETRY_MILLIS = 5_000;
+    private static final String ACTIVE_PRODUCTS =
+            "select p.id, p.sku, p.name, p.description, p.category from Product p where p.active = true";
+
+    private final ProductRepository productRepository;
+    private final ExecutorService executor;
+    private final Timer searchTimer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<UUID> changed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile boolean rebuildRequested;
+    private ProductTextIndex index = new ProductTextIndex();
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Named("virtualThreadExecutor") ExecutorService executor,
+                              MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.executor = executor;
+        this.searchTimer = Timer.builder("acmecorp.catalog.search")
+                .description("Latency of ranked product searches against the in-memory index")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.catalog.search.products", this, ProductSearchIndex::size)
+                .description("Active products in the search index")
+                .register(meterRegistry);
+    }
+
+    // After CatalogDataInitializer, so that the first build sees the initial products.
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION + 600) StartupEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Ids of the active products matching {@code query}, best first, and how many match in all. Waits for the first
+     * build to finish.
+     */
+    public Results search(String query, String category, int offset, int limit) {
+        awaitReady();
+        long started = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            ProductTextIndex.Hits hits = index.search(query, category, offset, limit);
+            return new Results(hits.ids(), hits.total());
+        } finally {
+            lock.readLock().unlock();
+            searchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void reindex(UUID productId) {
+        changed.add(productId);
+        scheduleDrain();
+    }
+
+    public void reindex(Collection<UUID> productIds) {
+        changed.addAll(productIds);
+        scheduleDrain();
+    }
+
+    public void rebuild() {
+        rebuildRequested = true;
+        scheduleDrain();
+    }
+
+    private void awaitReady() {
+        try {
+            ready.get(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException exception) {
+            throw new ServiceUnavailableException("Product search index is not built yet");
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Product search index is not built yet");
+        }
+    }
+
+    private double size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException exception) {
+            draining.set(false);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (rebuildRequested || !changed.isEmpty()) {
+                if (rebuildRequested) {
+                    rebuildRequested = false;
+                    buildAndSwap();
+                } else {
+                    reload(takeChanged());
+                }
+            }
+        } catch (RuntimeException exception) {
+            LOG.warnf("Product search index update failed, retrying: %s", exception.getMessage());
+            rebuildRequested = true;
+            sleepBeforeRetry();
+        } finally {
+            draining.set(false);
+        }
+        if (rebuildRequested || !changed.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void buildAndSwap() {
+        long started = System.nanoTime();
+        ProductTextIndex fresh = new ProductTextIndex();
+        List<Object[]> page = QuarkusTransaction.requiringNew().call(() -> activeProducts(null));
+        while (!page.isEmpty()) {
+            page.forEach(row -> add(fresh, row));
+            UUID last = (UUID) page.get(page.size() - 1)[0];
+            page = page.size() < REBUILD_PAGE
+                    ? List.of()
+                    : QuarkusTransaction.requiringNew().call(() -> activeProducts(last));
+        }
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready.complete(null);
+        LOG.infof("Product search index built: %d products in %d ms", fresh.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private List<Object[]> activeProducts(UUID after) {
+        TypedQuery<Object[]> query = productRepository.getEntityManager()
+                .createQuery(ACTIVE_PRODUCTS + (after != null ? " and p.id > :after" : "") + " order by p.id",
+                        Object[].class)
+                .setMaxResults(REBUILD_PAGE);
+        if (after != null) {
+            query.setParameter("after", after);
+        }
+        return query.getResultList();
+    }
+
+    private void reload(List<UUID> productIds) {
+        List<Object[]> rows = QuarkusTransaction.requiringNew().call(() -> productRepository.getEntityManager()
+                .createQuery(ACTIVE_PRODUCTS + " and p.id in :ids", Object[].class)
+                .setParameter("ids", productIds)
+                .getResultList());
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(index::remove);
+            rows.forEach(row -> add(index, row));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<UUID> takeChanged() {
+        List<UUID> batch = new ArrayList<>(Math.min(changed.size(), RELOAD_BATCH));
+        Iterator<UUID> iterator = changed.iterator();
+        while (iterator.hasNext() && batch.size() < RELOAD_BATCH) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    private static void add(ProductTextIndex index, Object[] row) {
+        index.add((UUID) row[0], (String) row[1], (String) row[2], (String) row[3], (String) row[4]);
+    }
+
+    private static void sleepBeforeRetry() {
+        try {
+            Thread.sleep(REBUILD_RETRY_MILLIS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public record Results(List<UUID> ids, int total) {
+    }
+}
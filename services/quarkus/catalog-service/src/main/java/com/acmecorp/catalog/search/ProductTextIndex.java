@@ -0,0 +1,337 @@
+package com.acmecorp.catalog.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the sku, name and description of products, ranked with BM25. Name and sku tokens weigh more
+ * than description tokens. Every query term must match a token of the product, the last one as a prefix once it
+ * has {@link #MIN_PREFIX_LENGTH} characters, so results narrow as a user types. A prefix matches through all of
+ * its expansions, however many there are.
+ * <p>
+ * A product is replaced by removing it and adding it again. Removed documents stay in the postings, skipped and left
+ * out of the idf, until they outnumber the live ones, when the postings are compacted. Not thread-safe: {@link ProductSearchIndex} guards it.
+ */
+final class ProductTextIndex {
+
+    static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_TOKEN_LENGTH = 40;
+    private static final int NAME_WEIGHT = 3;
+    private static final int SKU_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<UUID, Integer> docsById = new HashMap<>();
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+    private final BitSet removed = new BitSet();
+    private long[] idBits = new long[1024];
+    private int[] lengths = new int[512];
+    private int[] categories = new int[512];
+    private int docs;
+    private int removedDocs;
+    private int live;
+    private long totalLength;
+
+    void add(UUID id, String sku, String name, String description, String category) {
+        remove(id);
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addTokens(frequencies, name, NAME_WEIGHT)
+                + addTokens(frequencies, sku, SKU_WEIGHT)
+                + addTokens(frequencies, description, DESCRIPTION_WEIGHT);
+
+        int doc = docs++;
+        if (doc == lengths.length) {
+            lengths = Arrays.copyOf(lengths, doc * 2);
+            categories = Arrays.copyOf(categories, doc * 2);
+            idBits = Arrays.copyOf(idBits, doc * 4);
+        }
+        idBits[2 * doc] = id.getMostSignificantBits();
+        idBits[2 * doc + 1] = id.getLeastSignificantBits();
+        lengths[doc] = length;
+        categories[doc] = categoryCodes.computeIfAbsent(normalizeCategory(category),
+                ignored -> categoryCodes.size());
+        frequencies.forEach((term, frequency) ->
+                terms.computeIfAbsent(term, ignored -> new Postings()).add(doc, frequency));
+        docsById.put(id, doc);
+        live++;
+        totalLength += length;
+    }
+
+    void remove(UUID id) {
+        Integer doc = docsById.remove(id);
+        if (doc == null) {
+            return;
+        }
+        removed.set(doc);
+        removedDocs++;
+        live--;
+        totalLength -= lengths[doc];
+        if (removedDocs > Math.max(live, 1024)) {
+            compact();
+        }
+    }
+
+    boolean contains(UUID id) {
+        return docsById.containsKey(id);
+    }
+
+    int size() {
+        return live;
+    }
+
+    /**
+     * Returns the ids of the products matching {@code query}, best first, from {@code offset} on, and how many match
+     * in total. {@code category} is matched case-insensitively; null matches every category.
+     */
+    Hits search(String query, String category, int offset, int limit) {
+        List<String> queryTerms = tokens(query);
+        Integer categoryCode = category != null ? categoryCodes.get(normalizeCategory(category)) : null;
+        if (queryTerms.isEmpty() || live == 0 || (category != null && categoryCode == null)) {
+            return new Hits(List.of(), 0);
+        }
+
+        List<Matches> groups = new ArrayList<>(queryTerms.size());
+        for (int i = 0; i < queryTerms.size(); i++) {
+            String term = queryTerms.get(i);
+            boolean prefix = i == queryTerms.size() - 1 && term.length() >= MIN_PREFIX_LENGTH;
+            Matches matches = prefix ? prefixMatches(term) : exactMatches(term);
+            if (matches.size == 0) {
+                return new Hits(List.of(), 0);
+            }
+            groups.add(matches);
+        }
+        groups.sort(Comparator.comparingInt(matches -> matches.size));
+        Matches result = groups.get(0);
+        for (int i = 1; i < groups.size() && result.size > 0; i++) {
+            result = result.intersect(groups.get(i));
+        }
+
+        int wanted = offset + limit;
+        PriorityQueue<long[]> top = new PriorityQueue<>(Math.max(1, Math.min(wanted, result.size)),
+                ProductTextIndex::compareRank);
+        int total = 0;
+        for (int i = 0; i < result.size; i++) {
+            int doc = result.docs[i];
+            if (categoryCode != null && categories[doc] != categoryCode) {
+                continue;
+            }
+            total++;
+            float score = result.scores[i];
+            if (top.size() < wanted) {
+                top.add(new long[] {doc, Float.floatToIntBits(score)});
+            } else if (outranks(doc, score, top.peek())) {
+                top.poll();
+                top.add(new long[] {doc, Float.floatToIntBits(score)});
+            }
+        }
+        List<long[]> ranked = new ArrayList<>(top);
+        ranked.sort((left, right) -> compareRank(right, left));
+        List<UUID> ids = new ArrayList<>(Math.max(0, ranked.size() - offset));
+        for (int i = offset; i < ranked.size(); i++) {
+            int doc = (int) ranked.get(i)[0];
+            ids.add(new UUID(idBits[2 * doc], idBits[2 * doc + 1]));
+        }
+        return new Hits(ids, total);
+    }
+
+    static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+            }
+        }
+        return tokens;
+    }
+
+    // Ranked entries are {doc, score bits}: higher score first, then the earlier indexed product.
+    private static int compareRank(long[] left, long[] right) {
+        int byScore = Float.compare(Float.intBitsToFloat((int) left[1]), Float.intBitsToFloat((int) right[1]));
+        return byScore != 0 ? byScore : Long.compare(right[0], left[0]);
+    }
+
+    private static boolean outranks(int doc, float score, long[] ranked) {
+        int byScore = Float.compare(score, Float.intBitsToFloat((int) ranked[1]));
+        return byScore > 0 || (byScore == 0 && doc < ranked[0]);
+    }
+
+    private static String normalizeCategory(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+
+    private static int addTokens(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> tokens = tokens(text);
+        tokens.forEach(token -> frequencies.merge(token, weight, Integer::sum));
+        return tokens.size() * weight;
+    }
+
+    private Matches exactMatches(String term) {
+        Postings postings = terms.get(term);
+        return postings == null ? Matches.EMPTY : score(postings);
+    }
+
+    // Each matching term scores with its own idf; a product matching several counts its best term only. The union
+    // is kept per document number, so it costs no more than the documents however many terms share the prefix.
+    private Matches prefixMatches(String prefix) {
+        Collection<Postings> expansions = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        if (expansions.size() <= 1) {
+            return expansions.isEmpty() ? Matches.EMPTY : score(expansions.iterator().next());
+        }
+        BitSet matched = new BitSet(docs);
+        float[] best = new float[docs];
+        for (Postings postings : expansions) {
+            Matches matches = score(postings);
+            for (int i = 0; i < matches.size; i++) {
+                int doc = matches.docs[i];
+                if (!matched.get(doc) || matches.scores[i] > best[doc]) {
+                    matched.set(doc);
+                    best[doc] = matches.scores[i];
+                }
+            }
+        }
+        int[] docIds = new int[matched.cardinality()];
+        float[] scores = new float[docIds.length];
+        int size = 0;
+        for (int doc = matched.nextSetBit(0); doc >= 0; doc = matched.nextSetBit(doc + 1)) {
+            docIds[size] = doc;
+            scores[size++] = best[doc];
+        }
+        return new Matches(docIds, scores, size);
+    }
+
+    // The idf counts the live documents only, so it is known once removed ones have been skipped.
+    private Matches score(Postings postings) {
+        float averageLength = live == 0 ? 1 : (float) totalLength / live;
+        int[] docIds = new int[postings.size];
+        float[] scores = new float[postings.size];
+        int size = 0;
+        for (int i = 0; i < postings.size; i++) {
+            int doc = postings.docs[i];
+            if (removed.get(doc)) {
+                continue;
+            }
+            float frequency = postings.frequencies[i];
+            docIds[size] = doc;
+            scores[size++] = frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * lengths[doc] / averageLength));
+        }
+        float idf = (float) Math.log(1 + (live - size + 0.5) / (size + 0.5));
+        for (int i = 0; i < size; i++) {
+            scores[i] *= idf;
+        }
+        return new Matches(docIds, scores, size);
+    }
+
+    // Renumbers the live documents densely, in the same order, so that postings stay sorted.
+    private void compact() {
+        int[] renumbered = new int[docs];
+        int next = 0;
+        for (int doc = 0; doc < docs; doc++) {
+            if (removed.get(doc)) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            renumbered[doc] = next;
+            idBits[2 * next] = idBits[2 * doc];
+            idBits[2 * next + 1] = idBits[2 * doc + 1];
+            lengths[next] = lengths[doc];
+            categories[next] = categories[doc];
+            next++;
+        }
+        terms.values().removeIf(postings -> postings.renumber(renumbered) == 0);
+        docsById.replaceAll((id, doc) -> renumbered[doc]);
+        docs = next;
+        removed.clear();
+        removedDocs = 0;
+    }
+
+    record Hits(List<UUID> ids, int total) {
+    }
+
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private byte[] frequencies = new byte[4];
+        private int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size++] = (byte) Math.min(frequency, Byte.MAX_VALUE);
+        }
+
+        int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept++] = frequencies[i];
+                }
+            }
+            size = kept;
+            return size;
+        }
+    }
+
+    /**
+     * Documents sorted by number, with their scores.
+     */
+    private static final class Matches {
+
+        static final Matches EMPTY = new Matches(new int[0], new float[0], 0);
+
+        final int[] docs;
+        final float[] scores;
+        final int size;
+
+        Matches(int[] docs, float[] scores, int size) {
+            this.docs = docs;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        // Walks this, the smaller side, and binary-searches forward in the other.
+        Matches intersect(Matches other) {
+            int[] docIds = new int[size];
+            float[] sums = new float[size];
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < size && from < other.size; i++) {
+                int found = Arrays.binarySearch(other.docs, from, other.size, docs[i]);
+                if (found >= 0) {
+                    docIds[kept] = docs[i];
+                    sums[kept++] = scores[i] + other.scores[found];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            return new Matches(docIds, sums, kept);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.acmecorp.catalog.service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary form of a {@link CachedProduct}, a fraction of the size of its JSON and parsed without reflection.
+ * A payload starts with its format version, which never begins a JSON document, followed by:
+ * <ul>
+ *     <li>a flags byte: active, and which of price and the timestamps are present</li>
+ *     <li>the id as two longs</li>
+ *     <li>sku, name and description as varint length + 1 (0 for null) and UTF-8 bytes</li>
+ *     <li>currency and category as a varint code: 0 for null, 1 for a string that follows, or a dictionary entry</li>
+ *     <li>the price as zigzag varints of its scale and unscaled value, or as the bytes of an unscaled value too
+ *     large for a long</li>
+ *     <li>each timestamp as zigzag varints of epoch millis and the nanos within the millisecond, usually one byte</li>
+ *     <li>{@code expiresAt} and {@code loadMillis} as zigzag varints</li>
+ * </ul>
+ * The dictionaries belong to the version: anything but appending to them needs a new version. Payloads of an unknown
+ * version are rejected, which the cache treats as a miss.
+ */
+public class BinaryCachedProductCodec implements CachedProductCodec {
+
+    static final byte VERSION = 1;
+
+    private static final List<String> CURRENCIES = List.of(
+            "USD", "EUR", "GBP", "CHF", "JPY", "CAD", "AUD", "SEK", "NOK", "DKK", "PLN", "CZK");
+    private static final List<String> CATEGORIES = List.of("SAAS", "ADDON", "STORAGE");
+
+    private static final int ACTIVE = 1;
+    private static final int PRICE = 1 << 1;
+    private static final int LARGE_PRICE = 1 << 2;
+    private static final int CREATED_AT = 1 << 3;
+    private static final int UPDATED_AT = 1 << 4;
+
+    private static final int NULL_CODE = 0;
+    private static final int LITERAL_CODE = 1;
+    private static final int FIRST_DICTIONARY_CODE = 2;
+
+    @Override
+    public byte[] encode(CachedProduct product) {
+        if (product.id() == null) {
+            throw new IllegalArgumentException("Cached products need an id");
+        }
+        BigInteger unscaled = product.price() != null ? product.price().unscaledValue() : null;
+        boolean largePrice = unscaled != null && unscaled.bitLength() > 63;
+        int flags = (product.active() ? ACTIVE : 0)
+                | (product.price() != null ? PRICE : 0)
+                | (largePrice ? LARGE_PRICE : 0)
+                | (product.createdAt() != null ? CREATED_AT : 0)
+                | (product.updatedAt() != null ? UPDATED_AT : 0);
+
+        Writer writer = new Writer(64 + length(product.sku()) + length(product.name()) + length(product.description()));
+        writer.writeByte(VERSION);
+        writer.writeByte(flags);
+        writer.writeLong(product.id().getMostSignificantBits());
+        writer.writeLong(product.id().getLeastSignificantBits());
+        writer.writeString(product.sku());
+        writer.writeString(product.name());
+        writer.writeString(product.description());
+        writer.writeCoded(product.currency(), CURRENCIES);
+        writer.writeCoded(product.category(), CATEGORIES);
+        if (product.price() != null) {
+            writer.writeSigned(product.price().scale());
+            if (largePrice) {
+                writer.writeBytes(unscaled.toByteArray());
+            } else {
+                writer.writeSigned(unscaled.longValue());
+            }
+        }
+        writer.writeInstant(product.createdAt());
+        writer.writeInstant(product.updatedAt());
+        writer.writeSigned(product.expiresAt());
+        writer.writeSigned(product.loadMillis());
+        return writer.toByteArray();
+    }
+
+    @Override
+    public CachedProduct decode(byte[] payload) {
+        if (!canDecode(payload)) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " binary cached product");
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(payload, 1, payload.length - 1);
+            int flags = buffer.get();
+            UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            String sku = readString(buffer);
+            String name = readString(buffer);
+            String description = readString(buffer);
+            String currency = readCoded(buffer, CURRENCIES);
+            String category = readCoded(buffer, CATEGORIES);
+            BigDecimal price = null;
+            if ((flags & PRICE) != 0) {
+                int scale = Math.toIntExact(readSigned(buffer));
+                BigInteger unscaled = (flags & LARGE_PRICE) != 0
+                        ? new BigInteger(readBytes(buffer))
+                        : BigInteger.valueOf(readSigned(buffer));
+                price = new BigDecimal(unscaled, scale);
+            }
+            Instant createdAt = (flags & CREATED_AT) != 0 ? readInstant(buffer) : null;
+            Instant updatedAt = (flags & UPDATED_AT) != 0 ? readInstant(buffer) : null;
+            long expiresAt = readSigned(buffer);
+            long loadMillis = readSigned(buffer);
+            return new CachedProduct(id, sku, name, description, price, currency, category, (flags & ACTIVE) != 0,
+                    createdAt, updatedAt, expiresAt, loadMillis);
+        } catch (RuntimeException exception) {
+            throw new IllegalArgumentException("Malformed binary cached product", exception);
+        }
+    }
+
+    @Override
+    public boolean canDecode(byte[] payload) {
+        return payload.length > 0 && payload[0] == VERSION;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readUnsigned(buffer);
+        if (length == 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length - 1, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length - 1);
+        return value;
+    }
+
+    private static String readCoded(ByteBuffer buffer, List<String> dictionary) {
+        int code = (int) readUnsigned(buffer);
+        return switch (code) {
+            case NULL_CODE -> null;
+            case LITERAL_CODE -> readString(buffer);
+            default -> dictionary.get(code - FIRST_DICTIONARY_CODE);
+        };
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[(int) readUnsigned(buffer)];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static Instant readInstant(ByteBuffer buffer) {
+        long epochMillis = readSigned(buffer);
+        return Instant.ofEpochMilli(epochMillis).plusNanos(readUnsigned(buffer));
+    }
+
+    private static long readSigned(ByteBuffer buffer) {
+        long zigzag = readUnsigned(buffer);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static long readUnsigned(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte next = buffer.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 10 bytes");
+    }
+
+    private static final class Writer {
+
+        private byte[] bytes;
+        private int position;
+
+        Writer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[position++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeUnsigned(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        void writeSigned(long value) {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeUnsigned(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeUnsigned(utf8.length + 1L);
+            write(utf8);
+        }
+
+        void writeCoded(String value, List<String> dictionary) {
+            int index = value != null ? dictionary.indexOf(value) : -1;
+            if (value == null) {
+                writeUnsigned(NULL_CODE);
+            } else if (index < 0) {
+                writeUnsigned(LITERAL_CODE);
+                writeString(value);
+            } else {
+                writeUnsigned(FIRST_DICTIONARY_CODE + index);
+            }
+        }
+
+        void writeBytes(byte[] value) {
+            writeUnsigned(value.length);
+            write(value);
+        }
+
+        void writeInstant(Instant value) {
+            if (value != null) {
+                writeSigned(value.toEpochMilli());
+                writeUnsigned(value.getNano() % 1_000_000);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, position);
+        }
+
+        private void write(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, position, value.length);
+            position += value.length;
+        }
+
+        private void ensure(int extra) {
+            if (position + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + extra));
+            }
+        }
+    }
+}
@@ -6,6 +6,10 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * Product snapshot stored in the cache. {@code expiresAt} (epoch millis) and {@code loadMillis}, how long the
+ * datasource took to produce it, drive early refresh; both are 0 when unknown.
+ */
 public record CachedProduct(
         UUID id,
         String sku,
@@ -16,10 +20,12 @@ public record CachedProduct(
         String category,
         boolean active,
         Instant createdAt,
-        Instant updatedAt
+        Instant updatedAt,
+        long expiresAt,
+        long loadMillis
 ) {
 
-    static CachedProduct from(Product product) {
+    static CachedProduct from(Product product, long expiresAt, long loadMillis) {
         return new CachedProduct(
                 product.id,
                 product.sku,
@@ -30,7 +36,9 @@ public record CachedProduct(
                 product.category,
                 product.active,
                 product.createdAt,
-                product.updatedAt
+                product.updatedAt,
+                expiresAt,
+                loadMillis
         );
     }
 
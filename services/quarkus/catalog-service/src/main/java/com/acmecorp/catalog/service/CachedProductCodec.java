@@ -0,0 +1,25 @@
+package com.acmecorp.catalog.service;
+
+/**
+ * Serialized form of a {@link CachedProduct} in Redis. {@code catalog.cache.codec} picks the one products are
+ * written with; payloads of the other formats are still read, so the setting can change while Redis holds entries
+ * written with the previous one.
+ */
+public interface CachedProductCodec {
+
+    byte[] encode(CachedProduct product);
+
+    /**
+     * @throws IllegalArgumentException if the payload is not in a format this codec reads
+     */
+    CachedProduct decode(byte[] payload);
+
+    boolean canDecode(byte[] payload);
+
+    /**
+     * Returns a codec that writes with {@code primary} and reads what either codec reads.
+     */
+    static CachedProductCodec withFallback(CachedProductCodec primary, CachedProductCodec fallback) {
+        return new FallbackCachedProductCodec(primary, fallback);
+    }
+}
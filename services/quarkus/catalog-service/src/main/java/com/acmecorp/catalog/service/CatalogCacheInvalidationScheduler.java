@@ -1,5 +1,8 @@
 package com.acmecorp.catalog.service;
 
+import com.acmecorp.catalog.messaging.ProductChangeEvent;
+import com.acmecorp.catalog.messaging.ProductChangePublisher;
+import com.acmecorp.catalog.search.ProductSearchIndex;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Status;
 import jakarta.transaction.Synchronization;
@@ -13,19 +16,33 @@ public class CatalogCacheInvalidationScheduler {
 
     private final TransactionSynchronizationRegistry transactionSynchronizationRegistry;
     private final CatalogProductCache productCache;
+    private final ProductChangePublisher changePublisher;
+    private final ProductSearchIndex searchIndex;
 
     public CatalogCacheInvalidationScheduler(TransactionSynchronizationRegistry transactionSynchronizationRegistry,
-                                             CatalogProductCache productCache) {
+                                             CatalogProductCache productCache,
+                                             ProductChangePublisher changePublisher,
+                                             ProductSearchIndex searchIndex) {
         this.transactionSynchronizationRegistry = transactionSynchronizationRegistry;
         this.productCache = productCache;
+        this.changePublisher = changePublisher;
+        this.searchIndex = searchIndex;
     }
 
-    public void invalidateProductAfterCommit(UUID productId) {
-        registerAfterCommit(() -> productCache.invalidate(productId));
+    // The local Redis entry is dropped before the event goes out, so a consumer that reacts to the event by
+    // reading the product again cannot be served the old cached copy.
+    public void invalidateProductAfterCommit(UUID productId, ProductChangeEvent.Type changeType) {
+        registerAfterCommit(() -> invalidate(productId, changeType));
     }
 
-    public void invalidateProductsAfterCommit(List<UUID> productIds) {
-        registerAfterCommit(() -> productIds.forEach(productCache::invalidate));
+    public void invalidateProductsAfterCommit(List<UUID> productIds, ProductChangeEvent.Type changeType) {
+        registerAfterCommit(() -> productIds.forEach(productId -> invalidate(productId, changeType)));
+    }
+
+    private void invalidate(UUID productId, ProductChangeEvent.Type changeType) {
+        productCache.invalidate(productId);
+        searchIndex.reindex(productId);
+        changePublisher.publish(ProductChangeEvent.of(productId, changeType));
     }
 
     private void registerAfterCommit(Runnable action) {
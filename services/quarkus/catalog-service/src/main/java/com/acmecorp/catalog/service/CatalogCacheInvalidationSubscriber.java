@@ -0,0 +1,109 @@
+package com.acmecorp.catalog.service;
+
+import com.acmecorp.catalog.search.ProductSearchIndex;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.redis.datasource.pubsub.ReactivePubSubCommands;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Listens on {@code catalog.cache.invalidation-channel} and drops the announced products from this replica's L1
+ * and reindexes them for search. Pub/sub delivers at most once, so whenever the subscription is (re)established or
+ * lost the whole L1 is dropped instead, and the search index is rebuilt on resubscribing; the L1 TTL bounds staleness
+ * in the meantime. A lost subscription is retried with backoff.
+ */
+@ApplicationScoped
+public class CatalogCacheInvalidationSubscriber {
+
+    private static final Logger LOG = Logger.getLogger(CatalogCacheInvalidationSubscriber.class);
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final ReactivePubSubCommands<String> pubSubCommands;
+    private final CatalogProductCache productCache;
+    private final CatalogCacheMetrics cacheMetrics;
+    private final ProductSearchIndex searchIndex;
+    private final String channel;
+
+    private volatile boolean stopped;
+    private volatile boolean subscribedBefore;
+    private volatile ReactivePubSubCommands.ReactiveRedisSubscriber subscriber;
+
+    public CatalogCacheInvalidationSubscriber(RedisDataSource redisDataSource,
+                                              CatalogProductCache productCache,
+                                              CatalogCacheMetrics cacheMetrics,
+                                              CatalogCacheProperties cacheProperties,
+                                              ProductSearchIndex searchIndex) {
+        this.pubSubCommands = redisDataSource.getReactive().pubsub(String.class);
+        this.productCache = productCache;
+        this.cacheMetrics = cacheMetrics;
+        this.searchIndex = searchIndex;
+        this.channel = cacheProperties.invalidationChannel();
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        start();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        stop();
+    }
+
+    public void start() {
+        stopped = false;
+        pubSubCommands.subscribe(channel, this::onMessage, this::onLost, failure -> onLost())
+                .onFailure().invoke(failure -> LOG.warnf("Could not subscribe to %s, retrying: %s",
+                        channel, failure.getMessage()))
+                .onFailure().retry().withBackOff(INITIAL_BACKOFF, MAX_BACKOFF).indefinitely()
+                .subscribe().with(this::onSubscribed, failure -> LOG.errorf("Gave up subscribing to %s", channel));
+    }
+
+    public void stop() {
+        stopped = true;
+        ReactivePubSubCommands.ReactiveRedisSubscriber current = subscriber;
+        subscriber = null;
+        if (current != null) {
+            current.unsubscribe().subscribe().with(ignored -> { }, failure -> { });
+        }
+    }
+
+    private void onSubscribed(ReactivePubSubCommands.ReactiveRedisSubscriber subscribed) {
+        if (stopped) {
+            subscribed.unsubscribe().subscribe().with(ignored -> { }, failure -> { });
+            return;
+        }
+        subscriber = subscribed;
+        productCache.evictAllLocal();
+        // The first subscription comes with the startup build, which covers everything before it.
+        if (subscribedBefore) {
+            searchIndex.rebuild();
+        }
+        subscribedBefore = true;
+    }
+
+    private void onMessage(String message) {
+        try {
+            UUID productId = UUID.fromString(message);
+            productCache.evictLocal(productId);
+            searchIndex.reindex(productId);
+            cacheMetrics.recordInvalidationReceived();
+        } catch (IllegalArgumentException exception) {
+            LOG.warnf("Ignoring malformed product invalidation on %s: %s", channel, message);
+        }
+    }
+
+    private void onLost() {
+        productCache.evictAllLocal();
+        if (!stopped) {
+            LOG.warnf("Subscription to %s lost, resubscribing", channel);
+            subscriber = null;
+            start();
+        }
+    }
+}
@@ -12,10 +12,16 @@ public class CatalogCacheMetrics {
     public static final String GET_PRODUCT_BY_ID = "getProductById";
 
     private final Counter cacheHits;
+    private final Counter l1Hits;
+    private final Counter l2Hits;
     private final Counter cacheMisses;
     private final Counter cachePuts;
     private final Counter cacheErrors;
     private final Counter datasourceReads;
+    private final Counter invalidationsReceived;
+    private final Counter collapsedLoads;
+    private final Counter refreshSuccesses;
+    private final Counter refreshFailures;
     private final Timer cachedReadTimer;
 
     public CatalogCacheMetrics(MeterRegistry meterRegistry) {
@@ -24,6 +30,8 @@ public class CatalogCacheMetrics {
                 .tag("cache", CACHE_NAME)
                 .tag("operation", GET_PRODUCT_BY_ID)
                 .register(meterRegistry);
+        this.l1Hits = tierHitCounter(meterRegistry, "l1");
+        this.l2Hits = tierHitCounter(meterRegistry, "l2");
         this.cacheMisses = Counter.builder("acmecorp.catalog.cache.misses")
                 .description("Catalog cache misses")
                 .tag("cache", CACHE_NAME)
@@ -43,6 +51,17 @@ public class CatalogCacheMetrics {
                 .description("Catalog datasource reads performed because the cache could not satisfy a get-by-id lookup")
                 .tag("operation", GET_PRODUCT_BY_ID)
                 .register(meterRegistry);
+        this.invalidationsReceived = Counter.builder("acmecorp.catalog.cache.invalidations.received")
+                .description("Product invalidations received from catalog replicas, this one included")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        this.collapsedLoads = Counter.builder("acmecorp.catalog.cache.loads.collapsed")
+                .description("Cache misses that waited for a datasource load already running for the same product")
+                .tag("cache", CACHE_NAME)
+                .tag("operation", GET_PRODUCT_BY_ID)
+                .register(meterRegistry);
+        this.refreshSuccesses = refreshCounter(meterRegistry, "success");
+        this.refreshFailures = refreshCounter(meterRegistry, "failure");
         this.cachedReadTimer = Timer.builder("acmecorp.catalog.cache.read")
                 .description("Catalog get-by-id latency including cache lookup and datasource fallback")
                 .tag("cache", CACHE_NAME)
@@ -50,8 +69,14 @@ public class CatalogCacheMetrics {
                 .register(meterRegistry);
     }
 
-    public void recordHit() {
+    public void recordL1Hit() {
+        cacheHits.increment();
+        l1Hits.increment();
+    }
+
+    public void recordL2Hit() {
         cacheHits.increment();
+        l2Hits.increment();
     }
 
     public void recordMiss() {
@@ -70,7 +95,37 @@ public class CatalogCacheMetrics {
         datasourceReads.increment();
     }
 
+    public void recordInvalidationReceived() {
+        invalidationsReceived.increment();
+    }
+
+    public void recordCollapsedLoad() {
+        collapsedLoads.increment();
+    }
+
+    public void recordRefresh(boolean succeeded) {
+        (succeeded ? refreshSuccesses : refreshFailures).increment();
+    }
+
     public <T> T recordCachedRead(java.util.function.Supplier<T> supplier) {
         return cachedReadTimer.record(supplier);
     }
+
+    private static Counter tierHitCounter(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("acmecorp.catalog.cache.tier.hits")
+                .description("Catalog cache hits per tier: the in-process L1 or Redis (L2)")
+                .tag("cache", CACHE_NAME)
+                .tag("operation", GET_PRODUCT_BY_ID)
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("acmecorp.catalog.cache.refreshes")
+                .description("Cache entries reloaded from the datasource ahead of their expiry")
+                .tag("cache", CACHE_NAME)
+                .tag("operation", GET_PRODUCT_BY_ID)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 }
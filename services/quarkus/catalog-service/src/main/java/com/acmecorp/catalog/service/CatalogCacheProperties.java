@@ -1,6 +1,7 @@
 package com.acmecorp.catalog.service;
 
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
 
 import java.time.Duration;
 
@@ -8,4 +9,52 @@ import java.time.Duration;
 public interface CatalogCacheProperties {
 
     Duration productTtl();
+
+    /**
+     * Each Redis entry lives between {@code (1 - ttl-jitter) * product-ttl} and {@code product-ttl}, so entries
+     * written together do not expire together.
+     */
+    @WithDefault("0.1")
+    double ttlJitter();
+
+    /**
+     * XFetch beta: the larger, the earlier a read refreshes an entry ahead of its expiry. 0 disables early refresh.
+     */
+    @WithDefault("1.0")
+    double earlyRefreshBeta();
+
+    /**
+     * Format products are written to Redis in; entries in the other format are still read.
+     */
+    @WithDefault("binary")
+    Codec codec();
+
+    /**
+     * Redis pub/sub channel on which every replica announces the products it invalidated.
+     */
+    @WithDefault("catalog:product-invalidations")
+    String invalidationChannel();
+
+    L1 l1();
+
+    enum Codec {
+        BINARY,
+        JSON
+    }
+
+    /**
+     * Per-JVM copy of the hottest products in front of Redis.
+     */
+    interface L1 {
+
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("10000")
+        long maximumSize();
+
+        // Bounds how long a replica can serve a stale product if it misses an invalidation message.
+        @WithDefault("PT30S")
+        Duration ttl();
+    }
 }
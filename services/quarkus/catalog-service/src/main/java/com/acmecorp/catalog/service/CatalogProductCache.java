@@ -1,80 +1,472 @@
 package com.acmecorp.catalog.service;
 
 import com.acmecorp.catalog.Product;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.redis.datasource.RedisDataSource;
 import io.quarkus.redis.datasource.keys.KeyCommands;
+import io.quarkus.redis.datasource.pubsub.PubSubCommands;
 import io.quarkus.redis.datasource.string.SetArgs;
 import io.quarkus.redis.datasource.string.StringCommands;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Named;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
 
+/**
+ * Two-tier product cache: a bounded in-process L1 (Caffeine, W-TinyLFU admission) in front of the shared Redis
+ * L2, which holds products in the configured {@link CachedProductCodec}. L1 is only filled from L2 hits, and
+ * {@link #invalidate} announces the product on {@code catalog.cache.invalidation-channel} so that every replica
+ * drops its L1 copy through {@link CatalogCacheInvalidationSubscriber}.
+ * <p>
+ * An L2 read can race with an invalidation: a payload read before it must not land in L1 after it. An
+ * invalidation of the product received while reading L2 turns the L1 fill into a no-op. Invalidations are counted
+ * per stripe of product ids, so a write to one product does not void the fills of all the others.
+ * <p>
+ * {@link #getOrLoad} keeps an expiring hot product from turning into a burst of datasource reads: concurrent misses
+ * for the same product wait for a single load, Redis TTLs are jittered, and reads refresh an entry on a virtual
+ * thread shortly before it expires (XFetch), with a probability that rises as expiry nears. {@link #getAllOrLoad}
+ * takes part in the same collapsing, so a batch and a single read missing the same product share one load.
+ * <p>
+ * A load can race with an invalidation too: a product read from the datasource before it must not be written to
+ * Redis after it. A loaded product is only written while no invalidation of it has been received since the load
+ * began.
+ */
 @ApplicationScoped
 public class CatalogProductCache {
 
     private static final String PRODUCT_KEY_PREFIX = "catalog:product:";
+    // A power of two, so that a product's stripe is the low bits of its hash.
+    private static final int GENERATION_STRIPES = 1024;
 
-    private final StringCommands<String, String> stringCommands;
+    private final StringCommands<String, byte[]> stringCommands;
     private final KeyCommands<String> keyCommands;
-    private final ObjectMapper objectMapper;
+    private final PubSubCommands<String> pubSubCommands;
+    private final Redis redis;
+    private final CachedProductCodec codec;
     private final CatalogCacheProperties cacheProperties;
     private final CatalogCacheMetrics cacheMetrics;
+    private final ExecutorService refreshExecutor;
+    private final Cache<UUID, CachedProduct> l1;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final ConcurrentMap<UUID, CompletableFuture<CachedProduct>> loads = new ConcurrentHashMap<>();
+    private final Set<UUID> refreshing = ConcurrentHashMap.newKeySet();
 
     public CatalogProductCache(RedisDataSource redisDataSource,
-                               ObjectMapper objectMapper,
+                               Redis redis,
+                               CachedProductCodec codec,
                                CatalogCacheProperties cacheProperties,
-                               CatalogCacheMetrics cacheMetrics) {
-        this.stringCommands = redisDataSource.string(String.class);
+                               CatalogCacheMetrics cacheMetrics,
+                               @Named("virtualThreadExecutor") ExecutorService refreshExecutor) {
+        this.stringCommands = redisDataSource.string(byte[].class);
         this.keyCommands = redisDataSource.key();
-        this.objectMapper = objectMapper;
+        this.pubSubCommands = redisDataSource.pubsub(String.class);
+        this.redis = redis;
+        this.codec = codec;
         this.cacheProperties = cacheProperties;
         this.cacheMetrics = cacheMetrics;
+        this.refreshExecutor = refreshExecutor;
+        this.l1 = cacheProperties.l1().enabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(cacheProperties.l1().maximumSize())
+                        .expireAfterWrite(cacheProperties.l1().ttl())
+                        .build()
+                : null;
     }
 
     public Optional<Product> get(UUID productId) {
+        return lookup(productId).map(CachedProduct::toProduct);
+    }
+
+    /**
+     * Returns the cached product, or the one {@code loader} reads from the datasource, which is then cached. Only
+     * one load per product runs at a time in this JVM; concurrent misses wait for it and share its outcome,
+     * exceptions included.
+     */
+    public Product getOrLoad(UUID productId, Function<UUID, Product> loader) {
+        Optional<CachedProduct> cached = lookup(productId);
+        if (cached.isPresent()) {
+            refreshIfDue(cached.get(), loader);
+            return cached.get().toProduct();
+        }
+
+        CompletableFuture<CachedProduct> load = new CompletableFuture<>();
+        CompletableFuture<CachedProduct> running = loads.putIfAbsent(productId, load);
+        if (running != null) {
+            cacheMetrics.recordCollapsedLoad();
+            CachedProduct shared = await(running);
+            // A batch completes its loads with null for the products it did not find; let loader report that.
+            return shared != null ? shared.toProduct() : loadAndPut(productId, loader).toProduct();
+        }
+        try {
+            CachedProduct loaded = loadAndPut(productId, loader);
+            load.complete(loaded);
+            return loaded.toProduct();
+        } catch (RuntimeException exception) {
+            load.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            loads.remove(productId, load);
+        }
+    }
+
+    /**
+     * Batch form of {@link #getOrLoad}: products found in L1 or in one MGET are returned as they are, misses that
+     * another caller is already loading wait for that load, and {@code loader} is called once with all the others,
+     * which are then cached in one pipelined write. Products {@code loader} does not return are absent from the
+     * result.
+     */
+    public Map<UUID, Product> getAllOrLoad(Collection<UUID> productIds,
+                                           Function<List<UUID>, List<Product>> loader) {
+        Map<UUID, Product> products = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        lookupAll(productIds).forEach((productId, cached) -> {
+            if (cached == null) {
+                misses.add(productId);
+                return;
+            }
+            refreshIfDue(cached, id -> loader.apply(List.of(id)).stream().findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Product " + id + " no longer exists")));
+            products.put(productId, cached.toProduct());
+        });
+        if (misses.isEmpty()) {
+            return products;
+        }
+
+        Map<UUID, CompletableFuture<CachedProduct>> owned = new LinkedHashMap<>();
+        Map<UUID, CompletableFuture<CachedProduct>> joined = new LinkedHashMap<>();
+        for (UUID productId : misses) {
+            CompletableFuture<CachedProduct> load = new CompletableFuture<>();
+            CompletableFuture<CachedProduct> running = loads.putIfAbsent(productId, load);
+            if (running != null) {
+                cacheMetrics.recordCollapsedLoad();
+                joined.put(productId, running);
+            } else {
+                owned.put(productId, load);
+            }
+        }
+        if (!owned.isEmpty()) {
+            loadOwned(owned, loader).forEach((productId, cached) -> products.put(productId, cached.toProduct()));
+        }
+
+        // A failed single load may only mean that its loader throws for unknown products; ask ours instead.
+        List<UUID> failed = new ArrayList<>();
+        joined.forEach((productId, running) -> {
+            try {
+                CachedProduct shared = running.join();
+                if (shared != null) {
+                    products.put(productId, shared.toProduct());
+                }
+            } catch (CompletionException exception) {
+                failed.add(productId);
+            }
+        });
+        if (!failed.isEmpty()) {
+            loadAndPutAll(failed, loader).forEach((productId, cached) -> products.put(productId, cached.toProduct()));
+        }
+        return products;
+    }
+
+    public void put(Product product) {
+        put(product, 0L, generation(product.id));
+    }
+
+    // The local copy goes first so this replica never serves it again, even if Redis cannot be reached.
+    public void invalidate(UUID productId) {
+        evictLocal(productId);
+        try {
+            keyCommands.del(productKey(productId));
+            pubSubCommands.publish(cacheProperties.invalidationChannel(), productId.toString());
+        } catch (RuntimeException exception) {
+            cacheMetrics.recordError();
+        }
+    }
+
+    /**
+     * Drops the L1 copy of a product, without touching Redis.
+     */
+    public void evictLocal(UUID productId) {
+        generations.incrementAndGet(stripe(productId));
+        if (l1 != null) {
+            l1.invalidate(productId);
+        }
+    }
+
+    /**
+     * Drops every L1 copy, for when invalidations may have been missed.
+     */
+    public void evictAllLocal() {
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+        if (l1 != null) {
+            l1.invalidateAll();
+        }
+    }
+
+    public static String productKey(UUID productId) {
+        return PRODUCT_KEY_PREFIX + productId;
+    }
+
+    private Optional<CachedProduct> lookup(UUID productId) {
+        CachedProduct local = lookupLocal(productId);
+        if (local != null) {
+            return Optional.of(local);
+        }
+
+        long observedGeneration = generation(productId);
         String cacheKey = productKey(productId);
         try {
-            String cachedPayload = stringCommands.get(cacheKey);
-            if (cachedPayload == null) {
-                cacheMetrics.recordMiss();
-                return Optional.empty();
+            return Optional.ofNullable(decode(cacheKey, stringCommands.get(cacheKey), observedGeneration));
+        } catch (RuntimeException exception) {
+            cacheMetrics.recordMiss();
+            cacheMetrics.recordError();
+            return Optional.empty();
+        }
+    }
+
+    // Null values stand for misses; the map keeps the order of productIds.
+    private Map<UUID, CachedProduct> lookupAll(Collection<UUID> productIds) {
+        Map<UUID, CachedProduct> found = new LinkedHashMap<>();
+        List<String> remoteKeys = new ArrayList<>();
+        for (UUID productId : productIds) {
+            CachedProduct local = lookupLocal(productId);
+            found.put(productId, local);
+            if (local == null) {
+                remoteKeys.add(productKey(productId));
             }
+        }
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+
+        Map<UUID, Long> observedGenerations = generations(found.keySet());
+        Map<String, byte[]> payloads;
+        try {
+            payloads = stringCommands.mget(remoteKeys.toArray(String[]::new));
+        } catch (RuntimeException exception) {
+            remoteKeys.forEach(ignored -> cacheMetrics.recordMiss());
+            cacheMetrics.recordError();
+            return found;
+        }
+        found.replaceAll((productId, local) -> local != null
+                ? local
+                : decode(productKey(productId), payloads.get(productKey(productId)),
+                        observedGenerations.get(productId)));
+        return found;
+    }
+
+    private CachedProduct lookupLocal(UUID productId) {
+        CachedProduct local = l1 != null ? l1.getIfPresent(productId) : null;
+        if (local != null) {
+            cacheMetrics.recordL1Hit();
+        }
+        return local;
+    }
 
-            CachedProduct cachedProduct = objectMapper.readValue(cachedPayload, CachedProduct.class);
-            cacheMetrics.recordHit();
-            return Optional.of(cachedProduct.toProduct());
-        } catch (RuntimeException | JsonProcessingException exception) {
+    // An unreadable payload is dropped so that the next load replaces it.
+    private CachedProduct decode(String cacheKey, byte[] payload, long observedGeneration) {
+        if (payload == null) {
+            cacheMetrics.recordMiss();
+            return null;
+        }
+        try {
+            CachedProduct cachedProduct = codec.decode(payload);
+            cacheMetrics.recordL2Hit();
+            putLocal(cachedProduct, observedGeneration);
+            return cachedProduct;
+        } catch (RuntimeException exception) {
             cacheMetrics.recordMiss();
             cacheMetrics.recordError();
             deleteQuietly(cacheKey);
-            return Optional.empty();
+            return null;
         }
     }
 
-    public void put(Product product) {
-        String cacheKey = productKey(product.id);
+    private CachedProduct loadAndPut(UUID productId, Function<UUID, Product> loader) {
+        long observedGeneration = generation(productId);
+        long started = System.nanoTime();
+        Product product = loader.apply(productId);
+        return put(product, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), observedGeneration);
+    }
+
+    // Completes every owned load, with null for the products loader did not return, and always releases them.
+    private Map<UUID, CachedProduct> loadOwned(Map<UUID, CompletableFuture<CachedProduct>> owned,
+                                               Function<List<UUID>, List<Product>> loader) {
+        try {
+            Map<UUID, CachedProduct> loaded = loadAndPutAll(List.copyOf(owned.keySet()), loader);
+            owned.forEach((productId, load) -> load.complete(loaded.get(productId)));
+            return loaded;
+        } catch (RuntimeException exception) {
+            owned.values().forEach(load -> load.completeExceptionally(exception));
+            throw exception;
+        } finally {
+            owned.forEach(loads::remove);
+        }
+    }
+
+    private Map<UUID, CachedProduct> loadAndPutAll(List<UUID> productIds,
+                                                   Function<List<UUID>, List<Product>> loader) {
+        Map<UUID, Long> observedGenerations = generations(productIds);
+        long started = System.nanoTime();
+        List<Product> products = loader.apply(productIds);
+        return putAll(products, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), observedGenerations);
+    }
+
+    private CachedProduct put(Product product, long loadMillis, long observedGeneration) {
+        Duration ttl = jitteredTtl();
+        CachedProduct cachedProduct = toCached(product, ttl, loadMillis);
+        if (invalidatedSince(product.id, observedGeneration)) {
+            return cachedProduct;
+        }
         try {
-            String payload = objectMapper.writeValueAsString(CachedProduct.from(product));
-            stringCommands.set(cacheKey, payload, new SetArgs().ex(cacheProperties.productTtl()));
+            stringCommands.set(productKey(product.id), codec.encode(cachedProduct), new SetArgs().px(ttl));
             cacheMetrics.recordPut();
-        } catch (RuntimeException | JsonProcessingException exception) {
+        } catch (RuntimeException exception) {
             cacheMetrics.recordError();
         }
+        return cachedProduct;
     }
 
-    public void invalidate(UUID productId) {
+    // One SET per product, each with its own jittered TTL, sent as a single pipeline. Products invalidated since
+    // the load began are returned but not written.
+    private Map<UUID, CachedProduct> putAll(List<Product> products, long loadMillis,
+                                            Map<UUID, Long> observedGenerations) {
+        Map<UUID, CachedProduct> cachedProducts = new LinkedHashMap<>();
+        List<Request> requests = new ArrayList<>(products.size());
+        for (Product product : products) {
+            Duration ttl = jitteredTtl();
+            CachedProduct cachedProduct = toCached(product, ttl, loadMillis);
+            cachedProducts.put(product.id, cachedProduct);
+            Long observedGeneration = observedGenerations.get(product.id);
+            if (observedGeneration == null || invalidatedSince(product.id, observedGeneration)) {
+                continue;
+            }
+            requests.add(Request.cmd(Command.SET)
+                    .arg(productKey(product.id))
+                    .arg(Buffer.buffer(codec.encode(cachedProduct)))
+                    .arg("PX")
+                    .arg(ttl.toMillis()));
+        }
+        if (requests.isEmpty()) {
+            return cachedProducts;
+        }
         try {
-            keyCommands.del(productKey(productId));
+            redis.batchAndAwait(requests);
+            requests.forEach(ignored -> cacheMetrics.recordPut());
         } catch (RuntimeException exception) {
             cacheMetrics.recordError();
         }
+        return cachedProducts;
     }
 
-    public static String productKey(UUID productId) {
-        return PRODUCT_KEY_PREFIX + productId;
+    private static CachedProduct toCached(Product product, Duration ttl, long loadMillis) {
+        return CachedProduct.from(product, System.currentTimeMillis() + ttl.toMillis(), loadMillis);
+    }
+
+    // The loaded product may predate a write whose invalidation has already deleted the Redis copy.
+    private boolean invalidatedSince(UUID productId, long observedGeneration) {
+        return generation(productId) != observedGeneration;
+    }
+
+    private long generation(UUID productId) {
+        return generations.get(stripe(productId));
+    }
+
+    private Map<UUID, Long> generations(Collection<UUID> productIds) {
+        Map<UUID, Long> observed = new HashMap<>(productIds.size() * 2);
+        for (UUID productId : productIds) {
+            observed.put(productId, generation(productId));
+        }
+        return observed;
+    }
+
+    private static int stripe(UUID productId) {
+        int hash = productId.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private Duration jitteredTtl() {
+        long ttlMillis = cacheProperties.productTtl().toMillis();
+        double jitter = Math.min(Math.max(cacheProperties.ttlJitter(), 0.0d), 1.0d);
+        return Duration.ofMillis(Math.max(1L,
+                ttlMillis - (long) (ttlMillis * jitter * ThreadLocalRandom.current().nextDouble())));
+    }
+
+    // XFetch: refresh once now - loadMillis * beta * ln(random) reaches the expiry, so slower loads start earlier.
+    private void refreshIfDue(CachedProduct cached, Function<UUID, Product> loader) {
+        double beta = cacheProperties.earlyRefreshBeta();
+        if (beta <= 0.0d || cached.expiresAt() <= 0L) {
+            return;
+        }
+        double gap = Math.max(1L, cached.loadMillis()) * beta * -Math.log(ThreadLocalRandom.current().nextDouble());
+        if (System.currentTimeMillis() + gap < cached.expiresAt() || !refreshing.add(cached.id())) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(cached.id(), loader));
+        } catch (RejectedExecutionException exception) {
+            refreshing.remove(cached.id());
+        }
+    }
+
+    private void refresh(UUID productId, Function<UUID, Product> loader) {
+        try {
+            long observedGeneration = generation(productId);
+            CachedProduct refreshed = QuarkusTransaction.requiringNew().call(() -> loadAndPut(productId, loader));
+            putLocal(refreshed, observedGeneration);
+            cacheMetrics.recordRefresh(true);
+        } catch (RuntimeException exception) {
+            cacheMetrics.recordRefresh(false);
+        } finally {
+            refreshing.remove(productId);
+        }
+    }
+
+    private void putLocal(CachedProduct cachedProduct, long observedGeneration) {
+        if (l1 == null || invalidatedSince(cachedProduct.id(), observedGeneration)) {
+            return;
+        }
+        l1.put(cachedProduct.id(), cachedProduct);
+        // An invalidation that slipped in between the check and the put may have run before it.
+        if (invalidatedSince(cachedProduct.id(), observedGeneration)) {
+            l1.invalidate(cachedProduct.id());
+        }
+    }
+
+    private static CachedProduct await(CompletableFuture<CachedProduct> load) {
+        try {
+            return load.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
     }
 
     private void deleteQuietly(String cacheKey) {
@@ -1,15 +1,24 @@
 package com.acmecorp.catalog.service;
 
 import com.acmecorp.catalog.Product;
+import com.acmecorp.catalog.ProductBatchResponse;
+import com.acmecorp.catalog.ProductPage;
 import com.acmecorp.catalog.ProductRepository;
 import com.acmecorp.catalog.ProductRequest;
+import com.acmecorp.catalog.messaging.ProductChangeEvent;
+import com.acmecorp.catalog.search.ProductSearchIndex;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -22,27 +31,86 @@ public class CatalogService {
     private final CatalogProductCache productCache;
     private final CatalogCacheInvalidationScheduler cacheInvalidationScheduler;
     private final CatalogCacheMetrics cacheMetrics;
+    private final ProductSearchIndex searchIndex;
 
     public CatalogService(ProductRepository productRepository,
                           CatalogProductCache productCache,
                           CatalogCacheInvalidationScheduler cacheInvalidationScheduler,
-                          CatalogCacheMetrics cacheMetrics) {
+                          CatalogCacheMetrics cacheMetrics,
+                          ProductSearchIndex searchIndex) {
         this.productRepository = productRepository;
         this.productCache = productCache;
         this.cacheInvalidationScheduler = cacheInvalidationScheduler;
         this.cacheMetrics = cacheMetrics;
+        this.searchIndex = searchIndex;
     }
 
-    public List<Product> listProducts(String category, String search) {
-        return productRepository.active(category, search);
+    // With a search, products come ranked by relevance from the search index, which can briefly lag behind writes;
+    // they are read back from the database, and any the index had wrong are dropped from the page and reindexed.
+    public ProductPage listProducts(String category, String search, int page, int size) {
+        String categoryFilter = category != null && !category.isBlank() ? category : null;
+        if (search == null || search.isBlank()) {
+            return new ProductPage(productRepository.active(categoryFilter, page, size),
+                    productRepository.countActive(categoryFilter));
+        }
+
+        ProductSearchIndex.Results matches = searchIndex.search(search, categoryFilter, page * size, size);
+        List<UUID> ranked = matches.ids();
+        if (ranked.isEmpty()) {
+            return new ProductPage(List.of(), matches.total());
+        }
+        Map<UUID, Product> products = productRepository.list("id in ?1", ranked).stream()
+                .collect(Collectors.toMap(product -> product.id, product -> product));
+        List<Product> results = new ArrayList<>(ranked.size());
+        List<UUID> stale = new ArrayList<>();
+        for (UUID id : ranked) {
+            Product product = products.get(id);
+            if (product != null && product.active
+                    && (categoryFilter == null || categoryFilter.equalsIgnoreCase(product.category))) {
+                results.add(product);
+            } else {
+                stale.add(id);
+            }
+        }
+        if (!stale.isEmpty()) {
+            searchIndex.reindex(stale);
+        }
+        // The total comes from the index, so it can count products this page found stale until they are reindexed.
+        return new ProductPage(results, matches.total());
     }
 
     // Only single-product reads are cached. Filtered list queries stay database-backed to keep cache keys,
     // invalidation behavior, and course explanations explicit.
     // This path can return inactive products after logical deactivation because it looks up by primary key.
     public Product getProductById(UUID id) {
-        return cacheMetrics.recordCachedRead(() -> productCache.get(id)
-                .orElseGet(() -> loadProductFromDatasource(id)));
+        return cacheMetrics.recordCachedRead(() -> productCache.getOrLoad(id, this::loadProductFromDatasource));
+    }
+
+    // Batch variant of getProductById for callers pricing many lines at once: one MGET for the cached products, one
+    // query for the rest. Ids are deduplicated, results keep the order of first appearance, and unknown or malformed
+    // ids are reported instead of failing the whole batch.
+    public ProductBatchResponse getProductsByIds(List<String> ids) {
+        Map<String, UUID> requested = new LinkedHashMap<>();
+        for (String rawId : new LinkedHashSet<>(ids)) {
+            requested.put(rawId, parseId(rawId));
+        }
+
+        List<UUID> lookupIds = requested.values().stream().filter(Objects::nonNull).toList();
+        Map<UUID, Product> resolved = lookupIds.isEmpty()
+                ? Map.of()
+                : productCache.getAllOrLoad(lookupIds, this::loadProductsFromDatasource);
+
+        List<Product> products = new ArrayList<>(requested.size());
+        List<String> missingIds = new ArrayList<>();
+        requested.forEach((rawId, id) -> {
+            Product product = id == null ? null : resolved.get(id);
+            if (product == null) {
+                missingIds.add(rawId);
+            } else {
+                products.add(product);
+            }
+        });
+        return new ProductBatchResponse(products, missingIds);
     }
 
     @Transactional
@@ -50,7 +118,7 @@ public class CatalogService {
         Product product = new Product();
         applyRequest(product, request);
         product.persist();
-        cacheInvalidationScheduler.invalidateProductAfterCommit(product.id);
+        cacheInvalidationScheduler.invalidateProductAfterCommit(product.id, ProductChangeEvent.Type.CREATED);
         return product;
     }
 
@@ -59,7 +127,7 @@ public class CatalogService {
         Product product = requireManagedProduct(id);
         applyRequest(product, request);
         product.persist();
-        cacheInvalidationScheduler.invalidateProductAfterCommit(id);
+        cacheInvalidationScheduler.invalidateProductAfterCommit(id, ProductChangeEvent.Type.UPDATED);
         return product;
     }
 
@@ -69,7 +137,7 @@ public class CatalogService {
         // DELETE is implemented as logical deactivation so course examples can still inspect the product by id.
         product.active = false;
         product.persist();
-        cacheInvalidationScheduler.invalidateProductAfterCommit(id);
+        cacheInvalidationScheduler.invalidateProductAfterCommit(id, ProductChangeEvent.Type.DEACTIVATED);
     }
 
     @Transactional
@@ -83,16 +151,30 @@ public class CatalogService {
         List<UUID> ids = products.stream().map(p -> p.id).collect(Collectors.toList());
         productRepository.delete("id in ?1", ids);
         products.forEach(productRepository::persist);
-        cacheInvalidationScheduler.invalidateProductsAfterCommit(ids);
+        cacheInvalidationScheduler.invalidateProductsAfterCommit(ids, ProductChangeEvent.Type.UPDATED);
         return products;
     }
 
     private Product loadProductFromDatasource(UUID id) {
         cacheMetrics.recordDatasourceRead();
-        Product product = productRepository.findByIdOptional(id)
+        return productRepository.findByIdOptional(id)
                 .orElseThrow(() -> new NotFoundException("Product not found"));
-        productCache.put(product);
-        return product;
+    }
+
+    private List<Product> loadProductsFromDatasource(List<UUID> ids) {
+        cacheMetrics.recordDatasourceRead();
+        return productRepository.list("id in ?1", ids);
+    }
+
+    private static UUID parseId(String rawId) {
+        if (rawId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(rawId);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
     }
 
     private Product requireManagedProduct(UUID id) {
@@ -0,0 +1,29 @@
+package com.acmecorp.catalog.service;
+
+final class FallbackCachedProductCodec implements CachedProductCodec {
+
+    private final CachedProductCodec primary;
+    private final CachedProductCodec fallback;
+
+    FallbackCachedProductCodec(CachedProductCodec primary, CachedProductCodec fallback) {
+        this.primary = primary;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] encode(CachedProduct product) {
+        return primary.encode(product);
+    }
+
+    @Override
+    public CachedProduct decode(byte[] payload) {
+        return primary.canDecode(payload) || !fallback.canDecode(payload)
+                ? primary.decode(payload)
+                : fallback.decode(payload);
+    }
+
+    @Override
+    public boolean canDecode(byte[] payload) {
+        return primary.canDecode(payload) || fallback.canDecode(payload);
+    }
+}
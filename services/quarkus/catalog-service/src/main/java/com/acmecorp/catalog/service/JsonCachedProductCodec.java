@@ -0,0 +1,41 @@
+package com.acmecorp.catalog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * The original format: Jackson JSON of the record. Entries written before early refresh have no {@code expiresAt}
+ * or {@code loadMillis}, which then read as 0.
+ */
+public class JsonCachedProductCodec implements CachedProductCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonCachedProductCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] encode(CachedProduct product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("Could not write cached product " + product.id(), exception);
+        }
+    }
+
+    @Override
+    public CachedProduct decode(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, CachedProduct.class);
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("Malformed JSON cached product", exception);
+        }
+    }
+
+    @Override
+    public boolean canDecode(byte[] payload) {
+        return payload.length > 0 && payload[0] == '{';
+    }
+}
@@ -0,0 +1,67 @@
+package com.acmecorp.catalog;
+
+import com.acmecorp.catalog.service.BinaryCachedProductCodec;
+import com.acmecorp.catalog.service.CachedProduct;
+import com.acmecorp.catalog.service.CachedProductCodec;
+import com.acmecorp.catalog.service.JsonCachedProductCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedProductCodecTest {
+
+    private final BinaryCachedProductCodec binary = new BinaryCachedProductCodec();
+    private final JsonCachedProductCodec json = new JsonCachedProductCodec(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void binaryShouldRoundTripEveryField() {
+        CachedProduct product = new CachedProduct(UUID.randomUUID(), "ACME-STREAM-001", "Acme Streamer Pro",
+                "HD streaming – with “analytics” dashboard", new BigDecimal("49.00"), "USD", "SAAS", true,
+                Instant.parse("2024-01-01T00:00:00.123456789Z"), Instant.parse("1969-12-31T23:59:59.500000001Z"),
+                1_760_000_000_000L, 12L);
+
+        byte[] payload = binary.encode(product);
+
+        assertEquals(product, binary.decode(payload));
+        assertTrue(payload.length * 2 < json.encode(product).length,
+                "binary " + payload.length + " bytes, JSON " + json.encode(product).length);
+    }
+
+    @Test
+    void binaryShouldKeepNullsValuesOutsideTheDictionariesAndLargePrices() {
+        CachedProduct product = new CachedProduct(UUID.randomUUID(), "SKU", "Name", null,
+                new BigDecimal("123456789012345678901234567890.125"), "XTS", "cache-tests", false, null, null, 0L, 0L);
+
+        assertEquals(product, binary.decode(binary.encode(product)));
+        assertEquals(new BigDecimal("-0.01"), binary.decode(binary.encode(new CachedProduct(UUID.randomUUID(), null,
+                null, null, new BigDecimal("-0.01"), null, null, true, null, null, -1L, 0L))).price());
+    }
+
+    @Test
+    void binaryFirstCodecShouldStillReadJson() {
+        CachedProductCodec codec = CachedProductCodec.withFallback(binary, json);
+        CachedProduct product = new CachedProduct(UUID.randomUUID(), "SKU", "Name", "Description",
+                new BigDecimal("18.00"), "EUR", "ADDON", true, Instant.now(), Instant.now(), 0L, 0L);
+
+        assertEquals(product, codec.decode(json.encode(product)));
+        assertEquals(1, codec.encode(product)[0]);
+    }
+
+    @Test
+    void unknownVersionsShouldBeRejected() {
+        byte[] payload = binary.encode(new CachedProduct(UUID.randomUUID(), "SKU", "Name", null, BigDecimal.ONE,
+                "USD", "SAAS", true, null, null, 0L, 0L));
+        payload[0] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> CachedProductCodec.withFallback(binary, json).decode(payload));
+        assertThrows(IllegalArgumentException.class, () -> binary.decode(new byte[] {1, 0, 1}));
+    }
+}
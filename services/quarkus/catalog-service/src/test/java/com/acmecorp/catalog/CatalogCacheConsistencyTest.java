@@ -0,0 +1,213 @@
+package com.acmecorp.catalog;
+
+import com.acmecorp.catalog.search.ProductSearchIndex;
+import com.acmecorp.catalog.service.CachedProductCodec;
+import com.acmecorp.catalog.service.CatalogCacheInvalidationScheduler;
+import com.acmecorp.catalog.service.CatalogCacheInvalidationSubscriber;
+import com.acmecorp.catalog.service.CatalogCacheMetrics;
+import com.acmecorp.catalog.service.CatalogCacheProperties;
+import com.acmecorp.catalog.service.CatalogProductCache;
+import com.acmecorp.catalog.service.CatalogService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.mutiny.redis.client.Redis;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a second catalog replica next to the application: its own L1 and subscriber, sharing Redis and the
+ * database, so that a write on either side must evict the product from the other's L1.
+ */
+@QuarkusTest
+@QuarkusTestResource(value = RedisTestResource.class, restrictToAnnotatedClass = true)
+class CatalogCacheConsistencyTest {
+
+    @Inject
+    CatalogService catalogService;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    RedisDataSource redisDataSource;
+
+    @Inject
+    Redis redis;
+
+    @Inject
+    CachedProductCodec codec;
+
+    @Inject
+    ProductSearchIndex searchIndex;
+
+    @Inject
+    CatalogCacheProperties cacheProperties;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @Inject
+    RecordingProductChangePublisher changePublisher;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    @Named("virtualThreadExecutor")
+    ExecutorService virtualThreadExecutor;
+
+    private final SimpleMeterRegistry replicaMeterRegistry = new SimpleMeterRegistry();
+    private CatalogCacheInvalidationSubscriber replicaSubscriber;
+    private CatalogService replicaService;
+    private UUID productId;
+    private String sku;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        redisDataSource.flushall();
+        sku = "CONSISTENCY-SKU-" + UUID.randomUUID();
+        QuarkusTransaction.requiringNew().run(() -> {
+            Product product = new Product();
+            product.sku = sku;
+            product.name = "Original";
+            product.description = "Two-replica cache consistency test product";
+            product.price = new BigDecimal("10.00");
+            product.currency = "USD";
+            product.category = "cache-tests";
+            product.active = true;
+            product.persist();
+            productId = product.id;
+        });
+
+        CatalogCacheMetrics replicaMetrics = new CatalogCacheMetrics(replicaMeterRegistry);
+        CatalogProductCache replicaCache = new CatalogProductCache(redisDataSource, redis, codec, cacheProperties,
+                replicaMetrics, virtualThreadExecutor);
+        replicaSubscriber = new CatalogCacheInvalidationSubscriber(redisDataSource, replicaCache, replicaMetrics,
+                cacheProperties, searchIndex);
+        replicaSubscriber.start();
+        replicaService = new CatalogService(productRepository, replicaCache,
+                new CatalogCacheInvalidationScheduler(transactionSynchronizationRegistry, replicaCache, changePublisher,
+                        searchIndex),
+                replicaMetrics, searchIndex);
+        awaitBothSubscribed();
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaSubscriber.stop();
+    }
+
+    @Test
+    void readsShouldBeServedFromL1OnceRedisHasTheProduct() {
+        double applicationL1Hits = tierHits(meterRegistry, "l1");
+
+        catalogService.getProductById(productId);
+        catalogService.getProductById(productId);
+        replicaService.getProductById(productId);
+        replicaService.getProductById(productId);
+        catalogService.getProductById(productId);
+
+        assertEquals(applicationL1Hits + 1.0d, tierHits(meterRegistry, "l1"));
+        assertEquals(1.0d, tierHits(replicaMeterRegistry, "l2"));
+        assertEquals(1.0d, tierHits(replicaMeterRegistry, "l1"));
+    }
+
+    @Test
+    void updateOnTheReplicaShouldEvictTheApplicationL1AfterCommit() throws InterruptedException {
+        warmBothL1s();
+
+        QuarkusTransaction.requiringNew().run(() -> replicaService.updateProduct(productId, request("Updated on replica")));
+
+        assertEquals("Updated on replica", replicaName());
+        await(() -> "Updated on replica".equals(applicationName()));
+    }
+
+    @Test
+    void updateThroughTheApiShouldEvictTheReplicaL1AfterCommit() throws InterruptedException {
+        warmBothL1s();
+
+        given()
+                .contentType("application/json")
+                .body(request("Updated through API"))
+                .when().put("/api/catalog/" + productId)
+                .then()
+                .statusCode(200);
+
+        assertEquals("Updated through API", applicationName());
+        await(() -> "Updated through API".equals(replicaName()));
+    }
+
+    private void warmBothL1s() {
+        catalogService.getProductById(productId);
+        catalogService.getProductById(productId);
+        replicaService.getProductById(productId);
+        assertEquals("Original", applicationName());
+        assertEquals("Original", replicaName());
+    }
+
+    private String applicationName() {
+        return given().when().get("/api/catalog/" + productId).then().statusCode(200).extract().path("name");
+    }
+
+    // The test's own persistence context would keep serving the product as first loaded, so database fallbacks of
+    // the replica get a fresh one.
+    private String replicaName() {
+        return QuarkusTransaction.requiringNew().call(() -> replicaService.getProductById(productId).name);
+    }
+
+    // Both subscriptions are established asynchronously; probe the channel until each side has heard a message.
+    private void awaitBothSubscribed() throws InterruptedException {
+        await(() -> {
+            if (invalidationsReceived(meterRegistry) > 0 && invalidationsReceived(replicaMeterRegistry) > 0) {
+                return true;
+            }
+            redisDataSource.pubsub(String.class).publish(cacheProperties.invalidationChannel(), UUID.randomUUID().toString());
+            return false;
+        });
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+            Thread.sleep(50L);
+        }
+    }
+
+    private ProductRequest request(String name) {
+        return new ProductRequest(sku, name, "Two-replica cache consistency test product",
+                new BigDecimal("12.00"), "USD", "cache-tests", true);
+    }
+
+    private static double tierHits(MeterRegistry registry, String tier) {
+        io.micrometer.core.instrument.Counter counter = registry.find("acmecorp.catalog.cache.tier.hits")
+                .tags("cache", CatalogCacheMetrics.CACHE_NAME, "operation", CatalogCacheMetrics.GET_PRODUCT_BY_ID,
+                        "tier", tier)
+                .counter();
+        return counter == null ? 0.0d : counter.count();
+    }
+
+    private static double invalidationsReceived(MeterRegistry registry) {
+        io.micrometer.core.instrument.Counter counter = registry.find("acmecorp.catalog.cache.invalidations.received")
+                .counter();
+        return counter == null ? 0.0d : counter.count();
+    }
+}
@@ -1,8 +1,14 @@
 package com.acmecorp.catalog;
 
+import com.acmecorp.catalog.messaging.ProductChangeEvent;
+import com.acmecorp.catalog.service.CachedProduct;
+import com.acmecorp.catalog.service.CachedProductCodec;
 import com.acmecorp.catalog.service.CatalogCacheMetrics;
 import com.acmecorp.catalog.service.CatalogProductCache;
 import com.acmecorp.catalog.service.CatalogService;
+import com.acmecorp.catalog.service.JsonCachedProductCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.redis.datasource.RedisDataSource;
@@ -15,8 +21,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.restassured.RestAssured.given;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -43,6 +58,18 @@ class CatalogCacheIntegrationTest {
     @Inject
     UserTransaction userTransaction;
 
+    @Inject
+    RecordingProductChangePublisher changePublisher;
+
+    @Inject
+    CatalogProductCache productCache;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    CachedProductCodec codec;
+
     private UUID productId;
     private StringCommands<String, String> stringCommands;
 
@@ -63,6 +90,7 @@ class CatalogCacheIntegrationTest {
             product.persist();
             productId = product.id;
         });
+        changePublisher.clear();
     }
 
     @Test
@@ -169,6 +197,35 @@ class CatalogCacheIntegrationTest {
         assertFalse(redisDataSource.key().exists(CatalogProductCache.productKey(productId)));
     }
 
+    @Test
+    void updateShouldPublishChangeEventOnlyAfterCommit() throws Exception {
+        ProductRequest request = new ProductRequest(
+                "CACHE-SKU-1",
+                "Updated Cached Product",
+                "Redis-backed cache test product",
+                new BigDecimal("21.00"),
+                "USD",
+                "cache-tests",
+                true
+        );
+
+        userTransaction.begin();
+        catalogService.updateProduct(productId, request);
+        assertTrue(changePublisher.events().isEmpty());
+        userTransaction.commit();
+
+        assertEquals(1, changePublisher.events().size());
+        ProductChangeEvent event = changePublisher.events().get(0);
+        assertEquals(productId, event.productId());
+        assertEquals(ProductChangeEvent.Type.UPDATED, event.type());
+
+        userTransaction.begin();
+        catalogService.deleteProduct(productId);
+        userTransaction.rollback();
+
+        assertEquals(1, changePublisher.events().size());
+    }
+
     @Test
     void logicalDeactivationShouldInvalidateCacheAndAllowColdReadOfInactiveProduct() {
         catalogService.getProductById(productId);
@@ -256,6 +313,246 @@ class CatalogCacheIntegrationTest {
         assertEquals(countBefore + 2.0d, timerCount("acmecorp.catalog.cache.read"));
     }
 
+    @Test
+    void batchShouldReadRedisOnceQueryMissesOnceAndPipelineTheirPuts() {
+        UUID second = persistProduct("CACHE-SKU-2");
+        UUID third = persistProduct("CACHE-SKU-3");
+        catalogService.getProductById(productId);
+        String unknown = UUID.randomUUID().toString();
+        double readsBefore = datasourceCounterValue();
+        double putsBefore = cacheCounterValue("acmecorp.catalog.cache.puts");
+        long mgetsBefore = redisCalls("mget");
+        long getsBefore = redisCalls("get");
+        long setsBefore = redisCalls("set");
+
+        ProductBatchResponse response = catalogService.getProductsByIds(List.of(
+                third.toString(), unknown, productId.toString(), "not-a-uuid", second.toString()));
+
+        assertEquals(List.of(third, productId, second), response.products().stream().map(p -> p.id).toList());
+        assertEquals(List.of(unknown, "not-a-uuid"), response.missingIds());
+        assertEquals(readsBefore + 1.0d, datasourceCounterValue());
+        assertEquals(putsBefore + 2.0d, cacheCounterValue("acmecorp.catalog.cache.puts"));
+        assertEquals(mgetsBefore + 1L, redisCalls("mget"));
+        assertEquals(getsBefore, redisCalls("get"));
+        assertEquals(setsBefore + 2L, redisCalls("set"));
+        assertTrue(redisDataSource.key().exists(CatalogProductCache.productKey(second)));
+        assertTrue(redisDataSource.key().exists(CatalogProductCache.productKey(third)));
+
+        ProductBatchResponse cached = catalogService.getProductsByIds(List.of(second.toString(), third.toString()));
+
+        assertEquals(List.of(second, third), cached.products().stream().map(p -> p.id).toList());
+        assertEquals(readsBefore + 1.0d, datasourceCounterValue());
+    }
+
+    @Test
+    void concurrentMissesShouldWaitForOneDatasourceLoad() throws Exception {
+        double collapsedBefore = cacheCounterValue("acmecorp.catalog.cache.loads.collapsed");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Product>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> productCache.getOrLoad(productId, id -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return QuarkusTransaction.requiringNew().call(() -> productRepository.findById(id));
+                })));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cacheCounterValue("acmecorp.catalog.cache.loads.collapsed") < collapsedBefore + 7.0d) {
+                assertTrue(System.nanoTime() < deadline, "Misses did not pile up behind the first load");
+                Thread.sleep(20L);
+            }
+            release.countDown();
+
+            for (Future<Product> result : results) {
+                assertEquals(productId, result.get(5, TimeUnit.SECONDS).id);
+            }
+            assertEquals(1, loads.get());
+            assertNotNull(stringCommands.get(CatalogProductCache.productKey(productId)));
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void batchShouldWaitForASingleLoadOfTheSameProductInsteadOfLoadingItAgain() throws Exception {
+        UUID second = persistProduct("CACHE-SKU-2");
+        double collapsedBefore = cacheCounterValue("acmecorp.catalog.cache.loads.collapsed");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<UUID>> batchLoads = new ArrayList<>();
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Product> single = callers.submit(() -> productCache.getOrLoad(productId, id -> {
+                loading.countDown();
+                await(release);
+                return QuarkusTransaction.requiringNew().call(() -> productRepository.findById(id));
+            }));
+            await(loading);
+            Future<Map<UUID, Product>> batch = callers.submit(() -> productCache.getAllOrLoad(
+                    List.of(productId, second), ids -> {
+                        batchLoads.add(ids);
+                        return QuarkusTransaction.requiringNew().call(() -> productRepository.list("id in ?1", ids));
+                    }));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cacheCounterValue("acmecorp.catalog.cache.loads.collapsed") < collapsedBefore + 1.0d) {
+                assertTrue(System.nanoTime() < deadline, "Batch did not wait for the running load");
+                Thread.sleep(20L);
+            }
+            release.countDown();
+
+            assertEquals(productId, single.get(5, TimeUnit.SECONDS).id);
+            assertEquals(Set.of(productId, second), batch.get(5, TimeUnit.SECONDS).keySet());
+            assertEquals(List.of(List.of(second)), batchLoads);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void loadsShouldNotBeWrittenToRedisAfterAnInvalidationRacedThem() {
+        UUID second = persistProduct("CACHE-SKU-2");
+
+        Product single = productCache.getOrLoad(productId, id -> {
+            productCache.evictLocal(id);
+            return QuarkusTransaction.requiringNew().call(() -> productRepository.findById(id));
+        });
+        Map<UUID, Product> batch = productCache.getAllOrLoad(List.of(second), ids -> {
+            productCache.evictLocal(second);
+            return QuarkusTransaction.requiringNew().call(() -> productRepository.list("id in ?1", ids));
+        });
+
+        assertEquals(productId, single.id);
+        assertEquals(Set.of(second), batch.keySet());
+        assertFalse(redisDataSource.key().exists(CatalogProductCache.productKey(productId)));
+        assertFalse(redisDataSource.key().exists(CatalogProductCache.productKey(second)));
+    }
+
+    @Test
+    void invalidatingOneProductShouldNotStopAnotherFromBeingCached() {
+        UUID second = persistProduct("CACHE-SKU-2");
+
+        Product single = productCache.getOrLoad(productId, id -> {
+            productCache.evictLocal(neighbourOf(id));
+            return QuarkusTransaction.requiringNew().call(() -> productRepository.findById(id));
+        });
+        Map<UUID, Product> batch = productCache.getAllOrLoad(List.of(second), ids -> {
+            productCache.evictLocal(neighbourOf(second));
+            return QuarkusTransaction.requiringNew().call(() -> productRepository.list("id in ?1", ids));
+        });
+
+        assertEquals(productId, single.id);
+        assertEquals(Set.of(second), batch.keySet());
+        assertTrue(redisDataSource.key().exists(CatalogProductCache.productKey(productId)));
+        assertTrue(redisDataSource.key().exists(CatalogProductCache.productKey(second)));
+    }
+
+    @Test
+    void putShouldJitterTheRedisTtlBelowTheConfiguredOne() {
+        catalogService.getProductById(productId);
+
+        long ttlMillis = redisDataSource.key().pttl(CatalogProductCache.productKey(productId));
+
+        assertTrue(ttlMillis > 108_000L && ttlMillis <= 120_000L, "Unexpected TTL " + ttlMillis);
+    }
+
+    @Test
+    void readsShouldRefreshAnEntryAboutToExpire() throws Exception {
+        catalogService.getProductById(productId);
+        String key = CatalogProductCache.productKey(productId);
+        CachedProduct cached = codec.decode(redisDataSource.string(byte[].class).get(key));
+        long dueAt = System.currentTimeMillis();
+        redisDataSource.string(byte[].class).set(key, new JsonCachedProductCodec(objectMapper).encode(
+                new CachedProduct(cached.id(), cached.sku(), cached.name(), cached.description(), cached.price(),
+                        cached.currency(), cached.category(), cached.active(), cached.createdAt(),
+                        cached.updatedAt(), dueAt, 5L)));
+        double refreshesBefore = refreshCounterValue("success");
+
+        Product product = catalogService.getProductById(productId);
+
+        assertEquals(productId, product.id);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (refreshCounterValue("success") < refreshesBefore + 1.0d) {
+            assertTrue(System.nanoTime() < deadline, "Entry was not refreshed");
+            Thread.sleep(20L);
+        }
+        byte[] refreshed = redisDataSource.string(byte[].class).get(key);
+        assertEquals(1, refreshed[0], "Refreshed entry should be rewritten in the binary format");
+        assertTrue(codec.decode(refreshed).expiresAt() > dueAt);
+        assertTrue(redisDataSource.key().pttl(key) > 0L);
+    }
+
+    @Test
+    void jsonEntriesWrittenBeforeTheBinaryCodecShouldStillBeHits() throws Exception {
+        catalogService.getProductById(productId);
+        String key = CatalogProductCache.productKey(productId);
+        ObjectNode legacy = (ObjectNode) objectMapper.readTree(new JsonCachedProductCodec(objectMapper)
+                .encode(codec.decode(redisDataSource.string(byte[].class).get(key))));
+        legacy.remove(List.of("expiresAt", "loadMillis"));
+        stringCommands.set(key, legacy.toString());
+        double datasourceReadsBefore = datasourceCounterValue();
+
+        given()
+                .when().get("/api/catalog/" + productId)
+                .then()
+                .statusCode(200)
+                .body("name", org.hamcrest.Matchers.equalTo("Cached Product"))
+                .body("price", org.hamcrest.Matchers.equalTo(18.00f));
+
+        assertEquals(datasourceReadsBefore, datasourceCounterValue());
+    }
+
+    private UUID persistProduct(String sku) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Product product = new Product();
+            product.sku = sku;
+            product.name = "Batch " + sku;
+            product.description = "Redis-backed batch test product";
+            product.price = new BigDecimal("7.50");
+            product.currency = "EUR";
+            product.category = "cache-tests";
+            product.active = true;
+            product.persist();
+            return product.id;
+        });
+    }
+
+    private long redisCalls(String command) {
+        String stats = redisDataSource.execute("INFO", "commandstats").toString();
+        for (String line : stats.split("\r?\n")) {
+            if (line.startsWith("cmdstat_" + command + ":calls=")) {
+                return Long.parseLong(line.substring(line.indexOf('=') + 1, line.indexOf(',')));
+            }
+        }
+        return 0L;
+    }
+
+    // Differs from productId in the lowest bit of its hash, so it never shares an invalidation stripe with it.
+    private static UUID neighbourOf(UUID productId) {
+        return new UUID(productId.getMostSignificantBits(), productId.getLeastSignificantBits() ^ 1L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private double refreshCounterValue(String result) {
+        io.micrometer.core.instrument.Counter counter = meterRegistry.find("acmecorp.catalog.cache.refreshes")
+                .tags("cache", CatalogCacheMetrics.CACHE_NAME, "operation", CatalogCacheMetrics.GET_PRODUCT_BY_ID,
+                        "result", result)
+                .counter();
+        return counter == null ? 0.0d : counter.count();
+    }
+
     private double cacheCounterValue(String name) {
         io.micrometer.core.instrument.Counter counter = meterRegistry.find(name)
                 .tags("cache", CatalogCacheMetrics.CACHE_NAME, "operation", CatalogCacheMetrics.GET_PRODUCT_BY_ID)
@@ -5,13 +5,16 @@ import io.quarkus.test.common.QuarkusTestResource;
 import org.junit.jupiter.api.Test;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @QuarkusTest
 @QuarkusTestResource(value = RedisTestResource.class, restrictToAnnotatedClass = true)
@@ -54,6 +57,14 @@ class CatalogResourceTest {
                 .statusCode(200)
                 .body("size()", greaterThan(0))
                 .body("[0].id", notNullValue());
+
+        int total = Integer.parseInt(given().when().get("/api/catalog").then().extract().header("X-Total-Count"));
+        given()
+                .when().get("/api/catalog?size=1")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", String.valueOf(total))
+                .body("size()", equalTo(1));
     }
 
     @Test
@@ -160,6 +171,101 @@ class CatalogResourceTest {
                 .body("findAll { it.id == '%s' }.size()".formatted(productId), equalTo(0));
     }
 
+    @Test
+    void searchShouldRankNameMatchesFirstAndPage() throws InterruptedException {
+        String term = "zephyr" + UUID.randomUUID().toString().substring(0, 8);
+        String inDescription = create("SKU-SEARCH-1", "Search Backup", "Restores " + term + " snapshots", "search");
+        String inName = create("SKU-SEARCH-2", "Search " + term + " Pro", "Streaming", "search");
+        create("SKU-SEARCH-3", "Search Other", "Unrelated", "search");
+
+        // The index is updated after commit, off the request thread.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (given().when().get("/api/catalog?search=" + term).then().statusCode(200)
+                .extract().jsonPath().getList("id").size() < 2) {
+            assertTrue(System.nanoTime() < deadline, "Products not indexed in time");
+            Thread.sleep(50L);
+        }
+
+        given()
+                .when().get("/api/catalog?search=" + term.substring(0, 6).toUpperCase() + "&category=SEARCH")
+                .then()
+                .statusCode(200)
+                .body("id", contains(inName, inDescription));
+        given()
+                .when().get("/api/catalog?search=" + term + "&page=1&size=1")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", "2")
+                .body("id", contains(inDescription));
+        given()
+                .when().get("/api/catalog?search=search+" + term + "&category=other")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(0));
+    }
+
+    @Test
+    void listShouldRejectOversizedPages() {
+        given()
+                .when().get("/api/catalog?size=501")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void batchShouldReturnProductsInRequestOrderAndReportMissingIds() {
+        var firstId = given()
+                .contentType("application/json")
+                .body("""
+                        {
+                          "sku": "SKU-BATCH-1",
+                          "name": "Batch One",
+                          "description": "First batch item",
+                          "price": 4.00,
+                          "currency": "USD",
+                          "category": "batch",
+                          "active": true
+                        }
+                        """)
+                .when().post("/api/catalog")
+                .then()
+                .statusCode(200)
+                .extract()
+                .path("id");
+        var secondId = given()
+                .contentType("application/json")
+                .body("""
+                        {
+                          "sku": "SKU-BATCH-2",
+                          "name": "Batch Two",
+                          "description": "Second batch item",
+                          "price": 8.00,
+                          "currency": "USD",
+                          "category": "batch",
+                          "active": true
+                        }
+                        """)
+                .when().post("/api/catalog")
+                .then()
+                .statusCode(200)
+                .extract()
+                .path("id");
+        var unknownId = UUID.randomUUID().toString();
+
+        given()
+                .contentType("application/json")
+                .body("""
+                        {"ids": ["%s", "not-a-uuid", "%s", "%s", "%s"]}
+                        """.formatted(secondId, unknownId, firstId, secondId))
+                .when().post("/api/catalog/batch")
+                .then()
+                .statusCode(200)
+                .body("products.size()", equalTo(2))
+                .body("products[0].sku", equalTo("SKU-BATCH-2"))
+                .body("products[1].sku", equalTo("SKU-BATCH-1"))
+                .body("missingIds", org.hamcrest.Matchers.contains("not-a-uuid", unknownId));
+    }
+
     @Test
     void getNonExistingProductShouldReturn404() {
         given()
@@ -167,4 +273,18 @@ class CatalogResourceTest {
                 .then()
                 .statusCode(404);
     }
+
+    private static String create(String sku, String name, String description, String category) {
+        return given()
+                .contentType("application/json")
+                .body("""
+                        {"sku": "%s", "name": "%s", "description": "%s", "price": 1.00, "currency": "USD",
+                         "category": "%s", "active": true}
+                        """.formatted(sku, name, description, category))
+                .when().post("/api/catalog")
+                .then()
+                .statusCode(200)
+                .extract()
+                .path("id");
+    }
 }
@@ -0,0 +1,29 @@
+package com.acmecorp.catalog;
+
+import com.acmecorp.catalog.messaging.ProductChangeEvent;
+import com.acmecorp.catalog.messaging.ProductChangePublisher;
+import io.quarkus.test.Mock;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Mock
+@ApplicationScoped
+public class RecordingProductChangePublisher implements ProductChangePublisher {
+
+    private final List<ProductChangeEvent> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ProductChangeEvent event) {
+        events.add(event);
+    }
+
+    public List<ProductChangeEvent> events() {
+        return List.copyOf(events);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,107 @@
+package com.acmecorp.catalog.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductTextIndexTest {
+
+    private final ProductTextIndex index = new ProductTextIndex();
+
+    @Test
+    void nameMatchesShouldOutrankDescriptionMatches() {
+        UUID inDescription = add("SKU-1", "Acme Backup", "Nightly backup with streaming restore", "SAAS");
+        UUID inName = add("SKU-2", "Acme Streaming", "Live video", "SAAS");
+        add("SKU-3", "Acme Storage", "Object storage", "STORAGE");
+
+        ProductTextIndex.Hits hits = index.search("streaming", null, 0, 10);
+
+        assertEquals(List.of(inName, inDescription), hits.ids());
+        assertEquals(2, hits.total());
+    }
+
+    @Test
+    void everyTermShouldMatchAndTheLastOneAsAPrefix() {
+        UUID streamer = add("ACME-STREAM-001", "Acme Streamer Pro", "HD streaming – with “analytics”", "SAAS");
+        add("ACME-BACKUP-001", "Acme Backup", "Streaming backups", "STORAGE");
+
+        assertEquals(List.of(streamer), index.search("acme anal", null, 0, 10).ids());
+        assertEquals(List.of(streamer), index.search("ACME-STREAM-001", null, 0, 10).ids());
+        assertEquals(List.of(), index.search("acme an", null, 0, 10).ids());
+        assertEquals(List.of(), index.search("backup analytics", null, 0, 10).ids());
+    }
+
+    @Test
+    void searchShouldFoldCaseAndAccents() {
+        UUID cafe = add("SKU-1", "Café Crème", null, "ADDON");
+
+        assertEquals(List.of(cafe), index.search("CAFE creme", null, 0, 10).ids());
+    }
+
+    @Test
+    void categoryShouldFilterAndPagesShouldFollowTheRanking() {
+        for (int i = 0; i < 25; i++) {
+            add("SKU-" + i, "Widget " + i, "widget ".repeat(1 + i % 3), i % 2 == 0 ? "Even" : "Odd");
+        }
+
+        ProductTextIndex.Hits all = index.search("widget", null, 0, 25);
+        ProductTextIndex.Hits second = index.search("widget", null, 10, 10);
+        ProductTextIndex.Hits even = index.search("widget", "even", 0, 25);
+
+        assertEquals(25, all.total());
+        assertEquals(all.ids().subList(10, 20), second.ids());
+        assertEquals(25, second.total());
+        assertEquals(13, even.total());
+        assertTrue(all.ids().containsAll(even.ids()));
+        assertEquals(List.of(), index.search("widget", "missing", 0, 25).ids());
+    }
+
+    @Test
+    void removedAndReplacedProductsShouldSurviveCompaction() {
+        UUID kept = add("KEPT", "Keeper gadget", null, "SAAS");
+        for (int i = 0; i < 3_000; i++) {
+            UUID id = add("TMP-" + i, "Temporary gadget", null, "SAAS");
+            index.remove(id);
+        }
+        index.add(kept, "KEPT", "Keeper gizmo", null, "SAAS");
+
+        assertEquals(1, index.size());
+        assertFalse(index.contains(UUID.randomUUID()));
+        assertEquals(List.of(), index.search("gadget", null, 0, 10).ids());
+        assertEquals(List.of(kept), index.search("keeper gizmo", null, 0, 10).ids());
+    }
+
+    @Test
+    void aPrefixShouldMatchThroughEveryExpansion() {
+        for (int i = 0; i < 100; i++) {
+            add("SKU-" + i, "Gadget model" + i, null, "SAAS");
+        }
+
+        ProductTextIndex.Hits hits = index.search("gadget mod", null, 0, 10);
+
+        assertEquals(100, hits.total());
+        assertEquals(10, hits.ids().size());
+    }
+
+    @Test
+    void removedProductsShouldNotWeighOnTheIdf() {
+        UUID widget = add("SKU-1", "Widget", null, "SAAS");
+        UUID widow = add("SKU-2", "Widow", null, "SAAS");
+        for (int i = 0; i < 10; i++) {
+            index.remove(add("TMP-" + i, "Widget", null, "SAAS"));
+        }
+
+        assertEquals(List.of(widget, widow), index.search("wid", null, 0, 10).ids());
+    }
+
+    private UUID add(String sku, String name, String description, String category) {
+        UUID id = UUID.randomUUID();
+        index.add(id, sku, name, description, category);
+        return id;
+    }
+}
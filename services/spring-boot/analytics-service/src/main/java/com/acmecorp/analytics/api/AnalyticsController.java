@@ -1,11 +1,18 @@
 package com.acmecorp.analytics.api;
 
 import com.acmecorp.analytics.service.AnalyticsService;
+import com.acmecorp.analytics.service.EventSeries;
+import com.acmecorp.analytics.web.TrackEventBatchRequest;
 import com.acmecorp.analytics.web.TrackEventRequest;
 import jakarta.validation.Valid;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 
 @RestController
@@ -28,7 +35,13 @@ public class AnalyticsController {
 
     @PostMapping("/track")
     public ResponseEntity<Void> track(@Valid @RequestBody TrackEventRequest request) {
-        analyticsService.track(request.event());
+        analyticsService.track(request.event(), request.metadata(), request.occurredAt());
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/track/batch")
+    public ResponseEntity<Void> trackBatch(@Valid @RequestBody TrackEventBatchRequest request) {
+        analyticsService.trackAll(request.events());
         return ResponseEntity.accepted().build();
     }
 
@@ -41,4 +54,18 @@ public class AnalyticsController {
     public Map<String, Object> counter(@PathVariable("event") String event) {
         return Map.of("event", event, "count", analyticsService.getCounter(event));
     }
+
+    @GetMapping("/series/{event}")
+    public EventSeries.Series series(@PathVariable("event") String event,
+                                     @RequestParam(name = "from", required = false) Instant from,
+                                     @RequestParam(name = "to", required = false) Instant to,
+                                     @RequestParam(name = "step", defaultValue = "1m") String step) {
+        Duration stepDuration;
+        try {
+            stepDuration = DurationStyle.detectAndParse(step);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid step: " + step);
+        }
+        return analyticsService.series(event, from, to, stepDuration);
+    }
 }
@@ -0,0 +1,29 @@
+package com.acmecorp.analytics.api;
+
+import com.acmecorp.analytics.service.CounterFeed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/analytics/counters")
+@ConditionalOnProperty(prefix = "acmecorp.analytics.feed", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CounterFeedController {
+
+    private final CounterFeed counterFeed;
+
+    public CounterFeedController(CounterFeed counterFeed) {
+        this.counterFeed = counterFeed;
+    }
+
+    /**
+     * A {@code snapshot} event with all counters, then a {@code delta} event with the changes of every tick.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return counterFeed.subscribe();
+    }
+}
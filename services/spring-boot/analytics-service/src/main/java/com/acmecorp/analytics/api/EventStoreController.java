@@ -0,0 +1,57 @@
+package com.acmecorp.analytics.api;
+
+import com.acmecorp.analytics.columnar.ColumnarEventStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics/events")
+@ConditionalOnProperty(prefix = "acmecorp.analytics.store", name = "enabled", havingValue = "true")
+public class EventStoreController {
+
+    private final ColumnarEventStore eventStore;
+
+    public EventStoreController(ColumnarEventStore eventStore) {
+        this.eventStore = eventStore;
+    }
+
+    /**
+     * Counts, per distinct value of the {@code groupBy} fields, the events of {@code [from, to)} matching
+     * {@code event} and every {@code field:value} filter, and sums the numeric {@code sum} field if given.
+     */
+    @GetMapping("/aggregate")
+    public ColumnarEventStore.Aggregation aggregate(
+            @RequestParam(name = "event", required = false) String event,
+            @RequestParam(name = "filter", required = false) List<String> filter,
+            @RequestParam(name = "groupBy", required = false) List<String> groupBy,
+            @RequestParam(name = "sum", required = false) String sum,
+            @RequestParam(name = "from", required = false) Instant from,
+            @RequestParam(name = "to", required = false) Instant to,
+            @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        Map<String, String> filters = new LinkedHashMap<>();
+        if (event != null) {
+            filters.put("event", event);
+        }
+        if (filter != null) {
+            for (String entry : filter) {
+                int separator = entry.indexOf(':');
+                if (separator <= 0) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid filter, expected field:value: " + entry);
+                }
+                filters.put(entry.substring(0, separator), entry.substring(separator + 1));
+            }
+        }
+        return eventStore.aggregate(new ColumnarEventStore.AggregationQuery(
+                from, to, filters, groupBy != null ? groupBy : List.of(), sum, limit));
+    }
+}
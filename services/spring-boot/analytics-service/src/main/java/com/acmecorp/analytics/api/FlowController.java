@@ -0,0 +1,39 @@
+package com.acmecorp.analytics.api;
+
+import com.acmecorp.analytics.flow.FlowLatencies;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/analytics/flows")
+@ConditionalOnProperty(prefix = "acmecorp.analytics.flows", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FlowController {
+
+    private final FlowLatencies flowLatencies;
+
+    public FlowController(FlowLatencies flowLatencies) {
+        this.flowLatencies = flowLatencies;
+    }
+
+    /**
+     * p50, p95 and p99 of every order flow step over the last {@code window}.
+     */
+    @GetMapping("/latency")
+    public FlowLatencies.FlowReport latency(@RequestParam(name = "window", defaultValue = "5m") String window) {
+        Duration windowDuration;
+        try {
+            windowDuration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid window: " + window);
+        }
+        return flowLatencies.report(windowDuration);
+    }
+}
@@ -0,0 +1,28 @@
+package com.acmecorp.analytics.api;
+
+import com.acmecorp.analytics.journal.JournalReplayer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/analytics/journal")
+@ConditionalOnProperty(prefix = "acmecorp.analytics.journal", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JournalController {
+
+    private final JournalReplayer replayer;
+
+    public JournalController(JournalReplayer replayer) {
+        this.replayer = replayer;
+    }
+
+    /**
+     * Rebuilds the Redis counters and series from what the journal holds; meant for restoring a flushed Redis. Totals
+     * are never lowered, so lifetime counts older than the journal's retention survive a replay.
+     */
+    @PostMapping("/replay")
+    public JournalReplayer.ReplayResult replay() {
+        return replayer.replay();
+    }
+}
@@ -0,0 +1,36 @@
+package com.acmecorp.analytics.api;
+
+import com.acmecorp.analytics.sketch.OrderSketches;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/analytics")
+@ConditionalOnProperty(prefix = "acmecorp.analytics.sketches", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SketchController {
+
+    private final OrderSketches sketches;
+
+    public SketchController(OrderSketches sketches) {
+        this.sketches = sketches;
+    }
+
+    @GetMapping("/customers/unique")
+    public OrderSketches.UniqueCount uniqueCustomers(
+            @RequestParam(name = "day", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        return sketches.uniqueCustomers(day);
+    }
+
+    @GetMapping("/products/top")
+    public OrderSketches.TopProducts topProducts(@RequestParam(name = "hour", required = false) Instant hour,
+                                                 @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return sketches.topProducts(hour, limit);
+    }
+}
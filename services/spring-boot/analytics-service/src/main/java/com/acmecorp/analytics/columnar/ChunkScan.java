@@ -0,0 +1,223 @@
+package com.acmecorp.analytics.columnar;
+
+import com.acmecorp.analytics.columnar.EventChunk.Column;
+import com.acmecorp.analytics.columnar.EventChunk.DictionaryColumn;
+import com.acmecorp.analytics.columnar.EventChunk.NumberColumn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One aggregation over the first {@code rows} rows of a chunk, resolved against the chunk once: filter values are
+ * translated into dictionary codes, so rows are compared as ints, and a chunk none of whose rows can match is not
+ * scanned at all. {@link #scan} can then be called for disjoint row ranges from several threads.
+ */
+final class ChunkScan {
+
+    static final int MAX_GROUP_BY = 3;
+    // Codes never exceed the rows of a chunk, which is capped to fit three of them into one long.
+    static final int CODE_BITS = 21;
+    private static final long CODE_MASK = (1L << CODE_BITS) - 1;
+
+    private final EventChunk chunk;
+    private final int rows;
+    private final boolean checkTime;
+    private final long from;
+    private final long to;
+    private final DictionaryColumn[] codeFilters;
+    private final int[] codes;
+    private final NumberColumn[] numberFilters;
+    private final double[] numbers;
+    private final Column[] groupColumns;
+    private final NumberColumn sumColumn;
+
+    private ChunkScan(EventChunk chunk, int rows, long from, long to, List<DictionaryColumn> codeFilters,
+                      List<Integer> codes, List<NumberColumn> numberFilters, List<Double> numbers,
+                      Column[] groupColumns, NumberColumn sumColumn) {
+        this.chunk = chunk;
+        this.rows = rows;
+        this.from = from;
+        this.to = to;
+        this.checkTime = chunk.minTimestamp() < from || chunk.maxTimestamp() >= to;
+        this.codeFilters = codeFilters.toArray(DictionaryColumn[]::new);
+        this.codes = codes.stream().mapToInt(Integer::intValue).toArray();
+        this.numberFilters = numberFilters.toArray(NumberColumn[]::new);
+        this.numbers = numbers.stream().mapToDouble(Double::doubleValue).toArray();
+        this.groupColumns = groupColumns;
+        this.sumColumn = sumColumn;
+    }
+
+    /**
+     * Returns the scan of the rows of {@code chunk} that occurred in {@code [from, to)} and whose fields equal
+     * {@code filters}, or null when no row can match.
+     */
+    static ChunkScan prepare(EventChunk chunk, long from, long to, Map<String, String> filters, List<String> groupBy,
+                             String sum) {
+        // Rows are read first: the bounds read afterwards cover at least those rows.
+        int rows = chunk.rows();
+        if (rows == 0 || chunk.maxTimestamp() < from || chunk.minTimestamp() >= to) {
+            return null;
+        }
+        List<DictionaryColumn> codeFilters = new ArrayList<>();
+        List<Integer> codes = new ArrayList<>();
+        List<NumberColumn> numberFilters = new ArrayList<>();
+        List<Double> numbers = new ArrayList<>();
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            Column column = chunk.column(filter.getKey());
+            if (column instanceof DictionaryColumn dictionary) {
+                int code = dictionary.code(filter.getValue());
+                if (code == EventChunk.ABSENT) {
+                    return null;
+                }
+                codeFilters.add(dictionary);
+                codes.add(code);
+            } else if (column instanceof NumberColumn number) {
+                try {
+                    numbers.add(Double.parseDouble(filter.getValue()));
+                } catch (NumberFormatException ex) {
+                    return null;
+                }
+                numberFilters.add(number);
+            } else {
+                return null;
+            }
+        }
+        Column[] groupColumns = groupBy.stream().map(chunk::column).toArray(Column[]::new);
+        NumberColumn sumColumn = sum != null && chunk.column(sum) instanceof NumberColumn number ? number : null;
+        return new ChunkScan(chunk, rows, from, to, codeFilters, codes, numberFilters, numbers, groupColumns,
+                sumColumn);
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    Result scan(int fromRow, int toRow) {
+        LongIntMap groups = new LongIntMap(64);
+        long[] keys = new long[64];
+        long[] counts = new long[64];
+        double[] sums = new double[64];
+        NumberCodes[] numberCodes = new NumberCodes[groupColumns.length];
+        for (int g = 0; g < groupColumns.length; g++) {
+            numberCodes[g] = groupColumns[g] instanceof NumberColumn ? new NumberCodes() : null;
+        }
+        long matched = 0;
+        rows:
+        for (int row = fromRow; row < toRow; row++) {
+            if (checkTime) {
+                long timestamp = chunk.timestamp(row);
+                if (timestamp < from || timestamp >= to) {
+                    continue;
+                }
+            }
+            for (int f = 0; f < codeFilters.length; f++) {
+                if (codeFilters[f].code(row) != codes[f]) {
+                    continue rows;
+                }
+            }
+            for (int f = 0; f < numberFilters.length; f++) {
+                if (numberFilters[f].value(row) != numbers[f]) {
+                    continue rows;
+                }
+            }
+            long key = 0;
+            for (int g = 0; g < groupColumns.length; g++) {
+                int code;
+                if (groupColumns[g] instanceof DictionaryColumn dictionary) {
+                    code = dictionary.code(row);
+                } else if (groupColumns[g] instanceof NumberColumn number) {
+                    code = numberCodes[g].code(number.value(row));
+                } else {
+                    code = EventChunk.ABSENT;
+                }
+                key |= (long) code << (CODE_BITS * g);
+            }
+            int group = groups.putIfAbsent(key, groups.size());
+            if (group == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+                counts = Arrays.copyOf(counts, counts.length * 2);
+                sums = Arrays.copyOf(sums, sums.length * 2);
+            }
+            keys[group] = key;
+            counts[group]++;
+            if (sumColumn != null) {
+                double value = sumColumn.value(row);
+                if (!Double.isNaN(value)) {
+                    sums[group] += value;
+                }
+            }
+            matched++;
+        }
+        Map<List<String>, Totals> totals = new HashMap<>();
+        for (int group = 0; group < groups.size(); group++) {
+            totals.put(decode(keys[group], numberCodes), new Totals(counts[group], sums[group]));
+        }
+        return new Result(totals, toRow - fromRow, matched);
+    }
+
+    private List<String> decode(long key, NumberCodes[] numberCodes) {
+        String[] values = new String[groupColumns.length];
+        for (int g = 0; g < groupColumns.length; g++) {
+            int code = (int) ((key >>> (CODE_BITS * g)) & CODE_MASK);
+            if (groupColumns[g] instanceof DictionaryColumn dictionary) {
+                values[g] = dictionary.decode(code);
+            } else if (groupColumns[g] instanceof NumberColumn) {
+                values[g] = numberCodes[g].decode(code);
+            }
+        }
+        return Arrays.asList(values);
+    }
+
+    static final class Totals {
+
+        long count;
+        double sum;
+
+        Totals(long count, double sum) {
+            this.count = count;
+            this.sum = sum;
+        }
+
+        void add(Totals other) {
+            count += other.count;
+            sum += other.sum;
+        }
+    }
+
+    record Result(Map<List<String>, Totals> groups, long scannedRows, long matchedRows) {
+    }
+
+    /**
+     * Numbers have no dictionary, so the distinct values of a numeric group-by field get codes per scan.
+     */
+    private static final class NumberCodes {
+
+        private final LongIntMap index = new LongIntMap(64);
+        private double[] values = new double[64];
+
+        int code(double value) {
+            if (Double.isNaN(value)) {
+                return EventChunk.ABSENT;
+            }
+            int code = index.putIfAbsent(Double.doubleToLongBits(value), index.size() + 1);
+            if (code == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[code] = value;
+            return code;
+        }
+
+        String decode(int code) {
+            if (code == EventChunk.ABSENT) {
+                return null;
+            }
+            double value = values[code];
+            return value == Math.rint(value) && Math.abs(value) < 1e15
+                    ? Long.toString((long) value)
+                    : Double.toString(value);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.acmecorp.analytics.columnar;
+
+import com.acmecorp.analytics.columnar.ChunkScan.Totals;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Keeps the raw events of the last {@code retention} in memory, column by column, so they can be filtered, grouped
+ * and summed by any scalar metadata field. Events go into one {@link EventChunk} per {@code partition} of arrival
+ * time, starting another when a chunk is full; whole chunks are dropped once their partition is older than
+ * {@code retention}, or oldest first while the chunks take more than {@code max-memory}.
+ * <p>
+ * The column data lives in direct buffers outside the heap and is released when a dropped chunk is collected, so
+ * queries still scanning it are unaffected. A query is split into ranges of {@link #MORSEL_ROWS} rows that are
+ * scanned in parallel on {@code scan-threads} threads and merged.
+ */
+public class ColumnarEventStore implements AutoCloseable {
+
+    static final int MORSEL_ROWS = 16_384;
+    static final int MAX_CHUNK_ROWS = 1 << (ChunkScan.CODE_BITS - 1);
+    private static final int MAX_LIMIT = 10_000;
+
+    private final Clock clock;
+    private final long retentionMillis;
+    private final long partitionMillis;
+    private final int chunkRows;
+    private final int maxColumns;
+    private final long maxBytes;
+    private final int scanThreads;
+    private final ExecutorService scanPool;
+    private final List<EventChunk> chunks = new CopyOnWriteArrayList<>();
+    private final Counter expired;
+    private final Counter evictedForMemory;
+    private final Counter droppedValues;
+    private final Timer scanTimer;
+    private EventChunk current;
+    private volatile long bytes;
+
+    public ColumnarEventStore(Clock clock,
+                              Duration retention,
+                              Duration partition,
+                              int chunkRows,
+                              int maxColumns,
+                              long maxBytes,
+                              int scanThreads,
+                              MeterRegistry meterRegistry) {
+        if (chunkRows <= 0 || chunkRows > MAX_CHUNK_ROWS || partition.toMillis() <= 0 || scanThreads <= 0) {
+            throw new IllegalArgumentException("chunkRows must be between 1 and " + MAX_CHUNK_ROWS
+                    + ", partition and scanThreads positive");
+        }
+        this.clock = clock;
+        this.retentionMillis = retention.toMillis();
+        this.partitionMillis = partition.toMillis();
+        this.chunkRows = chunkRows;
+        this.maxColumns = maxColumns;
+        this.maxBytes = maxBytes;
+        this.scanThreads = scanThreads;
+        this.scanPool = Executors.newFixedThreadPool(scanThreads,
+                Thread.ofPlatform().daemon().name("analytics-store-scan-", 0).factory());
+        this.expired = evictedCounter(meterRegistry, "expired");
+        this.evictedForMemory = evictedCounter(meterRegistry, "memory");
+        this.droppedValues = Counter.builder("acmecorp.analytics.store.dropped.values")
+                .description("Metadata values not stored because their chunk already had max-columns columns")
+                .register(meterRegistry);
+        this.scanTimer = Timer.builder("acmecorp.analytics.store.scan")
+                .description("Latency of one aggregation over the event store")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.analytics.store.rows", chunks, ColumnarEventStore::rows)
+                .description("Events held in the event store")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.analytics.store.chunks", chunks, List::size)
+                .description("Chunks held in the event store")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.analytics.store.memory", this, store -> store.bytes)
+                .description("Off-heap memory allocated by the event store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public synchronized void append(String event, Map<String, Object> metadata, Instant occurredAt) {
+        long now = clock.millis();
+        long partition = Math.floorDiv(now, partitionMillis);
+        long timestamp = occurredAt != null ? occurredAt.toEpochMilli() : now;
+        if (current == null || current.partition() != partition) {
+            current = newChunk(partition, now);
+        }
+        long before = current.bytes();
+        int dropped = current.append(timestamp, event, metadata);
+        if (dropped < 0) {
+            current = newChunk(partition, now);
+            before = current.bytes();
+            dropped = current.append(timestamp, event, metadata);
+        }
+        droppedValues.increment(dropped);
+        bytes += current.bytes() - before;
+        while (bytes > maxBytes && chunks.size() > 1) {
+            drop(evictedForMemory);
+        }
+    }
+
+    /**
+     * Counts, and optionally sums, the events that occurred in {@code [from, to)} and match every filter, per
+     * distinct combination of the {@code groupBy} fields. {@code to} defaults to now and {@code from} to
+     * {@code retention} before it; the groups with the highest counts come first.
+     */
+    public Aggregation aggregate(AggregationQuery query) {
+        List<String> groupBy = query.groupBy() != null ? query.groupBy() : List.of();
+        Map<String, String> filters = query.filters() != null ? query.filters() : Map.of();
+        if (groupBy.size() > ChunkScan.MAX_GROUP_BY || groupBy.stream().distinct().count() != groupBy.size()) {
+            throw new ResponseStatusException(BAD_REQUEST,
+                    "groupBy takes at most " + ChunkScan.MAX_GROUP_BY + " distinct fields");
+        }
+        if (query.limit() <= 0 || query.limit() > MAX_LIMIT) {
+            throw new ResponseStatusException(BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        Instant to = query.to() != null ? query.to() : Instant.ofEpochMilli(clock.millis() + 1);
+        Instant from = query.from() != null ? query.from() : to.minusMillis(retentionMillis);
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(BAD_REQUEST, "from must be before to");
+        }
+        synchronized (this) {
+            expire(clock.millis());
+        }
+        long start = System.nanoTime();
+        List<Callable<ChunkScan.Result>> tasks = new ArrayList<>();
+        for (EventChunk chunk : chunks) {
+            ChunkScan scan = ChunkScan.prepare(chunk, from.toEpochMilli(), to.toEpochMilli(), filters, groupBy,
+                    query.sum());
+            if (scan == null) {
+                continue;
+            }
+            for (int row = 0; row < scan.rows(); row += MORSEL_ROWS) {
+                int fromRow = row;
+                int toRow = Math.min(scan.rows(), row + MORSEL_ROWS);
+                tasks.add(() -> scan.scan(fromRow, toRow));
+            }
+        }
+        Map<List<String>, Totals> merged = new LinkedHashMap<>();
+        long scanned = 0;
+        long matched = 0;
+        try {
+            for (Future<ChunkScan.Result> future : scanPool.invokeAll(tasks)) {
+                ChunkScan.Result result = future.get();
+                scanned += result.scannedRows();
+                matched += result.matchedRows();
+                result.groups().forEach((key, totals) -> merged.merge(key, totals, (a, b) -> {
+                    a.add(b);
+                    return a;
+                }));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Aggregation interrupted");
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(ex.getCause());
+        }
+        long elapsed = System.nanoTime() - start;
+        scanTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        List<Group> groups = merged.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<List<String>, Totals> entry) -> entry.getValue().count)
+                        .reversed())
+                .limit(query.limit())
+                .map(entry -> group(groupBy, entry.getKey(), entry.getValue(), query.sum() != null))
+                .toList();
+        return new Aggregation(from, to, filters, groupBy, query.sum(), scanned, matched, merged.size(),
+                Math.min(scanThreads, tasks.size()), TimeUnit.NANOSECONDS.toMicros(elapsed), groups);
+    }
+
+    @Override
+    public void close() {
+        scanPool.shutdownNow();
+    }
+
+    private EventChunk newChunk(long partition, long now) {
+        expire(now);
+        EventChunk chunk = new EventChunk(partition, chunkRows, maxColumns);
+        chunks.add(chunk);
+        bytes += chunk.bytes();
+        return chunk;
+    }
+
+    private void expire(long now) {
+        while (!chunks.isEmpty() && (chunks.get(0).partition() + 1) * partitionMillis <= now - retentionMillis) {
+            drop(expired);
+        }
+    }
+
+    private void drop(Counter reason) {
+        EventChunk oldest = chunks.remove(0);
+        bytes -= oldest.bytes();
+        if (oldest == current) {
+            current = null;
+        }
+        reason.increment();
+    }
+
+    private static Group group(List<String> groupBy, List<String> values, Totals totals, boolean summed) {
+        Map<String, String> key = new LinkedHashMap<>();
+        for (int i = 0; i < groupBy.size(); i++) {
+            key.put(groupBy.get(i), values.get(i));
+        }
+        return new Group(key, totals.count, summed ? totals.sum : null);
+    }
+
+    private static double rows(List<EventChunk> chunks) {
+        return chunks.stream().mapToLong(EventChunk::rows).sum();
+    }
+
+    private static Counter evictedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("acmecorp.analytics.store.evicted")
+                .description("Chunks dropped from the event store")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code filters} match a field's value exactly, {@code event} being the name of the event; {@code sum} names a
+     * numeric field.
+     */
+    public record AggregationQuery(Instant from,
+                                   Instant to,
+                                   Map<String, String> filters,
+                                   List<String> groupBy,
+                                   String sum,
+                                   int limit) {
+    }
+
+    /**
+     * {@code groupCount} is the number of groups before {@code limit}. {@code scannedRows}, {@code threads} and
+     * {@code elapsedMicros} describe the scan, whose throughput they give.
+     */
+    public record Aggregation(Instant from,
+                              Instant to,
+                              Map<String, String> filters,
+                              List<String> groupBy,
+                              String sum,
+                              long scannedRows,
+                              long matchedRows,
+                              int groupCount,
+                              int threads,
+                              long elapsedMicros,
+                              List<Group> groups) {
+    }
+
+    /**
+     * A null key value stands for events without the field; {@code sum} is null unless a sum was asked for.
+     */
+    public record Group(Map<String, String> key, long count, Double sum) {
+    }
+}
@@ -0,0 +1,226 @@
+package com.acmecorp.analytics.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Up to {@code capacity} events received in one partition of time, stored column by column in direct buffers: the
+ * time each event occurred at, its name, and one column per scalar metadata field. Strings are stored as codes into
+ * a dictionary per column, numbers as doubles. A column's type is that of the first value seen for its field; later
+ * values of the other type are converted where possible and left absent otherwise. Nested metadata values are not
+ * stored.
+ * <p>
+ * One thread appends while any number scan: a row is visible once {@link #rows()} covers it, and columns and
+ * dictionary entries are published before the rows that use them.
+ */
+final class EventChunk {
+
+    static final String EVENT = "event";
+    static final int ABSENT = 0;
+
+    private final long partition;
+    private final int capacity;
+    private final int maxColumns;
+    private final LongBuffer timestamps;
+    private final Map<String, Column> columns = new ConcurrentHashMap<>();
+    private long bytes;
+    private volatile long minTimestamp = Long.MAX_VALUE;
+    private volatile long maxTimestamp = Long.MIN_VALUE;
+    private volatile int rows;
+
+    EventChunk(long partition, int capacity, int maxColumns) {
+        this.partition = partition;
+        this.capacity = capacity;
+        this.maxColumns = maxColumns;
+        this.timestamps = allocate(capacity * Long.BYTES).asLongBuffer();
+        this.bytes = (long) capacity * Long.BYTES;
+        columns.put(EVENT, new DictionaryColumn(capacity));
+        this.bytes += (long) capacity * Integer.BYTES;
+    }
+
+    /**
+     * Appends one event and returns how many of its metadata values were dropped because the chunk already has
+     * {@code max-columns} columns, or -1 without appending when the chunk is full.
+     */
+    int append(long timestamp, String event, Map<String, Object> metadata) {
+        int row = rows;
+        if (row == capacity) {
+            return -1;
+        }
+        int dropped = 0;
+        timestamps.put(row, timestamp);
+        columns.get(EVENT).put(row, event);
+        if (metadata != null) {
+            for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+                Object value = entry.getValue();
+                if (value == null || EVENT.equals(entry.getKey()) || !isScalar(value)) {
+                    continue;
+                }
+                Column column = columns.get(entry.getKey());
+                if (column == null) {
+                    if (columns.size() >= maxColumns) {
+                        dropped++;
+                        continue;
+                    }
+                    column = value instanceof Number ? new NumberColumn(capacity) : new DictionaryColumn(capacity);
+                    bytes += column.bytes();
+                    columns.put(entry.getKey(), column);
+                }
+                column.put(row, value);
+            }
+        }
+        if (timestamp < minTimestamp) {
+            minTimestamp = timestamp;
+        }
+        if (timestamp > maxTimestamp) {
+            maxTimestamp = timestamp;
+        }
+        rows = row + 1;
+        return dropped;
+    }
+
+    long partition() {
+        return partition;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    long minTimestamp() {
+        return minTimestamp;
+    }
+
+    long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    long timestamp(int row) {
+        return timestamps.get(row);
+    }
+
+    Column column(String field) {
+        return columns.get(field);
+    }
+
+    private static boolean isScalar(Object value) {
+        return value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Enum<?>;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    sealed interface Column permits DictionaryColumn, NumberColumn {
+
+        void put(int row, Object value);
+
+        long bytes();
+    }
+
+    /**
+     * Codes are dense from 1, so they never exceed the capacity of the chunk.
+     */
+    static final class DictionaryColumn implements Column {
+
+        private final IntBuffer codes;
+        private final Map<String, Integer> index = new ConcurrentHashMap<>();
+        private volatile String[] dictionary = new String[16];
+        private int dictionarySize = 1;
+
+        private DictionaryColumn(int capacity) {
+            // Direct buffers start zeroed, so rows written before the column existed read as ABSENT.
+            this.codes = allocate(capacity * Integer.BYTES).asIntBuffer();
+        }
+
+        @Override
+        public void put(int row, Object value) {
+            codes.put(row, encode(value.toString()));
+        }
+
+        @Override
+        public long bytes() {
+            return (long) codes.capacity() * Integer.BYTES;
+        }
+
+        int code(int row) {
+            return codes.get(row);
+        }
+
+        /**
+         * Returns the code of {@code value}, or {@link #ABSENT} if no row holds it.
+         */
+        int code(String value) {
+            Integer code = index.get(value);
+            return code != null ? code : ABSENT;
+        }
+
+        String decode(int code) {
+            return code == ABSENT ? null : dictionary[code];
+        }
+
+        private int encode(String value) {
+            Integer existing = index.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            int code = dictionarySize++;
+            String[] current = dictionary;
+            if (code == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[code] = value;
+            dictionary = current;
+            index.put(value, code);
+            return code;
+        }
+    }
+
+    static final class NumberColumn implements Column {
+
+        private final DoubleBuffer values;
+
+        private NumberColumn(int capacity) {
+            this.values = allocate(capacity * Double.BYTES).asDoubleBuffer();
+            for (int i = 0; i < capacity; i++) {
+                values.put(i, Double.NaN);
+            }
+        }
+
+        @Override
+        public void put(int row, Object value) {
+            if (value instanceof Number number) {
+                values.put(row, number.doubleValue());
+                return;
+            }
+            try {
+                values.put(row, Double.parseDouble(value.toString()));
+            } catch (NumberFormatException ex) {
+                // Left absent.
+            }
+        }
+
+        @Override
+        public long bytes() {
+            return (long) values.capacity() * Double.BYTES;
+        }
+
+        /**
+         * Returns the value of {@code row}, or NaN when it has none.
+         */
+        double value(int row) {
+            return values.get(row);
+        }
+    }
+}
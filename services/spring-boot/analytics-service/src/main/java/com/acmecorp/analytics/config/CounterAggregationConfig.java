@@ -0,0 +1,27 @@
+package com.acmecorp.analytics.config;
+
+import com.acmecorp.analytics.service.CounterAggregator;
+import com.acmecorp.analytics.service.CounterStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CounterAggregationProperties.class)
+public class CounterAggregationConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "acmecorp.analytics.aggregation", name = "enabled", havingValue = "true")
+    public CounterAggregator counterAggregator(CounterStore counterStore,
+                                               CounterAggregationProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new CounterAggregator(
+                counterStore,
+                properties.getFlushInterval(),
+                properties.getShutdownTimeout(),
+                meterRegistry
+        );
+    }
+}
@@ -0,0 +1,31 @@
+package com.acmecorp.analytics.config;
+
+import com.acmecorp.analytics.service.AnalyticsService;
+import com.acmecorp.analytics.service.CounterFeed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FeedProperties.class)
+@ConditionalOnProperty(prefix = "acmecorp.analytics.feed", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FeedConfig {
+
+    @Bean
+    public CounterFeed counterFeed(AnalyticsService analyticsService,
+                                   FeedProperties properties,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry) {
+        return new CounterFeed(
+                analyticsService::allCounters,
+                objectMapper,
+                properties.getTick(),
+                properties.getHeartbeatInterval(),
+                properties.getMaxSubscribers(),
+                meterRegistry
+        );
+    }
+}
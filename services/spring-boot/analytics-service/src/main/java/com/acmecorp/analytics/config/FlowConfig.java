@@ -0,0 +1,28 @@
+package com.acmecorp.analytics.config;
+
+import com.acmecorp.analytics.flow.FlowLatencies;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(FlowProperties.class)
+@ConditionalOnProperty(prefix = "acmecorp.analytics.flows", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FlowConfig {
+
+    @Bean
+    public FlowLatencies flowLatencies(FlowProperties properties, MeterRegistry meterRegistry) {
+        return new FlowLatencies(
+                Clock.systemUTC(),
+                properties.getMaxOrders(),
+                properties.getCorrelationTtl(),
+                properties.getMaxWindow(),
+                properties.getHighestLatency(),
+                meterRegistry
+        );
+    }
+}
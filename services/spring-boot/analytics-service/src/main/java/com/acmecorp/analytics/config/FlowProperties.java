@@ -0,0 +1,63 @@
+package com.acmecorp.analytics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "acmecorp.analytics.flows")
+public class FlowProperties {
+    private boolean enabled = true;
+    private int maxOrders = 100_000;
+    private Duration correlationTtl = Duration.ofHours(1);
+    private Duration maxWindow = Duration.ofHours(1);
+    private Duration highestLatency = Duration.ofHours(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Orders whose flow is still open that are kept for correlation; the oldest are dropped beyond it.
+     */
+    public int getMaxOrders() {
+        return maxOrders;
+    }
+
+    public void setMaxOrders(int maxOrders) {
+        this.maxOrders = maxOrders;
+    }
+
+    public Duration getCorrelationTtl() {
+        return correlationTtl;
+    }
+
+    public void setCorrelationTtl(Duration correlationTtl) {
+        this.correlationTtl = correlationTtl;
+    }
+
+    /**
+     * Longest window percentiles can be read for; one histogram per step is kept for each minute of it.
+     */
+    public Duration getMaxWindow() {
+        return maxWindow;
+    }
+
+    public void setMaxWindow(Duration maxWindow) {
+        this.maxWindow = maxWindow;
+    }
+
+    /**
+     * Latencies above this are recorded as this.
+     */
+    public Duration getHighestLatency() {
+        return highestLatency;
+    }
+
+    public void setHighestLatency(Duration highestLatency) {
+        this.highestLatency = highestLatency;
+    }
+}
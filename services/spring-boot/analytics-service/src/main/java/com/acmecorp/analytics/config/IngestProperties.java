@@ -0,0 +1,82 @@
+package com.acmecorp.analytics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "acmecorp.analytics.ingest")
+public class IngestProperties {
+    private boolean enabled = true;
+    private int batchSize = 50;
+    private Duration receiveTimeout = Duration.ofMillis(100);
+    private int consumers = 1;
+    private int maxAttempts = 3;
+    private Duration initialInterval = Duration.ofSeconds(1);
+    private Duration maxInterval = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Messages handed to the listener at once, and acknowledged together once their events are written. Each
+     * message is itself a batch of up to the sender's {@code batch-size} events.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * How long a consumer waits for the next message before handing over a batch that is not full.
+     */
+    public Duration getReceiveTimeout() {
+        return receiveTimeout;
+    }
+
+    public void setReceiveTimeout(Duration receiveTimeout) {
+        this.receiveTimeout = receiveTimeout;
+    }
+
+    public int getConsumers() {
+        return consumers;
+    }
+
+    public void setConsumers(int consumers) {
+        this.consumers = consumers;
+    }
+
+    /**
+     * Attempts at writing a batch before its messages are dead-lettered to {@code analytics-events-queue.dlq}.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialInterval() {
+        return initialInterval;
+    }
+
+    public void setInitialInterval(Duration initialInterval) {
+        this.initialInterval = initialInterval;
+    }
+
+    public Duration getMaxInterval() {
+        return maxInterval;
+    }
+
+    public void setMaxInterval(Duration maxInterval) {
+        this.maxInterval = maxInterval;
+    }
+}
@@ -0,0 +1,42 @@
+package com.acmecorp.analytics.config;
+
+import com.acmecorp.analytics.journal.EventJournal;
+import com.acmecorp.analytics.journal.JournalReplayer;
+import com.acmecorp.analytics.service.CounterStore;
+import com.acmecorp.analytics.service.EventSeries;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(JournalProperties.class)
+@ConditionalOnProperty(prefix = "acmecorp.analytics.journal", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JournalConfig {
+
+    @Bean
+    public EventJournal eventJournal(JournalProperties properties,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry) {
+        return new EventJournal(
+                properties.getDirectory(),
+                Math.toIntExact(properties.getSegmentSize().toBytes()),
+                properties.getMaxSize().toBytes(),
+                properties.getRetention(),
+                properties.getQueueCapacity(),
+                properties.getForceInterval(),
+                properties.getShutdownTimeout(),
+                objectMapper,
+                meterRegistry
+        );
+    }
+
+    @Bean
+    public JournalReplayer journalReplayer(EventJournal eventJournal,
+                                           CounterStore counterStore,
+                                           EventSeries eventSeries) {
+        return new JournalReplayer(eventJournal, counterStore, eventSeries);
+    }
+}
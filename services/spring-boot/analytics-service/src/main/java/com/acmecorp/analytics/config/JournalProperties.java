@@ -0,0 +1,90 @@
+package com.acmecorp.analytics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "acmecorp.analytics.journal")
+public class JournalProperties {
+    private boolean enabled = true;
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "acmecorp-analytics-journal");
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private DataSize maxSize = DataSize.ofGigabytes(1);
+    private Duration retention = Duration.ofDays(7);
+    private int queueCapacity = 65_536;
+    private Duration forceInterval = Duration.ofSeconds(1);
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Total size of sealed segments kept on disk; the oldest are deleted beyond it.
+     */
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * How often written records are forced from the page cache to disk. Records survive a process crash as soon
+     * as they are written; this bounds what an operating system crash can lose.
+     */
+    public Duration getForceInterval() {
+        return forceInterval;
+    }
+
+    public void setForceInterval(Duration forceInterval) {
+        this.forceInterval = forceInterval;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+}
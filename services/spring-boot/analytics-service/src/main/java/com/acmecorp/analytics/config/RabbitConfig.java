@@ -0,0 +1,112 @@
+package com.acmecorp.analytics.config;
+
+import com.acmecorp.analytics.messaging.AnalyticsEventListener;
+import com.acmecorp.analytics.service.AnalyticsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.retry.RejectAndDontRequeueRecoverer;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IngestProperties.class)
+@ConditionalOnProperty(prefix = "acmecorp.analytics.ingest", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RabbitConfig {
+
+    public static final String ANALYTICS_EVENTS_EXCHANGE = "analytics-events-exchange";
+    public static final String ANALYTICS_EVENTS_QUEUE = "analytics-events-queue";
+    public static final String ANALYTICS_EVENTS_DLX = "analytics-events-dlx";
+    public static final String ANALYTICS_EVENTS_DLQ = "analytics-events-queue.dlq";
+    public static final String ANALYTICS_EVENTS_BINDING = "analytics.events.#";
+    public static final String ANALYTICS_EVENTS_DLQ_ROUTING_KEY = "analytics.events.dlq";
+
+    @Bean
+    public TopicExchange analyticsEventsExchange() {
+        return new TopicExchange(ANALYTICS_EVENTS_EXCHANGE);
+    }
+
+    @Bean
+    public TopicExchange analyticsEventsDeadLetterExchange() {
+        return new TopicExchange(ANALYTICS_EVENTS_DLX);
+    }
+
+    @Bean
+    public Queue analyticsEventsQueue() {
+        return QueueBuilder.durable(ANALYTICS_EVENTS_QUEUE)
+                .deadLetterExchange(ANALYTICS_EVENTS_DLX)
+                .deadLetterRoutingKey(ANALYTICS_EVENTS_DLQ_ROUTING_KEY)
+                .build();
+    }
+
+    @Bean
+    public Queue analyticsEventsDeadLetterQueue() {
+        return QueueBuilder.durable(ANALYTICS_EVENTS_DLQ).build();
+    }
+
+    @Bean
+    public Declarables analyticsEventsTopology(Queue analyticsEventsQueue,
+                                               Queue analyticsEventsDeadLetterQueue,
+                                               TopicExchange analyticsEventsExchange,
+                                               TopicExchange analyticsEventsDeadLetterExchange) {
+        return new Declarables(
+                analyticsEventsExchange,
+                analyticsEventsDeadLetterExchange,
+                analyticsEventsQueue,
+                analyticsEventsDeadLetterQueue,
+                BindingBuilder.bind(analyticsEventsQueue)
+                        .to(analyticsEventsExchange)
+                        .with(ANALYTICS_EVENTS_BINDING),
+                BindingBuilder.bind(analyticsEventsDeadLetterQueue)
+                        .to(analyticsEventsDeadLetterExchange)
+                        .with(ANALYTICS_EVENTS_DLQ_ROUTING_KEY)
+        );
+    }
+
+    /**
+     * Hands the listener up to {@code batch-size} messages at a time and, in AUTO mode, acknowledges them with a
+     * single multiple-ack after it returns. A batch that still fails after {@code max-attempts} is dead-lettered
+     * as a whole rather than requeued, so a Redis outage does not spin the consumers. Retrying the whole batch is
+     * safe because {@code AnalyticsService.trackAll} only journals, sketches and stores it once its counters are in.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory analyticsEventsListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            IngestProperties properties) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(properties.getBatchSize());
+        factory.setPrefetchCount(properties.getBatchSize());
+        factory.setReceiveTimeout(properties.getReceiveTimeout().toMillis());
+        factory.setConcurrentConsumers(properties.getConsumers());
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(properties.getMaxAttempts())
+                .backOffOptions(properties.getInitialInterval().toMillis(), 2.0, properties.getMaxInterval().toMillis())
+                .recoverer(new RejectAndDontRequeueRecoverer())
+                .build());
+        return factory;
+    }
+
+    @Bean
+    public AnalyticsEventListener analyticsEventListener(AnalyticsService analyticsService,
+                                                         ObjectMapper objectMapper,
+                                                         MeterRegistry meterRegistry) {
+        return new AnalyticsEventListener(analyticsService, objectMapper, meterRegistry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.acmecorp.analytics.config;
+
+import com.acmecorp.analytics.service.EventSeries;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(SeriesProperties.class)
+public class SeriesConfig {
+
+    @Bean
+    public EventSeries eventSeries(StringRedisTemplate redisTemplate, SeriesProperties properties) {
+        return new EventSeries(
+                redisTemplate,
+                Clock.systemUTC(),
+                properties.getMinuteRetention(),
+                properties.getHourRetention(),
+                properties.getDayRetention(),
+                properties.getMaxBuckets()
+        );
+    }
+}
@@ -0,0 +1,48 @@
+package com.acmecorp.analytics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "acmecorp.analytics.series")
+public class SeriesProperties {
+    private Duration minuteRetention = Duration.ofDays(2);
+    private Duration hourRetention = Duration.ofDays(35);
+    private Duration dayRetention = Duration.ofDays(400);
+    private int maxBuckets = 10_000;
+
+    public Duration getMinuteRetention() {
+        return minuteRetention;
+    }
+
+    public void setMinuteRetention(Duration minuteRetention) {
+        this.minuteRetention = minuteRetention;
+    }
+
+    public Duration getHourRetention() {
+        return hourRetention;
+    }
+
+    public void setHourRetention(Duration hourRetention) {
+        this.hourRetention = hourRetention;
+    }
+
+    public Duration getDayRetention() {
+        return dayRetention;
+    }
+
+    public void setDayRetention(Duration dayRetention) {
+        this.dayRetention = dayRetention;
+    }
+
+    /**
+     * Most buckets a single series query may read; bounds the size of its one MGET.
+     */
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+}
@@ -0,0 +1,28 @@
+package com.acmecorp.analytics.config;
+
+import com.acmecorp.analytics.sketch.OrderSketches;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(SketchProperties.class)
+@ConditionalOnProperty(prefix = "acmecorp.analytics.sketches", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SketchConfig {
+
+    @Bean
+    public OrderSketches orderSketches(SketchProperties properties) {
+        return new OrderSketches(
+                Clock.systemUTC(),
+                properties.getPrecision(),
+                properties.getTopK(),
+                properties.getEpsilon(),
+                properties.getDelta(),
+                properties.getDaysKept(),
+                properties.getHoursKept()
+        );
+    }
+}
@@ -0,0 +1,78 @@
+package com.acmecorp.analytics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "acmecorp.analytics.sketches")
+public class SketchProperties {
+    private boolean enabled = true;
+    private int precision = 14;
+    private int topK = 20;
+    private double epsilon = 0.001;
+    private double delta = 0.001;
+    private int daysKept = 7;
+    private int hoursKept = 24;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * HyperLogLog precision: {@code 2^precision} bytes per day for a relative standard error of
+     * {@code 1.04 / sqrt(2^precision)}.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void setPrecision(int precision) {
+        this.precision = precision;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    /**
+     * Count-Min Sketch overcount as a fraction of the hour's total quantity, exceeded with probability
+     * {@code delta}.
+     */
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    public double getDelta() {
+        return delta;
+    }
+
+    public void setDelta(double delta) {
+        this.delta = delta;
+    }
+
+    public int getDaysKept() {
+        return daysKept;
+    }
+
+    public void setDaysKept(int daysKept) {
+        this.daysKept = daysKept;
+    }
+
+    public int getHoursKept() {
+        return hoursKept;
+    }
+
+    public void setHoursKept(int hoursKept) {
+        this.hoursKept = hoursKept;
+    }
+}
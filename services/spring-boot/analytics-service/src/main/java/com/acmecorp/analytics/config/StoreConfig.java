@@ -0,0 +1,33 @@
+package com.acmecorp.analytics.config;
+
+import com.acmecorp.analytics.columnar.ColumnarEventStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(StoreProperties.class)
+@ConditionalOnProperty(prefix = "acmecorp.analytics.store", name = "enabled", havingValue = "true")
+public class StoreConfig {
+
+    @Bean
+    public ColumnarEventStore columnarEventStore(StoreProperties properties, MeterRegistry meterRegistry) {
+        int scanThreads = properties.getScanThreads() > 0
+                ? properties.getScanThreads()
+                : Runtime.getRuntime().availableProcessors();
+        return new ColumnarEventStore(
+                Clock.systemUTC(),
+                properties.getRetention(),
+                properties.getPartition(),
+                properties.getChunkRows(),
+                properties.getMaxColumns(),
+                properties.getMaxMemory().toBytes(),
+                scanThreads,
+                meterRegistry
+        );
+    }
+}
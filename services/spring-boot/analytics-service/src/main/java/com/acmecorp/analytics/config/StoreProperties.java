@@ -0,0 +1,88 @@
+package com.acmecorp.analytics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "acmecorp.analytics.store")
+public class StoreProperties {
+    private boolean enabled = false;
+    private Duration retention = Duration.ofHours(24);
+    private Duration partition = Duration.ofHours(1);
+    private int chunkRows = 65_536;
+    private int maxColumns = 32;
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+    private int scanThreads = 0;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    /**
+     * Events are kept in chunks of this much arrival time, dropped whole once older than {@code retention}.
+     */
+    public Duration getPartition() {
+        return partition;
+    }
+
+    public void setPartition(Duration partition) {
+        this.partition = partition;
+    }
+
+    /**
+     * Rows allocated up front for every chunk, and for every column of it.
+     */
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    public void setChunkRows(int chunkRows) {
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * Metadata fields stored per chunk besides the event name; values of further fields are dropped.
+     */
+    public int getMaxColumns() {
+        return maxColumns;
+    }
+
+    public void setMaxColumns(int maxColumns) {
+        this.maxColumns = maxColumns;
+    }
+
+    /**
+     * Off-heap memory the chunks may take before the oldest are dropped. Must fit in {@code -XX:MaxDirectMemorySize}.
+     */
+    public DataSize getMaxMemory() {
+        return maxMemory;
+    }
+
+    public void setMaxMemory(DataSize maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * Threads scanning chunks in parallel; 0 for one per available processor.
+     */
+    public int getScanThreads() {
+        return scanThreads;
+    }
+
+    public void setScanThreads(int scanThreads) {
+        this.scanThreads = scanThreads;
+    }
+}
@@ -0,0 +1,170 @@
+package com.acmecorp.analytics.flow;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Times each {@link FlowStep} of an order as its events come in from orders, billing and notification, correlated
+ * by the {@code orderNumber} metadata they all carry ({@code orderId} when it is missing), and keeps the latencies
+ * in {@link SlidingHistogram}s so percentiles can be read for any window up to {@code max-window}.
+ * <p>
+ * Events may arrive in any order; a step is timed once both of its events were seen, using the time each event
+ * occurred at as reported by its sender and the arrival time otherwise. Only the first event of each stage counts.
+ * Correlation state is one small entry per order, kept after the flow finished so that late duplicates are still
+ * recognised, and evicted oldest first beyond {@code max-orders} or after {@code correlation-ttl}.
+ */
+public class FlowLatencies {
+
+    private static final String ORDER_NUMBER = "orderNumber";
+    private static final String ORDER_ID = "orderId";
+    private static final int STAGES = FlowStep.Stage.values().length;
+
+    private final Clock clock;
+    private final int maxOrders;
+    private final long correlationTtlMillis;
+    private final Map<FlowStep, SlidingHistogram> histograms = new EnumMap<>(FlowStep.class);
+    // Insertion order, so the eldest entry is also the first to expire. The last slot holds the arrival time.
+    private final LinkedHashMap<String, long[]> trackedOrders = new LinkedHashMap<>();
+    private final Counter evictedAtCapacity;
+    private final Counter expired;
+
+    public FlowLatencies(Clock clock,
+                         int maxOrders,
+                         Duration correlationTtl,
+                         Duration maxWindow,
+                         Duration highestLatency,
+                         MeterRegistry meterRegistry) {
+        if (maxOrders <= 0 || maxWindow.toMinutes() <= 0) {
+            throw new IllegalArgumentException("maxOrders and maxWindow must be positive");
+        }
+        this.clock = clock;
+        this.maxOrders = maxOrders;
+        this.correlationTtlMillis = correlationTtl.toMillis();
+        for (FlowStep step : FlowStep.values()) {
+            histograms.put(step, new SlidingHistogram((int) maxWindow.toMinutes(), highestLatency.toMillis()));
+        }
+        this.evictedAtCapacity = evictedCounter(meterRegistry, "capacity");
+        this.expired = evictedCounter(meterRegistry, "expired");
+        Gauge.builder("acmecorp.analytics.flows.tracked", this, FlowLatencies::trackedOrders)
+                .description("Orders held for flow correlation")
+                .register(meterRegistry);
+    }
+
+    public void record(String event, Map<String, Object> metadata, Instant occurredAt) {
+        FlowStep.Stage stage = FlowStep.Stage.of(event);
+        if (stage == null || metadata == null) {
+            return;
+        }
+        Object key = metadata.get(ORDER_NUMBER);
+        if (key == null) {
+            key = metadata.get(ORDER_ID);
+        }
+        if (key == null) {
+            return;
+        }
+        long now = clock.millis();
+        long at = occurredAt != null ? occurredAt.toEpochMilli() : now;
+        synchronized (this) {
+            long[] times = trackedOrders.computeIfAbsent(key.toString(), ignored -> newTimes(now));
+            evict(now);
+            if (times[stage.ordinal()] != 0) {
+                return;
+            }
+            times[stage.ordinal()] = at;
+            long minute = Math.floorDiv(now, 60_000L);
+            for (FlowStep step : FlowStep.values()) {
+                long from = times[step.from().ordinal()];
+                long to = times[step.to().ordinal()];
+                if (from != 0 && to != 0 && (step.from() == stage || step.to() == stage)) {
+                    histograms.get(step).record(minute, to - from);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the latency percentiles of every step over the last {@code window}, which must be a whole number of
+     * minutes up to {@code max-window}.
+     */
+    public FlowReport report(Duration window) {
+        int maxMinutes = histograms.get(FlowStep.CREATED_TO_CONFIRMED).minutes();
+        if (window.toSeconds() % 60 != 0 || window.toMinutes() <= 0 || window.toMinutes() > maxMinutes) {
+            throw new ResponseStatusException(BAD_REQUEST,
+                    "window must be a whole number of minutes between 1 and " + maxMinutes);
+        }
+        long currentMinute = Math.floorDiv(clock.millis(), 60_000L);
+        List<StepLatency> steps = new ArrayList<>();
+        synchronized (this) {
+            histograms.forEach((step, histogram) -> {
+                Histogram merged = histogram.window(currentMinute, (int) window.toMinutes());
+                steps.add(new StepLatency(step, step.from().event(), step.to().event(), merged.getTotalCount(),
+                        merged.getValueAtPercentile(50), merged.getValueAtPercentile(95),
+                        merged.getValueAtPercentile(99), merged.getMaxValue()));
+            });
+        }
+        return new FlowReport(window, steps);
+    }
+
+    synchronized int trackedOrders() {
+        return trackedOrders.size();
+    }
+
+    private void evict(long now) {
+        Iterator<long[]> eldest = trackedOrders.values().iterator();
+        while (eldest.hasNext()) {
+            long[] times = eldest.next();
+            if (now - times[STAGES] > correlationTtlMillis) {
+                expired.increment();
+            } else if (trackedOrders.size() > maxOrders) {
+                evictedAtCapacity.increment();
+            } else {
+                return;
+            }
+            eldest.remove();
+        }
+    }
+
+    private static long[] newTimes(long now) {
+        long[] times = new long[STAGES + 1];
+        times[STAGES] = now;
+        return times;
+    }
+
+    private static Counter evictedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("acmecorp.analytics.flows.evicted")
+                .description("Orders dropped from flow correlation; their later events are no longer timed")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Latencies are in milliseconds, to two significant digits.
+     */
+    public record StepLatency(FlowStep step,
+                              String from,
+                              String to,
+                              long count,
+                              long p50,
+                              long p95,
+                              long p99,
+                              long max) {
+    }
+
+    public record FlowReport(Duration window, List<StepLatency> steps) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.acmecorp.analytics.flow;
+
+/**
+ * The legs of the order flow that are timed, each between the first occurrence of two events for the same order.
+ */
+public enum FlowStep {
+    CREATED_TO_CONFIRMED(Stage.CREATED, Stage.CONFIRMED),
+    CONFIRMED_TO_INVOICED(Stage.CONFIRMED, Stage.INVOICED),
+    INVOICED_TO_NOTIFIED(Stage.INVOICED, Stage.NOTIFIED),
+    CREATED_TO_NOTIFIED(Stage.CREATED, Stage.NOTIFIED);
+
+    private final Stage from;
+    private final Stage to;
+
+    FlowStep(Stage from, Stage to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public Stage from() {
+        return from;
+    }
+
+    public Stage to() {
+        return to;
+    }
+
+    public enum Stage {
+        CREATED("orders.created"),
+        CONFIRMED("orders.confirmed"),
+        INVOICED("billing.invoice.created"),
+        NOTIFIED("notification.sent");
+
+        private final String event;
+
+        Stage(String event) {
+            this.event = event;
+        }
+
+        public String event() {
+            return event;
+        }
+
+        static Stage of(String event) {
+            for (Stage stage : values()) {
+                if (stage.event.equals(event)) {
+                    return stage;
+                }
+            }
+            return null;
+        }
+    }
+}
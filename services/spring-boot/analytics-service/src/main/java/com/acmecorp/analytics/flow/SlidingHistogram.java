@@ -0,0 +1,55 @@
+package com.acmecorp.analytics.flow;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * A ring of one-minute HdrHistograms. A window is read by adding up the minutes it covers, which is exact because
+ * HdrHistograms of the same range merge without loss; a slot is cleared when the ring comes round to it again.
+ * Values are kept to two significant digits and clamped to {@code highestTrackableValue}.
+ * <p>
+ * Not thread-safe.
+ */
+final class SlidingHistogram {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final long highestTrackableValue;
+    private final Histogram[] slots;
+    private final long[] slotMinutes;
+
+    SlidingHistogram(int minutes, long highestTrackableValue) {
+        this.highestTrackableValue = highestTrackableValue;
+        this.slots = new Histogram[minutes];
+        this.slotMinutes = new long[minutes];
+        for (int i = 0; i < minutes; i++) {
+            slots[i] = new Histogram(highestTrackableValue, SIGNIFICANT_DIGITS);
+            slotMinutes[i] = Long.MIN_VALUE;
+        }
+    }
+
+    void record(long minute, long value) {
+        int index = (int) Math.floorMod(minute, slots.length);
+        if (slotMinutes[index] != minute) {
+            slots[index].reset();
+            slotMinutes[index] = minute;
+        }
+        slots[index].recordValue(Math.min(Math.max(value, 0), highestTrackableValue));
+    }
+
+    /**
+     * Returns the values recorded in the {@code minutes} minutes up to and including {@code currentMinute}.
+     */
+    Histogram window(long currentMinute, int minutes) {
+        Histogram merged = new Histogram(highestTrackableValue, SIGNIFICANT_DIGITS);
+        for (int i = 0; i < slots.length; i++) {
+            if (slotMinutes[i] <= currentMinute && slotMinutes[i] > currentMinute - minutes) {
+                merged.add(slots[i]);
+            }
+        }
+        return merged;
+    }
+
+    int minutes() {
+        return slots.length;
+    }
+}
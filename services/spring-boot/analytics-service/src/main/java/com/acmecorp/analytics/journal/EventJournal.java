@@ -0,0 +1,282 @@
+package com.acmecorp.analytics.journal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends every tracked event, metadata included, to a log of memory-mapped {@link JournalSegment}s, so counters
+ * and series can be rebuilt by {@link JournalReplayer} after Redis lost them.
+ * <p>
+ * {@link #append} only enqueues; a single writer thread encodes the records and copies them into the active
+ * segment, rolls to a new segment when it is full and then deletes sealed segments beyond {@code max-size} or
+ * older than {@code retention}. A full queue drops the event from the journal, never from the counters, so the
+ * journal cannot slow down or fail ingest. Records are forced to disk every {@code force-interval} and on shutdown.
+ */
+public class EventJournal implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+    private static final byte[] NO_METADATA = new byte[0];
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final Duration retention;
+    private final long forceIntervalNanos;
+    private final long shutdownTimeoutMillis;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Entry> queue;
+    private final Counter appended;
+    private final Counter droppedOnOverflow;
+    private final Counter droppedAsTooLarge;
+    private final Counter droppedOnError;
+    private volatile boolean running;
+    private volatile long sealedBytes;
+    private Thread writer;
+    private JournalSegment active;
+
+    public EventJournal(Path directory,
+                        int segmentBytes,
+                        long maxBytes,
+                        Duration retention,
+                        int queueCapacity,
+                        Duration forceInterval,
+                        Duration shutdownTimeout,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry) {
+        if (segmentBytes <= JournalSegment.HEADER_BYTES + JournalSegment.FIXED_PAYLOAD_BYTES || queueCapacity <= 0) {
+            throw new IllegalArgumentException("segmentBytes and queueCapacity are too small");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.retention = retention;
+        this.forceIntervalNanos = forceInterval.toNanos();
+        this.shutdownTimeoutMillis = shutdownTimeout.toMillis();
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.appended = Counter.builder("acmecorp.analytics.journal.appended")
+                .description("Events written to the journal")
+                .register(meterRegistry);
+        this.droppedOnOverflow = droppedCounter(meterRegistry, "overflow");
+        this.droppedAsTooLarge = droppedCounter(meterRegistry, "too_large");
+        this.droppedOnError = droppedCounter(meterRegistry, "error");
+        Gauge.builder("acmecorp.analytics.journal.queue.depth", queue, BlockingQueue::size)
+                .description("Events waiting to be written to the journal")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.analytics.journal.size", this, journal -> journal.sealedBytes)
+                .description("Bytes held by sealed journal segments")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void append(String event, Map<String, Object> metadata) {
+        if (!queue.offer(new Entry(System.currentTimeMillis(), event, metadata))) {
+            droppedOnOverflow.increment();
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Returns the segments to replay, oldest first, including the one being written.
+     */
+    List<Path> segments() {
+        return JournalSegment.list(directory);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to create journal directory " + directory, ex);
+        }
+        List<Path> existing = JournalSegment.list(directory);
+        long nextSequence = 0;
+        if (!existing.isEmpty()) {
+            Path last = existing.get(existing.size() - 1);
+            JournalSegment.recover(last);
+            nextSequence = JournalSegment.sequenceOf(last) + 1;
+        }
+        active = JournalSegment.create(directory, nextSequence, segmentBytes);
+        enforceRetention();
+        running = true;
+        writer = Thread.ofPlatform().daemon().name("analytics-journal").start(this::writeUntilStopped);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(shutdownTimeoutMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Journal writer did not finish within {} ms; {} events were not journaled",
+                    shutdownTimeoutMillis, queue.size());
+            return;
+        }
+        active.seal();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server, so events of requests still in flight are journaled.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void writeUntilStopped() {
+        List<Entry> batch = new ArrayList<>();
+        long lastForce = System.nanoTime();
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(forceIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    batch.forEach(this::writeQuietly);
+                    batch.clear();
+                }
+                if (System.nanoTime() - lastForce >= forceIntervalNanos) {
+                    active.force();
+                    lastForce = System.nanoTime();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void writeQuietly(Entry entry) {
+        try {
+            write(entry);
+        } catch (RuntimeException ex) {
+            droppedOnError.increment();
+            log.warn("Writing to the analytics journal failed", ex);
+        }
+    }
+
+    private void write(Entry entry) {
+        byte[] event = entry.event().getBytes(StandardCharsets.UTF_8);
+        byte[] metadata = encode(entry.metadata());
+        int recordBytes = JournalSegment.recordBytes(event, metadata);
+        if (event.length > 0xFFFF || recordBytes > segmentBytes) {
+            droppedAsTooLarge.increment();
+            return;
+        }
+        if (!active.fits(recordBytes)) {
+            roll();
+        }
+        active.append(entry.timestamp(), event, metadata);
+        appended.increment();
+    }
+
+    // The next segment is created before the full one is sealed: if creating it fails, the full segment stays
+    // active and mapped, its records are not touched, and the next write that does not fit tries to roll again.
+    private void roll() {
+        JournalSegment full = active;
+        active = JournalSegment.create(directory, full.sequence() + 1, segmentBytes);
+        try {
+            full.seal();
+        } catch (UncheckedIOException ex) {
+            log.warn("Unable to seal journal segment {}; its records stay readable up to the first empty slot",
+                    full.path(), ex);
+        }
+        enforceRetention();
+    }
+
+    private void enforceRetention() {
+        Instant cutoff = Instant.now().minus(retention);
+        List<Path> sealed = JournalSegment.list(directory).stream()
+                .filter(path -> !path.equals(active.path()))
+                .toList();
+        long total = 0;
+        for (Path path : sealed) {
+            total += sizeOf(path);
+        }
+        for (Path path : sealed) {
+            if (total <= maxBytes && !lastModified(path).isBefore(cutoff)) {
+                break;
+            }
+            total -= sizeOf(path);
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ex) {
+                log.warn("Unable to delete journal segment {}", path, ex);
+            }
+        }
+        sealedBytes = total;
+    }
+
+    private byte[] encode(Map<String, Object> metadata) {
+        if (metadata == null || metadata.isEmpty()) {
+            return NO_METADATA;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(metadata);
+        } catch (JsonProcessingException ex) {
+            return NO_METADATA;
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException ex) {
+            return 0L;
+        }
+    }
+
+    private static Instant lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant();
+        } catch (IOException ex) {
+            return Instant.EPOCH;
+        }
+    }
+
+    private static Counter droppedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("acmecorp.analytics.journal.dropped")
+                .description("Events that were counted but not written to the journal")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record Entry(long timestamp, String event, Map<String, Object> metadata) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.acmecorp.analytics.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * One file of the journal, named after its sequence number. A segment is created at its full size and mapped
+ * into memory, so appending a record is a copy into the page cache without a system call; sealing it forces the
+ * mapping to disk and truncates the unused tail.
+ * <p>
+ * Record layout, big-endian: {@code int length, int crc32c, long timestampMillis, short eventLength, event (UTF-8),
+ * int metadataLength, metadata (JSON)}. {@code length} counts the bytes after the CRC, which covers exactly those
+ * bytes. The length is written last, so a reader that sees a non-zero length sees a complete record, and a zero
+ * length marks the end of the written part of the segment.
+ */
+final class JournalSegment {
+
+    static final int HEADER_BYTES = 8;
+    static final int FIXED_PAYLOAD_BYTES = 8 + 2 + 4;
+    private static final String SUFFIX = ".log";
+
+    private final Path path;
+    private final long sequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+    private int position;
+    private boolean dirty;
+
+    private JournalSegment(Path path, long sequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.sequence = sequence;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long sequence, int size) {
+        Path path = directory.resolve(String.format("%020d%s", sequence, SUFFIX));
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new JournalSegment(path, sequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException ex) {
+            // A file left behind by a failed map would make every later attempt fail on CREATE_NEW.
+            if (channel != null) {
+                try {
+                    channel.close();
+                    Files.deleteIfExists(path);
+                } catch (IOException cleanup) {
+                    ex.addSuppressed(cleanup);
+                }
+            }
+            throw new UncheckedIOException("Unable to create journal segment " + path, ex);
+        }
+    }
+
+    static int recordBytes(byte[] event, byte[] metadata) {
+        return HEADER_BYTES + FIXED_PAYLOAD_BYTES + event.length + metadata.length;
+    }
+
+    boolean fits(int recordBytes) {
+        return buffer.capacity() - position >= recordBytes;
+    }
+
+    void append(long timestamp, byte[] event, byte[] metadata) {
+        int start = position;
+        int length = FIXED_PAYLOAD_BYTES + event.length + metadata.length;
+        buffer.position(start + HEADER_BYTES);
+        buffer.putLong(timestamp);
+        buffer.putShort((short) event.length);
+        buffer.put(event);
+        buffer.putInt(metadata.length);
+        buffer.put(metadata);
+        crc.reset();
+        crc.update(buffer.slice(start + HEADER_BYTES, length));
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, length);
+        position = start + HEADER_BYTES + length;
+        dirty = true;
+    }
+
+    void force() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    void seal() {
+        try {
+            force();
+            channel.truncate(position);
+            channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to seal journal segment " + path, ex);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    int position() {
+        return position;
+    }
+
+    /**
+     * Truncates a segment left behind by a process that did not seal it to the end of its last intact record.
+     */
+    static void recover(Path path) {
+        long end = read(path, (timestamp, event, metadata) -> { }).validBytes();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (channel.size() > end) {
+                channel.truncate(end);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to recover journal segment " + path, ex);
+        }
+    }
+
+    /**
+     * Reads the records of a segment in order and stops at the first zero length or damaged record. The metadata
+     * is handed over as a view of the mapped file rather than copied.
+     */
+    static ReadResult read(Path path, RecordHandler handler) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new ReadResult(0, 0, false);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32C crc = new CRC32C();
+            int position = 0;
+            long records = 0;
+            while (buffer.capacity() - position >= HEADER_BYTES) {
+                int length = buffer.getInt(position);
+                if (length == 0) {
+                    return new ReadResult(records, position, false);
+                }
+                if (length < FIXED_PAYLOAD_BYTES || length > buffer.capacity() - position - HEADER_BYTES) {
+                    return new ReadResult(records, position, true);
+                }
+                int payload = position + HEADER_BYTES;
+                crc.reset();
+                crc.update(buffer.slice(payload, length));
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    return new ReadResult(records, position, true);
+                }
+                long timestamp = buffer.getLong(payload);
+                int eventLength = Short.toUnsignedInt(buffer.getShort(payload + 8));
+                byte[] event = new byte[eventLength];
+                buffer.get(payload + 10, event);
+                int metadataLength = buffer.getInt(payload + 10 + eventLength);
+                ByteBuffer metadata = buffer.slice(payload + 14 + eventLength, metadataLength);
+                handler.accept(timestamp, new String(event, StandardCharsets.UTF_8), metadata);
+                records++;
+                position = payload + length;
+            }
+            return new ReadResult(records, position, false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read journal segment " + path, ex);
+        }
+    }
+
+    static List<Path> list(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to list journal segments in " + directory, ex);
+        }
+    }
+
+    static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    @FunctionalInterface
+    interface RecordHandler {
+        void accept(long timestamp, String event, ByteBuffer metadata);
+    }
+
+    record ReadResult(long records, long validBytes, boolean damaged) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.acmecorp.analytics.messaging;
+
+import com.acmecorp.analytics.config.RabbitConfig;
+import com.acmecorp.analytics.service.AnalyticsService;
+import com.acmecorp.analytics.web.TrackEventBatchRequest;
+import com.acmecorp.analytics.web.TrackEventRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumes the event batches orders, billing and notification publish to {@code analytics-events-queue}. All
+ * messages of a consumer batch go to {@link AnalyticsService#trackAll} together, so they cost one pipelined Redis
+ * write, and are acknowledged together once it returned.
+ * <p>
+ * Messages or events that can never be applied are counted and skipped rather than failing the whole batch.
+ */
+public class AnalyticsEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsEventListener.class);
+
+    private final AnalyticsService analyticsService;
+    private final ObjectMapper objectMapper;
+    private final DistributionSummary batchSizes;
+    private final Counter rejectedMessages;
+    private final Counter rejectedEvents;
+
+    public AnalyticsEventListener(AnalyticsService analyticsService,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.analyticsService = analyticsService;
+        this.objectMapper = objectMapper;
+        this.batchSizes = DistributionSummary.builder("acmecorp.analytics.ingest.batch.size")
+                .description("Events written per batch of messages consumed from analytics-events-queue")
+                .register(meterRegistry);
+        this.rejectedMessages = rejectedCounter(meterRegistry, "message");
+        this.rejectedEvents = rejectedCounter(meterRegistry, "event");
+    }
+
+    @RabbitListener(
+            queues = RabbitConfig.ANALYTICS_EVENTS_QUEUE,
+            containerFactory = "analyticsEventsListenerContainerFactory"
+    )
+    public void onMessages(List<Message> messages) {
+        List<TrackEventRequest> events = new ArrayList<>();
+        for (Message message : messages) {
+            TrackEventBatchRequest batch;
+            try {
+                batch = objectMapper.readValue(message.getBody(), TrackEventBatchRequest.class);
+            } catch (IOException ex) {
+                log.warn("Skipping unreadable analytics message {}", message.getMessageProperties().getMessageId(), ex);
+                rejectedMessages.increment();
+                continue;
+            }
+            if (batch.events() == null) {
+                rejectedMessages.increment();
+                continue;
+            }
+            for (TrackEventRequest event : batch.events()) {
+                if (event == null || event.event() == null || event.event().isBlank()) {
+                    rejectedEvents.increment();
+                } else {
+                    events.add(event);
+                }
+            }
+        }
+        if (!events.isEmpty()) {
+            analyticsService.trackAll(events);
+        }
+        batchSizes.record(events.size());
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String kind) {
+        return Counter.builder("acmecorp.analytics.ingest.rejected")
+                .description("Messages or events from analytics-events-queue skipped because they cannot be applied")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+}
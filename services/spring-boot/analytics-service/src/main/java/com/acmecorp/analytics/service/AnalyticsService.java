@@ -1,11 +1,21 @@
 package com.acmecorp.analytics.service;
 
-import org.springframework.data.redis.core.StringRedisTemplate;
+import com.acmecorp.analytics.columnar.ColumnarEventStore;
+import com.acmecorp.analytics.flow.FlowLatencies;
+import com.acmecorp.analytics.journal.EventJournal;
+import com.acmecorp.analytics.sketch.OrderSketches;
+import com.acmecorp.analytics.web.TrackEventRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsService {
@@ -19,32 +29,99 @@ public class AnalyticsService {
             "notification.sent"
     );
 
-    private final StringRedisTemplate redisTemplate;
+    private final CounterStore counterStore;
+    private final EventSeries series;
+    private final CounterAggregator aggregator;
+    private final EventJournal journal;
+    private final OrderSketches sketches;
+    private final FlowLatencies flowLatencies;
+    private final ColumnarEventStore eventStore;
+    private final CounterReadCache readCache;
 
-    public AnalyticsService(StringRedisTemplate redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    /**
+     * Counters are written straight to Redis unless {@code acmecorp.analytics.aggregation.enabled} provides a
+     * {@link CounterAggregator}, in which case they are counted in memory and flushed periodically.
+     * {@link #allCounters()} is served from a snapshot that is at most
+     * {@code acmecorp.analytics.counters.read-cache-ttl} old. Raw events are also appended to the
+     * {@link EventJournal} unless {@code acmecorp.analytics.journal.enabled} is false, and order metadata feeds the
+     * {@link OrderSketches} and the {@link FlowLatencies}, and every event the {@link ColumnarEventStore}, unless
+     * their {@code enabled} property is false.
+     */
+    public AnalyticsService(CounterStore counterStore,
+                            EventSeries series,
+                            ObjectProvider<CounterAggregator> aggregator,
+                            ObjectProvider<EventJournal> journal,
+                            ObjectProvider<OrderSketches> sketches,
+                            ObjectProvider<FlowLatencies> flowLatencies,
+                            ObjectProvider<ColumnarEventStore> eventStore,
+                            @Value("${acmecorp.analytics.counters.read-cache-ttl:500ms}") Duration readCacheTtl,
+                            MeterRegistry meterRegistry) {
+        this.counterStore = counterStore;
+        this.series = series;
+        this.aggregator = aggregator.getIfAvailable();
+        this.journal = journal.getIfAvailable();
+        this.sketches = sketches.getIfAvailable();
+        this.flowLatencies = flowLatencies.getIfAvailable();
+        this.eventStore = eventStore.getIfAvailable();
+        this.readCache = new CounterReadCache(counterStore::getAll, readCacheTtl, meterRegistry);
     }
 
-    public void track(String event) {
-        String key = toKey(event);
-        redisTemplate.opsForValue().increment(key);
+    public void track(String event, Map<String, Object> metadata, Instant occurredAt) {
+        count(Map.of(event, 1L));
+        record(event, metadata, occurredAt);
+    }
+
+    /**
+     * Applies a batch with one INCRBY per distinct event, all sent in a single pipelined round trip.
+     * <p>
+     * The counters are written first and the journal, sketches, flow latencies and event store only once that
+     * succeeded: the listener retries a failed batch as a whole, and none of those can take an event back.
+     */
+    public void trackAll(List<TrackEventRequest> events) {
+        count(events.stream()
+                .collect(Collectors.groupingBy(TrackEventRequest::event, LinkedHashMap::new, Collectors.counting())));
+        events.forEach(event -> record(event.event(), event.metadata(), event.occurredAt()));
+    }
+
+    private void count(Map<String, Long> increments) {
+        if (aggregator != null) {
+            increments.forEach(aggregator::add);
+            return;
+        }
+        counterStore.increment(increments);
+    }
+
+    private void record(String event, Map<String, Object> metadata, Instant occurredAt) {
+        if (journal != null) {
+            journal.append(event, metadata);
+        }
+        if (sketches != null) {
+            sketches.record(event, metadata);
+        }
+        if (flowLatencies != null) {
+            flowLatencies.record(event, metadata, occurredAt);
+        }
+        if (eventStore != null) {
+            eventStore.append(event, metadata, occurredAt);
+        }
     }
 
     public Map<String, Long> allCounters() {
-        Map<String, Long> counters = new LinkedHashMap<>();
-        for (String event : KNOWN_EVENTS) {
-            counters.put(event, getCounter(event));
+        Map<String, Long> counters = readCache.get();
+        if (aggregator == null) {
+            return counters;
         }
-        return counters;
+        Map<String, Long> withPending = new LinkedHashMap<>(counters);
+        aggregator.pendingByEvent().forEach((event, pending) -> withPending.merge(event, pending, Long::sum));
+        return withPending;
     }
 
     public long getCounter(String event) {
-        String key = toKey(event);
-        String value = redisTemplate.opsForValue().get(key);
-        return value != null ? Long.parseLong(value) : 0L;
+        long stored = counterStore.get(event);
+        return aggregator != null ? stored + aggregator.pending(event) : stored;
     }
 
-    private String toKey(String event) {
-        return "analytics:event:" + event;
+    public EventSeries.Series series(String event, Instant from, Instant to, Duration step) {
+        return series.read(event, from, to, step);
     }
 }
@@ -0,0 +1,205 @@
+package com.acmecorp.analytics.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events in memory and writes the accumulated deltas to Redis every {@code flush-interval}, one INCRBY per
+ * counter that moved, all in one pipelined round trip. A hot counter costs one Redis command per interval instead
+ * of one per event.
+ * <p>
+ * Each counter is a {@link LongAdder} that is never reset; the aggregator remembers how much of it already reached
+ * Redis and only ever writes the difference, so increments racing a flush are carried to the next one rather than
+ * lost. A failed flush is retried with the next. Increments not yet in Redis are lost if the process dies, which
+ * bounds the loss to roughly one flush interval; a regular shutdown flushes what is left.
+ */
+public class CounterAggregator implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterAggregator.class);
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final CounterStore counterStore;
+    private final long flushIntervalNanos;
+    private final long shutdownTimeoutMillis;
+    private final ConcurrentMap<String, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicLong oldestPending = new AtomicLong(NONE);
+    private final Object flushLock = new Object();
+    private final DistributionSummary flushedKeys;
+    private final DistributionSummary flushedIncrements;
+    private final Timer lag;
+    private final Counter failedFlushes;
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public CounterAggregator(CounterStore counterStore,
+                             Duration flushInterval,
+                             Duration shutdownTimeout,
+                             MeterRegistry meterRegistry) {
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("flushInterval must be positive");
+        }
+        this.counterStore = counterStore;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.shutdownTimeoutMillis = shutdownTimeout.toMillis();
+        this.flushedKeys = DistributionSummary.builder("acmecorp.analytics.aggregation.flush.keys")
+                .description("Counters written to Redis per flush")
+                .register(meterRegistry);
+        this.flushedIncrements = DistributionSummary.builder("acmecorp.analytics.aggregation.flush.increments")
+                .description("Events written to Redis per flush")
+                .register(meterRegistry);
+        this.lag = Timer.builder("acmecorp.analytics.aggregation.flush.lag")
+                .description("Time from the oldest unflushed increment until its flush completed")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("acmecorp.analytics.aggregation.flush.failures")
+                .description("Flushes of aggregated counters that Redis did not accept")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.analytics.aggregation.pending", this, CounterAggregator::pending)
+                .description("Events counted in memory and not yet written to Redis")
+                .register(meterRegistry);
+    }
+
+    public void add(String event, long delta) {
+        Slot slot = slots.get(event);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(event, ignored -> new Slot());
+        }
+        slot.adder.add(delta);
+        if (oldestPending.get() == NONE) {
+            oldestPending.compareAndSet(NONE, System.nanoTime());
+        }
+    }
+
+    /**
+     * Returns how much {@code event} has been counted here beyond what Redis already holds.
+     */
+    public long pending(String event) {
+        Slot slot = slots.get(event);
+        return slot != null ? slot.adder.sum() - slot.flushed : 0L;
+    }
+
+    public Map<String, Long> pendingByEvent() {
+        Map<String, Long> pending = new LinkedHashMap<>();
+        slots.forEach((event, slot) -> {
+            long delta = slot.adder.sum() - slot.flushed;
+            if (delta > 0) {
+                pending.put(event, delta);
+            }
+        });
+        return pending;
+    }
+
+    long pending() {
+        long pending = 0;
+        for (Slot slot : slots.values()) {
+            pending += slot.adder.sum() - slot.flushed;
+        }
+        return pending;
+    }
+
+    /**
+     * Writes everything counted so far to Redis and returns the number of events written, or 0 if Redis failed.
+     */
+    long flush() {
+        synchronized (flushLock) {
+            return flushPending();
+        }
+    }
+
+    private long flushPending() {
+        // Taken before the sums, so an increment that misses this flush marks itself as pending again.
+        long since = oldestPending.getAndSet(NONE);
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        Map<Slot, Long> totals = new IdentityHashMap<>();
+        slots.forEach((event, slot) -> {
+            long total = slot.adder.sum();
+            long delta = total - slot.flushed;
+            if (delta > 0) {
+                deltas.put(event, delta);
+                totals.put(slot, total);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        try {
+            counterStore.increment(deltas);
+        } catch (RuntimeException ex) {
+            failedFlushes.increment();
+            oldestPending.getAndUpdate(current -> current == NONE || since - current < 0 ? since : current);
+            log.warn("Flushing {} aggregated analytics counters failed; retrying with the next flush", deltas.size(), ex);
+            return 0;
+        }
+        totals.forEach((slot, total) -> slot.flushed = total);
+        long events = deltas.values().stream().mapToLong(Long::longValue).sum();
+        flushedKeys.record(deltas.size());
+        flushedIncrements.record(events);
+        if (since != NONE) {
+            lag.record(System.nanoTime() - since, TimeUnit.NANOSECONDS);
+        }
+        return events;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("analytics-counter-flush").factory());
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalNanos, flushIntervalNanos, TimeUnit.NANOSECONDS);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        long lost = pending();
+        if (lost > 0) {
+            log.warn("Shutting down with {} analytics events that could not be written to Redis", lost);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server, so requests still in flight are counted, and before the Redis connection factory.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private static final class Slot {
+        private final LongAdder adder = new LongAdder();
+        private volatile long flushed;
+    }
+}
@@ -0,0 +1,301 @@
+package com.acmecorp.analytics.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Pushes counter changes to Server-Sent Events subscribers. A new subscriber gets a {@code snapshot} event with
+ * every counter; afterwards one ticker reads the counters once per {@code tick}, diffs them against the previous
+ * tick and sends the changes as a {@code delta} event, serialized once and shared by all subscribers. Ticks without
+ * changes send nothing but a comment every {@code heartbeat-interval}, which also detects closed connections.
+ * <p>
+ * Each subscriber is written to by its own virtual thread from a one-frame mailbox, so a slow client never delays
+ * the ticker or the other subscribers. When a client has not taken the previous frame yet, the next one is merged
+ * into it, so a slow client receives fewer, larger deltas and never loses a change.
+ */
+public class CounterFeed implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterFeed.class);
+
+    private final Supplier<Map<String, Long>> counters;
+    private final ObjectMapper objectMapper;
+    private final long tickMillis;
+    private final long heartbeatTicks;
+    private final int maxSubscribers;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Object tickLock = new Object();
+    private final Timer tickTimer;
+    private final Counter framesSent;
+    private final Counter framesMerged;
+    private Map<String, Long> last;
+    private long sequence;
+    private long quietTicks;
+    private volatile boolean running;
+    private ScheduledExecutorService ticker;
+
+    public CounterFeed(Supplier<Map<String, Long>> counters,
+                       ObjectMapper objectMapper,
+                       Duration tick,
+                       Duration heartbeatInterval,
+                       int maxSubscribers,
+                       MeterRegistry meterRegistry) {
+        if (tick.toMillis() <= 0 || maxSubscribers <= 0) {
+            throw new IllegalArgumentException("tick and maxSubscribers must be positive");
+        }
+        this.counters = counters;
+        this.objectMapper = objectMapper;
+        this.tickMillis = tick.toMillis();
+        this.heartbeatTicks = Math.max(1, heartbeatInterval.toMillis() / tickMillis);
+        this.maxSubscribers = maxSubscribers;
+        this.tickTimer = Timer.builder("acmecorp.analytics.feed.tick")
+                .description("Time to read, diff, serialize and hand out one tick to all subscribers")
+                .register(meterRegistry);
+        this.framesSent = Counter.builder("acmecorp.analytics.feed.frames")
+                .description("Events written to feed subscribers")
+                .register(meterRegistry);
+        this.framesMerged = Counter.builder("acmecorp.analytics.feed.merged")
+                .description("Frames merged into the previous one because a subscriber had not taken it yet")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.analytics.feed.subscribers", subscribers, Set::size)
+                .description("Open counter feed connections")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe() {
+        if (!running) {
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Counter feed is not running");
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Counter feed is at " + maxSubscribers + " subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter);
+        synchronized (tickLock) {
+            if (last == null) {
+                last = new LinkedHashMap<>(counters.get());
+            }
+            subscriber.offer(new Frame(Frame.SNAPSHOT, sequence, last));
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscriber.start();
+        return emitter;
+    }
+
+    int subscribers() {
+        return subscribers.size();
+    }
+
+    void tick() {
+        if (subscribers.isEmpty()) {
+            synchronized (tickLock) {
+                if (subscribers.isEmpty()) {
+                    // Read afresh for the next subscriber rather than diffing against a stale tick.
+                    last = null;
+                }
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized (tickLock) {
+            Map<String, Long> current = new LinkedHashMap<>(counters.get());
+            Map<String, Long> delta = new LinkedHashMap<>();
+            current.forEach((event, count) -> {
+                long change = count - (last != null ? last.getOrDefault(event, 0L) : 0L);
+                if (change != 0) {
+                    delta.put(event, change);
+                }
+            });
+            last = current;
+            sequence++;
+            Frame frame;
+            if (!delta.isEmpty()) {
+                frame = new Frame(Frame.DELTA, sequence, delta);
+                quietTicks = 0;
+            } else if (++quietTicks % heartbeatTicks == 0) {
+                frame = Frame.HEARTBEAT;
+            } else {
+                frame = null;
+            }
+            if (frame != null) {
+                frame.event(objectMapper);
+                subscribers.forEach(subscriber -> subscriber.offer(frame));
+            }
+        }
+        tickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("analytics-feed").factory());
+        ticker.scheduleWithFixedDelay(this::tickQuietly, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        ticker.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.forEach(Subscriber::close);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops before the web server, whose graceful shutdown would otherwise wait for the open streams to end.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (RuntimeException ex) {
+            // The changes are picked up by the next tick that can read the counters.
+            log.warn("Counter feed tick failed", ex);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicReference<Frame> mailbox = new AtomicReference<>();
+        private volatile boolean open = true;
+        private Thread sender;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Frame frame) {
+            Frame previous = mailbox.getAndAccumulate(frame, Frame::merge);
+            if (previous != null && previous != Frame.HEARTBEAT && frame != Frame.HEARTBEAT) {
+                framesMerged.increment();
+            }
+            Thread thread = sender;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        void start() {
+            sender = Thread.ofVirtual().name("analytics-feed-subscriber").start(this::sendUntilClosed);
+        }
+
+        void close() {
+            open = false;
+            subscribers.remove(this);
+            Thread thread = sender;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void sendUntilClosed() {
+            while (open) {
+                Frame frame = mailbox.getAndSet(null);
+                if (frame == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                try {
+                    emitter.send(frame.event(objectMapper));
+                    framesSent.increment();
+                } catch (IOException | IllegalStateException ex) {
+                    emitter.completeWithError(ex);
+                    close();
+                }
+            }
+        }
+    }
+
+    private static final class Frame {
+
+        static final String SNAPSHOT = "snapshot";
+        static final String DELTA = "delta";
+        static final Frame HEARTBEAT = new Frame(null, 0, Map.of());
+
+        private final String name;
+        private final long id;
+        private final Map<String, Long> counts;
+        private Set<ResponseBodyEmitter.DataWithMediaType> event;
+
+        private Frame(String name, long id, Map<String, Long> counts) {
+            this.name = name;
+            this.id = id;
+            this.counts = counts;
+        }
+
+        /**
+         * A snapshot followed by a delta becomes the snapshot plus the delta; two deltas become their sum.
+         */
+        static Frame merge(Frame older, Frame newer) {
+            if (older == null || older == HEARTBEAT) {
+                return newer;
+            }
+            if (newer == HEARTBEAT) {
+                return older;
+            }
+            Map<String, Long> merged = new LinkedHashMap<>(older.counts);
+            newer.counts.forEach((event, count) -> merged.merge(event, count, Long::sum));
+            return new Frame(older.name, newer.id, merged);
+        }
+
+        synchronized Set<ResponseBodyEmitter.DataWithMediaType> event(ObjectMapper objectMapper) {
+            if (event == null) {
+                if (this == HEARTBEAT) {
+                    event = SseEmitter.event().comment("heartbeat").build();
+                } else {
+                    try {
+                        event = SseEmitter.event()
+                                .name(name)
+                                .id(Long.toString(id))
+                                .data(objectMapper.writeValueAsString(counts))
+                                .build();
+                    } catch (JsonProcessingException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+            }
+            return event;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.acmecorp.analytics.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Holds the last counter snapshot for {@code ttl}. Callers that find it expired while a reload is already running
+ * wait for that reload instead of starting their own, so Redis sees at most one read per TTL however many
+ * dashboards poll. A zero TTL still coalesces concurrent reads.
+ */
+class CounterReadCache {
+
+    private final Supplier<Map<String, Long>> loader;
+    private final long ttlNanos;
+    private final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+    private final Counter cachedReads;
+    private final Counter coalescedReads;
+    private final Counter loads;
+    private volatile Snapshot snapshot;
+
+    CounterReadCache(Supplier<Map<String, Long>> loader, Duration ttl, MeterRegistry meterRegistry) {
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl must not be negative");
+        }
+        this.loader = loader;
+        this.ttlNanos = ttl.toNanos();
+        this.cachedReads = readCounter(meterRegistry, "cache");
+        this.coalescedReads = readCounter(meterRegistry, "coalesced");
+        this.loads = readCounter(meterRegistry, "redis");
+    }
+
+    Map<String, Long> get() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            cachedReads.increment();
+            return current.counters();
+        }
+        CompletableFuture<Snapshot> load = new CompletableFuture<>();
+        CompletableFuture<Snapshot> running = inFlight.compareAndExchange(null, load);
+        if (running != null) {
+            coalescedReads.increment();
+            return await(running).counters();
+        }
+        try {
+            Snapshot latest = snapshot;
+            if (latest != current && isFresh(latest)) {
+                load.complete(latest);
+                cachedReads.increment();
+                return latest.counters();
+            }
+            long startedAt = System.nanoTime();
+            Snapshot loaded = new Snapshot(Collections.unmodifiableMap(new LinkedHashMap<>(loader.get())), startedAt);
+            loads.increment();
+            snapshot = loaded;
+            load.complete(loaded);
+            return loaded.counters();
+        } catch (RuntimeException ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    private boolean isFresh(Snapshot candidate) {
+        return candidate != null && System.nanoTime() - candidate.loadedAt() < ttlNanos;
+    }
+
+    private static Snapshot await(CompletableFuture<Snapshot> load) {
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("acmecorp.analytics.counters.reads")
+                .description("Counter snapshot reads by where they were answered from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private record Snapshot(Map<String, Long> counters, long loadedAt) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.acmecorp.analytics.service;
+
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Reads and writes the event counters in Redis. Every counter is a string key {@code analytics:event:<event>};
+ * events other than {@link AnalyticsService#KNOWN_EVENTS} are also listed in the set {@code analytics:events}
+ * so readers can discover them without scanning the keyspace.
+ */
+@Component
+public class CounterStore {
+
+    static final String EVENTS_KEY = "analytics:events";
+    private static final String KEY_PREFIX = "analytics:event:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final EventSeries series;
+    // Events this instance knows to be in analytics:events, either because it added them or read them from there.
+    private final Set<String> registeredEvents = new ConcurrentSkipListSet<>();
+
+    public CounterStore(StringRedisTemplate redisTemplate, EventSeries series) {
+        this.redisTemplate = redisTemplate;
+        this.series = series;
+    }
+
+    /**
+     * Applies one INCRBY per event to its total and its {@link EventSeries} buckets, all sent in a single pipelined
+     * round trip. The increments are not atomic as a group: if Redis fails midway, some counters may have moved.
+     * Events seen for the first time are registered before they are counted.
+     */
+    public void increment(Map<String, Long> deltas) {
+        register(deltas.keySet());
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection commands = (StringRedisConnection) connection;
+            deltas.forEach((event, delta) -> commands.incrBy(toKey(event), delta));
+            series.append(commands, deltas);
+            return null;
+        });
+    }
+
+    /**
+     * Overwrites the totals of the given events, for example with counts rebuilt from the journal.
+     */
+    public void restore(Map<String, Long> totals) {
+        if (totals.isEmpty()) {
+            return;
+        }
+        register(totals.keySet());
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection commands = (StringRedisConnection) connection;
+            totals.forEach((event, total) -> commands.set(toKey(event), Long.toString(total)));
+            return null;
+        });
+    }
+
+    public long get(String event) {
+        return parse(redisTemplate.opsForValue().get(toKey(event)));
+    }
+
+    /**
+     * Returns every counter, known events first. The registry and the counters already known here are read in
+     * one pipelined round trip (SMEMBERS plus one MGET); only events that other instances registered since the
+     * last read cost a second MGET.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Long> getAll() {
+        List<String> events = new ArrayList<>(AnalyticsService.KNOWN_EVENTS);
+        registeredEvents.stream().filter(event -> !AnalyticsService.KNOWN_EVENTS.contains(event)).forEach(events::add);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection commands = (StringRedisConnection) connection;
+            commands.sMembers(EVENTS_KEY);
+            commands.mGet(events.stream().map(CounterStore::toKey).toArray(String[]::new));
+            return null;
+        });
+        Set<String> registry = (Set<String>) results.get(0);
+        List<String> values = (List<String>) results.get(1);
+
+        Map<String, Long> counters = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            counters.put(events.get(i), parse(values.get(i)));
+        }
+        List<String> discovered = registry == null ? List.of() : registry.stream()
+                .filter(event -> !counters.containsKey(event))
+                .sorted()
+                .toList();
+        if (!discovered.isEmpty()) {
+            List<String> discoveredValues = redisTemplate.opsForValue()
+                    .multiGet(discovered.stream().map(CounterStore::toKey).toList());
+            for (int i = 0; i < discovered.size(); i++) {
+                counters.put(discovered.get(i), parse(discoveredValues != null ? discoveredValues.get(i) : null));
+            }
+            registeredEvents.addAll(discovered);
+        }
+        return counters;
+    }
+
+    private void register(Set<String> events) {
+        String[] unregistered = events.stream()
+                .filter(event -> !AnalyticsService.KNOWN_EVENTS.contains(event) && !registeredEvents.contains(event))
+                .toArray(String[]::new);
+        if (unregistered.length > 0) {
+            redisTemplate.opsForSet().add(EVENTS_KEY, unregistered);
+            registeredEvents.addAll(List.of(unregistered));
+        }
+    }
+
+    private static long parse(String value) {
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    private static String toKey(String event) {
+        return KEY_PREFIX + event;
+    }
+}
@@ -0,0 +1,192 @@
+package com.acmecorp.analytics.service;
+
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Per-event counters in minute, hour and day buckets, kept next to the lifetime totals of {@link CounterStore}.
+ * A bucket is the string key {@code analytics:series:<event>:<m|h|d>:<n>}, where {@code n} counts whole minutes,
+ * hours or UTC days since the epoch, and expires its resolution's retention after the last write.
+ * <p>
+ * Writes join the pipeline of the totals they belong to, so a batch costs no extra round trip. Events are bucketed
+ * by the time they reach Redis, which with counter aggregation is up to one flush interval after they arrived.
+ * A range is read with one MGET over the buckets of the coarsest resolution that divides the step; ranges needing
+ * more than {@code max-buckets} are rejected rather than split.
+ */
+public class EventSeries {
+
+    private static final String KEY_PREFIX = "analytics:series:";
+    private static final int RESTORE_BATCH_SIZE = 10_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final Clock clock;
+    private final Map<Resolution, Long> retentionSeconds = new EnumMap<>(Resolution.class);
+    private final int maxBuckets;
+
+    public EventSeries(StringRedisTemplate redisTemplate,
+                       Clock clock,
+                       Duration minuteRetention,
+                       Duration hourRetention,
+                       Duration dayRetention,
+                       int maxBuckets) {
+        if (maxBuckets <= 0) {
+            throw new IllegalArgumentException("maxBuckets must be greater than 0");
+        }
+        this.redisTemplate = redisTemplate;
+        this.clock = clock;
+        this.retentionSeconds.put(Resolution.MINUTE, minuteRetention.toSeconds());
+        this.retentionSeconds.put(Resolution.HOUR, hourRetention.toSeconds());
+        this.retentionSeconds.put(Resolution.DAY, dayRetention.toSeconds());
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * Queues one INCRBY and one EXPIRE per resolution and event on a pipelined connection.
+     */
+    void append(StringRedisConnection commands, Map<String, Long> deltas) {
+        long now = clock.instant().getEpochSecond();
+        deltas.forEach((event, delta) -> {
+            for (Resolution resolution : Resolution.values()) {
+                String key = key(event, resolution, Math.floorDiv(now, resolution.seconds));
+                commands.incrBy(key, delta);
+                commands.expire(key, retentionSeconds.get(resolution));
+            }
+        });
+    }
+
+    /**
+     * Overwrites the buckets of each event with counts rebuilt elsewhere, given per epoch minute and rolled up here
+     * to hours and days. Each bucket expires as it would have if written live; buckets already past their retention
+     * are skipped. Keys are sent in pipelines of {@value #RESTORE_BATCH_SIZE}.
+     */
+    public void restore(Map<String, Map<Long, Long>> countsByMinute) {
+        long now = clock.instant().getEpochSecond();
+        Map<String, long[]> buckets = new LinkedHashMap<>();
+        countsByMinute.forEach((event, minutes) -> {
+            for (Resolution resolution : Resolution.values()) {
+                long minutesPerBucket = resolution.seconds / Resolution.MINUTE.seconds;
+                long retention = retentionSeconds.get(resolution);
+                minutes.forEach((minute, count) -> {
+                    long bucket = Math.floorDiv(minute, minutesPerBucket);
+                    long expireAt = (bucket + 1) * resolution.seconds + retention;
+                    if (expireAt > now) {
+                        buckets.computeIfAbsent(key(event, resolution, bucket), ignored -> new long[]{0, expireAt})[0]
+                                += count;
+                    }
+                });
+            }
+        });
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(buckets.entrySet());
+        for (int from = 0; from < entries.size(); from += RESTORE_BATCH_SIZE) {
+            List<Map.Entry<String, long[]>> chunk =
+                    entries.subList(from, Math.min(from + RESTORE_BATCH_SIZE, entries.size()));
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection commands = (StringRedisConnection) connection;
+                for (Map.Entry<String, long[]> entry : chunk) {
+                    commands.set(entry.getKey(), Long.toString(entry.getValue()[0]),
+                            Expiration.unixTimestamp(entry.getValue()[1], TimeUnit.SECONDS), SetOption.upsert());
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Returns the counts of {@code event} per {@code step} from {@code from} (rounded down to a step boundary) to
+     * {@code to}, exclusive. Missing bounds default to the hour up to now. Buckets past their retention read as 0.
+     */
+    public Series read(String event, Instant from, Instant to, Duration step) {
+        Instant end = to != null ? to : clock.instant();
+        Instant begin = from != null ? from : end.minus(Duration.ofHours(1));
+        long stepSeconds = step.getSeconds();
+        if (step.getNano() != 0 || stepSeconds <= 0 || stepSeconds % Resolution.MINUTE.seconds != 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "step must be a positive whole number of minutes");
+        }
+        if (!begin.isBefore(end)) {
+            throw new ResponseStatusException(BAD_REQUEST, "from must be before to");
+        }
+        Resolution resolution = Resolution.coarsestDividing(stepSeconds);
+        long start = Math.floorDiv(begin.getEpochSecond(), stepSeconds) * stepSeconds;
+        long stop = end.getEpochSecond();
+        long firstBucket = Math.floorDiv(start, resolution.seconds);
+        long bucketCount = Math.ceilDiv(stop, resolution.seconds) - firstBucket;
+        if (bucketCount > maxBuckets) {
+            throw new ResponseStatusException(BAD_REQUEST,
+                    "Range needs " + bucketCount + " buckets, more than " + maxBuckets + "; use a larger step");
+        }
+
+        List<String> keys = new ArrayList<>((int) bucketCount);
+        for (long bucket = firstBucket; bucket < firstBucket + bucketCount; bucket++) {
+            keys.add(key(event, resolution, bucket));
+        }
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+
+        long bucketsPerStep = stepSeconds / resolution.seconds;
+        List<Point> points = new ArrayList<>();
+        for (long pointStart = start; pointStart < stop; pointStart += stepSeconds) {
+            int offset = (int) (Math.floorDiv(pointStart, resolution.seconds) - firstBucket);
+            long count = 0;
+            for (int i = offset; i < offset + bucketsPerStep && i < bucketCount; i++) {
+                String value = values != null ? values.get(i) : null;
+                count += value != null ? Long.parseLong(value) : 0L;
+            }
+            points.add(new Point(Instant.ofEpochSecond(pointStart), count));
+        }
+        return new Series(event, Instant.ofEpochSecond(start), end, step, resolution, points);
+    }
+
+    private static String key(String event, Resolution resolution, long bucket) {
+        return KEY_PREFIX + event + ":" + resolution.suffix + ":" + bucket;
+    }
+
+    public enum Resolution {
+        MINUTE("m", 60),
+        HOUR("h", 3_600),
+        DAY("d", 86_400);
+
+        private final String suffix;
+        private final long seconds;
+
+        Resolution(String suffix, long seconds) {
+            this.suffix = suffix;
+            this.seconds = seconds;
+        }
+
+        static Resolution coarsestDividing(long stepSeconds) {
+            Resolution coarsest = MINUTE;
+            for (Resolution resolution : values()) {
+                if (stepSeconds % resolution.seconds == 0) {
+                    coarsest = resolution;
+                }
+            }
+            return coarsest;
+        }
+    }
+
+    public record Point(Instant timestamp, long count) {
+    }
+
+    public record Series(String event,
+                         Instant from,
+                         Instant to,
+                         Duration step,
+                         Resolution resolution,
+                         List<Point> points) {
+    }
+}
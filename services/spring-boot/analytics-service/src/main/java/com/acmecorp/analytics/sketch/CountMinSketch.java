@@ -0,0 +1,83 @@
+package com.acmecorp.analytics.sketch;
+
+/**
+ * Approximate per-item counts in {@code ceil(e / epsilon) * ceil(ln(1 / delta))} counters. An estimate is never
+ * below the true count and, with probability at least {@code 1 - delta}, exceeds it by at most
+ * {@code epsilon * total}, where {@code total} is the sum of everything added.
+ * <p>
+ * Not thread-safe. The row indexes are derived from one 64-bit hash by double hashing.
+ */
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[] counts;
+    private long total;
+
+    public CountMinSketch(double epsilon, double delta) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("epsilon and delta must be between 0 and 1");
+        }
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.counts = new long[width * depth];
+    }
+
+    /**
+     * Adds {@code count} occurrences of {@code item} and returns its new estimate.
+     */
+    public long add(String item, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        long hash = Hashing.hash64(item);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(hash, row);
+            counts[cell] += count;
+            estimate = Math.min(estimate, counts[cell]);
+        }
+        total += count;
+        return estimate;
+    }
+
+    public long estimate(String item) {
+        long hash = Hashing.hash64(item);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[cell(hash, row)]);
+        }
+        return estimate;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * The overcount that an estimate stays within with probability {@code 1 - delta}.
+     */
+    public long errorBound() {
+        return (long) Math.ceil(Math.E / width * total);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int sizeInBytes() {
+        return counts.length * Long.BYTES;
+    }
+
+    private int cell(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        if (combined < 0) {
+            combined = ~combined;
+        }
+        return row * width + combined % width;
+    }
+}
@@ -0,0 +1,159 @@
+package com.acmecorp.analytics.sketch;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Unique customers per UTC day and most ordered products per hour, maintained on ingest from the
+ * {@code customerId} (a keyed hash of the customer email, computed by orders-service so that no address reaches
+ * analytics) and {@code products} (product id to quantity) metadata of {@code orders.created}.
+ * <p>
+ * Each day holds a {@link HyperLogLog} and each hour a {@link TopK}, so memory is fixed by the sketch parameters
+ * and the number of windows kept, not by traffic: about 16 KB per day and 150 KB per hour with the defaults.
+ * Sketches live in this instance only and start empty after a restart; with several replicas each one answers for
+ * the events it received.
+ */
+public class OrderSketches {
+
+    static final String ORDER_CREATED = "orders.created";
+    static final String CUSTOMER_FIELD = "customerId";
+    static final String PRODUCTS_FIELD = "products";
+
+    private final Clock clock;
+    private final int precision;
+    private final int topK;
+    private final double epsilon;
+    private final double delta;
+    private final int daysKept;
+    private final int hoursKept;
+    private final ConcurrentSkipListMap<Long, HyperLogLog> customersByDay = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, TopK> productsByHour = new ConcurrentSkipListMap<>();
+
+    public OrderSketches(Clock clock,
+                         int precision,
+                         int topK,
+                         double epsilon,
+                         double delta,
+                         int daysKept,
+                         int hoursKept) {
+        if (daysKept <= 0 || hoursKept <= 0) {
+            throw new IllegalArgumentException("daysKept and hoursKept must be greater than 0");
+        }
+        // Fail on startup rather than on the first order.
+        new HyperLogLog(precision);
+        new TopK(topK, epsilon, delta);
+        this.clock = clock;
+        this.precision = precision;
+        this.topK = topK;
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.daysKept = daysKept;
+        this.hoursKept = hoursKept;
+    }
+
+    public void record(String event, Map<String, Object> metadata) {
+        if (!ORDER_CREATED.equals(event) || metadata == null) {
+            return;
+        }
+        long now = clock.millis();
+        if (metadata.get(CUSTOMER_FIELD) instanceof String customer && !customer.isBlank()) {
+            HyperLogLog customers = window(customersByDay, Math.floorDiv(now, Duration.ofDays(1).toMillis()),
+                    daysKept, () -> new HyperLogLog(precision));
+            synchronized (customers) {
+                customers.add(customer);
+            }
+        }
+        if (metadata.get(PRODUCTS_FIELD) instanceof Map<?, ?> products && !products.isEmpty()) {
+            TopK top = window(productsByHour, Math.floorDiv(now, Duration.ofHours(1).toMillis()),
+                    hoursKept, () -> new TopK(topK, epsilon, delta));
+            synchronized (top) {
+                products.forEach((product, quantity) -> {
+                    if (product != null && quantity instanceof Number number && number.longValue() > 0) {
+                        top.add(product.toString(), number.longValue());
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Estimates the distinct customers that ordered on {@code day} (UTC), today when null.
+     */
+    public UniqueCount uniqueCustomers(LocalDate day) {
+        long today = LocalDate.now(clock.withZone(ZoneOffset.UTC)).toEpochDay();
+        long requested = day != null ? day.toEpochDay() : today;
+        if (requested > today || requested <= today - daysKept) {
+            throw new ResponseStatusException(NOT_FOUND, "Unique customers are kept for the last " + daysKept + " days");
+        }
+        HyperLogLog customers = customersByDay.get(requested);
+        long estimate = 0;
+        if (customers != null) {
+            synchronized (customers) {
+                estimate = customers.estimate();
+            }
+        }
+        return new UniqueCount(LocalDate.ofEpochDay(requested), estimate,
+                HyperLogLog.relativeStandardError(precision));
+    }
+
+    /**
+     * Returns the {@code limit} most ordered products by quantity in the hour containing {@code hour}, the current
+     * hour when null.
+     */
+    public TopProducts topProducts(Instant hour, int limit) {
+        if (limit <= 0 || limit > topK) {
+            throw new ResponseStatusException(BAD_REQUEST, "limit must be between 1 and " + topK);
+        }
+        long hourMillis = Duration.ofHours(1).toMillis();
+        long current = Math.floorDiv(clock.millis(), hourMillis);
+        long requested = hour != null ? Math.floorDiv(hour.toEpochMilli(), hourMillis) : current;
+        if (requested > current || requested <= current - hoursKept) {
+            throw new ResponseStatusException(NOT_FOUND, "Top products are kept for the last " + hoursKept + " hours");
+        }
+        Instant start = Instant.ofEpochMilli(requested * hourMillis);
+        TopK top = productsByHour.get(requested);
+        if (top == null) {
+            return new TopProducts(start, 0, 0, List.of());
+        }
+        synchronized (top) {
+            return new TopProducts(start, top.total(), top.errorBound(), top.top(limit));
+        }
+    }
+
+    private static <T> T window(ConcurrentSkipListMap<Long, T> windows, long key, int kept, Supplier<T> factory) {
+        T window = windows.get(key);
+        if (window != null) {
+            return window;
+        }
+        window = windows.computeIfAbsent(key, ignored -> factory.get());
+        windows.headMap(key - kept + 1).clear();
+        return window;
+    }
+
+    /**
+     * @param relativeStandardError one standard error as a fraction of the estimate; about 99.7% of estimates are
+     *                              within three of them
+     */
+    public record UniqueCount(LocalDate day, long estimate, double relativeStandardError) {
+    }
+
+    /**
+     * @param totalQuantity   products ordered in the hour, counted exactly
+     * @param maxOverestimate how much each count may exceed the true quantity, with probability {@code 1 - delta};
+     *                        counts are never too low
+     */
+    public record TopProducts(Instant hour, long totalQuantity, long maxOverestimate, List<TopK.Item> products) {
+    }
+}
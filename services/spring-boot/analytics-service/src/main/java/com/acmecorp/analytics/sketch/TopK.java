@@ -0,0 +1,76 @@
+package com.acmecorp.analytics.sketch;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The {@code k} most frequent items of a stream, tracked with a {@link CountMinSketch} and a min-heap of the
+ * current candidates. An item enters the heap once its estimate beats the smallest candidate, so memory stays at
+ * the sketch plus {@code k} entries however many distinct items are seen. Counts carry the sketch's error bound:
+ * they may be overstated by up to {@link #errorBound()}, never understated.
+ * <p>
+ * Not thread-safe.
+ */
+public final class TopK {
+
+    private final int k;
+    private final CountMinSketch sketch;
+    private final Map<String, Item> candidates = new HashMap<>();
+    private final PriorityQueue<Item> heap = new PriorityQueue<>(Comparator.comparingLong(Item::count));
+
+    public TopK(int k, double epsilon, double delta) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be greater than 0");
+        }
+        this.k = k;
+        this.sketch = new CountMinSketch(epsilon, delta);
+    }
+
+    public void add(String item, long count) {
+        long estimate = sketch.add(item, count);
+        Item current = candidates.get(item);
+        if (current != null) {
+            heap.remove(current);
+        } else if (candidates.size() >= k) {
+            if (estimate <= heap.element().count()) {
+                return;
+            }
+            candidates.remove(heap.remove().item());
+        }
+        Item updated = new Item(item, estimate);
+        candidates.put(item, updated);
+        heap.add(updated);
+    }
+
+    /**
+     * Returns up to {@code limit} items, most frequent first.
+     */
+    public List<Item> top(int limit) {
+        return heap.stream()
+                .sorted(Comparator.comparingLong(Item::count).reversed().thenComparing(Item::item))
+                .limit(limit)
+                .toList();
+    }
+
+    public int k() {
+        return k;
+    }
+
+    public long total() {
+        return sketch.total();
+    }
+
+    public long errorBound() {
+        return sketch.errorBound();
+    }
+
+    public int sizeInBytes() {
+        return sketch.sizeInBytes();
+    }
+
+    public record Item(String item, long count) {
+    }
+}
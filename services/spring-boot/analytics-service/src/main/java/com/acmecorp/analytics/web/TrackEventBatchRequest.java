@@ -0,0 +1,10 @@
+package com.acmecorp.analytics.web;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record TrackEventBatchRequest(@NotEmpty @Size(max = 1000) List<@Valid TrackEventRequest> events) {
+}
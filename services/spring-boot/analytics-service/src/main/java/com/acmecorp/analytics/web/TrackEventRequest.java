@@ -2,7 +2,11 @@ package com.acmecorp.analytics.web;
 
 import jakarta.validation.constraints.NotBlank;
 
+import java.time.Instant;
 import java.util.Map;
 
-public record TrackEventRequest(@NotBlank String event, Map<String, Object> metadata) {
+/**
+ * {@code occurredAt} is optional; events without it are taken to have occurred when they arrived.
+ */
+public record TrackEventRequest(@NotBlank String event, Map<String, Object> metadata, Instant occurredAt) {
 }
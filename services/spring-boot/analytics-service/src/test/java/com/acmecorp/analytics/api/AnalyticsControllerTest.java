@@ -1,6 +1,8 @@
 package com.acmecorp.analytics.api;
 
 import com.acmecorp.analytics.service.AnalyticsService;
+import com.acmecorp.analytics.service.EventSeries;
+import com.acmecorp.analytics.web.TrackEventRequest;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +10,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -57,4 +62,50 @@ class AnalyticsControllerTest {
                         .content("{\"event\":\"orders.created\"}"))
                 .andExpect(status().isAccepted());
     }
+
+    @Test
+    void trackBatchEndpointAcceptsEvents() throws Exception {
+        mockMvc.perform(post("/api/analytics/track/batch")
+                        .contentType("application/json")
+                        .content("""
+                                {"events": [{"event": "orders.created"}, {"event": "orders.confirmed", "metadata": {"orderId": 1}, "occurredAt": "2024-05-01T12:00:00Z"}]}
+                                """))
+                .andExpect(status().isAccepted());
+
+        Mockito.verify(analyticsService).trackAll(List.of(
+                new TrackEventRequest("orders.created", null, null),
+                new TrackEventRequest("orders.confirmed", Map.of("orderId", 1), Instant.parse("2024-05-01T12:00:00Z"))));
+    }
+
+    @Test
+    void trackBatchEndpointRejectsEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/analytics/track/batch")
+                        .contentType("application/json")
+                        .content("{\"events\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void seriesEndpointShouldReturnPoints() throws Exception {
+        Instant from = Instant.parse("2024-05-01T11:00:00Z");
+        Instant to = Instant.parse("2024-05-01T12:00:00Z");
+        Mockito.when(analyticsService.series("orders.created", from, to, Duration.ofMinutes(5)))
+                .thenReturn(new EventSeries.Series("orders.created", from, to, Duration.ofMinutes(5),
+                        EventSeries.Resolution.MINUTE, List.of(new EventSeries.Point(from, 12))));
+
+        mockMvc.perform(get("/api/analytics/series/orders.created")
+                        .param("from", "2024-05-01T11:00:00Z")
+                        .param("to", "2024-05-01T12:00:00Z")
+                        .param("step", "5m"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.event").value("orders.created"))
+                .andExpect(jsonPath("$.points[0].timestamp").value("2024-05-01T11:00:00Z"))
+                .andExpect(jsonPath("$.points[0].count").value(12));
+    }
+
+    @Test
+    void seriesEndpointRejectsInvalidStep() throws Exception {
+        mockMvc.perform(get("/api/analytics/series/orders.created").param("step", "often"))
+                .andExpect(status().isBadRequest());
+    }
 }
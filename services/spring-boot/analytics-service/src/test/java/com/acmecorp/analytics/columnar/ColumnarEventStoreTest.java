@@ -0,0 +1,176 @@
+package com.acmecorp.analytics.columnar;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ColumnarEventStoreTest {
+
+    private static final Instant START = Instant.parse("2024-05-01T12:00:00Z");
+    private static final List<String> CURRENCIES = List.of("EUR", "USD", "GBP");
+
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ColumnarEventStore store;
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void aggregateShouldFilterGroupAndSumAcrossChunksAndThreads() {
+        store = newStore(20_000, Long.MAX_VALUE);
+        for (int i = 0; i < 50_000; i++) {
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("currency", CURRENCIES.get(i % 3));
+            metadata.put("amount", i % 10);
+            if (i % 2 == 0) {
+                metadata.put("paymentMethod", "CARD");
+            }
+            store.append(i % 5 == 0 ? "billing.invoice.paid" : "billing.invoice.created", metadata, START);
+        }
+
+        ColumnarEventStore.Aggregation byCurrency = store.aggregate(query(
+                Map.of("event", "billing.invoice.created"), List.of("currency", "paymentMethod"), "amount"));
+
+        assertThat(byCurrency.scannedRows()).isEqualTo(50_000);
+        assertThat(byCurrency.matchedRows()).isEqualTo(40_000);
+        assertThat(byCurrency.threads()).isEqualTo(4);
+        assertThat(byCurrency.groupCount()).isEqualTo(6);
+        Map<Map<String, String>, ColumnarEventStore.Group> groups = new HashMap<>();
+        byCurrency.groups().forEach(group -> groups.put(group.key(), group));
+        long total = byCurrency.groups().stream().mapToLong(ColumnarEventStore.Group::count).sum();
+        assertThat(total).isEqualTo(40_000);
+        Map<String, String> eurWithoutMethod = new HashMap<>();
+        eurWithoutMethod.put("currency", "EUR");
+        eurWithoutMethod.put("paymentMethod", null);
+        assertThat(groups).containsKey(eurWithoutMethod);
+        double sum = byCurrency.groups().stream().mapToDouble(ColumnarEventStore.Group::sum).sum();
+        // Amounts cycle through 0..9 and the paid events are those with 0 or 5: 5,000 of each other amount remain.
+        assertThat(sum).isCloseTo(5_000 * (1 + 2 + 3 + 4 + 6 + 7 + 8 + 9), within(1e-6));
+
+        ColumnarEventStore.Aggregation byAmount = store.aggregate(query(
+                Map.of("currency", "USD", "amount", "5"), List.of("amount"), null));
+
+        assertThat(byAmount.groups()).singleElement().satisfies(group -> {
+            assertThat(group.key()).isEqualTo(Map.of("amount", "5"));
+            assertThat(group.count()).isEqualTo(1_666);
+            assertThat(group.sum()).isNull();
+        });
+        assertThat(store.aggregate(query(Map.of("currency", "JPY"), List.of(), null)).groups()).isEmpty();
+    }
+
+    @Test
+    void aggregateShouldOnlyCountEventsThatOccurredInTheWindow() {
+        store = newStore(1_000, Long.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            store.append("orders.created", Map.of("currency", "EUR"), START.plusSeconds(i));
+        }
+
+        ColumnarEventStore.Aggregation window = store.aggregate(new ColumnarEventStore.AggregationQuery(
+                START.plusSeconds(10), START.plusSeconds(20), Map.of(), List.of("event"), null, 10));
+
+        assertThat(window.matchedRows()).isEqualTo(10);
+        assertThat(window.groups()).singleElement()
+                .satisfies(group -> assertThat(group.key()).isEqualTo(Map.of("event", "orders.created")));
+    }
+
+    @Test
+    void chunksShouldBeDroppedPastRetention() {
+        store = newStore(1_000, Long.MAX_VALUE);
+        store.append("orders.created", Map.of(), START);
+        clock.advance(Duration.ofHours(2));
+        store.append("orders.created", Map.of(), clock.instant());
+        clock.advance(Duration.ofHours(23));
+
+        assertThat(store.aggregate(query(Map.of(), List.of(), null)).scannedRows()).isEqualTo(1);
+        assertThat(meterRegistry.get("acmecorp.analytics.store.evicted").tag("reason", "expired").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void oldestChunksShouldBeDroppedPastMaxMemory() {
+        // One chunk of 1,000 rows takes 12,000 bytes with its event column, another 8,000 with a numeric column.
+        store = newStore(1_000, 30_000);
+        for (int i = 0; i < 2_500; i++) {
+            store.append("orders.created", Map.of("amount", i), START);
+        }
+
+        assertThat(store.aggregate(query(Map.of(), List.of(), "amount")).scannedRows()).isEqualTo(500);
+        assertThat(meterRegistry.get("acmecorp.analytics.store.memory").gauge().value()).isEqualTo(20_000);
+        assertThat(meterRegistry.get("acmecorp.analytics.store.evicted").tag("reason", "memory").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void aChunkShouldHoldAtMostMaxColumnsColumnsIncludingTheEvent() {
+        store = newStore(1_000, Long.MAX_VALUE);
+        Map<String, Object> metadata = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            metadata.put("field" + i, i);
+        }
+        store.append("orders.created", metadata, START);
+
+        assertThat(meterRegistry.get("acmecorp.analytics.store.dropped.values").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void aggregateShouldRejectInvalidQueries() {
+        store = newStore(1_000, Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> store.aggregate(query(Map.of(), List.of("a", "b", "c", "d"), null)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> store.aggregate(new ColumnarEventStore.AggregationQuery(
+                START, START, Map.of(), List.of(), null, 10)))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    private ColumnarEventStore newStore(int chunkRows, long maxBytes) {
+        return new ColumnarEventStore(clock, Duration.ofHours(24), Duration.ofHours(1), chunkRows, 8, maxBytes, 4,
+                meterRegistry);
+    }
+
+    private static ColumnarEventStore.AggregationQuery query(Map<String, String> filters, List<String> groupBy,
+                                                             String sum) {
+        return new ColumnarEventStore.AggregationQuery(null, null, filters, groupBy, sum, 100);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = START;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.acmecorp.analytics.flow;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class FlowLatenciesTest {
+
+    private static final Instant START = Instant.parse("2024-05-01T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FlowLatencies flows;
+
+    @BeforeEach
+    void setUp() {
+        flows = new FlowLatencies(clock, 10_000, Duration.ofMinutes(30), Duration.ofHours(1), Duration.ofHours(1),
+                meterRegistry);
+    }
+
+    @Test
+    void stepsShouldBeTimedByOccurrenceEvenWhenEventsArriveOutOfOrder() {
+        for (int i = 1; i <= 1_000; i++) {
+            String order = "ORD-" + i;
+            Instant created = START.plusSeconds(i);
+            // Billing and notification ship on their own, so their events can overtake the confirmation.
+            flows.record("notification.sent", Map.of("orderNumber", order, "type", "ORDER_CONFIRMED"),
+                    created.plusMillis(i + 200 + 50));
+            flows.record("orders.created", Map.of("orderId", i, "orderNumber", order), created);
+            flows.record("billing.invoice.created", Map.of("orderId", i, "orderNumber", order),
+                    created.plusMillis(i + 200));
+            flows.record("orders.confirmed", Map.of("orderId", i, "orderNumber", order), created.plusMillis(i));
+            flows.record("orders.confirmed", Map.of("orderId", i, "orderNumber", order), created.plusSeconds(60));
+        }
+
+        FlowLatencies.FlowReport report = flows.report(Duration.ofMinutes(5));
+
+        FlowLatencies.StepLatency confirmed = step(report, FlowStep.CREATED_TO_CONFIRMED);
+        assertThat(confirmed.count()).isEqualTo(1_000);
+        assertThat((double) confirmed.p50()).isCloseTo(500, within(5.0));
+        assertThat((double) confirmed.p95()).isCloseTo(950, within(10.0));
+        assertThat((double) confirmed.p99()).isCloseTo(990, within(10.0));
+        assertThat(step(report, FlowStep.CONFIRMED_TO_INVOICED).p99()).isEqualTo(200);
+        assertThat(step(report, FlowStep.INVOICED_TO_NOTIFIED).p50()).isEqualTo(50);
+        assertThat((double) step(report, FlowStep.CREATED_TO_NOTIFIED).p50()).isCloseTo(750, within(8.0));
+    }
+
+    @Test
+    void windowsShouldOnlyCoverRecentMinutes() {
+        time("ORD-1", 100);
+        clock.advance(Duration.ofMinutes(10));
+        time("ORD-2", 300);
+
+        assertThat(step(flows.report(Duration.ofMinutes(5)), FlowStep.CREATED_TO_CONFIRMED).count()).isEqualTo(1);
+        assertThat(step(flows.report(Duration.ofMinutes(15)), FlowStep.CREATED_TO_CONFIRMED).count()).isEqualTo(2);
+        assertThatThrownBy(() -> flows.report(Duration.ofMinutes(61))).isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> flows.report(Duration.ofSeconds(90))).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void trackedOrdersShouldBeBoundedByCapacityAndTtl() {
+        flows = new FlowLatencies(clock, 2, Duration.ofMinutes(30), Duration.ofHours(1), Duration.ofHours(1),
+                meterRegistry);
+        for (int i = 0; i < 5; i++) {
+            flows.record("orders.created", Map.of("orderNumber", "ORD-" + i), null);
+        }
+        assertThat(flows.trackedOrders()).isEqualTo(2);
+
+        clock.advance(Duration.ofMinutes(31));
+        flows.record("orders.created", Map.of("orderNumber", "ORD-5"), null);
+
+        assertThat(flows.trackedOrders()).isEqualTo(1);
+        assertThat(meterRegistry.get("acmecorp.analytics.flows.evicted").tag("reason", "capacity").counter().count())
+                .isEqualTo(3);
+        assertThat(meterRegistry.get("acmecorp.analytics.flows.evicted").tag("reason", "expired").counter().count())
+                .isEqualTo(2);
+    }
+
+    private void time(String order, long confirmedAfterMillis) {
+        Instant created = clock.instant();
+        flows.record("orders.created", Map.of("orderNumber", order), created);
+        flows.record("orders.confirmed", Map.of("orderNumber", order), created.plusMillis(confirmedAfterMillis));
+    }
+
+    private static FlowLatencies.StepLatency step(FlowLatencies.FlowReport report, FlowStep step) {
+        return report.steps().stream().filter(latency -> latency.step() == step).findFirst().orElseThrow();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = START;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
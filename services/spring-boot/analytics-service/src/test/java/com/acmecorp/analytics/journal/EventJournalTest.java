@@ -0,0 +1,157 @@
+package com.acmecorp.analytics.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void eventsShouldBeReadBackInOrderWithTheirMetadataAcrossSegments() throws Exception {
+        EventJournal journal = journal(512, 1L << 20);
+        journal.start();
+        for (int i = 0; i < 100; i++) {
+            journal.append("orders.created", Map.of("orderId", i));
+        }
+        journal.stop();
+
+        List<Path> segments = JournalSegment.list(directory);
+        assertThat(segments).hasSizeGreaterThan(5);
+        List<Integer> orderIds = new ArrayList<>();
+        for (Path segment : segments) {
+            JournalSegment.ReadResult result = JournalSegment.read(segment, (timestamp, event, metadata) -> {
+                assertThat(event).isEqualTo("orders.created");
+                byte[] json = new byte[metadata.remaining()];
+                metadata.get(json);
+                orderIds.add(readOrderId(json));
+            });
+            assertThat(result.damaged()).isFalse();
+            assertThat(Files.size(segment)).isEqualTo(result.validBytes());
+        }
+        assertThat(orderIds).hasSize(100).isSorted();
+    }
+
+    @Test
+    void restartShouldCutADamagedTailAndContinueInANewSegment() throws Exception {
+        EventJournal journal = journal(1 << 16, 1L << 20);
+        journal.start();
+        journal.append("orders.created", null);
+        journal.append("orders.confirmed", null);
+        journal.stop();
+        Path segment = JournalSegment.list(directory).get(0);
+        long size = Files.size(segment);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 0x7f;
+        Files.write(segment, bytes);
+
+        EventJournal restarted = journal(1 << 16, 1L << 20);
+        restarted.start();
+        restarted.append("orders.cancelled", null);
+        restarted.stop();
+
+        List<Path> segments = JournalSegment.list(directory);
+        assertThat(segments).hasSize(2);
+        assertThat(Files.size(segment)).isLessThan(size);
+        List<String> events = new ArrayList<>();
+        segments.forEach(path -> JournalSegment.read(path, (timestamp, event, metadata) -> events.add(event)));
+        assertThat(events).containsExactly("orders.created", "orders.cancelled");
+    }
+
+    @Test
+    void rollingShouldDeleteTheOldestSegmentsBeyondTheSizeLimit() {
+        EventJournal journal = journal(256, 1_024);
+        journal.start();
+        for (int i = 0; i < 500; i++) {
+            journal.append("orders.created", Map.of("orderId", i));
+        }
+        journal.stop();
+
+        List<Path> segments = JournalSegment.list(directory);
+        long sealed = segments.subList(0, segments.size() - 1).stream().mapToLong(EventJournalTest::size).sum();
+        assertThat(sealed).isLessThanOrEqualTo(1_024);
+        assertThat(JournalSegment.sequenceOf(segments.get(0))).isGreaterThan(0);
+    }
+
+    @Test
+    void aFailedRollShouldKeepTheFullSegmentAndRollOnceItCan() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EventJournal journal = journal(512, 1L << 20, meterRegistry);
+        journal.start();
+        // A directory where the next segment goes makes creating it fail.
+        Path blocker = Files.createDirectory(directory.resolve(String.format("%020d.log", 1)));
+        for (int i = 0; i < 30; i++) {
+            journal.append("orders.created", Map.of("orderId", i));
+        }
+        awaitWritten(meterRegistry, 30);
+        double dropped = meterRegistry.get("acmecorp.analytics.journal.dropped").tag("reason", "error").counter().count();
+
+        Files.delete(blocker);
+        for (int i = 30; i < 40; i++) {
+            journal.append("orders.created", Map.of("orderId", i));
+        }
+        journal.stop();
+
+        assertThat(dropped).isGreaterThan(0);
+        List<Integer> orderIds = new ArrayList<>();
+        for (Path segment : JournalSegment.list(directory)) {
+            JournalSegment.ReadResult result = JournalSegment.read(segment, (timestamp, event, metadata) -> {
+                byte[] json = new byte[metadata.remaining()];
+                metadata.get(json);
+                orderIds.add(readOrderId(json));
+            });
+            assertThat(result.damaged()).isFalse();
+        }
+        assertThat(orderIds).hasSize(30 - (int) dropped + 10).isSorted().contains(0, 39);
+    }
+
+    private EventJournal journal(int segmentBytes, long maxBytes) {
+        return journal(segmentBytes, maxBytes, new SimpleMeterRegistry());
+    }
+
+    private EventJournal journal(int segmentBytes, long maxBytes, SimpleMeterRegistry meterRegistry) {
+        return new EventJournal(directory, segmentBytes, maxBytes, Duration.ofDays(1), 1_024,
+                Duration.ofMillis(20), Duration.ofSeconds(5), objectMapper, meterRegistry);
+    }
+
+    private static void awaitWritten(SimpleMeterRegistry meterRegistry, int events) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (meterRegistry.get("acmecorp.analytics.journal.appended").counter().count()
+                + meterRegistry.get("acmecorp.analytics.journal.dropped").tag("reason", "error").counter().count()
+                < events) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private int readOrderId(byte[] json) {
+        try {
+            return objectMapper.readTree(new String(json, StandardCharsets.UTF_8)).get("orderId").asInt();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.acmecorp.analytics.journal;
+
+import com.acmecorp.analytics.service.CounterStore;
+import com.acmecorp.analytics.service.EventSeries;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JournalReplayerTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private CounterStore counterStore;
+
+    @Mock
+    private EventSeries series;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replayShouldRestoreTotalsAndMinuteCountsFromEverySegment() {
+        EventJournal journal = new EventJournal(directory, 256, 1L << 20, Duration.ofDays(1), 1_024,
+                Duration.ofMillis(20), Duration.ofSeconds(5), new ObjectMapper(), new SimpleMeterRegistry());
+        journal.start();
+        for (int i = 0; i < 300; i++) {
+            journal.append(i % 3 == 0 ? "orders.confirmed" : "orders.created", Map.of("orderId", i));
+        }
+        journal.stop();
+
+        JournalReplayer.ReplayResult result = new JournalReplayer(journal, counterStore, series).replay();
+
+        assertThat(result.records()).isEqualTo(300);
+        assertThat(result.segments()).isGreaterThan(1);
+        assertThat(result.damagedSegments()).isZero();
+        verify(counterStore).restore(Map.of("orders.created", 200L, "orders.confirmed", 100L));
+        ArgumentCaptor<Map<String, Map<Long, Long>>> minutes = ArgumentCaptor.forClass(Map.class);
+        verify(series).restore(minutes.capture());
+        assertThat(minutes.getValue().get("orders.created").values().stream().mapToLong(Long::longValue).sum())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void replayShouldKeepLifetimeTotalsThatReachBeyondTheJournal() {
+        EventJournal journal = new EventJournal(directory, 256, 1L << 20, Duration.ofDays(1), 1_024,
+                Duration.ofMillis(20), Duration.ofSeconds(5), new ObjectMapper(), new SimpleMeterRegistry());
+        journal.start();
+        for (int i = 0; i < 30; i++) {
+            journal.append(i % 3 == 0 ? "orders.confirmed" : "orders.created", Map.of("orderId", i));
+        }
+        journal.stop();
+        when(counterStore.get("orders.created")).thenReturn(5_000L);
+        when(counterStore.get("orders.confirmed")).thenReturn(4L);
+
+        JournalReplayer.ReplayResult result = new JournalReplayer(journal, counterStore, series).replay();
+
+        assertThat(result.journalTotals()).isEqualTo(Map.of("orders.created", 20L, "orders.confirmed", 10L));
+        assertThat(result.totals()).isEqualTo(Map.of("orders.created", 5_000L, "orders.confirmed", 10L));
+        verify(counterStore).restore(Map.of("orders.created", 5_000L, "orders.confirmed", 10L));
+    }
+}
@@ -0,0 +1,78 @@
+package com.acmecorp.analytics.messaging;
+
+import com.acmecorp.analytics.service.AnalyticsService;
+import com.acmecorp.analytics.web.TrackEventRequest;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsEventListenerTest {
+
+    private static final Instant OCCURRED_AT = Instant.parse("2024-05-01T12:34:56.789Z");
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void onMessagesShouldWriteAllEventsOfTheBatchAtOnceAndSkipWhatCannotBeApplied() {
+        AnalyticsEventListener listener = newListener();
+
+        listener.onMessages(List.of(
+                published(List.of(
+                        Map.of("event", "orders.created", "metadata", Map.of("orderId", 1), "occurredAt", OCCURRED_AT),
+                        Map.of("event", " "))),
+                new Message("not json".getBytes(StandardCharsets.UTF_8), new MessageProperties()),
+                published(List.of(Map.of("event", "billing.invoice.created", "metadata", Map.of())))));
+
+        verify(analyticsService).trackAll(List.of(
+                new TrackEventRequest("orders.created", Map.of("orderId", 1), OCCURRED_AT),
+                new TrackEventRequest("billing.invoice.created", Map.of(), null)));
+        assertThat(rejected("message")).isEqualTo(1);
+        assertThat(rejected("event")).isEqualTo(1);
+        assertThat(meterRegistry.get("acmecorp.analytics.ingest.batch.size").summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void onMessagesShouldFailTheBatchWhenEventsCannotBeWritten() {
+        doThrow(new QueryTimeoutException("Redis command timed out")).when(analyticsService).trackAll(anyList());
+        AnalyticsEventListener listener = newListener();
+
+        assertThatThrownBy(() -> listener.onMessages(List.of(published(List.of(Map.of("event", "orders.created"))))))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(rejected("message") + rejected("event")).isZero();
+    }
+
+    // Encoded the way the services' AnalyticsClient publishes, whose converter writes instants as decimal seconds.
+    private static Message published(List<Map<String, Object>> events) {
+        return new Jackson2JsonMessageConverter().toMessage(Map.of("events", events), new MessageProperties());
+    }
+
+    private double rejected(String kind) {
+        return meterRegistry.get("acmecorp.analytics.ingest.rejected").tag("kind", kind).counter().count();
+    }
+
+    private AnalyticsEventListener newListener() {
+        return new AnalyticsEventListener(analyticsService, JsonMapper.builder().findAndAddModules().build(), meterRegistry);
+    }
+}
@@ -0,0 +1,189 @@
+package com.acmecorp.analytics.service;
+
+import com.acmecorp.analytics.columnar.ColumnarEventStore;
+import com.acmecorp.analytics.flow.FlowLatencies;
+import com.acmecorp.analytics.journal.EventJournal;
+import com.acmecorp.analytics.sketch.OrderSketches;
+import com.acmecorp.analytics.web.TrackEventRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:34:56Z");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private StringRedisConnection connection;
+
+    @Mock
+    private ObjectProvider<CounterAggregator> aggregator;
+
+    @Mock
+    private ObjectProvider<EventJournal> journal;
+
+    @Mock
+    private ObjectProvider<OrderSketches> sketches;
+
+    @Mock
+    private ObjectProvider<FlowLatencies> flowLatencies;
+
+    @Mock
+    private ObjectProvider<ColumnarEventStore> eventStore;
+
+    private AnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        EventSeries series = new EventSeries(redisTemplate, Clock.fixed(NOW, ZoneOffset.UTC),
+                Duration.ofDays(2), Duration.ofDays(35), Duration.ofDays(400), 10_000);
+        analyticsService = new AnalyticsService(
+                new CounterStore(redisTemplate, series), series, aggregator, journal, sketches, flowLatencies, eventStore,
+                Duration.ofMinutes(1),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void trackAllShouldSendOneIncrByPerDistinctEventInOnePipeline() {
+        analyticsService.trackAll(events("orders.created", "orders.confirmed", "orders.created", "orders.created"));
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        callback.getValue().doInRedis(connection);
+        verify(connection).incrBy("analytics:event:orders.created", 3L);
+        verify(connection).incrBy("analytics:event:orders.confirmed", 1L);
+        verifySeriesBuckets("orders.created", 3L);
+        verifySeriesBuckets("orders.confirmed", 1L);
+        verifyNoMoreInteractions(connection);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void trackShouldWriteTheTotalAndEverySeriesBucketInOneRoundTrip() {
+        analyticsService.track("orders.created", Map.of("orderId", 1), null);
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate, times(1)).executePipelined(callback.capture());
+        callback.getValue().doInRedis(connection);
+        verify(connection).incrBy("analytics:event:orders.created", 1L);
+        verifySeriesBuckets("orders.created", 1L);
+        verifyNoMoreInteractions(connection);
+    }
+
+    @Test
+    void trackShouldRegisterAnUnknownEventOnlyOnce() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+        analyticsService.track("checkout.started", null, null);
+        analyticsService.track("checkout.started", null, null);
+        analyticsService.track("orders.created", null, null);
+
+        verify(setOperations, times(1)).add(CounterStore.EVENTS_KEY, "checkout.started");
+        verify(redisTemplate, times(3)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void allCountersShouldReadRegistryAndCountersInOneRoundTripAndCacheTheResult() {
+        List<Object> pipelined = new ArrayList<>();
+        pipelined.add(Set.of("checkout.started"));
+        pipelined.add(Arrays.asList("7", null, null, "2", null, null));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(pipelined);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("analytics:event:checkout.started"))).thenReturn(List.of("4"));
+
+        assertThat(analyticsService.allCounters())
+                .containsEntry("orders.created", 7L)
+                .containsEntry("billing.invoice.created", 2L)
+                .containsEntry("notification.sent", 0L)
+                .containsEntry("checkout.started", 4L)
+                .hasSize(7);
+        analyticsService.allCounters();
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate, times(1)).executePipelined(callback.capture());
+        callback.getValue().doInRedis(connection);
+        verify(connection).sMembers(CounterStore.EVENTS_KEY);
+        verify(connection).mGet(AnalyticsService.KNOWN_EVENTS.stream()
+                .map(event -> "analytics:event:" + event)
+                .toArray(String[]::new));
+        verify(valueOperations, never()).get(any());
+    }
+
+    @Test
+    void aBatchRetriedAfterARedisFailureShouldBeJournaledAndSketchedOnce() {
+        EventJournal eventJournal = mock(EventJournal.class);
+        OrderSketches orderSketches = new OrderSketches(Clock.fixed(NOW, ZoneOffset.UTC), 14, 5, 0.001, 0.001, 7, 24);
+        when(journal.getIfAvailable()).thenReturn(eventJournal);
+        when(sketches.getIfAvailable()).thenReturn(orderSketches);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("redis down"))
+                .thenReturn(List.of());
+        EventSeries series = new EventSeries(redisTemplate, Clock.fixed(NOW, ZoneOffset.UTC),
+                Duration.ofDays(2), Duration.ofDays(35), Duration.ofDays(400), 10_000);
+        AnalyticsService service = new AnalyticsService(
+                new CounterStore(redisTemplate, series), series, aggregator, journal, sketches, flowLatencies, eventStore,
+                Duration.ofMinutes(1), new SimpleMeterRegistry());
+        List<TrackEventRequest> batch = List.of(
+                new TrackEventRequest("orders.created", Map.of("customerId", "a", "products", Map.of("SKU-1", 2)), NOW),
+                new TrackEventRequest("orders.created", Map.of("customerId", "b", "products", Map.of("SKU-1", 1)), NOW));
+
+        assertThatThrownBy(() -> service.trackAll(batch)).isInstanceOf(RedisConnectionFailureException.class);
+        service.trackAll(batch);
+
+        verify(eventJournal, times(2)).append(eq("orders.created"), anyMap());
+        assertThat(orderSketches.topProducts(null, 1).totalQuantity()).isEqualTo(3);
+        assertThat(orderSketches.uniqueCustomers(null).estimate()).isEqualTo(2);
+    }
+
+    private static List<TrackEventRequest> events(String... names) {
+        return Arrays.stream(names).map(name -> new TrackEventRequest(name, null, null)).toList();
+    }
+
+    private void verifySeriesBuckets(String event, long delta) {
+        long epochSecond = NOW.getEpochSecond();
+        verify(connection).incrBy("analytics:series:" + event + ":m:" + epochSecond / 60, delta);
+        verify(connection).incrBy("analytics:series:" + event + ":h:" + epochSecond / 3_600, delta);
+        verify(connection).incrBy("analytics:series:" + event + ":d:" + epochSecond / 86_400, delta);
+        verify(connection).expire("analytics:series:" + event + ":m:" + epochSecond / 60, Duration.ofDays(2).toSeconds());
+        verify(connection).expire("analytics:series:" + event + ":h:" + epochSecond / 3_600, Duration.ofDays(35).toSeconds());
+        verify(connection).expire("analytics:series:" + event + ":d:" + epochSecond / 86_400, Duration.ofDays(400).toSeconds());
+    }
+}
@@ -0,0 +1,100 @@
+package com.acmecorp.analytics.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CounterAggregatorTest {
+
+    private static final String EVENT = "orders.created";
+
+    @Mock
+    private CounterStore counterStore;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CounterAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aggregator = new CounterAggregator(counterStore, Duration.ofSeconds(1), Duration.ofSeconds(1), meterRegistry);
+    }
+
+    @Test
+    void flushShouldWriteTheAccumulatedDeltaOnce() {
+        for (int i = 0; i < 1_000; i++) {
+            aggregator.add(EVENT, 1);
+        }
+
+        assertThat(aggregator.pending(EVENT)).isEqualTo(1_000);
+        assertThat(aggregator.flush()).isEqualTo(1_000);
+        assertThat(aggregator.flush()).isZero();
+
+        verify(counterStore, times(1)).increment(Map.of(EVENT, 1_000L));
+        assertThat(aggregator.pending(EVENT)).isZero();
+        assertThat(meterRegistry.get("acmecorp.analytics.aggregation.flush.increments").summary().totalAmount())
+                .isEqualTo(1_000);
+    }
+
+    @Test
+    void failedFlushShouldKeepTheDeltaForTheNextOne() {
+        doThrow(new RedisConnectionFailureException("down"))
+                .doNothing()
+                .when(counterStore).increment(anyMap());
+        aggregator.add(EVENT, 3);
+
+        assertThat(aggregator.flush()).isZero();
+        aggregator.add(EVENT, 2);
+        assertThat(aggregator.pending(EVENT)).isEqualTo(5);
+        assertThat(aggregator.flush()).isEqualTo(5);
+
+        verify(counterStore).increment(Map.of(EVENT, 3L));
+        verify(counterStore).increment(Map.of(EVENT, 5L));
+        assertThat(meterRegistry.get("acmecorp.analytics.aggregation.flush.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void incrementsRacingFlushesShouldAllReachRedis() throws Exception {
+        AtomicLong written = new AtomicLong();
+        doAnswer(invocation -> {
+            Map<String, Long> deltas = invocation.getArgument(0);
+            written.addAndGet(deltas.get(EVENT));
+            return null;
+        }).when(counterStore).increment(anyMap());
+        aggregator.start();
+
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            writers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    aggregator.add(EVENT, 1);
+                    if (i % 5_000 == 0) {
+                        aggregator.flush();
+                    }
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        aggregator.stop();
+
+        assertThat(written.get()).isEqualTo(400_000);
+        assertThat(aggregator.pending(EVENT)).isZero();
+    }
+}
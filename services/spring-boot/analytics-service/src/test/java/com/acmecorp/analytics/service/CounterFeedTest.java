@@ -0,0 +1,136 @@
+package com.acmecorp.analytics.service;
+
+import com.acmecorp.analytics.api.CounterFeedController;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CounterFeedTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, Long> counters = new LinkedHashMap<>(Map.of("orders.created", 10L));
+    private CounterFeed feed;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Ticks are driven by the tests.
+        feed = new CounterFeed(() -> Map.copyOf(counters), objectMapper, Duration.ofHours(1), Duration.ofHours(1), 2,
+                meterRegistry);
+        feed.start();
+        mockMvc = MockMvcBuilders.standaloneSetup(new CounterFeedController(feed)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.stop();
+    }
+
+    @Test
+    void subscribersShouldGetASnapshotAndThenOnlyTheChanges() throws Exception {
+        MockHttpServletResponse response = subscribe();
+        counters.merge("orders.created", 3L, Long::sum);
+        counters.put("orders.confirmed", 1L);
+        feed.tick();
+        feed.tick();
+
+        List<Event> events = awaitEvents(response, 2);
+        assertThat(events.get(0).name()).isEqualTo("snapshot");
+        assertThat(events.get(0).counts()).isEqualTo(Map.of("orders.created", 10L));
+        assertThat(events.get(1).name()).isEqualTo("delta");
+        assertThat(events.get(1).counts()).isEqualTo(Map.of("orders.created", 3L, "orders.confirmed", 1L));
+        assertThat(response.getContentType()).startsWith("text/event-stream");
+        assertThat(meterRegistry.get("acmecorp.analytics.feed.tick").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void mergedDeltasShouldAddUpToTheCountersWhateverTheSubscriberMissed() throws Exception {
+        MockHttpServletResponse first = subscribe();
+        MockHttpServletResponse second = subscribe();
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            counters.merge("orders.created", (long) random.nextInt(5), Long::sum);
+            feed.tick();
+        }
+
+        for (MockHttpServletResponse response : List.of(first, second)) {
+            Map<String, Long> replayed = new LinkedHashMap<>();
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            do {
+                replayed.clear();
+                parse(response).forEach(event -> event.counts().forEach((name, count) -> replayed.merge(name, count, Long::sum)));
+            } while (!replayed.equals(counters) && System.nanoTime() < deadline);
+            assertThat(replayed).isEqualTo(counters);
+        }
+        double sent = meterRegistry.get("acmecorp.analytics.feed.frames").counter().count();
+        double merged = meterRegistry.get("acmecorp.analytics.feed.merged").counter().count();
+        assertThat(sent + merged).isGreaterThanOrEqualTo(2 * 2);
+    }
+
+    @Test
+    void subscribersBeyondTheLimitShouldBeTurnedAway() throws Exception {
+        subscribe();
+        subscribe();
+
+        mockMvc.perform(get("/api/analytics/counters/stream")).andExpect(status().isServiceUnavailable());
+        assertThat(meterRegistry.get("acmecorp.analytics.feed.subscribers").gauge().value()).isEqualTo(2);
+    }
+
+    private MockHttpServletResponse subscribe() throws Exception {
+        return mockMvc.perform(get("/api/analytics/counters/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private List<Event> awaitEvents(MockHttpServletResponse response, int count) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        List<Event> events = parse(response);
+        while (events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            events = parse(response);
+        }
+        return events;
+    }
+
+    private List<Event> parse(MockHttpServletResponse response) throws Exception {
+        List<Event> events = new ArrayList<>();
+        for (String block : response.getContentAsString().split("\n\n")) {
+            String name = null;
+            String data = null;
+            for (String line : block.split("\n")) {
+                if (line.startsWith("event:")) {
+                    name = line.substring("event:".length());
+                } else if (line.startsWith("data:")) {
+                    data = line.substring("data:".length());
+                }
+            }
+            if (name != null && data != null) {
+                events.add(new Event(name, objectMapper.readValue(data, new TypeReference<Map<String, Long>>() { })));
+            }
+        }
+        return events;
+    }
+
+    private record Event(String name, Map<String, Long> counts) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.acmecorp.analytics.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CounterReadCacheTest {
+
+    @Test
+    void concurrentReadersShouldShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CounterReadCache cache = new CounterReadCache(() -> {
+            loads.incrementAndGet();
+            await(release);
+            return Map.of("orders.created", 42L);
+        }, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+        List<Future<Map<String, Long>>> reads = new ArrayList<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                reads.add(executor.submit(cache::get));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Map<String, Long>> read : reads) {
+                assertThat(read.get(5, TimeUnit.SECONDS)).containsEntry("orders.created", 42L);
+            }
+        }
+        cache.get();
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void failedLoadShouldNotBeCached() {
+        AtomicInteger loads = new AtomicInteger();
+        CounterReadCache cache = new CounterReadCache(() -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("redis down");
+            }
+            return Map.of("orders.created", 1L);
+        }, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+        assertThatThrownBy(cache::get).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.get()).containsEntry("orders.created", 1L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.acmecorp.analytics.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventSeriesTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:34:56Z");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private EventSeries series;
+
+    @BeforeEach
+    void setUp() {
+        series = new EventSeries(redisTemplate, Clock.fixed(NOW, ZoneOffset.UTC),
+                Duration.ofDays(2), Duration.ofDays(35), Duration.ofDays(400), 1_440);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readShouldSumMinuteBucketsIntoStepsWithOneMget() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        List<String> values = new ArrayList<>(Collections.nCopies(60, null));
+        values.set(0, "3");
+        values.set(4, "2");
+        values.set(5, "7");
+        when(valueOperations.multiGet(anyList())).thenReturn(values);
+
+        EventSeries.Series result = series.read("orders.created",
+                Instant.parse("2024-05-01T11:02:30Z"), Instant.parse("2024-05-01T12:00:00Z"), Duration.ofMinutes(5));
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(valueOperations, times(1)).multiGet(keys.capture());
+        long firstMinute = Instant.parse("2024-05-01T11:00:00Z").getEpochSecond() / 60;
+        assertThat(keys.getValue()).hasSize(60)
+                .startsWith("analytics:series:orders.created:m:" + firstMinute);
+        assertThat(result.from()).isEqualTo(Instant.parse("2024-05-01T11:00:00Z"));
+        assertThat(result.resolution()).isEqualTo(EventSeries.Resolution.MINUTE);
+        assertThat(result.points()).hasSize(12);
+        assertThat(result.points().get(0).count()).isEqualTo(5);
+        assertThat(result.points().get(1).count()).isEqualTo(7);
+        assertThat(result.points().get(2).count()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readShouldUseDayBucketsForDailySteps() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenReturn(List.of("10", "20", "30", "40", "50", "60", "70", "80"));
+
+        EventSeries.Series result = series.read("orders.created", NOW.minus(Duration.ofDays(7)), NOW, Duration.ofDays(1));
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(valueOperations).multiGet(keys.capture());
+        assertThat(keys.getValue()).hasSize(8).allMatch(key -> key.contains(":d:"));
+        assertThat(result.resolution()).isEqualTo(EventSeries.Resolution.DAY);
+        assertThat(result.points()).hasSize(8)
+                .extracting(EventSeries.Point::count)
+                .containsExactly(10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L);
+    }
+
+    @Test
+    void readShouldRejectRangesBeyondTheBucketLimitAndOddSteps() {
+        assertThatThrownBy(() -> series.read("orders.created", NOW.minus(Duration.ofDays(2)), NOW, Duration.ofMinutes(1)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("use a larger step");
+        assertThatThrownBy(() -> series.read("orders.created", null, null, Duration.ofSeconds(90)))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(redisTemplate);
+    }
+}
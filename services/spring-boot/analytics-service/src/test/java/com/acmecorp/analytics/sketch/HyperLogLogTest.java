@@ -0,0 +1,54 @@
+package com.acmecorp.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimateShouldStayWithinThreeStandardErrorsAcrossCardinalities() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        double error = sketch.relativeStandardError();
+        assertThat(error).isCloseTo(0.0081, within(0.0001));
+
+        int added = 0;
+        for (int cardinality : new int[]{100, 1_000, 10_000, 50_000, 250_000, 1_000_000}) {
+            while (added < cardinality) {
+                sketch.add("customer-" + added + "@example.com");
+                added++;
+            }
+            assertThat((double) sketch.estimate())
+                    .as("estimate of %d distinct values", cardinality)
+                    .isCloseTo(cardinality, within(Math.max(1, 3 * error * cardinality)));
+        }
+        assertThat(sketch.sizeInBytes()).isEqualTo(16_384);
+    }
+
+    @Test
+    void duplicatesShouldNotChangeTheEstimate() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 5_000; i++) {
+                sketch.add("customer-" + i + "@example.com");
+            }
+        }
+
+        assertThat((double) sketch.estimate()).isCloseTo(5_000, within(3 * sketch.relativeStandardError() * 5_000));
+    }
+
+    @Test
+    void mergeShouldEstimateTheUnion() {
+        HyperLogLog monday = new HyperLogLog(12);
+        HyperLogLog tuesday = new HyperLogLog(12);
+        for (int i = 0; i < 30_000; i++) {
+            monday.add("customer-" + i);
+            tuesday.add("customer-" + (i + 20_000));
+        }
+
+        monday.merge(tuesday);
+
+        assertThat((double) monday.estimate()).isCloseTo(50_000, within(3 * monday.relativeStandardError() * 50_000));
+    }
+}
@@ -0,0 +1,57 @@
+package com.acmecorp.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class OrderSketchesTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:34:56Z");
+
+    private final OrderSketches sketches = new OrderSketches(Clock.fixed(NOW, ZoneOffset.UTC), 14, 5, 0.001, 0.001, 7, 24);
+
+    @Test
+    void recordShouldCountDistinctCustomersAndProductQuantitiesOfCreatedOrders() {
+        for (int i = 0; i < 300; i++) {
+            sketches.record("orders.created", Map.of(
+                    "orderId", i,
+                    "customerId", "customer-hash-" + (i % 100),
+                    "products", Map.of("SKU-" + (i % 3), 1, "SKU-9", 2)));
+        }
+        sketches.record("orders.confirmed", Map.of("customerId", "other-hash", "products", Map.of("SKU-1", 99)));
+        sketches.record("orders.created", null);
+        sketches.record("orders.created", Map.of("customerEmail", "legacy@example.com"));
+
+        OrderSketches.UniqueCount unique = sketches.uniqueCustomers(null);
+        assertThat(unique.day()).isEqualTo(LocalDate.of(2024, 5, 1));
+        assertThat((double) unique.estimate()).isCloseTo(100, within(2.0));
+
+        OrderSketches.TopProducts top = sketches.topProducts(null, 2);
+        assertThat(top.hour()).isEqualTo(Instant.parse("2024-05-01T12:00:00Z"));
+        assertThat(top.totalQuantity()).isEqualTo(900);
+        assertThat(top.products()).first().isEqualTo(new TopK.Item("SKU-9", 600));
+        assertThat(top.products()).hasSize(2);
+    }
+
+    @Test
+    void windowsOutsideWhatIsKeptShouldBeRejected() {
+        assertThat(sketches.uniqueCustomers(LocalDate.of(2024, 4, 25)).estimate()).isZero();
+        assertThat(sketches.topProducts(Instant.parse("2024-04-30T13:00:00Z"), 5).products()).isEmpty();
+
+        assertThatThrownBy(() -> sketches.uniqueCustomers(LocalDate.of(2024, 4, 24)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> sketches.topProducts(Instant.parse("2024-04-30T12:59:59Z"), 5))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> sketches.topProducts(null, 6))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.acmecorp.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ObjLongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKTest {
+
+    @Test
+    void countMinEstimatesShouldNeverUndercountAndStayWithinTheErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(0.001, 0.001);
+        Map<String, Long> exact = zipfStream(50_000, 500_000, (product, quantity) -> sketch.add(product, quantity));
+
+        assertThat(sketch.width()).isEqualTo(2_719);
+        assertThat(sketch.depth()).isEqualTo(7);
+        assertThat(sketch.total()).isEqualTo(exact.values().stream().mapToLong(Long::longValue).sum());
+        long bound = sketch.errorBound();
+        assertThat(bound).isEqualTo((long) Math.ceil(Math.E / sketch.width() * sketch.total()));
+        // Each estimate exceeds the bound with probability at most delta, so over 50k products a handful may.
+        long beyondBound = exact.entrySet().stream()
+                .peek(entry -> assertThat(sketch.estimate(entry.getKey())).isGreaterThanOrEqualTo(entry.getValue()))
+                .filter(entry -> sketch.estimate(entry.getKey()) - entry.getValue() > bound)
+                .count();
+        assertThat(beyondBound).isLessThanOrEqualTo((long) (exact.size() * 0.001 * 2));
+    }
+
+    @Test
+    void topShouldReturnTheHeaviestProductsWithCountsWithinTheErrorBound() {
+        TopK top = new TopK(20, 0.001, 0.001);
+        Map<String, Long> exact = zipfStream(50_000, 500_000, top::add);
+
+        List<String> expected = exact.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<TopK.Item> items = top.top(20);
+        assertThat(items).hasSize(20);
+        assertThat(items.stream().limit(10).map(TopK.Item::item)).containsExactlyInAnyOrderElementsOf(expected);
+        for (TopK.Item item : items) {
+            assertThat(item.count()).isBetween(exact.get(item.item()), exact.get(item.item()) + top.errorBound());
+        }
+        assertThat(top.sizeInBytes()).isEqualTo(2_719 * 7 * Long.BYTES);
+    }
+
+    private static Map<String, Long> zipfStream(int products, int orders, ObjLongConsumer<String> sink) {
+        double[] cumulative = new double[products];
+        double sum = 0;
+        for (int i = 0; i < products; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(42);
+        Map<String, Long> exact = new HashMap<>();
+        for (int order = 0; order < orders; order++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            String product = "SKU-" + (index < 0 ? -index - 1 : index);
+            long quantity = 1 + random.nextInt(3);
+            sink.accept(product, quantity);
+            exact.merge(product, quantity, Long::sum);
+        }
+        return exact;
+    }
+}
@@ -0,0 +1,9 @@
+package com.acmecorp.billing.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AnalyticsShipperProperties.class)
+public class AnalyticsShipperConfig {
+}
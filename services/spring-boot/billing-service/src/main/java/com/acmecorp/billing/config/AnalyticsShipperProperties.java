@@ -0,0 +1,8 @@
+package com.acmecorp.billing.config;
+
+import com.acmecorp.shared.analytics.AnalyticsShipperSettings;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "acmecorp.analytics.shipper")
+public class AnalyticsShipperProperties extends AnalyticsShipperSettings {
+}
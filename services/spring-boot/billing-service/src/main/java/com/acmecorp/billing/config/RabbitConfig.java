@@ -0,0 +1,70 @@
+package com.acmecorp.billing.config;
+
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitConfig {
+
+    public static final String ANALYTICS_EVENTS_EXCHANGE = "analytics-events-exchange";
+    public static final String ANALYTICS_EVENTS_QUEUE = "analytics-events-queue";
+    public static final String ANALYTICS_EVENTS_DLX = "analytics-events-dlx";
+    public static final String ANALYTICS_EVENTS_DLQ = "analytics-events-queue.dlq";
+    public static final String ANALYTICS_EVENTS_ROUTING_KEY = "analytics.events.billing";
+    public static final String ANALYTICS_EVENTS_DLQ_ROUTING_KEY = "analytics.events.dlq";
+
+    @Bean
+    public MessageConverter rabbitMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    // Declared here as well as in analytics-service, so events published before it first starts are kept.
+    @Bean
+    public TopicExchange analyticsEventsExchange() {
+        return new TopicExchange(ANALYTICS_EVENTS_EXCHANGE);
+    }
+
+    @Bean
+    public TopicExchange analyticsEventsDeadLetterExchange() {
+        return new TopicExchange(ANALYTICS_EVENTS_DLX);
+    }
+
+    @Bean
+    public Queue analyticsEventsQueue() {
+        return QueueBuilder.durable(ANALYTICS_EVENTS_QUEUE)
+                .deadLetterExchange(ANALYTICS_EVENTS_DLX)
+                .deadLetterRoutingKey(ANALYTICS_EVENTS_DLQ_ROUTING_KEY)
+                .build();
+    }
+
+    @Bean
+    public Queue analyticsEventsDeadLetterQueue() {
+        return QueueBuilder.durable(ANALYTICS_EVENTS_DLQ).build();
+    }
+
+    @Bean
+    public Declarables analyticsEventsTopology(Queue analyticsEventsQueue,
+                                               Queue analyticsEventsDeadLetterQueue,
+                                               TopicExchange analyticsEventsExchange,
+                                               TopicExchange analyticsEventsDeadLetterExchange) {
+        return new Declarables(
+                analyticsEventsExchange,
+                analyticsEventsDeadLetterExchange,
+                analyticsEventsQueue,
+                analyticsEventsDeadLetterQueue,
+                BindingBuilder.bind(analyticsEventsQueue)
+                        .to(analyticsEventsExchange)
+                        .with("analytics.events.#"),
+                BindingBuilder.bind(analyticsEventsDeadLetterQueue)
+                        .to(analyticsEventsDeadLetterExchange)
+                        .with(ANALYTICS_EVENTS_DLQ_ROUTING_KEY)
+        );
+    }
+}
@@ -11,4 +11,6 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long>, JpaSpec
     long countByStatus(InvoiceStatus status);
 
     Optional<Invoice> findTopByInvoiceNumberStartingWithOrderByInvoiceNumberDesc(String prefix);
+
+    Optional<Invoice> findFirstByOrderIdOrderByIdAsc(Long orderId);
 }
@@ -43,8 +43,16 @@ public class BillingService {
         this.analyticsClient = analyticsClient;
     }
 
+    /**
+     * Creates the invoice for an order, or returns the one already created for it. orders-service delivers invoice
+     * requests at least once, so a repeated request for the same order must not bill it twice.
+     */
     @Transactional
     public Invoice createInvoice(InvoiceRequest request) {
+        Optional<Invoice> existing = invoiceRepository.findFirstByOrderIdOrderByIdAsc(request.orderId());
+        if (existing.isPresent()) {
+            return existing.get();
+        }
         Invoice invoice = new Invoice();
         invoice.setInvoiceNumber(generateInvoiceNumber());
         invoice.setOrderId(request.orderId());
@@ -99,7 +107,7 @@ public class BillingService {
         invoice.setUpdatedAt(Instant.now());
         Invoice saved = invoiceRepository.save(invoice);
         paymentRepository.save(payment);
-        analyticsClient.track("billing.invoice.paid", request.asMetadata(saved.getId(), saved.getInvoiceNumber()));
+        analyticsClient.track("billing.invoice.paid", PaymentRequest.asMetadata(saved, payment));
         return saved;
     }
 
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,10 +22,14 @@ public record InvoiceRequest(
     }
 
     public Map<String, Object> asMetadata(Long invoiceId) {
-        return Map.of(
-                "invoiceId", invoiceId,
-                "orderId", orderId,
-                "orderNumber", orderNumber
-        );
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("invoiceId", invoiceId);
+        metadata.put("orderId", orderId);
+        metadata.put("orderNumber", orderNumber);
+        metadata.put("currency", currency);
+        if (amount != null) {
+            metadata.put("amount", amount);
+        }
+        return metadata;
     }
 }
@@ -1,16 +1,27 @@
 package com.acmecorp.billing.web;
 
+import com.acmecorp.billing.domain.Invoice;
+import com.acmecorp.billing.domain.Payment;
 import com.acmecorp.billing.domain.PaymentMethod;
 import jakarta.validation.constraints.Positive;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public record PaymentRequest(@Positive BigDecimal amount, PaymentMethod paymentMethod) {
-    public Map<String, Object> asMetadata(Long invoiceId, String invoiceNumber) {
-        return Map.of(
-                "invoiceId", invoiceId,
-                "invoiceNumber", invoiceNumber
-        );
+    /**
+     * Describes the payment as recorded, with the method and amount defaulted when the request left them out.
+     */
+    public static Map<String, Object> asMetadata(Invoice invoice, Payment payment) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("invoiceId", invoice.getId());
+        metadata.put("invoiceNumber", invoice.getInvoiceNumber());
+        metadata.put("currency", invoice.getCurrency());
+        metadata.put("paymentMethod", payment.getPaymentMethod().name());
+        if (payment.getAmount() != null) {
+            metadata.put("amount", payment.getAmount());
+        }
+        return metadata;
     }
 }
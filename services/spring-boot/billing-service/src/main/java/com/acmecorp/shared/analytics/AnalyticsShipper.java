@@ -0,0 +1,296 @@
+package com.acmecorp.shared.analytics;
+
+import com.acmecorp.shared.analytics.AnalyticsShipperSettings.OverflowPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ships analytics events to analytics-service without blocking the caller. {@link #track} only enqueues; one
+ * background flusher publishes the queue to the analytics events exchange, one persistent message per batch, once {@code batch-size} events are waiting or {@code flush-interval} has passed since the first of them.
+ * A batch counts as shipped once the broker confirms it, so an analytics-service outage only grows its queue.
+ * <p>
+ * A full queue is handled by the {@link OverflowPolicy}. Batches the broker does not confirm are spilled under
+ * {@code SPILL} and dropped otherwise, as are events still queued when shutdown runs out of time. Either way
+ * tracking stays best effort and never fails the caller. Callers that must know, such as an outbox, use
+ * {@link #publish} instead.
+ * <p>
+ * Every service that emits analytics events extends this class with its own properties, routing key and metric
+ * prefix; see {@code package-info.java} for how the copies are kept in step.
+ */
+public class AnalyticsShipper implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsShipper.class);
+    private static final long SPILL_RETRY_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String exchange;
+    private final String routingKey;
+    private final BlockingQueue<TrackedEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final long shutdownTimeoutMillis;
+    private final long confirmTimeoutMillis;
+    private final AnalyticsSpillFile spillFile;
+    private final Timer successfulFlushes;
+    private final Timer failedFlushes;
+    private final DistributionSummary batchSizes;
+    private final Counter droppedOnOverflow;
+    private final Counter droppedOnFailure;
+    private final Counter droppedOnShutdown;
+    private final Counter spilled;
+    private volatile boolean running;
+    private Thread flusher;
+    private long nextSpillReplay;
+
+    /**
+     * @param metricPrefix  prefix of every meter, such as {@code acmecorp.orders.analytics}
+     * @param spillFileName name of the spill file under {@code spill-directory}
+     */
+    protected AnalyticsShipper(RabbitTemplate rabbitTemplate,
+                               String exchange,
+                               String routingKey,
+                               AnalyticsShipperSettings properties,
+                               String metricPrefix,
+                               String spillFileName,
+                               MeterRegistry meterRegistry) {
+        if (properties.getQueueCapacity() <= 0 || properties.getBatchSize() <= 0) {
+            throw new IllegalArgumentException("queueCapacity and batchSize must be greater than 0");
+        }
+        this.rabbitTemplate = rabbitTemplate;
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batchSize = properties.getBatchSize();
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+        this.overflowPolicy = properties.getOverflowPolicy();
+        this.blockTimeoutNanos = properties.getBlockTimeout().toNanos();
+        this.shutdownTimeoutMillis = properties.getShutdownTimeout().toMillis();
+        this.confirmTimeoutMillis = properties.getConfirmTimeout().toMillis();
+        this.nextSpillReplay = System.nanoTime();
+        this.spillFile = overflowPolicy == OverflowPolicy.SPILL
+                ? new AnalyticsSpillFile(properties.getSpillDirectory().resolve(spillFileName),
+                properties.getMaxSpillSize().toBytes())
+                : null;
+        this.successfulFlushes = flushTimer(meterRegistry, metricPrefix, "success");
+        this.failedFlushes = flushTimer(meterRegistry, metricPrefix, "failure");
+        this.batchSizes = DistributionSummary.builder(metricPrefix + ".batch.size")
+                .description("Events per batch published for analytics-service")
+                .register(meterRegistry);
+        this.droppedOnOverflow = droppedCounter(meterRegistry, metricPrefix, "overflow");
+        this.droppedOnFailure = droppedCounter(meterRegistry, metricPrefix, "failure");
+        this.droppedOnShutdown = droppedCounter(meterRegistry, metricPrefix, "shutdown");
+        this.spilled = Counter.builder(metricPrefix + ".spilled")
+                .description("Analytics events written to the spill file")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".queue.depth", queue, BlockingQueue::size)
+                .description("Analytics events waiting to be shipped")
+                .register(meterRegistry);
+        if (spillFile != null) {
+            Gauge.builder(metricPrefix + ".spill.size", spillFile, AnalyticsSpillFile::size)
+                    .description("Bytes of analytics events waiting in the spill file")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    public void track(String event, Map<String, Object> metadata) {
+        track(event, metadata, Instant.now());
+    }
+
+    /**
+     * Ships an event that happened at {@code occurredAt} rather than now, such as one delivered late from the outbox.
+     */
+    public void track(String event, Map<String, Object> metadata, Instant occurredAt) {
+        TrackedEvent tracked = new TrackedEvent(event, metadata, occurredAt);
+        if (queue.offer(tracked)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP -> droppedOnOverflow.increment();
+            case BLOCK -> {
+                try {
+                    if (!queue.offer(tracked, blockTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                        droppedOnOverflow.increment();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    droppedOnOverflow.increment();
+                }
+            }
+            case SPILL -> undelivered(List.of(tracked), droppedOnOverflow);
+        }
+    }
+
+    /**
+     * Publishes one event right away, bypassing the queue, and waits up to {@code confirm-timeout} for the broker to
+     * confirm it. A nack, a timeout or an unreachable broker is thrown, so the caller can retry.
+     */
+    public void publish(String event, Map<String, Object> metadata, Instant occurredAt) {
+        send(List.of(new TrackedEvent(event, metadata, occurredAt)));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = Thread.ofPlatform().daemon().name("analytics-shipper").start(this::flushUntilStopped);
+    }
+
+    /**
+     * Flushes what is queued, waiting at most {@code shutdown-timeout}; anything left after that is spilled or
+     * dropped.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(shutdownTimeoutMillis);
+            if (flusher.isAlive()) {
+                flusher.interrupt();
+                flusher.join(shutdownTimeoutMillis);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<TrackedEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            undelivered(remaining, droppedOnShutdown);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts before and stops after the web server, so requests still in flight during shutdown are shipped.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushUntilStopped() {
+        List<TrackedEvent> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                TrackedEvent first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    replaySpill();
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    TrackedEvent next = running && remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if (flush(batch)) {
+                    replaySpill();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException ex) {
+            undelivered(batch, droppedOnShutdown);
+        }
+    }
+
+    private boolean flush(List<TrackedEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            send(batch);
+            successfulFlushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+            nextSpillReplay = System.nanoTime();
+            return true;
+        } catch (Exception ex) {
+            failedFlushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Shipping {} analytics events failed", batch.size(), ex);
+            undelivered(batch, droppedOnFailure);
+            nextSpillReplay = System.nanoTime() + SPILL_RETRY_INTERVAL_NANOS;
+            return false;
+        }
+    }
+
+    private void send(List<TrackedEvent> events) {
+        rabbitTemplate.invoke(operations -> {
+            operations.convertAndSend(exchange, routingKey, new TrackEventBatch(events));
+            operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+            return null;
+        });
+    }
+
+    // Waits a while after a failed flush so an outage does not turn into rewriting the spill file every poll.
+    private void replaySpill() {
+        if (spillFile == null || spillFile.size() == 0 || System.nanoTime() - nextSpillReplay < 0) {
+            return;
+        }
+        List<TrackedEvent> spilledEvents = spillFile.takeAll();
+        for (int from = 0; from < spilledEvents.size(); from += batchSize) {
+            List<TrackedEvent> batch = spilledEvents.subList(from, Math.min(from + batchSize, spilledEvents.size()));
+            if (!flush(batch)) {
+                undelivered(spilledEvents.subList(from + batch.size(), spilledEvents.size()), droppedOnFailure);
+                return;
+            }
+        }
+    }
+
+    private void undelivered(List<TrackedEvent> events, Counter dropped) {
+        if (events.isEmpty()) {
+            return;
+        }
+        int written = spillFile != null ? spillFile.append(events) : 0;
+        spilled.increment(written);
+        dropped.increment(events.size() - written);
+    }
+
+    private static Timer flushTimer(MeterRegistry meterRegistry, String metricPrefix, String outcome) {
+        return Timer.builder(metricPrefix + ".flush")
+                .description("Latency of shipping one batch of analytics events")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter droppedCounter(MeterRegistry meterRegistry, String metricPrefix, String reason) {
+        return Counter.builder(metricPrefix + ".dropped")
+                .description("Analytics events discarded without reaching the broker")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // occurredAt is sent along so analytics-service can time flows by when events happened, not when they arrived.
+    record TrackedEvent(String event, Map<String, Object> metadata, Instant occurredAt) {
+    }
+
+    record TrackEventBatch(List<TrackedEvent> events) {
+    }
+}
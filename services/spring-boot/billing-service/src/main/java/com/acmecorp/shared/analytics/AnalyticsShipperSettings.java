@@ -0,0 +1,102 @@
+package com.acmecorp.shared.analytics;
+
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of an {@link AnalyticsShipper}, bound by each service's {@code acmecorp.analytics.shipper} properties.
+ */
+public class AnalyticsShipperSettings {
+    private int queueCapacity = 10_000;
+    private int batchSize = 200;
+    private Duration flushInterval = Duration.ofMillis(200);
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private Duration blockTimeout = Duration.ofMillis(50);
+    private Path spillDirectory = Path.of(System.getProperty("java.io.tmpdir"), "acmecorp-analytics-spill");
+    private DataSize maxSpillSize = DataSize.ofMegabytes(16);
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+    private Duration confirmTimeout = Duration.ofSeconds(5);
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public Duration getBlockTimeout() {
+        return blockTimeout;
+    }
+
+    public void setBlockTimeout(Duration blockTimeout) {
+        this.blockTimeout = blockTimeout;
+    }
+
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public DataSize getMaxSpillSize() {
+        return maxSpillSize;
+    }
+
+    public void setMaxSpillSize(DataSize maxSpillSize) {
+        this.maxSpillSize = maxSpillSize;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public Duration getConfirmTimeout() {
+        return confirmTimeout;
+    }
+
+    public void setConfirmTimeout(Duration confirmTimeout) {
+        this.confirmTimeout = confirmTimeout;
+    }
+
+    public enum OverflowPolicy {
+        /** Discard the event when the queue is full. */
+        DROP,
+        /** Wait up to {@code block-timeout} for room, then discard. */
+        BLOCK,
+        /** Append the event to a file under {@code spill-directory}, replayed once the broker is reachable again. */
+        SPILL
+    }
+}
@@ -7,6 +7,7 @@ import com.acmecorp.billing.domain.Payment;
 import com.acmecorp.billing.domain.PaymentMethod;
 import com.acmecorp.billing.repository.InvoiceRepository;
 import com.acmecorp.billing.repository.PaymentRepository;
+import com.acmecorp.billing.web.InvoiceRequest;
 import com.acmecorp.billing.web.PaymentRequest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -86,4 +87,20 @@ class BillingServiceTest {
         verify(analyticsClient, never()).track(anyString(), anyMap());
         verify(paymentRepository, never()).save(any(Payment.class));
     }
+
+    @Test
+    void createInvoiceShouldReturnExistingInvoiceForRepeatedOrder() {
+        Invoice existing = new Invoice();
+        existing.setInvoiceNumber("INV-300");
+        existing.setOrderId(42L);
+        existing.setStatus(InvoiceStatus.OPEN);
+        when(invoiceRepository.findFirstByOrderIdOrderByIdAsc(42L)).thenReturn(Optional.of(existing));
+
+        Invoice invoice = billingService.createInvoice(new InvoiceRequest(
+                42L, "ORD-2025-00042", "repeat@acme.test", new BigDecimal("10.00"), "USD", java.util.List.of()));
+
+        assertThat(invoice).isSameAs(existing);
+        verify(invoiceRepository, never()).save(any(Invoice.class));
+        verify(analyticsClient, never()).track(anyString(), anyMap());
+    }
 }
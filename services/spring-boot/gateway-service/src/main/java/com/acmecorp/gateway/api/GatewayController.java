@@ -1,6 +1,7 @@
 package com.acmecorp.gateway.api;
 
 import com.acmecorp.gateway.service.GatewayService;
+import com.acmecorp.gateway.service.GatewayService.CursorPageResponse;
 import com.acmecorp.gateway.service.GatewayService.OrderRequest;
 import com.acmecorp.gateway.service.GatewayService.OrderSummary;
 import com.acmecorp.gateway.service.GatewayService.OrderWithInvoice;
@@ -16,8 +17,10 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -29,6 +32,8 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -55,6 +60,14 @@ public class GatewayController {
         return gatewayService.listOrders(page, size);
     }
 
+    @GetMapping(path = "/orders", params = "pagination=keyset")
+    public Mono<CursorPageResponse<OrderSummary>> listOrdersByCursor(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+        return gatewayService.listOrdersByCursor(cursor, size, includeTotal);
+    }
+
     @PostMapping(path = "/orders", consumes = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
             summary = "Create an order",
@@ -171,11 +184,30 @@ public class GatewayController {
     // Catalog
     // -------------------------------------------------------------------------
 
+    // The body stays a plain array; X-Total-Count and a rel="next" Link tell clients there is more to fetch.
     @GetMapping("/catalog")
-    public Mono<List<ProductSummary>> catalog(
+    public Mono<ResponseEntity<List<ProductSummary>>> catalog(
             @RequestParam(name = "category", required = false) String category,
-            @RequestParam(name = "search", required = false) String search) {
-        return gatewayService.catalog(category, search);
+            @RequestParam(name = "search", required = false) String search,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "100") int size) {
+        return gatewayService.catalog(category, search, page, size)
+                .map(listing -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .header(GatewayService.TOTAL_COUNT_HEADER, Long.toString(listing.total));
+                    if (listing.hasNext()) {
+                        UriComponentsBuilder next = UriComponentsBuilder.fromPath("/api/gateway/catalog");
+                        if (category != null && !category.isBlank()) {
+                            next.queryParam("category", category);
+                        }
+                        if (search != null && !search.isBlank()) {
+                            next.queryParam("search", search);
+                        }
+                        next.queryParam("page", page + 1).queryParam("size", size);
+                        response.header(HttpHeaders.LINK, "<" + next.encode().toUriString() + ">; rel=\"next\"");
+                    }
+                    return response.body(listing.products);
+                });
     }
 
     @GetMapping("/catalog/{id}")
@@ -218,6 +250,21 @@ public class GatewayController {
                 ));
     }
 
+    /**
+     * Relays the analytics counter feed: a {@code snapshot} event, then {@code delta} events as counters change.
+     * Each client holds its own upstream stream, so a slow client slows only its own connection, where
+     * analytics-service merges the deltas it cannot take yet.
+     */
+    @GetMapping(value = "/analytics/counters/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> analyticsCounterStream() {
+        return gatewayService.analyticsCounterStream()
+                .onErrorMap(ex -> new org.springframework.web.server.ResponseStatusException(
+                        HttpStatus.BAD_GATEWAY,
+                        "Downstream analytics failure",
+                        ex
+                ));
+    }
+
     @GetMapping("/system/status")
     public Mono<List<SystemStatus>> systemStatus() {
         return gatewayService.systemStatus();
@@ -18,6 +18,7 @@ public class GatewayCorsConfig {
         config.setAllowedOrigins(properties.getAllowedOrigins());
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("Content-Type", "Authorization", "Accept", "Idempotency-Key"));
+        config.setExposedHeaders(List.of("X-Total-Count", "Link"));
         config.setAllowCredentials(false);
         config.setMaxAge(3600L);
 
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
@@ -23,6 +25,8 @@ public class GatewayService {
 
     private static final Logger log = LoggerFactory.getLogger(GatewayService.class);
 
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final WebClient webClient;
     private final String ordersBaseUrl;
     private final String catalogBaseUrl;
@@ -64,6 +68,26 @@ public class GatewayService {
                 .transform(mono -> requireBody(mono, "orders-service", "list orders"));
     }
 
+    public Mono<CursorPageResponse<OrderSummary>> listOrdersByCursor(String cursor, int size, boolean includeTotal) {
+        UriComponentsBuilder builder = UriComponentsBuilder
+                .fromHttpUrl(ordersBaseUrl + "/api/orders")
+                .queryParam("pagination", "keyset")
+                .queryParam("size", size)
+                .queryParam("includeTotal", includeTotal);
+        if (cursor != null && !cursor.isBlank()) {
+            builder.queryParam("cursor", cursor);
+        }
+        String url = builder.toUriString();
+
+        log.debug("Listing orders by cursor via Orders Service: {}", url);
+
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<CursorPageResponse<OrderSummary>>() {})
+                .transform(mono -> requireBody(mono, "orders-service", "list orders"));
+    }
+
     public Mono<OrderSummary> createOrder(OrderRequest request, String idempotencyKey) {
         String url = ordersBaseUrl + "/api/orders";
 
@@ -223,9 +247,11 @@ public class GatewayService {
     // Catalog
     // -------------------------------------------------------------------------
 
-    public Mono<List<ProductSummary>> catalog(String category, String search) {
+    public Mono<CatalogPage> catalog(String category, String search, int page, int size) {
         UriComponentsBuilder builder = UriComponentsBuilder
-                .fromHttpUrl(catalogBaseUrl + "/api/catalog");
+                .fromHttpUrl(catalogBaseUrl + "/api/catalog")
+                .queryParam("page", page)
+                .queryParam("size", size);
 
         if (category != null && !category.isBlank()) {
             builder.queryParam("category", category);
@@ -240,7 +266,18 @@ public class GatewayService {
         return webClient.get()
                 .uri(url)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<List<ProductSummary>>() {})
+                .toEntity(new ParameterizedTypeReference<List<ProductSummary>>() {})
+                .filter(ResponseEntity::hasBody)
+                .map(entity -> {
+                    CatalogPage result = new CatalogPage();
+                    result.products = entity.getBody();
+                    result.page = page;
+                    result.size = size;
+                    // An older catalog-service does not send the count; treat what came back as everything.
+                    String total = entity.getHeaders().getFirst(TOTAL_COUNT_HEADER);
+                    result.total = total != null ? Long.parseLong(total) : (long) page * size + result.products.size();
+                    return result;
+                })
                 .transform(mono -> requireBody(mono, "catalog-service", "list products"));
     }
 
@@ -327,6 +364,18 @@ public class GatewayService {
                 .transform(mono -> requireBody(mono, "analytics-service", "analytics counters"));
     }
 
+    public Flux<ServerSentEvent<String>> analyticsCounterStream() {
+        String url = analyticsBaseUrl + "/api/analytics/counters/stream";
+
+        log.debug("Streaming analytics counters via Analytics Service: {}", url);
+
+        return webClient.get()
+                .uri(url)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {});
+    }
+
     // -------------------------------------------------------------------------
     // System status aggregation
     // -------------------------------------------------------------------------
@@ -430,6 +479,29 @@ public class GatewayService {
         public boolean last;
     }
 
+    /**
+     * One page of the catalog listing together with the total number of products matching the filters.
+     */
+    public static class CatalogPage {
+        public List<ProductSummary> products;
+        public int page;
+        public int size;
+        public long total;
+
+        public boolean hasNext() {
+            return (long) (page + 1) * size < total;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CursorPageResponse<T> {
+        public List<T> content;
+        public int size;
+        public String nextCursor;
+        public boolean hasNext;
+        public Long totalElements;
+    }
+
     /**
      * Generic order representation; we treat orders as a flexible JSON object.
      */
@@ -11,9 +11,11 @@ import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
@@ -57,6 +59,27 @@ class GatewayControllerTest {
         assertJsonEquals(body, "$['orders.created']", 5, "analyticsCountersShouldProxy");
     }
 
+    @Test
+    void analyticsCounterStreamShouldRelayEvents() {
+        Mockito.when(gatewayService.analyticsCounterStream()).thenReturn(Flux.just(
+                ServerSentEvent.<String>builder().id("0").event("snapshot").data("{\"orders.created\":5}").build(),
+                ServerSentEvent.<String>builder().id("1").event("delta").data("{\"orders.created\":2}").build()));
+
+        String body = webClient.get()
+                .uri("/api/gateway/analytics/counters/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        Assertions.assertNotNull(body, "analyticsCounterStreamShouldRelayEvents returned no body");
+        Assertions.assertTrue(body.contains("event:snapshot\ndata:{\"orders.created\":5}"), body);
+        Assertions.assertTrue(body.contains("id:1\nevent:delta\ndata:{\"orders.created\":2}"), body);
+    }
+
     @Test
     void systemStatusShouldAggregate() {
         var status = new GatewayService.SystemStatus();
@@ -139,19 +162,50 @@ class GatewayControllerTest {
         product.put("price", BigDecimal.valueOf(9.99));
         product.put("active", true);
 
-        Mockito.when(gatewayService.catalog("electronics", "phone")).thenReturn(Mono.just(List.of(product)));
+        var listing = new GatewayService.CatalogPage();
+        listing.products = List.of(product);
+        listing.page = 0;
+        listing.size = 100;
+        listing.total = 1;
+        Mockito.when(gatewayService.catalog("electronics", "phone", 0, 100)).thenReturn(Mono.just(listing));
 
         var response = webClient.get()
                 .uri(uriBuilder -> uriBuilder.path("/api/gateway/catalog")
                         .queryParam("category", "electronics")
                         .queryParam("search", "phone").build())
                 .exchange()
-                .expectStatus().isOk();
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Total-Count", "1")
+                .expectHeader().doesNotExist("Link");
 
         String body = expectBody(response, "catalogShouldReturnProducts GET /api/gateway/catalog");
         assertJsonEquals(body, "$[0].sku", "SKU-1", "catalogShouldReturnProducts");
 
-        Mockito.verify(gatewayService).catalog("electronics", "phone");
+        Mockito.verify(gatewayService).catalog("electronics", "phone", 0, 100);
+    }
+
+    @Test
+    void catalogShouldForwardPagingAndLinkTheNextPage() {
+        var product = new GatewayService.ProductSummary();
+        product.put("sku", "SKU-3");
+        var listing = new GatewayService.CatalogPage();
+        listing.products = List.of(product);
+        listing.page = 2;
+        listing.size = 1;
+        listing.total = 5;
+        Mockito.when(gatewayService.catalog("books", null, 2, 1)).thenReturn(Mono.just(listing));
+
+        webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/gateway/catalog")
+                        .queryParam("category", "books")
+                        .queryParam("page", 2)
+                        .queryParam("size", 1).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Total-Count", "5")
+                .expectHeader().valueEquals("Link", "</api/gateway/catalog?category=books&page=3&size=1>; rel=\"next\"");
+
+        Mockito.verify(gatewayService).catalog("books", null, 2, 1);
     }
 
     @Test
@@ -220,6 +274,30 @@ class GatewayControllerTest {
         assertJsonEquals(body, "$.content[0].orderNumber", "ORD-5", "listOrdersShouldReturnPage");
     }
 
+    @Test
+    void listOrdersInKeysetModeShouldPassCursorThrough() {
+        var order = new GatewayService.OrderSummary();
+        order.put("id", 6L);
+        order.put("orderNumber", "ORD-6");
+
+        var page = new GatewayService.CursorPageResponse<GatewayService.OrderSummary>();
+        page.content = List.of(order);
+        page.size = 1;
+        page.nextCursor = "cursor-2";
+        page.hasNext = true;
+
+        Mockito.when(gatewayService.listOrdersByCursor("cursor-1", 1, false)).thenReturn(Mono.just(page));
+
+        var response = webClient.get()
+                .uri("/api/gateway/orders?pagination=keyset&cursor=cursor-1&size=1")
+                .exchange()
+                .expectStatus().isOk();
+
+        String body = expectBody(response, "listOrdersInKeysetModeShouldPassCursorThrough GET /api/gateway/orders");
+        assertJsonEquals(body, "$.content[0].orderNumber", "ORD-6", "listOrdersInKeysetModeShouldPassCursorThrough");
+        assertJsonEquals(body, "$.nextCursor", "cursor-2", "listOrdersInKeysetModeShouldPassCursorThrough");
+    }
+
     @Test
     void seedEndpointShouldTriggerServices() {
         var seed = new GatewayService.SeedResult();
@@ -1,29 +1,22 @@
 package com.acmecorp.notification.client;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.acmecorp.notification.config.AnalyticsShipperProperties;
+import com.acmecorp.notification.config.RabbitConfig;
+import com.acmecorp.shared.analytics.AnalyticsShipper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClient;
-
-import java.util.Map;
 
+/**
+ * Ships notification-service's analytics events through the shared {@link AnalyticsShipper}.
+ */
 @Component
-public class AnalyticsClient {
-
-    private final RestClient restClient;
-
-    public AnalyticsClient(RestClient.Builder builder,
-                           @Value("${acmecorp.services.analytics}") String analyticsBaseUrl) {
-        this.restClient = builder.baseUrl(analyticsBaseUrl).build();
-    }
+public class AnalyticsClient extends AnalyticsShipper {
 
-    public void track(String event, Map<String, Object> metadata) {
-        try {
-            restClient.post()
-                    .uri("/api/analytics/track")
-                    .body(Map.of("event", event, "metadata", metadata))
-                    .retrieve()
-                    .toBodilessEntity();
-        } catch (Exception ignored) {
-        }
+    public AnalyticsClient(RabbitTemplate rabbitTemplate,
+                           AnalyticsShipperProperties properties,
+                           MeterRegistry meterRegistry) {
+        super(rabbitTemplate, RabbitConfig.ANALYTICS_EVENTS_EXCHANGE, RabbitConfig.ANALYTICS_EVENTS_ROUTING_KEY,
+                properties, "acmecorp.notification.analytics", "notification-service.jsonl", meterRegistry);
     }
 }
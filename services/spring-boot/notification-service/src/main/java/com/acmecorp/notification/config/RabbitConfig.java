@@ -29,6 +29,12 @@ public class RabbitConfig {
     public static final String DLX_NAME = "notifications-dlx";
     public static final String ROUTING_KEY = "notifications.key";
     public static final String DLQ_ROUTING_KEY = "notifications.dlq";
+    public static final String ANALYTICS_EVENTS_EXCHANGE = "analytics-events-exchange";
+    public static final String ANALYTICS_EVENTS_QUEUE = "analytics-events-queue";
+    public static final String ANALYTICS_EVENTS_DLX = "analytics-events-dlx";
+    public static final String ANALYTICS_EVENTS_DLQ = "analytics-events-queue.dlq";
+    public static final String ANALYTICS_EVENTS_ROUTING_KEY = "analytics.events.notification";
+    public static final String ANALYTICS_EVENTS_DLQ_ROUTING_KEY = "analytics.events.dlq";
 
     @Bean
     public TopicExchange notificationsExchange() {
@@ -79,6 +85,49 @@ public class RabbitConfig {
         );
     }
 
+    // Declared here as well as in analytics-service, so events published before it first starts are kept.
+    @Bean
+    public TopicExchange analyticsEventsExchange() {
+        return new TopicExchange(ANALYTICS_EVENTS_EXCHANGE);
+    }
+
+    @Bean
+    public TopicExchange analyticsEventsDeadLetterExchange() {
+        return new TopicExchange(ANALYTICS_EVENTS_DLX);
+    }
+
+    @Bean
+    public Queue analyticsEventsQueue() {
+        return QueueBuilder.durable(ANALYTICS_EVENTS_QUEUE)
+                .deadLetterExchange(ANALYTICS_EVENTS_DLX)
+                .deadLetterRoutingKey(ANALYTICS_EVENTS_DLQ_ROUTING_KEY)
+                .build();
+    }
+
+    @Bean
+    public Queue analyticsEventsDeadLetterQueue() {
+        return QueueBuilder.durable(ANALYTICS_EVENTS_DLQ).build();
+    }
+
+    @Bean
+    public Declarables analyticsEventsTopology(Queue analyticsEventsQueue,
+                                               Queue analyticsEventsDeadLetterQueue,
+                                               TopicExchange analyticsEventsExchange,
+                                               TopicExchange analyticsEventsDeadLetterExchange) {
+        return new Declarables(
+                analyticsEventsExchange,
+                analyticsEventsDeadLetterExchange,
+                analyticsEventsQueue,
+                analyticsEventsDeadLetterQueue,
+                BindingBuilder.bind(analyticsEventsQueue)
+                        .to(analyticsEventsExchange)
+                        .with("analytics.events.#"),
+                BindingBuilder.bind(analyticsEventsDeadLetterQueue)
+                        .to(analyticsEventsDeadLetterExchange)
+                        .with(ANALYTICS_EVENTS_DLQ_ROUTING_KEY)
+        );
+    }
+
     @Bean
     public RetryOperationsInterceptor notificationRetryInterceptor(
             @Value("${acmecorp.messaging.notification.retry.max-attempts:3}") int maxAttempts,
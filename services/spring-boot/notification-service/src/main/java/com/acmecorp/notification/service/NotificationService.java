@@ -105,7 +105,13 @@ public class NotificationService {
         saved.setStatus(NotificationStatus.SENT);
         saved.setSentAt(Instant.now());
         notificationRepository.save(saved);
-        analyticsClient.track("notification.sent", Map.of("notificationId", saved.getId(), "type", saved.getType().name()));
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("notificationId", saved.getId());
+        metadata.put("type", saved.getType().name());
+        if (orderNumber != null) {
+            metadata.put("orderNumber", orderNumber);
+        }
+        analyticsClient.track("notification.sent", metadata);
         log.info("Notification {} sent successfully for recipient {}", saved.getId(), saved.getRecipient());
     }
 
@@ -0,0 +1,100 @@
+package com.acmecorp.shared.analytics;
+
+import com.acmecorp.shared.analytics.AnalyticsShipper.TrackedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-capped JSON-lines file holding analytics events that could not be queued or delivered. Events left over
+ * from a previous run are picked up on startup, so a restart while the broker is down loses nothing that fit
+ * in the file.
+ */
+final class AnalyticsSpillFile {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsSpillFile.class);
+
+    private final Path file;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final AtomicLong size = new AtomicLong();
+
+    AnalyticsSpillFile(Path file, long maxBytes) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(file.getParent());
+            size.set(Files.exists(file) ? Files.size(file) : 0);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to prepare analytics spill file " + file, ex);
+        }
+    }
+
+    /**
+     * Appends as many of {@code events} as fit under the size cap and returns how many were written.
+     */
+    synchronized int append(Collection<TrackedEvent> events) {
+        int written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (TrackedEvent event : events) {
+                String line = objectMapper.writeValueAsString(event) + "\n";
+                long bytes = line.getBytes(StandardCharsets.UTF_8).length;
+                if (size.get() + bytes > maxBytes) {
+                    break;
+                }
+                writer.write(line);
+                size.addAndGet(bytes);
+                written++;
+            }
+        } catch (IOException ex) {
+            log.warn("Unable to spill analytics events to {}", file, ex);
+        }
+        return written;
+    }
+
+    /**
+     * Removes and returns everything in the file. Lines that cannot be parsed are skipped.
+     */
+    synchronized List<TrackedEvent> takeAll() {
+        if (size.get() == 0) {
+            return List.of();
+        }
+        List<TrackedEvent> events = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    events.add(objectMapper.readValue(line, TrackedEvent.class));
+                } catch (IOException ex) {
+                    log.debug("Skipping unreadable analytics spill line", ex);
+                }
+            }
+            Files.deleteIfExists(file);
+            size.set(0);
+        } catch (IOException ex) {
+            log.warn("Unable to read analytics spill file {}", file, ex);
+            return List.of();
+        }
+        return events;
+    }
+
+    long size() {
+        return size.get();
+    }
+}
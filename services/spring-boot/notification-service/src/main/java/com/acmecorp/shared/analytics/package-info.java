@@ -0,0 +1,10 @@
+/**
+ * The analytics event shipper shared by orders-service, billing-service and notification-service.
+ * <p>
+ * The services build and ship as independent Maven projects, each with its own Docker build context, so there is
+ * no module they could all depend on. Each one carries a copy of this package instead, and the copies must stay
+ * byte-identical: change all three together. CI fails when they differ. Only the {@code AnalyticsClient} that
+ * extends {@link com.acmecorp.shared.analytics.AnalyticsShipper}, with its properties, routing key and metric
+ * prefix, lives in the service.
+ */
+package com.acmecorp.shared.analytics;
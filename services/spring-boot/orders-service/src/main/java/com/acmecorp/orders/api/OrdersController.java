@@ -1,8 +1,11 @@
 package com.acmecorp.orders.api;
 
 import com.acmecorp.orders.domain.OrderStatus;
+import com.acmecorp.orders.service.BulkSeedLoader;
+import com.acmecorp.orders.service.OrderIdempotencyCache;
 import com.acmecorp.orders.service.OrderService;
 import com.acmecorp.orders.startup.StartupTimeline;
+import com.acmecorp.orders.web.CursorPageResponse;
 import com.acmecorp.orders.web.OrderRequest;
 import com.acmecorp.orders.web.OrderResponse;
 import com.acmecorp.orders.web.OrderStatusHistoryResponse;
@@ -11,6 +14,7 @@ import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,10 +29,17 @@ public class OrdersController {
 
     private final OrderService orderService;
     private final StartupTimeline startupTimeline;
+    private final BulkSeedLoader bulkSeedLoader;
+    private final OrderIdempotencyCache idempotencyCache;
 
-    public OrdersController(OrderService orderService, StartupTimeline startupTimeline) {
+    public OrdersController(OrderService orderService,
+                            StartupTimeline startupTimeline,
+                            BulkSeedLoader bulkSeedLoader,
+                            OrderIdempotencyCache idempotencyCache) {
         this.orderService = orderService;
         this.startupTimeline = startupTimeline;
+        this.bulkSeedLoader = bulkSeedLoader;
+        this.idempotencyCache = idempotencyCache;
     }
 
     @GetMapping("/status")
@@ -45,10 +56,20 @@ public class OrdersController {
     }
 
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest request,
-                                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
-        var order = orderService.createOrder(request, idempotencyKey);
-        return ResponseEntity.ok(OrderResponse.from(order));
+    public ResponseEntity<?> createOrder(@Valid @RequestBody OrderRequest request,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        boolean idempotent = idempotencyKey != null && !idempotencyKey.isBlank();
+        if (idempotent) {
+            var replay = idempotencyCache.replay(idempotencyKey, request);
+            if (replay.isPresent()) {
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(replay.get());
+            }
+        }
+        var response = OrderResponse.from(orderService.createOrder(request, idempotencyKey));
+        if (idempotent) {
+            idempotencyCache.remember(idempotencyKey, request, response);
+        }
+        return ResponseEntity.ok(response);
     }
 
     @PutMapping("/{id}")
@@ -78,6 +99,16 @@ public class OrdersController {
         return PageResponse.from(new PageImpl<>(responses, PageRequest.of(page, size), ordersPage.getTotalElements()));
     }
 
+    // Keyset mode: pass nextCursor from the previous page as cursor. Offset parameters are ignored here.
+    @GetMapping(params = "pagination=keyset")
+    public CursorPageResponse<OrderResponse> listOrdersByCursor(@RequestParam(name = "customerEmail", required = false) String customerEmail,
+                                                                @RequestParam(name = "status", required = false) OrderStatus status,
+                                                                @RequestParam(name = "cursor", required = false) String cursor,
+                                                                @RequestParam(name = "size", defaultValue = "20") int size,
+                                                                @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+        return orderService.listOrdersByCursor(customerEmail, status, cursor, size, includeTotal).map(OrderResponse::from);
+    }
+
     @PostMapping("/{id}/confirm")
     public OrderResponse confirm(@PathVariable("id") Long id) {
         return OrderResponse.from(orderService.confirm(id));
@@ -114,6 +145,21 @@ public class OrdersController {
         );
     }
 
+    @PostMapping("/seed/bulk")
+    public Map<String, Object> seedBulk(@RequestParam(name = "orders", defaultValue = "100000") int orders,
+                                        @RequestParam(name = "parallelism", defaultValue = "4") int parallelism,
+                                        @RequestParam(name = "chunkSize", defaultValue = "5000") int chunkSize) {
+        var result = bulkSeedLoader.load(orders, parallelism, chunkSize);
+        return Map.of(
+                "seeded", true,
+                "orders", result.orders(),
+                "items", result.items(),
+                "historyRows", result.historyRows(),
+                "elapsedMillis", result.elapsedMillis(),
+                "rowsPerSecond", result.rowsPerSecond()
+        );
+    }
+
     @GetMapping("/vt")
     public Page<OrderResponse> listOrdersWithVirtualThreads(@RequestParam(name = "customerEmail", required = false) String customerEmail,
                                                             @RequestParam(name = "status", required = false) OrderStatus status,
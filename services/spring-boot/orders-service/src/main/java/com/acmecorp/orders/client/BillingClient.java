@@ -20,11 +20,11 @@ public class BillingClient {
         this.restClient = builder.baseUrl(billingBaseUrl).build();
     }
 
-    public InvoiceResponse createInvoice(Order order) {
+    public static InvoiceRequest invoiceRequest(Order order) {
         var lines = order.getItems().stream()
                 .map(item -> new InvoiceLine(item.getProductId(), item.getProductName(), item.getQuantity(), item.getUnitPrice(), item.getLineTotal()))
                 .toList();
-        var request = new InvoiceRequest(
+        return new InvoiceRequest(
                 order.getId(),
                 order.getOrderNumber(),
                 order.getCustomerEmail(),
@@ -32,6 +32,9 @@ public class BillingClient {
                 order.getCurrency(),
                 lines
         );
+    }
+
+    public InvoiceResponse createInvoice(InvoiceRequest request) {
         try {
             return restClient.post()
                     .uri("/api/billing/invoices")
@@ -39,7 +42,7 @@ public class BillingClient {
                     .retrieve()
                     .body(InvoiceResponse.class);
         } catch (Exception ex) {
-            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Failed to create invoice for order " + order.getOrderNumber());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Failed to create invoice for order " + request.orderNumber());
         }
     }
 
@@ -1,34 +1,210 @@
 package com.acmecorp.orders.client;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class CatalogClient {
 
+    private static final Logger log = LoggerFactory.getLogger(CatalogClient.class);
+
     private final RestClient restClient;
+    private final int lookupConcurrency;
+    private final CatalogProductNearCache nearCache;
+    private final Timer batchPricingTimer;
+    private final Timer fallbackPricingTimer;
 
     public CatalogClient(RestClient.Builder builder,
-                         @Value("${acmecorp.services.catalog}") String catalogBaseUrl) {
+                         @Value("${acmecorp.services.catalog}") String catalogBaseUrl,
+                         @Value("${acmecorp.orders.catalog.lookup-concurrency:8}") int lookupConcurrency,
+                         CatalogProductNearCache nearCache,
+                         MeterRegistry meterRegistry) {
         this.restClient = builder.baseUrl(catalogBaseUrl).build();
+        this.lookupConcurrency = lookupConcurrency;
+        this.nearCache = nearCache;
+        this.batchPricingTimer = pricingTimer(meterRegistry, "batch");
+        this.fallbackPricingTimer = pricingTimer(meterRegistry, "parallel");
     }
 
     public CatalogProduct fetchProduct(String productId) {
+        CatalogProduct product = fetchProducts(List.of(productId)).get(productId);
+        if (product == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Catalog product not found: " + productId);
+        }
+        return product;
+    }
+
+    /**
+     * Resolves all products of an order, serving what it can from the {@link CatalogProductNearCache} and loading
+     * the rest in one call to {@code POST /api/catalog/batch}. Duplicate ids are sent once. If catalog-service has
+     * no batch endpoint (404 or 405), the ids are looked up individually on virtual threads, at most
+     * {@code acmecorp.orders.catalog.lookup-concurrency} at a time. Unknown products are absent from the result.
+     * Any other failure is a 503 when catalog-service cannot be reached and a 502 otherwise.
+     * Stale entries (stale-while-revalidate mode) are returned as they are and reloaded in the background.
+     */
+    public Map<String, CatalogProduct> fetchProducts(Collection<String> productIds) {
+        List<String> uniqueIds = List.copyOf(new LinkedHashSet<>(productIds));
+        if (uniqueIds.isEmpty()) {
+            return Map.of();
+        }
+        CatalogProductNearCache.Lookup cached = nearCache.getAll(uniqueIds);
+        if (!cached.staleIds().isEmpty()) {
+            refreshInBackground(cached.staleIds());
+        }
+        if (cached.products().size() == uniqueIds.size()) {
+            return cached.products();
+        }
+
+        List<String> misses = uniqueIds.stream()
+                .filter(productId -> !cached.products().containsKey(productId))
+                .toList();
+        long generation = nearCache.generation();
+        Map<String, CatalogProduct> loaded = load(misses);
+        nearCache.putAll(loaded.values(), generation);
+
+        Map<String, CatalogProduct> products = new LinkedHashMap<>();
+        for (String productId : uniqueIds) {
+            CatalogProduct product = cached.products().getOrDefault(productId, loaded.get(productId));
+            if (product != null) {
+                products.put(productId, product);
+            }
+        }
+        return products;
+    }
+
+    private Map<String, CatalogProduct> load(List<String> productIds) {
+        long start = System.nanoTime();
+        Map<String, CatalogProduct> products;
+        Timer timer;
+        try {
+            products = fetchBatch(productIds);
+            timer = batchPricingTimer;
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed ex) {
+            log.debug("Catalog batch lookup unavailable, falling back to individual lookups", ex);
+            products = fetchIndividually(productIds);
+            timer = fallbackPricingTimer;
+        } catch (RestClientException ex) {
+            throw catalogFailure("Failed to resolve catalog products", ex);
+        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return products;
+    }
+
+    // Entries that fail to reload stay in the near cache until their TTL runs out, which is the point of serving
+    // them stale while catalog-service is slow or down.
+    private void refreshInBackground(List<String> staleIds) {
+        List<String> claimed = nearCache.claimRefresh(staleIds);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        Thread.ofVirtual().name("catalog-cache-refresh").start(() -> {
+            boolean succeeded = false;
+            try {
+                long generation = nearCache.generation();
+                nearCache.putAll(load(claimed).values(), generation);
+                succeeded = true;
+            } catch (RuntimeException ex) {
+                log.debug("Background refresh of {} catalog products failed", claimed.size(), ex);
+            } finally {
+                nearCache.completeRefresh(claimed, succeeded);
+            }
+        });
+    }
+
+    private Map<String, CatalogProduct> fetchBatch(List<String> productIds) {
+        CatalogBatchResponse response = restClient.post()
+                .uri("/api/catalog/batch")
+                .body(new CatalogBatchRequest(productIds))
+                .retrieve()
+                .body(CatalogBatchResponse.class);
+        Map<String, CatalogProduct> products = new LinkedHashMap<>();
+        if (response != null && response.products() != null) {
+            response.products().forEach(product -> products.put(product.id(), product));
+        }
+        return products;
+    }
+
+    private Map<String, CatalogProduct> fetchIndividually(List<String> productIds) {
+        Semaphore permits = new Semaphore(lookupConcurrency);
+        Map<String, Future<CatalogProduct>> lookups = new LinkedHashMap<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String productId : productIds) {
+                lookups.put(productId, executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return fetchRemoteProduct(productId);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            Map<String, CatalogProduct> products = new LinkedHashMap<>();
+            for (var lookup : lookups.entrySet()) {
+                CatalogProduct product = lookup.getValue().get();
+                if (product != null) {
+                    products.put(lookup.getKey(), product);
+                }
+            }
+            return products;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while resolving catalog products");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof ResponseStatusException failure) {
+                throw failure;
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Failed to resolve catalog products");
+        }
+    }
+
+    // Null for an unknown product.
+    private CatalogProduct fetchRemoteProduct(String productId) {
         try {
             return restClient.get()
                     .uri("/api/catalog/{id}", productId)
                     .retrieve()
                     .body(CatalogProduct.class);
-        } catch (Exception ex) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Catalog product not found: " + productId);
+        } catch (HttpClientErrorException.NotFound ex) {
+            return null;
+        } catch (RestClientException ex) {
+            throw catalogFailure("Failed to resolve catalog product " + productId, ex);
         }
     }
 
+    private static ResponseStatusException catalogFailure(String message, RestClientException ex) {
+        HttpStatus status = ex instanceof ResourceAccessException ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_GATEWAY;
+        return new ResponseStatusException(status, message, ex);
+    }
+
+    private static Timer pricingTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("acmecorp.orders.catalog.pricing")
+                .description("Latency of resolving catalog prices for all lines of an order")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
     public record CatalogProduct(String id,
                                  String sku,
                                  String name,
@@ -38,4 +214,10 @@ public class CatalogClient {
                                  String category,
                                  boolean active) {
     }
+
+    public record CatalogBatchRequest(List<String> ids) {
+    }
+
+    public record CatalogBatchResponse(List<CatalogProduct> products, List<String> missingIds) {
+    }
 }
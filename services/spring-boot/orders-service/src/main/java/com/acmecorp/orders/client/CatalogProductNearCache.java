@@ -0,0 +1,175 @@
+package com.acmecorp.orders.client;
+
+import com.acmecorp.orders.client.CatalogClient.CatalogProduct;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded, TTL-evicting copy of catalog products kept in front of {@link CatalogClient}. Entries are dropped
+ * when catalog-service announces a product change and otherwise expire after the TTL. When a refresh threshold is
+ * configured (stale-while-revalidate), entries older than it are still served but reported back as stale so the
+ * caller can reload them in the background.
+ * <p>
+ * A load can race with an invalidation: a product fetched before the change event must not be stored after it.
+ * Callers capture {@link #generation()} before going to catalog-service and hand it to {@link #putAll}; any
+ * invalidation in between turns the put into a no-op.
+ */
+public class CatalogProductNearCache {
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+    private final Ticker ticker;
+    private final long refreshAfterNanos;
+    private final AtomicLong generation = new AtomicLong();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final Counter refreshSuccesses;
+    private final Counter refreshFailures;
+    private final Timer entryAge;
+
+    public CatalogProductNearCache(boolean enabled,
+                                   long maximumSize,
+                                   Duration ttl,
+                                   Duration refreshAfter,
+                                   Ticker ticker,
+                                   MeterRegistry meterRegistry) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative");
+        }
+        this.enabled = enabled;
+        this.ticker = ticker;
+        this.refreshAfterNanos = refreshAfter == null ? Long.MAX_VALUE : refreshAfter.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .build();
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.staleHits = requestCounter(meterRegistry, "stale");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.invalidations = Counter.builder("acmecorp.orders.catalog.cache.invalidations")
+                .description("Catalog near cache entries dropped because of product change events")
+                .register(meterRegistry);
+        this.refreshSuccesses = refreshCounter(meterRegistry, "success");
+        this.refreshFailures = refreshCounter(meterRegistry, "failure");
+        this.entryAge = Timer.builder("acmecorp.orders.catalog.cache.entry.age")
+                .description("Age of catalog products served from the near cache")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.orders.catalog.cache.hit.ratio", this, CatalogProductNearCache::hitRatio)
+                .description("Share of product lookups answered by the near cache, stale entries included")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.orders.catalog.cache.size", cache, Cache::estimatedSize)
+                .description("Catalog products held in the near cache")
+                .register(meterRegistry);
+    }
+
+    public Lookup getAll(Collection<String> productIds) {
+        if (!enabled) {
+            return new Lookup(Map.of(), List.of());
+        }
+        long now = ticker.read();
+        Map<String, CatalogProduct> products = new LinkedHashMap<>();
+        List<String> staleIds = new ArrayList<>();
+        for (String productId : productIds) {
+            Entry entry = cache.getIfPresent(productId);
+            if (entry == null) {
+                misses.increment();
+                continue;
+            }
+            long age = now - entry.loadedAt();
+            entryAge.record(age, TimeUnit.NANOSECONDS);
+            if (age >= refreshAfterNanos) {
+                staleHits.increment();
+                staleIds.add(productId);
+            } else {
+                hits.increment();
+            }
+            products.put(productId, entry.product());
+        }
+        return new Lookup(products, staleIds);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void putAll(Collection<CatalogProduct> products, long observedGeneration) {
+        if (!enabled || generation.get() != observedGeneration) {
+            return;
+        }
+        long now = ticker.read();
+        products.forEach(product -> cache.put(product.id(), new Entry(product, now)));
+        // An invalidation that slipped in between the check and the puts may have run before them.
+        if (generation.get() != observedGeneration) {
+            products.forEach(product -> cache.invalidate(product.id()));
+        }
+    }
+
+    public void invalidate(String productId) {
+        generation.incrementAndGet();
+        cache.invalidate(productId);
+        invalidations.increment();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Marks the given ids as being refreshed and returns the ones no other thread is already refreshing.
+     */
+    List<String> claimRefresh(Collection<String> productIds) {
+        return productIds.stream().filter(refreshing::add).toList();
+    }
+
+    void completeRefresh(Collection<String> productIds, boolean succeeded) {
+        refreshing.removeAll(productIds);
+        (succeeded ? refreshSuccesses : refreshFailures).increment();
+    }
+
+    private double hitRatio() {
+        double served = hits.count() + staleHits.count();
+        double total = served + misses.count();
+        return total == 0 ? 0 : served / total;
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("acmecorp.orders.catalog.cache.requests")
+                .description("Product lookups against the catalog near cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("acmecorp.orders.catalog.cache.refreshes")
+                .description("Background reloads of stale catalog near cache entries")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public record Lookup(Map<String, CatalogProduct> products, List<String> staleIds) {
+    }
+
+    private record Entry(CatalogProduct product, long loadedAt) {
+    }
+}
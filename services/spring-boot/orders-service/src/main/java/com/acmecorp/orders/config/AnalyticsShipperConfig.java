@@ -0,0 +1,16 @@
+package com.acmecorp.orders.config;
+
+import com.acmecorp.orders.service.CustomerHasher;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AnalyticsShipperProperties.class)
+public class AnalyticsShipperConfig {
+
+    @Bean
+    public CustomerHasher customerHasher(AnalyticsShipperProperties properties) {
+        return new CustomerHasher(properties.getCustomerHashKey());
+    }
+}
@@ -0,0 +1,17 @@
+package com.acmecorp.orders.config;
+
+import com.acmecorp.shared.analytics.AnalyticsShipperSettings;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "acmecorp.analytics.shipper")
+public class AnalyticsShipperProperties extends AnalyticsShipperSettings {
+    private String customerHashKey;
+
+    public String getCustomerHashKey() {
+        return customerHashKey;
+    }
+
+    public void setCustomerHashKey(String customerHashKey) {
+        this.customerHashKey = customerHashKey;
+    }
+}
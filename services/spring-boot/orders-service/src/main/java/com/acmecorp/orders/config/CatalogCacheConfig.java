@@ -0,0 +1,26 @@
+package com.acmecorp.orders.config;
+
+import com.acmecorp.orders.client.CatalogProductNearCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CatalogCacheProperties.class)
+public class CatalogCacheConfig {
+
+    @Bean
+    public CatalogProductNearCache catalogProductNearCache(CatalogCacheProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        return new CatalogProductNearCache(
+                properties.isEnabled(),
+                properties.getMaximumSize(),
+                properties.getTtl(),
+                properties.isStaleWhileRevalidate() ? properties.getRefreshAfter() : null,
+                Ticker.systemTicker(),
+                meterRegistry
+        );
+    }
+}
@@ -1,11 +1,14 @@
 package com.acmecorp.orders.config;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import javax.sql.DataSource;
 
 import org.flywaydb.core.Flyway;
 import org.flywaydb.core.api.MigrationVersion;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
-import org.springframework.boot.jpa.autoconfigure.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -19,10 +22,19 @@ public class FlywayConfig {
                 .dataSource(dataSource)
                 .baselineOnMigrate(true)
                 .baselineVersion(MigrationVersion.fromVersion("0"))
-                .locations("classpath:db/migration")
+                .locations("classpath:db/migration", "classpath:db/vendor/" + databaseVendor(dataSource))
                 .load();
     }
 
+    // Same naming as Spring Boot's {vendor} placeholder: db/vendor/postgresql, db/vendor/h2, ...
+    private static String databaseVendor(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return DatabaseDriver.fromJdbcUrl(connection.getMetaData().getURL()).getId();
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Unable to determine the database vendor for Flyway", ex);
+        }
+    }
+
     @Configuration(proxyBeanMethods = false)
     static class EntityManagerFactoryDependsOnFlywayPostProcessor extends EntityManagerFactoryDependsOnPostProcessor {
 
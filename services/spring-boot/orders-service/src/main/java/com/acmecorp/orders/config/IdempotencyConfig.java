@@ -0,0 +1,49 @@
+package com.acmecorp.orders.config;
+
+import com.acmecorp.orders.repository.OrderIdempotencyRepository;
+import com.acmecorp.orders.service.OrderIdempotencyCache;
+import com.acmecorp.orders.service.OrderIdempotencyPurgeJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    @Bean
+    public OrderIdempotencyCache orderIdempotencyCache(IdempotencyProperties properties,
+                                                       ObjectMapper objectMapper,
+                                                       MeterRegistry meterRegistry) {
+        // A remembered key must not outlive its order_idempotency row.
+        Duration ttl = properties.getCacheTtl().compareTo(properties.getRetention()) < 0
+                ? properties.getCacheTtl()
+                : properties.getRetention();
+        return new OrderIdempotencyCache(
+                properties.getCacheMaximumSize().toBytes(),
+                ttl,
+                objectMapper,
+                meterRegistry
+        );
+    }
+
+    @Bean
+    public OrderIdempotencyPurgeJob orderIdempotencyPurgeJob(OrderIdempotencyRepository idempotencyRepository,
+                                                             IdempotencyProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        return new OrderIdempotencyPurgeJob(
+                idempotencyRepository,
+                Clock.systemUTC(),
+                properties.getRetention(),
+                properties.getPurgeBatchSize(),
+                meterRegistry
+        );
+    }
+}
@@ -0,0 +1,30 @@
+package com.acmecorp.orders.config;
+
+import com.acmecorp.orders.repository.OrderNumberSequenceRepository;
+import com.acmecorp.orders.service.BlockLeasingOrderNumberAllocator;
+import com.acmecorp.orders.service.OrderNumberAllocator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(OrderNumberProperties.class)
+public class OrderNumberConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(OrderNumberAllocator.class)
+    public OrderNumberAllocator orderNumberAllocator(OrderNumberSequenceRepository sequenceRepository,
+                                                     OrderNumberProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        return new BlockLeasingOrderNumberAllocator(
+                sequenceRepository,
+                Clock.systemDefaultZone(),
+                properties.getBlockSize(),
+                meterRegistry
+        );
+    }
+}
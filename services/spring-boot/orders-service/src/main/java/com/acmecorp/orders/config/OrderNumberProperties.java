@@ -0,0 +1,16 @@
+package com.acmecorp.orders.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "acmecorp.orders.order-number")
+public class OrderNumberProperties {
+    private int blockSize = 50;
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+}
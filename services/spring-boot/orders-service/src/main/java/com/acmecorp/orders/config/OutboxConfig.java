@@ -0,0 +1,55 @@
+package com.acmecorp.orders.config;
+
+import com.acmecorp.orders.client.AnalyticsClient;
+import com.acmecorp.orders.client.BillingClient;
+import com.acmecorp.orders.messaging.NotificationPublisher;
+import com.acmecorp.orders.repository.OrderOutboxRepository;
+import com.acmecorp.orders.service.OrderOutbox;
+import com.acmecorp.orders.service.OrderOutboxRelay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+
+    @Bean
+    public OrderOutboxRelay orderOutboxRelay(OrderOutboxRepository outboxRepository,
+                                             BillingClient billingClient,
+                                             AnalyticsClient analyticsClient,
+                                             NotificationPublisher notificationPublisher,
+                                             ObjectMapper objectMapper,
+                                             OutboxProperties properties,
+                                             MeterRegistry meterRegistry) {
+        return new OrderOutboxRelay(
+                outboxRepository,
+                billingClient,
+                analyticsClient,
+                notificationPublisher,
+                objectMapper,
+                Clock.systemUTC(),
+                properties.isRelayEnabled(),
+                properties.getBatchSize(),
+                properties.getConcurrency(),
+                properties.getLease(),
+                properties.getMaxAttempts(),
+                properties.getInitialBackoff(),
+                properties.getMaxBackoff(),
+                meterRegistry
+        );
+    }
+
+    @Bean
+    public OrderOutbox orderOutbox(OrderOutboxRepository outboxRepository,
+                                   OrderOutboxRelay relay,
+                                   ObjectMapper objectMapper) {
+        return new OrderOutbox(outboxRepository, relay, objectMapper, Clock.systemUTC());
+    }
+}
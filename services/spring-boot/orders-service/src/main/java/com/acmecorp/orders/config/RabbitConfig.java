@@ -1,7 +1,10 @@
 package com.acmecorp.orders.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
@@ -19,6 +22,14 @@ public class RabbitConfig {
     public static final String DLX_NAME = "notifications-dlx";
     public static final String ROUTING_KEY = "notifications.key";
     public static final String DLQ_ROUTING_KEY = "notifications.dlq";
+    public static final String CATALOG_PRODUCT_CHANGES_EXCHANGE = "catalog.product-changes";
+    public static final String CATALOG_PRODUCT_CHANGES_QUEUE_PREFIX = "orders.catalog-product-changes.";
+    public static final String ANALYTICS_EVENTS_EXCHANGE = "analytics-events-exchange";
+    public static final String ANALYTICS_EVENTS_QUEUE = "analytics-events-queue";
+    public static final String ANALYTICS_EVENTS_DLX = "analytics-events-dlx";
+    public static final String ANALYTICS_EVENTS_DLQ = "analytics-events-queue.dlq";
+    public static final String ANALYTICS_EVENTS_ROUTING_KEY = "analytics.events.orders";
+    public static final String ANALYTICS_EVENTS_DLQ_ROUTING_KEY = "analytics.events.dlq";
 
     @Bean
     public TopicExchange notificationsExchange() {
@@ -66,4 +77,68 @@ public class RabbitConfig {
                         .with(DLQ_ROUTING_KEY)
         );
     }
+
+    @Bean
+    public FanoutExchange catalogProductChangesExchange() {
+        return new FanoutExchange(CATALOG_PRODUCT_CHANGES_EXCHANGE);
+    }
+
+    // Every orders instance keeps its own near cache, so each one needs its own copy of the change events.
+    @Bean
+    public Queue catalogProductChangesQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(CATALOG_PRODUCT_CHANGES_QUEUE_PREFIX));
+    }
+
+    @Bean
+    public Declarables catalogProductChangesTopology(Queue catalogProductChangesQueue,
+                                                     FanoutExchange catalogProductChangesExchange) {
+        return new Declarables(
+                catalogProductChangesExchange,
+                catalogProductChangesQueue,
+                BindingBuilder.bind(catalogProductChangesQueue).to(catalogProductChangesExchange)
+        );
+    }
+
+    // Declared here as well as in analytics-service, so events published before it first starts are kept.
+    @Bean
+    public TopicExchange analyticsEventsExchange() {
+        return new TopicExchange(ANALYTICS_EVENTS_EXCHANGE);
+    }
+
+    @Bean
+    public TopicExchange analyticsEventsDeadLetterExchange() {
+        return new TopicExchange(ANALYTICS_EVENTS_DLX);
+    }
+
+    @Bean
+    public Queue analyticsEventsQueue() {
+        return QueueBuilder.durable(ANALYTICS_EVENTS_QUEUE)
+                .deadLetterExchange(ANALYTICS_EVENTS_DLX)
+                .deadLetterRoutingKey(ANALYTICS_EVENTS_DLQ_ROUTING_KEY)
+                .build();
+    }
+
+    @Bean
+    public Queue analyticsEventsDeadLetterQueue() {
+        return QueueBuilder.durable(ANALYTICS_EVENTS_DLQ).build();
+    }
+
+    @Bean
+    public Declarables analyticsEventsTopology(Queue analyticsEventsQueue,
+                                               Queue analyticsEventsDeadLetterQueue,
+                                               TopicExchange analyticsEventsExchange,
+                                               TopicExchange analyticsEventsDeadLetterExchange) {
+        return new Declarables(
+                analyticsEventsExchange,
+                analyticsEventsDeadLetterExchange,
+                analyticsEventsQueue,
+                analyticsEventsDeadLetterQueue,
+                BindingBuilder.bind(analyticsEventsQueue)
+                        .to(analyticsEventsExchange)
+                        .with("analytics.events.#"),
+                BindingBuilder.bind(analyticsEventsDeadLetterQueue)
+                        .to(analyticsEventsDeadLetterExchange)
+                        .with(ANALYTICS_EVENTS_DLQ_ROUTING_KEY)
+        );
+    }
 }
@@ -14,6 +14,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
 @Table(name = "orders")
@@ -29,6 +30,9 @@ public class Order {
     @Column(nullable = false)
     private String customerEmail;
 
+    @Column(nullable = false)
+    private String customerEmailNormalized;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status = OrderStatus.NEW;
@@ -66,6 +70,15 @@ public class Order {
 
     public void setCustomerEmail(String customerEmail) {
         this.customerEmail = customerEmail;
+        this.customerEmailNormalized = normalizeEmail(customerEmail);
+    }
+
+    public String getCustomerEmailNormalized() {
+        return customerEmailNormalized;
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
     }
 
     public OrderStatus getStatus() {
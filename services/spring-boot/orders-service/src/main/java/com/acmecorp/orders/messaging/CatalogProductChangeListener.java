@@ -0,0 +1,34 @@
+package com.acmecorp.orders.messaging;
+
+import com.acmecorp.orders.client.CatalogProductNearCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CatalogProductChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogProductChangeListener.class);
+
+    private final CatalogProductNearCache nearCache;
+
+    public CatalogProductChangeListener(CatalogProductNearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    @RabbitListener(queues = "#{catalogProductChangesQueue.name}")
+    public void onProductChange(ProductChangeEvent event) {
+        log.debug("Dropping catalog product {} from the near cache after {}", event.productId(), event.type());
+        nearCache.invalidate(event.productId());
+    }
+
+    // Each instance listens on its own auto-delete queue, so events sent while the consumer was down are gone.
+    // Starting over with an empty cache is cheaper than reasoning about which entries missed an event.
+    @EventListener
+    public void onConsumerStarted(AsyncConsumerStartedEvent event) {
+        nearCache.invalidateAll();
+    }
+}
@@ -0,0 +1,9 @@
+package com.acmecorp.orders.messaging;
+
+import java.time.Instant;
+
+/**
+ * Product change announced by catalog-service after the change committed.
+ */
+public record ProductChangeEvent(String productId, String type, Instant changedAt) {
+}
@@ -2,7 +2,12 @@ package com.acmecorp.orders.repository;
 
 import com.acmecorp.orders.domain.OrderIdempotency;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +15,17 @@ public interface OrderIdempotencyRepository extends JpaRepository<OrderIdempoten
     Optional<OrderIdempotency> findByIdempotencyKey(String idempotencyKey);
     void deleteByOrderId(Long orderId);
     void deleteByOrderIdIn(List<Long> orderIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            delete from order_idempotency
+            where id in (
+                select id from order_idempotency
+                where created_at < :cutoff
+                order by created_at
+                limit :limit
+            )
+            """, nativeQuery = true)
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
 }
@@ -0,0 +1,54 @@
+package com.acmecorp.orders.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class OrderNumberSequenceRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderNumberSequenceRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserves the next {@code blockSize} order numbers for {@code year} and returns the highest reserved number.
+     * Runs in its own transaction so the row lock is released before the caller's order insert. Callers lease
+     * outside of any transaction of their own, so a refill never holds two pooled connections at once.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long leaseBlock(int year, int blockSize) {
+        int updated = jdbcTemplate.update(
+                "update order_number_sequences set leased_to = leased_to + ? where order_year = ?",
+                blockSize,
+                year
+        );
+        if (updated == 0) {
+            long leasedTo = highestExistingOrderNumber(year) + blockSize;
+            jdbcTemplate.update(
+                    "insert into order_number_sequences (order_year, leased_to) values (?, ?)",
+                    year,
+                    leasedTo
+            );
+            return leasedTo;
+        }
+        return jdbcTemplate.queryForObject(
+                "select leased_to from order_number_sequences where order_year = ?",
+                Long.class,
+                year
+        );
+    }
+
+    private long highestExistingOrderNumber(int year) {
+        String prefix = "ORD-" + year + "-";
+        String highest = jdbcTemplate.queryForObject(
+                "select max(order_number) from orders where order_number like ?",
+                String.class,
+                prefix + "%"
+        );
+        return highest == null ? 0L : Long.parseLong(highest.substring(prefix.length()));
+    }
+}
@@ -0,0 +1,135 @@
+package com.acmecorp.orders.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class OrderOutboxRepository {
+
+    // Only the oldest undelivered entry of each order is eligible, which keeps delivery in order per order while
+    // different orders are drained in parallel. A parked entry counts as undelivered, so an order with one stops
+    // until it is released. Rows another relay is claiming right now are skipped, not waited on.
+    private static final String CLAIM_SQL = """
+            select o.id, o.order_id, o.event_type, o.payload, o.attempts, o.created_at
+            from order_outbox o
+            where o.failed_at is null
+              and o.next_attempt_at <= ?
+              and o.id = (select min(p.id) from order_outbox p where p.order_id = o.order_id)
+              and not exists (select 1 from order_outbox f where f.order_id = o.order_id and f.failed_at is not null)
+            order by o.id
+            limit ?
+            for update skip locked
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderOutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Long orderId, String eventType, String payload, Instant createdAt) {
+        jdbcTemplate.update(
+                "insert into order_outbox (order_id, event_type, payload, created_at, next_attempt_at) values (?, ?, ?, ?, ?)",
+                orderId,
+                eventType,
+                payload,
+                Timestamp.from(createdAt),
+                Timestamp.from(createdAt)
+        );
+    }
+
+    /**
+     * Claims up to {@code limit} due entries by pushing their next attempt to {@code leaseUntil} and counting the
+     * attempt. The claim commits before delivery starts, so no connection is held during the remote calls; if the
+     * relay dies mid-delivery the lease runs out and the entry is picked up again.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Entry> claim(Instant now, Instant leaseUntil, int limit) {
+        List<Entry> entries = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new Entry(
+                rs.getLong("id"),
+                rs.getLong("order_id"),
+                rs.getString("event_type"),
+                rs.getString("payload"),
+                rs.getInt("attempts") + 1,
+                rs.getTimestamp("created_at").toInstant()
+        ), Timestamp.from(now), limit);
+        if (entries.isEmpty()) {
+            return entries;
+        }
+        jdbcTemplate.update(
+                "update order_outbox set attempts = attempts + 1, next_attempt_at = ? where id in (" + placeholders(entries.size()) + ")",
+                prepend(Timestamp.from(leaseUntil), entries.stream().map(Entry::id).toList())
+        );
+        return entries;
+    }
+
+    public void delete(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("delete from order_outbox where id in (" + placeholders(ids.size()) + ")", ids.toArray());
+    }
+
+    public void reschedule(long id, Instant nextAttemptAt, String error) {
+        jdbcTemplate.update(
+                "update order_outbox set next_attempt_at = ?, last_error = ? where id = ?",
+                Timestamp.from(nextAttemptAt),
+                truncate(error),
+                id
+        );
+    }
+
+    public void markFailed(long id, Instant failedAt, String error) {
+        jdbcTemplate.update(
+                "update order_outbox set failed_at = ?, last_error = ? where id = ?",
+                Timestamp.from(failedAt),
+                truncate(error),
+                id
+        );
+    }
+
+    public Backlog backlog() {
+        return jdbcTemplate.queryForObject(
+                "select count(failed_at) as failed, count(*) - count(failed_at) as pending, "
+                        + "min(case when failed_at is null then created_at end) as oldest from order_outbox",
+                (rs, rowNum) -> {
+                    Timestamp oldest = rs.getTimestamp("oldest");
+                    return new Backlog(rs.getLong("pending"), rs.getLong("failed"), oldest == null ? null : oldest.toInstant());
+                }
+        );
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Object[] prepend(Object first, List<?> rest) {
+        Object[] args = new Object[rest.size() + 1];
+        args[0] = first;
+        for (int i = 0; i < rest.size(); i++) {
+            args[i + 1] = rest.get(i);
+        }
+        return args;
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= 1000) {
+            return error;
+        }
+        return error.substring(0, 1000);
+    }
+
+    public record Entry(long id, long orderId, String eventType, String payload, int attempt, Instant createdAt) {
+    }
+
+    public record Backlog(long pending, long failed, Instant oldestPendingCreatedAt) {
+    }
+}
@@ -8,14 +8,12 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 
 public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
     List<Order> findTop10ByOrderByCreatedAtDesc();
     long countByStatus(OrderStatus status);
 
-    Optional<Order> findTopByOrderNumberStartingWithOrderByOrderNumberDesc(String prefix);
     List<Order> findByOrderNumberIn(List<String> orderNumbers);
     List<Order> findByOrderNumberStartingWith(String prefix);
 
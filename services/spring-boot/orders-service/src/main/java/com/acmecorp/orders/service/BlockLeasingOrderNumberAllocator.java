@@ -0,0 +1,115 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.repository.OrderNumberSequenceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Clock;
+import java.time.Year;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out {@code ORD-YYYY-NNNNN} numbers from blocks leased per year in {@code order_number_sequences}.
+ * Numbers inside a lease are claimed with a single atomic increment; only a refill goes to the database,
+ * and concurrent callers that run out at the same time wait for that one refill instead of leasing their own.
+ */
+public class BlockLeasingOrderNumberAllocator implements OrderNumberAllocator {
+
+    private static final int MAX_LEASE_ATTEMPTS = 3;
+
+    private final OrderNumberSequenceRepository sequenceRepository;
+    private final Clock clock;
+    private final int blockSize;
+    private final AtomicReference<Lease> currentLease = new AtomicReference<>(Lease.EXHAUSTED);
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private final Counter leaseRefills;
+    private final Counter leaseContention;
+    private final Timer leaseTimer;
+
+    public BlockLeasingOrderNumberAllocator(OrderNumberSequenceRepository sequenceRepository,
+                                            Clock clock,
+                                            int blockSize,
+                                            MeterRegistry meterRegistry) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be greater than 0");
+        }
+        this.sequenceRepository = sequenceRepository;
+        this.clock = clock;
+        this.blockSize = blockSize;
+        this.leaseRefills = Counter.builder("acmecorp.orders.number.lease.refills")
+                .description("Order number blocks leased from the database")
+                .register(meterRegistry);
+        this.leaseContention = Counter.builder("acmecorp.orders.number.lease.contention")
+                .description("Order number requests that waited for another thread to refill the lease")
+                .register(meterRegistry);
+        this.leaseTimer = Timer.builder("acmecorp.orders.number.lease.duration")
+                .description("Latency of leasing a new order number block from the database")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.orders.number.lease.remaining", currentLease, ref -> ref.get().remaining())
+                .description("Order numbers left in the current lease")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        int year = Year.now(clock).getValue();
+        while (true) {
+            Lease lease = currentLease.get();
+            if (lease.year() == year) {
+                long value = lease.next().getAndIncrement();
+                if (value <= lease.last()) {
+                    return format(year, value);
+                }
+            }
+            refill(lease, year);
+        }
+    }
+
+    private void refill(Lease observed, int year) {
+        if (!refillLock.tryLock()) {
+            leaseContention.increment();
+            refillLock.lock();
+        }
+        try {
+            if (currentLease.get() != observed) {
+                return;
+            }
+            long last = leaseTimer.record(() -> leaseBlock(year));
+            currentLease.set(new Lease(year, new AtomicLong(last - blockSize + 1), last));
+            leaseRefills.increment();
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private long leaseBlock(int year) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return sequenceRepository.leaseBlock(year, blockSize);
+            } catch (DuplicateKeyException ex) {
+                // Another instance created the row for this year first; the next attempt updates it instead.
+                if (attempt >= MAX_LEASE_ATTEMPTS) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private static String format(int year, long value) {
+        return "ORD-" + year + "-" + String.format("%05d", value);
+    }
+
+    private record Lease(int year, AtomicLong next, long last) {
+
+        private static final Lease EXHAUSTED = new Lease(0, new AtomicLong(1), 0);
+
+        private long remaining() {
+            return Math.max(0, last - next.get() + 1);
+        }
+    }
+}
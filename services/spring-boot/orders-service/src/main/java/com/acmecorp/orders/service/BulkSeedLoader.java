@@ -0,0 +1,340 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.domain.Order;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Streams the {@link SeedDataGenerator} data set into {@code orders}, {@code order_items} and
+ * {@code order_status_history} at production scale. The range of order indexes is split into contiguous
+ * partitions loaded in parallel, each on its own connection, and every partition commits per chunk.
+ * Memory per partition is bounded by the chunk size: rows are generated while they are written, never collected.
+ * PostgreSQL is fed with {@code COPY ... FROM STDIN}; other databases (H2 in tests) fall back to JDBC batches.
+ */
+@Component
+public class BulkSeedLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkSeedLoader.class);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int MAX_PARALLELISM = 8;
+    private static final String SEED_ORDERS = "select id from orders where order_number like '" + SeedDataGenerator.SEED_ORDER_PREFIX + "%'";
+
+    private final DataSource dataSource;
+
+    public BulkSeedLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public BulkSeedResult load(int orderCount, int parallelism, int chunkSize) {
+        if (orderCount <= 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "orderCount must be greater than 0");
+        }
+        if (parallelism <= 0 || parallelism > MAX_PARALLELISM) {
+            throw new ResponseStatusException(BAD_REQUEST, "parallelism must be between 1 and " + MAX_PARALLELISM);
+        }
+        if (chunkSize <= 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "chunkSize must be greater than 0");
+        }
+
+        deleteExistingSeedData();
+
+        Progress progress = new Progress(System.nanoTime());
+        int partitions = Math.min(parallelism, orderCount);
+        long perPartition = (orderCount + partitions - 1L) / partitions;
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(partitions);
+            for (int p = 0; p < partitions; p++) {
+                long from = 1 + p * perPartition;
+                long to = Math.min(orderCount, from + perPartition - 1);
+                futures.add(executor.submit(() -> {
+                    loadPartition(from, to, chunkSize, progress);
+                    return null;
+                }));
+            }
+            awaitAll(futures);
+        }
+
+        analyze();
+        BulkSeedResult result = progress.result(System.nanoTime());
+        log.info("Bulk seed finished: {} orders, {} items, {} history rows in {} ms ({} rows/s)",
+                result.orders(), result.items(), result.historyRows(), result.elapsedMillis(), result.rowsPerSecond());
+        return result;
+    }
+
+    private void loadPartition(long from, long to, int chunkSize, Progress progress) throws SQLException, IOException {
+        Random random = SeedDataGenerator.randomPositionedAt(from);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            boolean copySupported = connection.isWrapperFor(PGConnection.class);
+            for (long chunkStart = from; chunkStart <= to; chunkStart += chunkSize) {
+                int size = (int) Math.min(chunkSize, to - chunkStart + 1);
+                int[] itemCounts = new int[size];
+                long items = 0;
+                for (int k = 0; k < size; k++) {
+                    itemCounts[k] = SeedDataGenerator.nextItemCount(random);
+                    items += itemCounts[k];
+                }
+                Chunk chunk = new Chunk(chunkStart, itemCounts);
+                if (copySupported) {
+                    copyChunk(connection, chunk);
+                } else {
+                    batchChunk(connection, chunk);
+                }
+                connection.commit();
+                progress.add(size, items);
+            }
+        }
+    }
+
+    private void copyChunk(Connection connection, Chunk chunk) throws SQLException, IOException {
+        long[] orderIds = reserveOrderIds(connection, chunk.size());
+        PGConnection pg = connection.unwrap(PGConnection.class);
+        copy(pg, "copy orders (id, order_number, customer_email, customer_email_normalized, status, total_amount, currency, created_at, updated_at) from stdin", out -> {
+            for (int k = 0; k < chunk.size(); k++) {
+                long i = chunk.orderIndex(k);
+                String createdAt = SeedDataGenerator.createdAt(i).toString();
+                String email = SeedDataGenerator.customerEmail(i);
+                row(out, orderIds[k], SeedDataGenerator.orderNumber(i), email, Order.normalizeEmail(email), "NEW",
+                        SeedDataGenerator.totalAmount(i, chunk.itemCount(k)), SeedDataGenerator.CURRENCY, createdAt, createdAt);
+            }
+        });
+        copy(pg, "copy order_items (order_id, product_id, product_name, unit_price, quantity, line_total) from stdin", out -> {
+            for (int k = 0; k < chunk.size(); k++) {
+                long i = chunk.orderIndex(k);
+                for (int j = 1; j <= chunk.itemCount(k); j++) {
+                    row(out, orderIds[k], SeedDataGenerator.productId(i, j), SeedDataGenerator.productName(i, j),
+                            SeedDataGenerator.unitPrice(i, j), SeedDataGenerator.quantity(i, j), SeedDataGenerator.lineTotal(i, j));
+                }
+            }
+        });
+        copy(pg, "copy order_status_history (order_id, old_status, new_status, reason, changed_at) from stdin", out -> {
+            for (int k = 0; k < chunk.size(); k++) {
+                row(out, orderIds[k], null, "NEW", SeedDataGenerator.SEED_REASON,
+                        SeedDataGenerator.createdAt(chunk.orderIndex(k)).toString());
+            }
+        });
+    }
+
+    private long[] reserveOrderIds(Connection connection, int count) throws SQLException {
+        long[] ids = new long[count];
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select nextval(pg_get_serial_sequence('orders', 'id')) from generate_series(1, ?)")) {
+            statement.setInt(1, count);
+            try (ResultSet rs = statement.executeQuery()) {
+                for (int k = 0; k < count && rs.next(); k++) {
+                    ids[k] = rs.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void copy(PGConnection connection, String sql, RowWriter rows) throws SQLException, IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(connection, sql, 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+            rows.write(out);
+        }
+    }
+
+    private static void row(Writer out, Object... values) {
+        try {
+            for (int v = 0; v < values.length; v++) {
+                if (v > 0) {
+                    out.write('\t');
+                }
+                out.write(values[v] == null ? "\\N" : values[v].toString());
+            }
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void batchChunk(Connection connection, Chunk chunk) throws SQLException {
+        long[] orderIds = new long[chunk.size()];
+        try (PreparedStatement orders = connection.prepareStatement(
+                "insert into orders (order_number, customer_email, customer_email_normalized, status, total_amount, currency, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?)",
+                new String[]{"id"})) {
+            for (int k = 0; k < chunk.size(); k++) {
+                long i = chunk.orderIndex(k);
+                Timestamp createdAt = Timestamp.from(SeedDataGenerator.createdAt(i));
+                orders.setString(1, SeedDataGenerator.orderNumber(i));
+                String email = SeedDataGenerator.customerEmail(i);
+                orders.setString(2, email);
+                orders.setString(3, Order.normalizeEmail(email));
+                orders.setString(4, "NEW");
+                orders.setBigDecimal(5, SeedDataGenerator.totalAmount(i, chunk.itemCount(k)));
+                orders.setString(6, SeedDataGenerator.CURRENCY);
+                orders.setTimestamp(7, createdAt);
+                orders.setTimestamp(8, createdAt);
+                orders.addBatch();
+            }
+            orders.executeBatch();
+            try (ResultSet keys = orders.getGeneratedKeys()) {
+                for (int k = 0; k < chunk.size() && keys.next(); k++) {
+                    orderIds[k] = keys.getLong(1);
+                }
+            }
+        }
+        try (PreparedStatement items = connection.prepareStatement(
+                "insert into order_items (order_id, product_id, product_name, unit_price, quantity, line_total) values (?, ?, ?, ?, ?, ?)")) {
+            for (int k = 0; k < chunk.size(); k++) {
+                long i = chunk.orderIndex(k);
+                for (int j = 1; j <= chunk.itemCount(k); j++) {
+                    items.setLong(1, orderIds[k]);
+                    items.setString(2, SeedDataGenerator.productId(i, j));
+                    items.setString(3, SeedDataGenerator.productName(i, j));
+                    items.setBigDecimal(4, SeedDataGenerator.unitPrice(i, j));
+                    items.setInt(5, SeedDataGenerator.quantity(i, j));
+                    items.setBigDecimal(6, SeedDataGenerator.lineTotal(i, j));
+                    items.addBatch();
+                }
+            }
+            items.executeBatch();
+        }
+        try (PreparedStatement history = connection.prepareStatement(
+                "insert into order_status_history (order_id, old_status, new_status, reason, changed_at) values (?, null, ?, ?, ?)")) {
+            for (int k = 0; k < chunk.size(); k++) {
+                history.setLong(1, orderIds[k]);
+                history.setString(2, "NEW");
+                history.setString(3, SeedDataGenerator.SEED_REASON);
+                history.setTimestamp(4, Timestamp.from(SeedDataGenerator.createdAt(chunk.orderIndex(k))));
+                history.addBatch();
+            }
+            history.executeBatch();
+        }
+    }
+
+    private void deleteExistingSeedData() {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.executeUpdate("delete from order_status_history where order_id in (" + SEED_ORDERS + ")");
+            statement.executeUpdate("delete from order_idempotency where order_id in (" + SEED_ORDERS + ")");
+            statement.executeUpdate("delete from order_items where order_id in (" + SEED_ORDERS + ")");
+            int deleted = statement.executeUpdate("delete from orders where order_number like '" + SeedDataGenerator.SEED_ORDER_PREFIX + "%'");
+            connection.commit();
+            if (deleted > 0) {
+                log.info("Bulk seed removed {} existing seed orders", deleted);
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Unable to remove existing seed data", ex);
+        }
+    }
+
+    private void analyze() {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                statement.execute("analyze orders, order_items, order_status_history");
+            }
+        } catch (SQLException ex) {
+            log.warn("Unable to analyze tables after bulk seed", ex);
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Bulk seed interrupted", ex);
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Bulk seed failed", ex.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Writer out) throws IOException;
+    }
+
+    private record Chunk(long firstOrderIndex, int[] itemCounts) {
+
+        int size() {
+            return itemCounts.length;
+        }
+
+        long orderIndex(int k) {
+            return firstOrderIndex + k;
+        }
+
+        int itemCount(int k) {
+            return itemCounts[k];
+        }
+    }
+
+    private static final class Progress {
+
+        private final long startedAt;
+        private final AtomicLong orders = new AtomicLong();
+        private final AtomicLong items = new AtomicLong();
+        private final AtomicLong lastReportAt;
+
+        private Progress(long startedAt) {
+            this.startedAt = startedAt;
+            this.lastReportAt = new AtomicLong(startedAt);
+        }
+
+        private void add(long chunkOrders, long chunkItems) {
+            long totalOrders = orders.addAndGet(chunkOrders);
+            long totalItems = items.addAndGet(chunkItems);
+            long now = System.nanoTime();
+            long last = lastReportAt.get();
+            if (now - last >= PROGRESS_INTERVAL_NANOS && lastReportAt.compareAndSet(last, now)) {
+                log.info("Bulk seed progress: {} orders, {} items ({} rows/s)",
+                        totalOrders, totalItems, rowsPerSecond(totalOrders * 2 + totalItems, now - startedAt));
+            }
+        }
+
+        private BulkSeedResult result(long finishedAt) {
+            long elapsed = finishedAt - startedAt;
+            long totalOrders = orders.get();
+            long totalItems = items.get();
+            return new BulkSeedResult(
+                    totalOrders,
+                    totalItems,
+                    totalOrders,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    rowsPerSecond(totalOrders * 2 + totalItems, elapsed)
+            );
+        }
+
+        private static long rowsPerSecond(long rows, long elapsedNanos) {
+            return elapsedNanos <= 0 ? rows : rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+    }
+
+    public record BulkSeedResult(long orders, long items, long historyRows, long elapsedMillis, long rowsPerSecond) {
+    }
+}
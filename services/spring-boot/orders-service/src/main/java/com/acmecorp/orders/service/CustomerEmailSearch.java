@@ -0,0 +1,61 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.domain.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.regex.Pattern;
+
+/**
+ * Turns the {@code customerEmail} list filter into the cheapest predicate on {@code customer_email_normalized}.
+ * A complete address is an equality lookup and input shorter than one trigram is a prefix match, both served by
+ * the btree index; anything else is a substring match served by the pg_trgm index.
+ */
+final class CustomerEmailSearch {
+
+    enum Strategy {
+        EXACT,
+        PREFIX,
+        CONTAINS
+    }
+
+    private static final Pattern FULL_ADDRESS = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+    private static final int TRIGRAM_LENGTH = 3;
+    private static final char LIKE_ESCAPE = '\\';
+
+    private CustomerEmailSearch() {
+    }
+
+    static Strategy strategyFor(String normalizedInput) {
+        if (FULL_ADDRESS.matcher(normalizedInput).matches()) {
+            return Strategy.EXACT;
+        }
+        // pg_trgm cannot extract a trigram from fewer than three characters, so a substring search would scan.
+        if (normalizedInput.length() < TRIGRAM_LENGTH) {
+            return Strategy.PREFIX;
+        }
+        return Strategy.CONTAINS;
+    }
+
+    static Specification<Order> matching(String customerEmail) {
+        String input = Order.normalizeEmail(customerEmail);
+        if (input == null || input.isEmpty()) {
+            return null;
+        }
+        return switch (strategyFor(input)) {
+            case EXACT -> (root, query, cb) -> cb.equal(root.get("customerEmailNormalized"), input);
+            case PREFIX -> (root, query, cb) -> cb.like(root.get("customerEmailNormalized"), escapeLike(input) + "%", LIKE_ESCAPE);
+            case CONTAINS -> (root, query, cb) -> cb.like(root.get("customerEmailNormalized"), "%" + escapeLike(input) + "%", LIKE_ESCAPE);
+        };
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
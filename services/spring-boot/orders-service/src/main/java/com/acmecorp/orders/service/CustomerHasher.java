@@ -0,0 +1,36 @@
+package com.acmecorp.orders.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Turns a normalized customer email into the stable identifier sent to analytics in its place: an HMAC-SHA256 under
+ * {@code acmecorp.analytics.shipper.customer-hash-key}. Counting distinct customers only needs equal emails to hash
+ * equally; the key keeps the hashes from being reversed by hashing candidate addresses.
+ */
+public class CustomerHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public CustomerHasher(String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("customer hash key must not be blank");
+        }
+        this.key = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public String hash(String normalizedEmail) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return HexFormat.of().formatHex(mac.doFinal(normalizedEmail.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to hash customer email", ex);
+        }
+    }
+}
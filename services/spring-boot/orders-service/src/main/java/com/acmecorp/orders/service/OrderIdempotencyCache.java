@@ -0,0 +1,185 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.web.OrderRequest;
+import com.acmecorp.orders.web.OrderResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+
+/**
+ * Keeps the serialized response of recently created orders per {@code Idempotency-Key}, so a client retrying a
+ * create is answered without a transaction or a query. Only keys whose order is committed are remembered; a key
+ * that is not in memory (another instance took the first request, it was evicted or the service restarted) falls
+ * through to {@code order_idempotency} in {@link OrderService#createOrder(OrderRequest, String)}.
+ * <p>
+ * The database path answers with the order as it is now, so a remembered response is only valid until the order
+ * changes: every committed update, status change or delete evicts its key, and the next retry reads the order again.
+ * <p>
+ * Entries never outlive the rows purged by {@link OrderIdempotencyPurgeJob}: the TTL is capped at the retention.
+ * The cache is bounded by the total size of the stored response bodies rather than by entry count, because an
+ * order response grows with its items.
+ */
+public class OrderIdempotencyCache {
+
+    static final String CONFLICT_MESSAGE = "Idempotency-Key reuse with different request";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entry> cache;
+    private final Map<Long, String> keysByOrderId = new ConcurrentHashMap<>();
+    private final Counter memoryReplays;
+    private final Counter databaseReplays;
+    private final Counter conflicts;
+
+    public OrderIdempotencyCache(long maximumBytes,
+                                 Duration ttl,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry) {
+        if (maximumBytes < 0) {
+            throw new IllegalArgumentException("maximumBytes must not be negative");
+        }
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, Entry entry) -> key.length() + entry.body().length)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (entry != null && cause != RemovalCause.REPLACED) {
+                        keysByOrderId.remove(entry.orderId(), key);
+                    }
+                })
+                .build();
+        this.memoryReplays = replayCounter(meterRegistry, "memory");
+        this.databaseReplays = replayCounter(meterRegistry, "database");
+        this.conflicts = Counter.builder("acmecorp.orders.idempotency.conflicts")
+                .description("Order creates rejected because the Idempotency-Key was used with a different request")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.orders.idempotency.cache.size", cache, Cache::estimatedSize)
+                .description("Idempotency keys whose order response is held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the stored response body for {@code idempotencyKey} if it was created from the same request, or
+     * empty when the key is not in memory. A key reused with a different request is rejected with 409.
+     */
+    public Optional<byte[]> replay(String idempotencyKey, OrderRequest request) {
+        Entry entry = cache.getIfPresent(idempotencyKey);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (!entry.requestHash().equals(requestHash(request))) {
+            throw conflict();
+        }
+        memoryReplays.increment();
+        return Optional.of(entry.body());
+    }
+
+    public void remember(String idempotencyKey, OrderRequest request, OrderResponse response) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize order response", ex);
+        }
+        keysByOrderId.put(response.id(), idempotencyKey);
+        cache.put(idempotencyKey, new Entry(requestHash(request), response.id(), body));
+    }
+
+    /**
+     * Drops the keys of changed or deleted orders once the transaction commits, so a retry is answered with the
+     * order's current state, or not at all once its {@code order_idempotency} row is gone.
+     */
+    public void evictOrdersAfterCommit(Collection<Long> orderIds) {
+        Set<Long> ids = new HashSet<>(orderIds);
+        if (ids.isEmpty()) {
+            return;
+        }
+        Runnable evict = () -> ids.forEach(id -> {
+            String key = keysByOrderId.remove(id);
+            if (key != null) {
+                cache.invalidate(key);
+            }
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict.run();
+            }
+        });
+    }
+
+    void recordDatabaseReplay() {
+        databaseReplays.increment();
+    }
+
+    ResponseStatusException conflict() {
+        conflicts.increment();
+        return new ResponseStatusException(CONFLICT, CONFLICT_MESSAGE);
+    }
+
+    static String requestHash(OrderRequest request) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(Objects.toString(request.customerEmail(), ""));
+        builder.append('|');
+        builder.append(request.status() != null ? request.status().name() : "");
+        builder.append('|');
+        if (request.items() != null) {
+            request.items().stream()
+                    .sorted(Comparator.comparing(OrderRequest.Item::productId)
+                            .thenComparingInt(OrderRequest.Item::quantity))
+                    .forEach(item -> builder.append(item.productId()).append(':').append(item.quantity()).append(';'));
+        }
+        return sha256(builder.toString());
+    }
+
+    private static String sha256(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unable to compute request hash", ex);
+        }
+    }
+
+    private static Counter replayCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("acmecorp.orders.idempotency.replays")
+                .description("Order creates answered with the order of an earlier request with the same Idempotency-Key")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private record Entry(String requestHash, Long orderId, byte[] body) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.acmecorp.orders.service;
+
+public interface OrderNumberAllocator {
+
+    String nextOrderNumber();
+}
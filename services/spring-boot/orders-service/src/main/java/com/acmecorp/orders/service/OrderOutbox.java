@@ -0,0 +1,85 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.client.BillingClient.InvoiceRequest;
+import com.acmecorp.orders.repository.OrderOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Records side effects of an order change in {@code order_outbox} as part of the caller's transaction, so they
+ * are delivered if and only if the change commits. Delivery is left to {@link OrderOutboxRelay}, which is woken
+ * up right after the commit instead of waiting for its next poll.
+ */
+public class OrderOutbox {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderOutboxRelay relay;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public OrderOutbox(OrderOutboxRepository outboxRepository,
+                       OrderOutboxRelay relay,
+                       ObjectMapper objectMapper,
+                       Clock clock) {
+        this.outboxRepository = outboxRepository;
+        this.relay = relay;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public void createInvoice(Long orderId, InvoiceRequest request) {
+        append(orderId, EventType.BILLING_INVOICE, request);
+    }
+
+    public void track(Long orderId, String event, Map<String, Object> metadata) {
+        append(orderId, EventType.ANALYTICS_EVENT, new AnalyticsEvent(event, metadata));
+    }
+
+    public void sendOrderConfirmation(Long orderId, String recipient, String orderNumber) {
+        append(orderId, EventType.ORDER_CONFIRMATION, new OrderConfirmation(recipient, orderNumber));
+    }
+
+    private void append(Long orderId, EventType type, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize " + type + " outbox payload", ex);
+        }
+        outboxRepository.append(orderId, type.name(), json, Instant.now(clock));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.requestDrain();
+            }
+        });
+    }
+
+    public enum EventType {
+        BILLING_INVOICE(InvoiceRequest.class),
+        ANALYTICS_EVENT(AnalyticsEvent.class),
+        ORDER_CONFIRMATION(OrderConfirmation.class);
+
+        private final Class<?> payloadType;
+
+        EventType(Class<?> payloadType) {
+            this.payloadType = payloadType;
+        }
+
+        Class<?> payloadType() {
+            return payloadType;
+        }
+    }
+
+    public record AnalyticsEvent(String event, Map<String, Object> metadata) {
+    }
+
+    public record OrderConfirmation(String recipient, String orderNumber) {
+    }
+}
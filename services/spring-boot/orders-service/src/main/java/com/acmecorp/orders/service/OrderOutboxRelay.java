@@ -0,0 +1,265 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.client.AnalyticsClient;
+import com.acmecorp.orders.client.BillingClient;
+import com.acmecorp.orders.client.BillingClient.InvoiceRequest;
+import com.acmecorp.orders.messaging.NotificationPublisher;
+import com.acmecorp.orders.repository.OrderOutboxRepository;
+import com.acmecorp.orders.repository.OrderOutboxRepository.Entry;
+import com.acmecorp.orders.service.OrderOutbox.AnalyticsEvent;
+import com.acmecorp.orders.service.OrderOutbox.EventType;
+import com.acmecorp.orders.service.OrderOutbox.OrderConfirmation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers {@code order_outbox} entries to billing-service, analytics-service and RabbitMQ. Entries are claimed in
+ * batches of at most one per order, delivered concurrently across orders, and deleted once delivered. A failed
+ * delivery is retried with exponential backoff and holds back the later entries of the same order; after
+ * {@code maxAttempts} it is parked with {@code failed_at} set and keeps holding them back, so that no confirmation
+ * goes out for an order whose invoice never made it. Clearing {@code failed_at} releases the order.
+ * <p>
+ * Delivery is at least once: a relay that dies after a remote call but before the delete repeats the call once the
+ * lease runs out. Several instances can drain the same table; {@code skip locked} keeps their claims disjoint.
+ */
+public class OrderOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxRelay.class);
+
+    private final OrderOutboxRepository outboxRepository;
+    private final BillingClient billingClient;
+    private final AnalyticsClient analyticsClient;
+    private final NotificationPublisher notificationPublisher;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private final AtomicReference<OrderOutboxRepository.Backlog> backlog =
+            new AtomicReference<>(new OrderOutboxRepository.Backlog(0, 0, null));
+    private final Map<EventType, Timer> lagTimers = new EnumMap<>(EventType.class);
+    private final Map<EventType, Counter> retries = new EnumMap<>(EventType.class);
+    private final Map<EventType, Counter> failures = new EnumMap<>(EventType.class);
+
+    public OrderOutboxRelay(OrderOutboxRepository outboxRepository,
+                            BillingClient billingClient,
+                            AnalyticsClient analyticsClient,
+                            NotificationPublisher notificationPublisher,
+                            ObjectMapper objectMapper,
+                            Clock clock,
+                            boolean enabled,
+                            int batchSize,
+                            int concurrency,
+                            Duration lease,
+                            int maxAttempts,
+                            Duration initialBackoff,
+                            Duration maxBackoff,
+                            MeterRegistry meterRegistry) {
+        if (batchSize <= 0 || concurrency <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("batchSize, concurrency and maxAttempts must be greater than 0");
+        }
+        this.outboxRepository = outboxRepository;
+        this.billingClient = billingClient;
+        this.analyticsClient = analyticsClient;
+        this.notificationPublisher = notificationPublisher;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        for (EventType type : EventType.values()) {
+            String tag = type.name().toLowerCase();
+            lagTimers.put(type, Timer.builder("acmecorp.orders.outbox.lag")
+                    .description("Time from writing an outbox entry to delivering it")
+                    .tag("type", tag)
+                    .register(meterRegistry));
+            retries.put(type, deliveryCounter(meterRegistry, tag, "retry"));
+            failures.put(type, deliveryCounter(meterRegistry, tag, "failed"));
+        }
+        Gauge.builder("acmecorp.orders.outbox.pending", backlog, ref -> ref.get().pending())
+                .description("Outbox entries waiting for delivery as of the last drain")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.orders.outbox.parked", backlog, ref -> ref.get().failed())
+                .description("Outbox entries that ran out of attempts and need attention")
+                .register(meterRegistry);
+        Gauge.builder("acmecorp.orders.outbox.oldest.age", backlog, ref -> oldestAgeSeconds(ref.get()))
+                .description("Age in seconds of the oldest undelivered outbox entry as of the last drain")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${acmecorp.orders.outbox.poll-interval:PT1S}")
+    public void poll() {
+        requestDrain();
+    }
+
+    /**
+     * Starts a drain on a virtual thread unless one is running; a request that arrives during a drain makes it go
+     * round once more, so entries committed in the meantime are not left for the next poll.
+     */
+    public void requestDrain() {
+        if (!enabled) {
+            return;
+        }
+        drainRequested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("order-outbox-relay").start(this::drainWhileRequested);
+        }
+    }
+
+    private void drainWhileRequested() {
+        do {
+            try {
+                while (drainRequested.getAndSet(false)) {
+                    drain();
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Order outbox drain failed", ex);
+            } finally {
+                draining.set(false);
+            }
+        } while (drainRequested.get() && draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Delivers due entries until none are left or a whole batch failed, and returns how many were delivered.
+     */
+    public int drain() {
+        int delivered = 0;
+        while (true) {
+            Instant now = clock.instant();
+            List<Entry> claimed = outboxRepository.claim(now, now.plus(lease), batchSize);
+            if (claimed.isEmpty()) {
+                break;
+            }
+            int succeeded = deliver(claimed);
+            delivered += succeeded;
+            if (succeeded == 0) {
+                break;
+            }
+        }
+        backlog.set(outboxRepository.backlog());
+        return delivered;
+    }
+
+    private int deliver(List<Entry> entries) {
+        Semaphore permits = new Semaphore(concurrency);
+        Map<Entry, Future<?>> deliveries = new LinkedHashMap<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Entry entry : entries) {
+                deliveries.put(entry, executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        dispatch(entry);
+                        return null;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<Long> delivered = new ArrayList<>();
+            for (var delivery : deliveries.entrySet()) {
+                Entry entry = delivery.getKey();
+                try {
+                    delivery.getValue().get();
+                    delivered.add(entry.id());
+                    lagTimers.get(EventType.valueOf(entry.eventType()))
+                            .record(Duration.between(entry.createdAt(), clock.instant()));
+                } catch (ExecutionException ex) {
+                    handleFailure(entry, ex.getCause());
+                }
+            }
+            outboxRepository.delete(delivered);
+            return delivered.size();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            // Claimed entries come back once their lease runs out.
+            return 0;
+        }
+    }
+
+    private void dispatch(Entry entry) throws Exception {
+        EventType type = EventType.valueOf(entry.eventType());
+        Object payload = objectMapper.readValue(entry.payload(), type.payloadType());
+        switch (type) {
+            case BILLING_INVOICE -> billingClient.createInvoice((InvoiceRequest) payload);
+            case ANALYTICS_EVENT -> {
+                // Stamped with when the change was committed; the relay may deliver it much later. Published
+                // synchronously: the best-effort track queue could drop it after the entry is deleted.
+                AnalyticsEvent event = (AnalyticsEvent) payload;
+                analyticsClient.publish(event.event(), event.metadata(), entry.createdAt());
+            }
+            case ORDER_CONFIRMATION -> {
+                OrderConfirmation confirmation = (OrderConfirmation) payload;
+                notificationPublisher.sendOrderConfirmation(confirmation.recipient(), confirmation.orderNumber());
+            }
+        }
+    }
+
+    private void handleFailure(Entry entry, Throwable cause) {
+        EventType type = EventType.valueOf(entry.eventType());
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        if (entry.attempt() >= maxAttempts) {
+            log.error("Parking outbox entry id={} type={} orderId={} after {} attempts",
+                    entry.id(), type, entry.orderId(), entry.attempt(), cause);
+            outboxRepository.markFailed(entry.id(), clock.instant(), error);
+            failures.get(type).increment();
+            return;
+        }
+        log.warn("Outbox entry id={} type={} orderId={} failed on attempt {}: {}",
+                entry.id(), type, entry.orderId(), entry.attempt(), error);
+        outboxRepository.reschedule(entry.id(), clock.instant().plus(backoff(entry.attempt())), error);
+        retries.get(type).increment();
+    }
+
+    private Duration backoff(int attempt) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private double oldestAgeSeconds(OrderOutboxRepository.Backlog current) {
+        if (current.oldestPendingCreatedAt() == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(current.oldestPendingCreatedAt(), clock.instant()).toMillis() / 1000.0);
+    }
+
+    private static Counter deliveryCounter(MeterRegistry meterRegistry, String type, String outcome) {
+        return Counter.builder("acmecorp.orders.outbox.failures")
+                .description("Outbox deliveries that failed and were rescheduled or parked")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -8,10 +8,10 @@ import com.acmecorp.orders.domain.Order;
 import com.acmecorp.orders.domain.OrderItem;
 import com.acmecorp.orders.domain.OrderStatus;
 import com.acmecorp.orders.domain.OrderStatusHistory;
-import com.acmecorp.orders.messaging.NotificationPublisher;
 import com.acmecorp.orders.repository.OrderIdempotencyRepository;
 import com.acmecorp.orders.repository.OrderRepository;
 import com.acmecorp.orders.repository.OrderStatusHistoryRepository;
+import com.acmecorp.orders.web.CursorPageResponse;
 import com.acmecorp.orders.web.OrderRequest;
 import com.acmecorp.orders.web.OrderResponse;
 import com.acmecorp.orders.web.OrderStatusHistoryResponse;
@@ -22,17 +22,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.time.Year;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -48,58 +47,89 @@ public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
     private static final int DEFAULT_SEED_ORDER_COUNT = 1000;
-    private static final int MIN_SEED_ITEMS_PER_ORDER = 5;
-    private static final int MAX_SEED_ITEMS_PER_ORDER = 30;
-    private static final long SEED_RANDOM_SEED = 20240205L;
-    private static final String SEED_ORDER_PREFIX = "ORD-SEED-";
+    private static final Sort LIST_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
 
     private final OrderRepository orderRepository;
     private final OrderIdempotencyRepository idempotencyRepository;
     private final OrderStatusHistoryRepository historyRepository;
     private final CatalogClient catalogClient;
-    private final BillingClient billingClient;
     private final AnalyticsClient analyticsClient;
-    private final NotificationPublisher notificationPublisher;
+    private final OrderOutbox outbox;
+    private final OrderNumberAllocator orderNumberAllocator;
+    private final OrderIdempotencyCache idempotencyCache;
+    private final CustomerHasher customerHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
     public OrderService(OrderRepository orderRepository,
                         OrderIdempotencyRepository idempotencyRepository,
                         OrderStatusHistoryRepository historyRepository,
                         CatalogClient catalogClient,
-                        BillingClient billingClient,
                         AnalyticsClient analyticsClient,
-                        NotificationPublisher notificationPublisher) {
+                        OrderOutbox outbox,
+                        OrderNumberAllocator orderNumberAllocator,
+                        OrderIdempotencyCache idempotencyCache,
+                        CustomerHasher customerHasher,
+                        PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.idempotencyRepository = idempotencyRepository;
         this.historyRepository = historyRepository;
         this.catalogClient = catalogClient;
-        this.billingClient = billingClient;
         this.analyticsClient = analyticsClient;
-        this.notificationPublisher = notificationPublisher;
+        this.outbox = outbox;
+        this.orderNumberAllocator = orderNumberAllocator;
+        this.idempotencyCache = idempotencyCache;
+        this.customerHasher = customerHasher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
-    @Transactional
+    /**
+     * Creates an order, or returns the order already created with {@code idempotencyKey}. Runs its own transactions
+     * rather than joining one: the order number is claimed before the insert transaction opens, because refilling
+     * the number lease takes a connection of its own, and asking for a second connection while holding one can
+     * exhaust the pool under a burst of creates.
+     */
     public Order createOrder(OrderRequest request, String idempotencyKey) {
         if (request.items() == null || request.items().isEmpty()) {
             throw new ResponseStatusException(BAD_REQUEST, "Order must contain at least one item");
         }
 
-        String requestHash = requestHash(request);
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            var existing = idempotencyRepository.findByIdempotencyKey(idempotencyKey);
-            if (existing.isPresent()) {
-                OrderIdempotency record = existing.get();
-                if (!record.getRequestHash().equals(requestHash)) {
-                    throw new ResponseStatusException(
-                            org.springframework.http.HttpStatus.CONFLICT,
-                            "Idempotency-Key reuse with different request"
-                    );
-                }
-                return getOrder(record.getOrder().getId());
+        String requestHash = OrderIdempotencyCache.requestHash(request);
+        boolean idempotent = idempotencyKey != null && !idempotencyKey.isBlank();
+        if (idempotent) {
+            Order replayed = readOnlyTransactionTemplate.execute(status -> replayOrder(idempotencyKey, requestHash));
+            if (replayed != null) {
+                return replayed;
             }
         }
 
+        String orderNumber = orderNumberAllocator.nextOrderNumber();
+        return transactionTemplate.execute(status ->
+                insertOrder(request, idempotent ? idempotencyKey : null, requestHash, orderNumber));
+    }
+
+    public Order createOrder(OrderRequest request) {
+        return createOrder(request, null);
+    }
+
+    private Order replayOrder(String idempotencyKey, String requestHash) {
+        var existing = idempotencyRepository.findByIdempotencyKey(idempotencyKey);
+        if (existing.isEmpty()) {
+            return null;
+        }
+        OrderIdempotency record = existing.get();
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw idempotencyCache.conflict();
+        }
+        idempotencyCache.recordDatabaseReplay();
+        return getOrder(record.getOrder().getId());
+    }
+
+    private Order insertOrder(OrderRequest request, String idempotencyKey, String requestHash, String orderNumber) {
         Order order = new Order();
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumber);
         order.setCustomerEmail(request.customerEmail());
         order.setStatus(OrderStatus.NEW);
         order.setCreatedAt(Instant.now());
@@ -108,7 +138,7 @@ public class OrderService {
         applyItems(order, request.items());
 
         Order saved = orderRepository.save(order);
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+        if (idempotencyKey != null) {
             OrderIdempotency record = new OrderIdempotency();
             record.setIdempotencyKey(idempotencyKey);
             record.setRequestHash(requestHash);
@@ -117,15 +147,14 @@ public class OrderService {
             idempotencyRepository.save(record);
         }
         recordStatusChange(saved, null, saved.getStatus(), "created");
-        analyticsClient.track("orders.created", Map.of("orderId", saved.getId(), "orderNumber", saved.getOrderNumber()));
+        analyticsClient.track("orders.created", Map.of(
+                "orderId", saved.getId(),
+                "orderNumber", saved.getOrderNumber(),
+                "customerId", customerHasher.hash(saved.getCustomerEmailNormalized()),
+                "products", quantitiesByProduct(saved)));
         return saved;
     }
 
-    @Transactional
-    public Order createOrder(OrderRequest request) {
-        return createOrder(request, null);
-    }
-
     @Transactional(readOnly = true)
     public Order getOrder(Long id) {
         return orderRepository.findById(id)
@@ -134,21 +163,57 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public Page<Order> listOrders(String customerEmail, OrderStatus status, int page, int size) {
-        Specification<Order> spec = Specification.where(null);
-        if (customerEmail != null && !customerEmail.isBlank()) {
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("customerEmail")), "%" + customerEmail.toLowerCase(Locale.ROOT) + "%"));
-        }
-        if (status != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("status"), status));
-        }
         Page<Order> ordersPage = orderRepository.findAll(
-                spec,
-                PageRequest.of(page, size, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")))
+                listFilter(customerEmail, status),
+                PageRequest.of(page, size, LIST_SORT)
         );
         preloadItems(ordersPage.getContent());
         return ordersPage;
     }
 
+    /**
+     * Keyset variant of {@link #listOrders}: seeks past {@code cursor} on {@code (created_at desc, id desc)} instead of
+     * skipping rows with OFFSET, so every page costs the same. The total is only counted when requested.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<Order> listOrdersByCursor(String customerEmail,
+                                                        OrderStatus status,
+                                                        String cursor,
+                                                        int size,
+                                                        boolean includeTotal) {
+        if (size < 1) {
+            throw new ResponseStatusException(BAD_REQUEST, "size must be at least 1");
+        }
+        Specification<Order> filter = listFilter(customerEmail, status);
+        Specification<Order> seek = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            OrderCursor after = OrderCursor.decode(cursor);
+            // The redundant created_at <= bound lets the planner turn the seek into an index range scan.
+            seek = seek.and((root, query, cb) -> cb.and(
+                    cb.lessThanOrEqualTo(root.get("createdAt"), after.createdAt()),
+                    cb.or(
+                            cb.lessThan(root.get("createdAt"), after.createdAt()),
+                            cb.lessThan(root.get("id"), after.id())
+                    )
+            ));
+        }
+        List<Order> rows = orderRepository.findBy(seek, query -> query.sortBy(LIST_SORT).limit(size + 1).all());
+        boolean hasNext = rows.size() > size;
+        List<Order> orders = hasNext ? rows.subList(0, size) : rows;
+        preloadItems(orders);
+        String nextCursor = hasNext ? OrderCursor.after(orders.get(orders.size() - 1)).encode() : null;
+        Long totalElements = includeTotal ? orderRepository.count(filter) : null;
+        return new CursorPageResponse<>(orders, size, nextCursor, hasNext, totalElements);
+    }
+
+    private static Specification<Order> listFilter(String customerEmail, OrderStatus status) {
+        Specification<Order> spec = Specification.where(CustomerEmailSearch.matching(customerEmail));
+        if (status != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("status"), status));
+        }
+        return spec;
+    }
+
     @Transactional(readOnly = true)
     public List<Order> latestOrders() {
         List<Order> orders = orderRepository.findTop10ByOrderByCreatedAtDesc();
@@ -179,10 +244,11 @@ public class OrderService {
             order.setUpdatedAt(Instant.now());
             Order saved = orderRepository.save(order);
             recordStatusChange(saved, oldStatus, saved.getStatus(), "confirmed");
+            idempotencyCache.evictOrdersAfterCommit(List.of(saved.getId()));
 
-            billingClient.createInvoice(saved);
-            analyticsClient.track("orders.confirmed", Map.of("orderId", saved.getId(), "orderNumber", saved.getOrderNumber()));
-            notificationPublisher.sendOrderConfirmation(saved.getCustomerEmail(), saved.getOrderNumber());
+            outbox.createInvoice(saved.getId(), BillingClient.invoiceRequest(saved));
+            outbox.track(saved.getId(), "orders.confirmed", Map.of("orderId", saved.getId(), "orderNumber", saved.getOrderNumber()));
+            outbox.sendOrderConfirmation(saved.getId(), saved.getCustomerEmail(), saved.getOrderNumber());
             return saved;
         } catch (RuntimeException ex) {
             log.error("Failed to confirm order id={}", id, ex);
@@ -204,6 +270,7 @@ public class OrderService {
         order.setUpdatedAt(Instant.now());
         Order saved = orderRepository.save(order);
         recordStatusChange(saved, oldStatus, saved.getStatus(), "cancelled");
+        idempotencyCache.evictOrdersAfterCommit(List.of(saved.getId()));
         analyticsClient.track("orders.cancelled", Map.of("orderId", saved.getId(), "orderNumber", saved.getOrderNumber()));
         return saved;
     }
@@ -246,6 +313,7 @@ public class OrderService {
         if (request.status() != null && oldStatus != saved.getStatus()) {
             recordStatusChange(saved, oldStatus, saved.getStatus(), "updated");
         }
+        idempotencyCache.evictOrdersAfterCommit(List.of(saved.getId()));
         analyticsClient.track("orders.updated", Map.of("orderId", saved.getId(), "orderNumber", saved.getOrderNumber()));
         return saved;
     }
@@ -255,6 +323,7 @@ public class OrderService {
         Order order = getOrder(id);
         historyRepository.deleteByOrderId(id);
         idempotencyRepository.deleteByOrderId(id);
+        idempotencyCache.evictOrdersAfterCommit(List.of(id));
         orderRepository.delete(order);
         orderRepository.flush();
         analyticsClient.track("orders.deleted", Map.of("orderId", order.getId(), "orderNumber", order.getOrderNumber()));
@@ -279,12 +348,13 @@ public class OrderService {
         if (orderCount <= 0) {
             throw new IllegalArgumentException("orderCount must be greater than 0");
         }
-        List<Order> existing = orderRepository.findByOrderNumberStartingWith(SEED_ORDER_PREFIX);
+        List<Order> existing = orderRepository.findByOrderNumberStartingWith(SeedDataGenerator.SEED_ORDER_PREFIX);
         if (!existing.isEmpty()) {
             List<Long> ids = existing.stream().map(Order::getId).filter(Objects::nonNull).collect(Collectors.toList());
             if (!ids.isEmpty()) {
                 historyRepository.deleteByOrderIdIn(ids);
                 idempotencyRepository.deleteByOrderIdIn(ids);
+                idempotencyCache.evictOrdersAfterCommit(ids);
             }
             orderRepository.deleteAll(existing);
             orderRepository.flush();
@@ -301,31 +371,39 @@ public class OrderService {
         var existingByProduct = order.getItems().stream()
                 .collect(java.util.stream.Collectors.toMap(OrderItem::getProductId, oi -> oi));
 
+        for (OrderRequest.Item itemRequest : items) {
+            if (itemRequest.quantity() <= 0) {
+                throw new ResponseStatusException(BAD_REQUEST, "Quantity must be greater than zero");
+            }
+        }
+        List<String> lookups = items.stream()
+                .map(OrderRequest.Item::productId)
+                .filter(productId -> !existingByProduct.containsKey(productId))
+                .toList();
+        Map<String, CatalogClient.CatalogProduct> products = lookups.isEmpty()
+                ? Map.of()
+                : catalogClient.fetchProducts(lookups);
+
         order.getItems().clear();
 
         BigDecimal total = BigDecimal.ZERO;
         String currency = order.getCurrency();
 
         for (OrderRequest.Item itemRequest : items) {
-            if (itemRequest.quantity() <= 0) {
-                throw new ResponseStatusException(BAD_REQUEST, "Quantity must be greater than zero");
-            }
-
             OrderItem resolved = existingByProduct.get(itemRequest.productId());
             String resolvedCurrency = currency;
             if (resolved == null) {
                 BigDecimal unitPrice = BigDecimal.TEN;
                 String productName = itemRequest.productId();
                 String productCurrency = resolvedCurrency != null ? resolvedCurrency : "USD";
-                try {
-                    var product = catalogClient.fetchProduct(itemRequest.productId());
+                var product = products.get(itemRequest.productId());
+                if (product != null) {
                     if (!product.active()) {
                         throw new ResponseStatusException(BAD_REQUEST, "Product is not active: " + product.sku());
                     }
                     unitPrice = product.price();
                     productName = product.name();
                     productCurrency = product.currency();
-                } catch (Exception ignored) {
                 }
 
                 resolvedCurrency = resolvedCurrency != null ? resolvedCurrency : productCurrency;
@@ -372,37 +450,33 @@ public class OrderService {
             total = total.add(specItem.lineTotal());
         }
 
-        order.setCurrency("USD");
+        order.setCurrency(SeedDataGenerator.CURRENCY);
         order.setTotalAmount(total);
         Order saved = orderRepository.save(order);
-        recordStatusChangeAt(saved, null, saved.getStatus(), "seeded", spec.createdAt());
+        recordStatusChangeAt(saved, null, saved.getStatus(), SeedDataGenerator.SEED_REASON, spec.createdAt());
         return saved;
     }
 
     private List<SeedOrderSpec> defaultSeedSpecs(int orderCount) {
-        Instant base = Instant.parse("2024-01-01T00:00:00Z");
-        Random random = new Random(SEED_RANDOM_SEED);
+        Random random = SeedDataGenerator.newRandom();
         List<SeedOrderSpec> specs = new java.util.ArrayList<>();
 
         for (int i = 1; i <= orderCount; i++) {
-            int itemCount = MIN_SEED_ITEMS_PER_ORDER
-                    + random.nextInt((MAX_SEED_ITEMS_PER_ORDER - MIN_SEED_ITEMS_PER_ORDER) + 1);
+            int itemCount = SeedDataGenerator.nextItemCount(random);
             List<SeedOrderItemSpec> items = new java.util.ArrayList<>(itemCount);
             for (int j = 1; j <= itemCount; j++) {
-                BigDecimal unitPrice = BigDecimal.valueOf(4L + i + (j * 2L));
-                int quantity = 1 + ((i + j) % 5);
                 items.add(new SeedOrderItemSpec(
-                        String.format("SEED-PROD-%05d-%02d", i, j),
-                        String.format("Product-%05d-%02d", i, j),
-                        unitPrice,
-                        quantity
+                        SeedDataGenerator.productId(i, j),
+                        SeedDataGenerator.productName(i, j),
+                        SeedDataGenerator.unitPrice(i, j),
+                        SeedDataGenerator.quantity(i, j)
                 ));
             }
             specs.add(new SeedOrderSpec(
-                    String.format(SEED_ORDER_PREFIX + "%05d", i),
-                    String.format("seed+%d@acme.test", i),
+                    SeedDataGenerator.orderNumber(i),
+                    SeedDataGenerator.customerEmail(i),
                     items,
-                    base.plusSeconds(i * 60L)
+                    SeedDataGenerator.createdAt(i)
             ));
         }
 
@@ -423,44 +497,10 @@ public class OrderService {
         orderRepository.findAllWithItemsByIds(ids);
     }
 
-    private synchronized String generateOrderNumber() {
-        String prefix = "ORD-" + Year.now().getValue() + "-";
-        return orderRepository.findTopByOrderNumberStartingWithOrderByOrderNumberDesc(prefix)
-                .map(order -> {
-                    String numPart = order.getOrderNumber().substring(prefix.length());
-                    int next = Integer.parseInt(numPart) + 1;
-                    return prefix + String.format("%05d", next);
-                })
-                .orElse(prefix + "00001");
-    }
-
-    private String requestHash(OrderRequest request) {
-        StringBuilder builder = new StringBuilder();
-        builder.append(Objects.toString(request.customerEmail(), ""));
-        builder.append('|');
-        builder.append(request.status() != null ? request.status().name() : "");
-        builder.append('|');
-        if (request.items() != null) {
-            request.items().stream()
-                    .sorted(Comparator.comparing(OrderRequest.Item::productId)
-                            .thenComparingInt(OrderRequest.Item::quantity))
-                    .forEach(item -> builder.append(item.productId()).append(':').append(item.quantity()).append(';'));
-        }
-        return sha256(builder.toString());
-    }
-
-    private String sha256(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hex = new StringBuilder(hash.length * 2);
-            for (byte b : hash) {
-                hex.append(String.format("%02x", b));
-            }
-            return hex.toString();
-        } catch (Exception ex) {
-            throw new IllegalStateException("Unable to compute request hash", ex);
-        }
+    // Feeds the unique-customer and top-product sketches of analytics-service.
+    private static Map<String, Integer> quantitiesByProduct(Order order) {
+        return order.getItems().stream()
+                .collect(Collectors.toMap(OrderItem::getProductId, OrderItem::getQuantity, Integer::sum, LinkedHashMap::new));
     }
 
     private void recordStatusChange(Order order, OrderStatus oldStatus, OrderStatus newStatus, String reason) {
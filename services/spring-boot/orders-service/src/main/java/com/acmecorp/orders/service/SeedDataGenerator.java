@@ -0,0 +1,85 @@
+package com.acmecorp.orders.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Random;
+
+/**
+ * Deterministic demo data shared by {@link OrderService#seedDemoData(int)} and {@link BulkSeedLoader}.
+ * Order {@code i} (1-based) always gets the same number, customer, timestamp and items; only the item count
+ * comes from the seeded random stream, so callers that start mid-stream use {@link #randomPositionedAt(long)}.
+ */
+final class SeedDataGenerator {
+
+    static final String SEED_ORDER_PREFIX = "ORD-SEED-";
+    static final String CURRENCY = "USD";
+    static final String SEED_REASON = "seeded";
+
+    private static final int MIN_ITEMS_PER_ORDER = 5;
+    private static final int MAX_ITEMS_PER_ORDER = 30;
+    private static final long RANDOM_SEED = 20240205L;
+    private static final Instant BASE_CREATED_AT = Instant.parse("2024-01-01T00:00:00Z");
+
+    private SeedDataGenerator() {
+    }
+
+    static Random newRandom() {
+        return new Random(RANDOM_SEED);
+    }
+
+    /**
+     * Returns a random stream whose next {@link #nextItemCount(Random)} call yields the item count of
+     * {@code orderIndex}. Skipping ahead costs one {@code nextInt} per preceding order.
+     */
+    static Random randomPositionedAt(long orderIndex) {
+        Random random = newRandom();
+        for (long i = 1; i < orderIndex; i++) {
+            nextItemCount(random);
+        }
+        return random;
+    }
+
+    static int nextItemCount(Random random) {
+        return MIN_ITEMS_PER_ORDER + random.nextInt((MAX_ITEMS_PER_ORDER - MIN_ITEMS_PER_ORDER) + 1);
+    }
+
+    static String orderNumber(long orderIndex) {
+        return String.format(SEED_ORDER_PREFIX + "%05d", orderIndex);
+    }
+
+    static String customerEmail(long orderIndex) {
+        return String.format("seed+%d@acme.test", orderIndex);
+    }
+
+    static Instant createdAt(long orderIndex) {
+        return BASE_CREATED_AT.plusSeconds(orderIndex * 60L);
+    }
+
+    static String productId(long orderIndex, int itemIndex) {
+        return String.format("SEED-PROD-%05d-%02d", orderIndex, itemIndex);
+    }
+
+    static String productName(long orderIndex, int itemIndex) {
+        return String.format("Product-%05d-%02d", orderIndex, itemIndex);
+    }
+
+    static BigDecimal unitPrice(long orderIndex, int itemIndex) {
+        return BigDecimal.valueOf(4L + orderIndex + (itemIndex * 2L));
+    }
+
+    static int quantity(long orderIndex, int itemIndex) {
+        return 1 + (int) ((orderIndex + itemIndex) % 5);
+    }
+
+    static BigDecimal lineTotal(long orderIndex, int itemIndex) {
+        return unitPrice(orderIndex, itemIndex).multiply(BigDecimal.valueOf(quantity(orderIndex, itemIndex)));
+    }
+
+    static BigDecimal totalAmount(long orderIndex, int itemCount) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int j = 1; j <= itemCount; j++) {
+            total = total.add(lineTotal(orderIndex, j));
+        }
+        return total;
+    }
+}
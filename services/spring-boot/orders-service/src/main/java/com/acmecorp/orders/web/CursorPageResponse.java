@@ -0,0 +1,16 @@
+package com.acmecorp.orders.web;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. {@code nextCursor} is opaque to clients and is {@code null} on the last
+ * page; {@code totalElements} is only filled in when the caller asked for it.
+ */
+public record CursorPageResponse<T>(List<T> content, int size, String nextCursor, boolean hasNext, Long totalElements) {
+
+    public <R> CursorPageResponse<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().<R>map(mapper).toList();
+        return new CursorPageResponse<>(mapped, size, nextCursor, hasNext, totalElements);
+    }
+}
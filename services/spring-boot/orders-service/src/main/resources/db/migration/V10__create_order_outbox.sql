@@ -0,0 +1,15 @@
+-- Side effects of order state changes, written in the same transaction and delivered by OrderOutboxRelay.
+create table if not exists order_outbox (
+    id bigserial primary key,
+    order_id bigint not null,
+    event_type varchar(64) not null,
+    payload text not null,
+    attempts integer not null default 0,
+    created_at timestamp with time zone not null,
+    next_attempt_at timestamp with time zone not null,
+    failed_at timestamp with time zone,
+    last_error varchar(1000)
+);
+
+create index if not exists idx_order_outbox_order_id on order_outbox(order_id, id);
+create index if not exists idx_order_outbox_next_attempt_at on order_outbox(next_attempt_at);
@@ -0,0 +1,4 @@
+create table if not exists order_number_sequences (
+    order_year integer primary key,
+    leased_to bigint not null
+);
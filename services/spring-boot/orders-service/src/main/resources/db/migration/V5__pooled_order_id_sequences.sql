@@ -0,0 +1,6 @@
+-- The bigserial sequences step by 50 so the batch-writes profile can reserve 50 ids per nextval
+-- (Hibernate pooled optimizer). Plain inserts still take one value each and never overlap a reserved block.
+alter sequence if exists orders_id_seq increment by 50;
+alter sequence if exists order_items_id_seq increment by 50;
+alter sequence if exists order_status_history_id_seq increment by 50;
+alter sequence if exists order_idempotency_id_seq increment by 50;
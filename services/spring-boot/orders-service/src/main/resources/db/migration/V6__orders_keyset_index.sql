@@ -0,0 +1,3 @@
+-- Supports keyset pagination of the order list, which seeks on (created_at desc, id desc).
+create index if not exists idx_orders_created_at_id on orders(created_at desc, id desc);
+create index if not exists idx_orders_status_created_at_id on orders(status, created_at desc, id desc);
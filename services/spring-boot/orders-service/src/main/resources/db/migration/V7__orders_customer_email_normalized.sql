@@ -0,0 +1,4 @@
+-- Lowercased, trimmed copy of customer_email that search predicates can use without wrapping the column in lower().
+alter table orders add column if not exists customer_email_normalized varchar(255);
+update orders set customer_email_normalized = lower(trim(customer_email)) where customer_email_normalized is null;
+alter table orders alter column customer_email_normalized set not null;
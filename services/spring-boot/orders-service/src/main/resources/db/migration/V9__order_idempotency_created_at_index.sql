@@ -0,0 +1,2 @@
+-- Lets the idempotency purge job find expired keys without scanning the table.
+create index if not exists idx_order_idempotency_created_at on order_idempotency(created_at);
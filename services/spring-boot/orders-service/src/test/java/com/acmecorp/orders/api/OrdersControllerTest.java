@@ -2,8 +2,11 @@ package com.acmecorp.orders.api;
 
 import com.acmecorp.orders.domain.Order;
 import com.acmecorp.orders.domain.OrderStatus;
+import com.acmecorp.orders.service.BulkSeedLoader;
+import com.acmecorp.orders.service.OrderIdempotencyCache;
 import com.acmecorp.orders.service.OrderService;
 import com.acmecorp.orders.startup.StartupTimeline;
+import com.acmecorp.orders.web.CursorPageResponse;
 import com.acmecorp.orders.web.OrderRequest;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -37,6 +40,12 @@ class OrdersControllerTest {
     @MockBean
     private StartupTimeline startupTimeline;
 
+    @MockBean
+    private BulkSeedLoader bulkSeedLoader;
+
+    @MockBean
+    private OrderIdempotencyCache idempotencyCache;
+
     @Test
     void statusEndpointShouldReturnOk() throws Exception {
         mockMvc.perform(get("/api/orders/status"))
@@ -112,6 +121,29 @@ class OrdersControllerTest {
                 .andExpect(jsonPath("$.items").isEmpty());
     }
 
+    @Test
+    void createOrderShouldReplayRememberedResponseWithoutCallingService() throws Exception {
+        Mockito.when(idempotencyCache.replay(Mockito.eq("retry-1"), Mockito.any(OrderRequest.class)))
+                .thenReturn(java.util.Optional.of("{\"id\":42,\"orderNumber\":\"ORD-2025-00042\"}".getBytes()));
+
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "customerEmail": "demo@acme.test",
+                                  "items": [
+                                    {"productId":"SKU-1","quantity":1}
+                                  ]
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(42))
+                .andExpect(jsonPath("$.orderNumber").value("ORD-2025-00042"));
+
+        Mockito.verifyNoInteractions(orderService);
+    }
+
     @Test
     void updateOrderShouldReturnUpdatedOrder() throws Exception {
         Order order = new Order();
@@ -244,6 +276,22 @@ class OrdersControllerTest {
         Mockito.verify(orderService).seedDemoData();
     }
 
+    @Test
+    void bulkSeedShouldReturnLoadStatistics() throws Exception {
+        Mockito.when(bulkSeedLoader.load(500, 2, 100))
+                .thenReturn(new BulkSeedLoader.BulkSeedResult(500, 8_750, 500, 250, 39_000));
+
+        mockMvc.perform(post("/api/orders/seed/bulk")
+                        .param("orders", "500")
+                        .param("parallelism", "2")
+                        .param("chunkSize", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.seeded").value(true))
+                .andExpect(jsonPath("$.orders").value(500))
+                .andExpect(jsonPath("$.items").value(8_750))
+                .andExpect(jsonPath("$.rowsPerSecond").value(39_000));
+    }
+
     @Test
     void listOrdersShouldReturnPagedResponse() throws Exception {
         Order order = new Order();
@@ -261,4 +309,24 @@ class OrdersControllerTest {
                 .andExpect(jsonPath("$.content[0].orderNumber").value("ORD-2025-00042"))
                 .andExpect(jsonPath("$.content[0].status").value("CONFIRMED"));
     }
+
+    @Test
+    void listOrdersInKeysetModeShouldReturnCursorPage() throws Exception {
+        Order order = new Order();
+        order.setOrderNumber("ORD-2025-00043");
+        order.setStatus(OrderStatus.NEW);
+        order.setTotalAmount(new BigDecimal("12.00"));
+        order.setCurrency("USD");
+        order.setCreatedAt(Instant.now());
+        order.setUpdatedAt(Instant.now());
+        Mockito.when(orderService.listOrdersByCursor(null, null, "abc", 1, false))
+                .thenReturn(new CursorPageResponse<>(List.of(order), 1, "next", true, null));
+
+        mockMvc.perform(get("/api/orders").param("pagination", "keyset").param("cursor", "abc").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].orderNumber").value("ORD-2025-00043"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
 }
@@ -0,0 +1,188 @@
+package com.acmecorp.orders.client;
+
+import com.acmecorp.orders.config.AnalyticsShipperProperties;
+import com.acmecorp.shared.analytics.AnalyticsShipperSettings.OverflowPolicy;
+import com.acmecorp.orders.config.RabbitConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.rabbit.core.RabbitOperations.OperationsCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.net.ConnectException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsClientTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AnalyticsShipperProperties properties = new AnalyticsShipperProperties();
+    private final Queue<ExpectedBatch> expectedBatches = new ConcurrentLinkedQueue<>();
+    private RabbitTemplate rabbitTemplate;
+    private AnalyticsClient client;
+
+    @TempDir
+    Path spillDirectory;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<OperationsCallback<?>>getArgument(0).doInRabbit(rabbitTemplate));
+        doAnswer(invocation -> {
+            ExpectedBatch expected = expectedBatches.poll();
+            assertThat(expected).as("unexpected batch").isNotNull();
+            // occurredAt is stamped at track time, so it is checked for presence and then left out.
+            JsonNode body = objectMapper.valueToTree(invocation.getArgument(2));
+            body.get("events").forEach(event -> assertThat(((ObjectNode) event).remove("occurredAt")).isNotNull());
+            assertThat(body).isEqualTo(objectMapper.readTree(expected.json()));
+            if (!expected.confirmed()) {
+                throw new AmqpConnectException(new ConnectException("Connection refused"));
+            }
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq(RabbitConfig.ANALYTICS_EVENTS_EXCHANGE),
+                eq(RabbitConfig.ANALYTICS_EVENTS_ROUTING_KEY), any(Object.class));
+        properties.setBatchSize(2);
+        properties.setFlushInterval(Duration.ofSeconds(10));
+        properties.setSpillDirectory(spillDirectory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.stop();
+        }
+    }
+
+    @Test
+    void trackShouldPublishFullBatchesAndFlushTheRestOnStop() {
+        expectBatch("""
+                {"events": [{"event": "orders.created", "metadata": {"orderId": 1}}, {"event": "orders.created", "metadata": {"orderId": 2}}]}
+                """, true);
+        expectBatch("""
+                {"events": [{"event": "orders.deleted", "metadata": {"orderId": 1}}]}
+                """, true);
+        client = newClient();
+        client.start();
+
+        client.track("orders.created", Map.of("orderId", 1));
+        client.track("orders.created", Map.of("orderId", 2));
+        client.track("orders.deleted", Map.of("orderId", 1));
+        client.stop();
+
+        assertThat(expectedBatches).isEmpty();
+        assertThat(meterRegistry.get("acmecorp.orders.analytics.flush").tag("outcome", "success").timer().count())
+                .isEqualTo(2);
+        verify(rabbitTemplate, times(2)).waitForConfirmsOrDie(anyLong());
+    }
+
+    @Test
+    void dropPolicyShouldCountEventsThatDoNotFitTheQueue() {
+        properties.setQueueCapacity(1);
+        client = newClient();
+
+        client.track("orders.created", Map.of());
+        client.track("orders.created", Map.of());
+
+        assertThat(meterRegistry.get("acmecorp.orders.analytics.queue.depth").gauge().value()).isEqualTo(1);
+        assertThat(dropped("overflow")).isEqualTo(1);
+    }
+
+    @Test
+    void spillPolicyShouldKeepFailedBatchesAndReplayThemOnceTheBrokerRecovers() {
+        properties.setOverflowPolicy(OverflowPolicy.SPILL);
+        properties.setQueueCapacity(1);
+        properties.setFlushInterval(Duration.ofMillis(20));
+        expectBatch("""
+                {"events": [{"event": "orders.created", "metadata": {"orderId": 1}}]}
+                """, false);
+        expectBatch("""
+                {"events": [{"event": "orders.created", "metadata": {"orderId": 3}}]}
+                """, true);
+        expectBatch("""
+                {"events": [{"event": "orders.created", "metadata": {"orderId": 2}}, {"event": "orders.created", "metadata": {"orderId": 1}}]}
+                """, true);
+        client = newClient();
+
+        client.track("orders.created", Map.of("orderId", 1));
+        client.track("orders.created", Map.of("orderId", 2));
+        assertThat(meterRegistry.get("acmecorp.orders.analytics.spilled").counter().count()).isEqualTo(1);
+
+        client.start();
+        awaitSpilled(2);
+        client.track("orders.created", Map.of("orderId", 3));
+        client.stop();
+
+        assertThat(expectedBatches).isEmpty();
+        assertThat(dropped("overflow") + dropped("failure")).isZero();
+        assertThat(meterRegistry.get("acmecorp.orders.analytics.spill.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void publishShouldWaitForTheConfirmAndThrowWhenTheBrokerDoesNotGiveIt() {
+        expectBatch("""
+                {"events": [{"event": "orders.confirmed", "metadata": {"orderId": 1}}]}
+                """, true);
+        client = newClient();
+
+        client.publish("orders.confirmed", Map.of("orderId", 1), Instant.now());
+
+        verify(rabbitTemplate).waitForConfirmsOrDie(anyLong());
+        doThrow(new AmqpTimeoutException("no publisher confirm")).when(rabbitTemplate).waitForConfirmsOrDie(anyLong());
+        expectBatch("""
+                {"events": [{"event": "orders.confirmed", "metadata": {"orderId": 2}}]}
+                """, true);
+        assertThatThrownBy(() -> client.publish("orders.confirmed", Map.of("orderId", 2), Instant.now()))
+                .isInstanceOf(AmqpTimeoutException.class);
+        assertThat(expectedBatches).isEmpty();
+        assertThat(dropped("failure")).isZero();
+    }
+
+    private void expectBatch(String json, boolean confirmed) {
+        expectedBatches.add(new ExpectedBatch(json, confirmed));
+    }
+
+    private void awaitSpilled(int count) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (meterRegistry.get("acmecorp.orders.analytics.spilled").counter().count() < count) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.get("acmecorp.orders.analytics.dropped").tag("reason", reason).counter().count();
+    }
+
+    private AnalyticsClient newClient() {
+        return new AnalyticsClient(rabbitTemplate, properties, meterRegistry);
+    }
+
+    private record ExpectedBatch(String json, boolean confirmed) {
+    }
+}
@@ -0,0 +1,195 @@
+package com.acmecorp.orders.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class CatalogClientTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+    private RestClient.Builder builder;
+    private MockRestServiceServer server;
+    private CatalogProductNearCache nearCache;
+    private CatalogClient catalogClient;
+
+    @BeforeEach
+    void setUp() {
+        builder = RestClient.builder();
+        server = MockRestServiceServer.bindTo(builder).ignoreExpectOrder(true).build();
+        catalogClient = newClient(null);
+    }
+
+    @Test
+    void fetchProductsShouldResolveDeduplicatedIdsWithOneBatchCall() {
+        server.expect(once(), requestTo("http://catalog/api/catalog/batch"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().json("""
+                        {"ids": ["p-1", "p-2", "p-3"]}
+                        """, true))
+                .andRespond(withSuccess("""
+                        {
+                          "products": [
+                            {"id": "p-1", "sku": "SKU-1", "name": "One", "price": 1.50, "currency": "USD", "category": "c", "active": true},
+                            {"id": "p-2", "sku": "SKU-2", "name": "Two", "price": 2.50, "currency": "USD", "category": "c", "active": true}
+                          ],
+                          "missingIds": ["p-3"]
+                        }
+                        """, MediaType.APPLICATION_JSON));
+
+        var products = catalogClient.fetchProducts(List.of("p-1", "p-2", "p-1", "p-3", "p-2"));
+
+        server.verify();
+        assertThat(products).containsOnlyKeys("p-1", "p-2");
+        assertThat(products.get("p-2").name()).isEqualTo("Two");
+        assertThat(meterRegistry.get("acmecorp.orders.catalog.pricing").tag("mode", "batch").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchProductsShouldFallBackToIndividualLookupsWhenBatchEndpointIsMissing() {
+        server.expect(once(), requestTo("http://catalog/api/catalog/batch"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+        server.expect(once(), requestTo("http://catalog/api/catalog/p-1"))
+                .andRespond(withSuccess("""
+                        {"id": "p-1", "sku": "SKU-1", "name": "One", "price": 1.50, "currency": "USD", "category": "c", "active": true}
+                        """, MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo("http://catalog/api/catalog/p-2"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+        server.expect(once(), requestTo("http://catalog/api/catalog/p-3"))
+                .andRespond(withSuccess("""
+                        {"id": "p-3", "sku": "SKU-3", "name": "Three", "price": 3.50, "currency": "USD", "category": "c", "active": false}
+                        """, MediaType.APPLICATION_JSON));
+
+        var products = catalogClient.fetchProducts(List.of("p-1", "p-2", "p-3", "p-1"));
+
+        server.verify();
+        assertThat(products).containsOnlyKeys("p-1", "p-3");
+        assertThat(products.get("p-3").active()).isFalse();
+        assertThat(meterRegistry.get("acmecorp.orders.catalog.pricing").tag("mode", "parallel").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchProductsShouldReportAFailingBatchCallInsteadOfLookingUpEveryId() {
+        server.expect(once(), requestTo("http://catalog/api/catalog/batch"))
+                .andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        assertThatThrownBy(() -> catalogClient.fetchProducts(List.of("p-1", "p-2")))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY));
+        server.verify();
+    }
+
+    @Test
+    void fetchProductsShouldReportAnUnreachableCatalogAsUnavailable() {
+        server.expect(once(), requestTo("http://catalog/api/catalog/batch"))
+                .andRespond(withException(new ConnectException("Connection refused")));
+
+        assertThatThrownBy(() -> catalogClient.fetchProducts(List.of("p-1")))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        server.verify();
+    }
+
+    @Test
+    void individualLookupsShouldNotTakeAnUnreachableCatalogForAnUnknownProduct() {
+        server.expect(once(), requestTo("http://catalog/api/catalog/batch"))
+                .andRespond(withStatus(HttpStatus.METHOD_NOT_ALLOWED));
+        server.expect(once(), requestTo("http://catalog/api/catalog/p-1"))
+                .andRespond(withException(new SocketTimeoutException("Read timed out")));
+
+        assertThatThrownBy(() -> catalogClient.fetchProduct("p-1"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        server.verify();
+    }
+
+    @Test
+    void fetchProductsShouldServeCachedProductsUntilTheyAreInvalidated() {
+        server.expect(once(), requestTo("http://catalog/api/catalog/batch"))
+                .andExpect(content().json("""
+                        {"ids": ["p-1", "p-2"]}
+                        """, true))
+                .andRespond(withSuccess(batchResponse("One"), MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo("http://catalog/api/catalog/batch"))
+                .andExpect(content().json("""
+                        {"ids": ["p-2"]}
+                        """, true))
+                .andRespond(withSuccess(batchResponse("Two v2"), MediaType.APPLICATION_JSON));
+
+        catalogClient.fetchProducts(List.of("p-1", "p-2"));
+        var cached = catalogClient.fetchProducts(List.of("p-2", "p-1"));
+        nearCache.invalidate("p-2");
+        var reloaded = catalogClient.fetchProducts(List.of("p-1", "p-2"));
+
+        server.verify();
+        assertThat(cached).containsOnlyKeys("p-1", "p-2");
+        assertThat(reloaded.get("p-2").name()).isEqualTo("Two v2");
+        assertThat(meterRegistry.get("acmecorp.orders.catalog.cache.requests").tag("result", "hit").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void fetchProductsShouldServeStaleProductsAndRefreshThemInTheBackground() throws InterruptedException {
+        catalogClient = newClient(Duration.ofMinutes(1));
+        server.expect(once(), requestTo("http://catalog/api/catalog/batch"))
+                .andRespond(withSuccess(batchResponse("One"), MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo("http://catalog/api/catalog/batch"))
+                .andRespond(withSuccess(batchResponse("One v2"), MediaType.APPLICATION_JSON));
+
+        catalogClient.fetchProducts(List.of("p-1", "p-2"));
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        var stale = catalogClient.fetchProducts(List.of("p-1", "p-2"));
+        awaitRefreshes();
+        var refreshed = catalogClient.fetchProducts(List.of("p-1", "p-2"));
+
+        server.verify();
+        assertThat(stale.get("p-1").name()).isEqualTo("One");
+        assertThat(refreshed.get("p-1").name()).isEqualTo("One v2");
+    }
+
+    private CatalogClient newClient(Duration refreshAfter) {
+        nearCache = new CatalogProductNearCache(true, 100, Duration.ofMinutes(5), refreshAfter, nanos::get, meterRegistry);
+        return new CatalogClient(builder, "http://catalog", 2, nearCache, meterRegistry);
+    }
+
+    private void awaitRefreshes() throws InterruptedException {
+        var refreshes = meterRegistry.get("acmecorp.orders.catalog.cache.refreshes").tag("outcome", "success").counter();
+        for (int i = 0; i < 100 && refreshes.count() == 0; i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static String batchResponse(String firstName) {
+        return """
+                {
+                  "products": [
+                    {"id": "p-1", "sku": "SKU-1", "name": "%s", "price": 1.50, "currency": "USD", "category": "c", "active": true},
+                    {"id": "p-2", "sku": "SKU-2", "name": "%s", "price": 2.50, "currency": "USD", "category": "c", "active": true}
+                  ],
+                  "missingIds": []
+                }
+                """.formatted(firstName, firstName.replace("One", "Two"));
+    }
+}
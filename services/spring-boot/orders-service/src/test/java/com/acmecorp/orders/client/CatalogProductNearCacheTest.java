@@ -0,0 +1,80 @@
+package com.acmecorp.orders.client;
+
+import com.acmecorp.orders.client.CatalogClient.CatalogProduct;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogProductNearCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void getAllShouldServeCachedProductsUntilTtlAndReportHitRatio() {
+        CatalogProductNearCache cache = newCache(null);
+        cache.putAll(List.of(product("p-1")), cache.generation());
+
+        assertThat(cache.getAll(List.of("p-1", "p-2")).products()).containsOnlyKeys("p-1");
+        advance(Duration.ofMinutes(5));
+        assertThat(cache.getAll(List.of("p-1")).products()).isEmpty();
+
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(2);
+        assertThat(meterRegistry.get("acmecorp.orders.catalog.cache.hit.ratio").gauge().value()).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    void getAllShouldReportEntriesPastRefreshThresholdAsStale() {
+        CatalogProductNearCache cache = newCache(Duration.ofMinutes(1));
+        cache.putAll(List.of(product("p-1"), product("p-2")), cache.generation());
+        advance(Duration.ofSeconds(90));
+        cache.putAll(List.of(product("p-2")), cache.generation());
+
+        CatalogProductNearCache.Lookup lookup = cache.getAll(List.of("p-1", "p-2"));
+
+        assertThat(lookup.products()).containsOnlyKeys("p-1", "p-2");
+        assertThat(lookup.staleIds()).containsExactly("p-1");
+        assertThat(requests("stale")).isEqualTo(1);
+        assertThat(meterRegistry.get("acmecorp.orders.catalog.cache.entry.age").timer().max(TimeUnit.SECONDS))
+                .isEqualTo(90);
+        assertThat(cache.claimRefresh(lookup.staleIds())).containsExactly("p-1");
+        assertThat(cache.claimRefresh(lookup.staleIds())).isEmpty();
+    }
+
+    @Test
+    void putAllShouldBeDroppedWhenAnInvalidationHappenedDuringTheLoad() {
+        CatalogProductNearCache cache = newCache(null);
+        cache.putAll(List.of(product("p-1")), cache.generation());
+
+        long generation = cache.generation();
+        cache.invalidate("p-1");
+        cache.putAll(List.of(product("p-1")), generation);
+
+        assertThat(cache.getAll(List.of("p-1")).products()).isEmpty();
+        assertThat(meterRegistry.get("acmecorp.orders.catalog.cache.invalidations").counter().count()).isEqualTo(1);
+    }
+
+    private CatalogProductNearCache newCache(Duration refreshAfter) {
+        return new CatalogProductNearCache(true, 100, Duration.ofMinutes(5), refreshAfter, nanos::get, meterRegistry);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("acmecorp.orders.catalog.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static CatalogProduct product(String id) {
+        return new CatalogProduct(id, "SKU-" + id, "Product " + id, null, BigDecimal.ONE, "USD", "c", true);
+    }
+}
@@ -0,0 +1,125 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.repository.OrderNumberSequenceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockLeasingOrderNumberAllocatorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void nextOrderNumberShouldHandOutConsecutiveNumbersFromOneLease() {
+        var repository = new InMemorySequenceRepository();
+        var allocator = new BlockLeasingOrderNumberAllocator(repository, fixedClock("2025-03-01T10:00:00Z"), 10, meterRegistry);
+
+        assertThat(allocator.nextOrderNumber()).isEqualTo("ORD-2025-00001");
+        assertThat(allocator.nextOrderNumber()).isEqualTo("ORD-2025-00002");
+        assertThat(allocator.nextOrderNumber()).isEqualTo("ORD-2025-00003");
+        assertThat(meterRegistry.get("acmecorp.orders.number.lease.refills").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("acmecorp.orders.number.lease.remaining").gauge().value()).isEqualTo(7.0);
+    }
+
+    @Test
+    void nextOrderNumberShouldBeUniqueUnderConcurrentCallers() throws Exception {
+        var repository = new InMemorySequenceRepository();
+        var allocator = new BlockLeasingOrderNumberAllocator(repository, fixedClock("2025-03-01T10:00:00Z"), 7, meterRegistry);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                futures.add(executor.submit(() -> numbers.add(allocator.nextOrderNumber())));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(numbers).hasSize(2_000);
+        assertThat(numbers).contains("ORD-2025-00001", "ORD-2025-02000");
+        assertThat(meterRegistry.get("acmecorp.orders.number.lease.refills").counter().count())
+                .isEqualTo(Math.ceil(2_000 / 7.0));
+    }
+
+    @Test
+    void nextOrderNumberShouldRollOverAtYearBoundary() {
+        var repository = new InMemorySequenceRepository();
+        var clock = new MutableClock(Instant.parse("2025-12-31T23:59:59Z"));
+        var allocator = new BlockLeasingOrderNumberAllocator(repository, clock, 50, meterRegistry);
+
+        assertThat(allocator.nextOrderNumber()).isEqualTo("ORD-2025-00001");
+        clock.instant = Instant.parse("2026-01-01T00:00:01Z");
+        assertThat(allocator.nextOrderNumber()).isEqualTo("ORD-2026-00001");
+        assertThat(allocator.nextOrderNumber()).isEqualTo("ORD-2026-00002");
+    }
+
+    @Test
+    void separateAllocatorsShouldNeverShareNumbers() {
+        var repository = new InMemorySequenceRepository();
+        var first = new BlockLeasingOrderNumberAllocator(repository, fixedClock("2025-03-01T10:00:00Z"), 5, meterRegistry);
+        var second = new BlockLeasingOrderNumberAllocator(repository, fixedClock("2025-03-01T10:00:00Z"), 5, new SimpleMeterRegistry());
+
+        assertThat(first.nextOrderNumber()).isEqualTo("ORD-2025-00001");
+        assertThat(second.nextOrderNumber()).isEqualTo("ORD-2025-00006");
+        assertThat(first.nextOrderNumber()).isEqualTo("ORD-2025-00002");
+    }
+
+    private static Clock fixedClock(String instant) {
+        return Clock.fixed(Instant.parse(instant), ZoneOffset.UTC);
+    }
+
+    private static final class InMemorySequenceRepository extends OrderNumberSequenceRepository {
+
+        private final Map<Integer, Long> leasedTo = new HashMap<>();
+
+        private InMemorySequenceRepository() {
+            super(Mockito.mock(org.springframework.jdbc.core.JdbcTemplate.class));
+        }
+
+        @Override
+        public synchronized long leaseBlock(int year, int blockSize) {
+            return leasedTo.merge(year, (long) blockSize, Long::sum);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.client.AnalyticsClient;
+import com.acmecorp.orders.client.BillingClient;
+import com.acmecorp.orders.client.CatalogClient;
+import com.acmecorp.orders.messaging.NotificationPublisher;
+import com.acmecorp.orders.repository.OrderIdempotencyRepository;
+import com.acmecorp.orders.repository.OrderRepository;
+import com.acmecorp.orders.repository.OrderStatusHistoryRepository;
+import com.acmecorp.orders.web.OrderResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BulkSeedLoaderTest {
+
+    @Autowired
+    private BulkSeedLoader bulkSeedLoader;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusHistoryRepository historyRepository;
+
+    @Autowired
+    private OrderIdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CatalogClient catalogClient;
+
+    @MockBean
+    private BillingClient billingClient;
+
+    @MockBean
+    private AnalyticsClient analyticsClient;
+
+    @MockBean
+    private NotificationPublisher notificationPublisher;
+
+    @BeforeEach
+    void setUp() {
+        historyRepository.deleteAll();
+        idempotencyRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void loadShouldWriteAllRowsAcrossPartitionsAndChunks() {
+        var result = bulkSeedLoader.load(250, 3, 40);
+
+        long items = jdbcTemplate.queryForObject("select count(*) from order_items", Long.class);
+        assertThat(result.orders()).isEqualTo(250);
+        assertThat(result.historyRows()).isEqualTo(250);
+        assertThat(result.items()).isEqualTo(items);
+        assertThat(orderRepository.count()).isEqualTo(250);
+        assertThat(historyRepository.count()).isEqualTo(250);
+        assertThat(items).isBetween(250L * 5, 250L * 30);
+    }
+
+    @Test
+    void loadShouldProduceTheSameOrdersAsSeedDemoData() {
+        Map<String, Snapshot> expected = snapshot(orderService.seedDemoData(60));
+
+        bulkSeedLoader.load(60, 4, 7);
+
+        Map<String, Snapshot> loaded = jdbcTemplate.query("""
+                        select o.order_number, o.customer_email, o.total_amount, count(i.id) as item_count
+                        from orders o join order_items i on i.order_id = o.id
+                        group by o.order_number, o.customer_email, o.total_amount
+                        """,
+                (rs, rowNum) -> Map.entry(rs.getString(1),
+                        new Snapshot(rs.getString(2), rs.getBigDecimal(3).stripTrailingZeros(), rs.getInt(4))))
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertThat(loaded).isEqualTo(expected);
+    }
+
+    @Test
+    void loadShouldRejectInvalidParallelism() {
+        assertThatThrownBy(() -> bulkSeedLoader.load(10, 0, 10))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("parallelism must be between 1 and 8");
+    }
+
+    private static Map<String, Snapshot> snapshot(List<OrderResponse> orders) {
+        return orders.stream().collect(Collectors.toMap(
+                OrderResponse::orderNumber,
+                order -> new Snapshot(order.customerEmail(), order.totalAmount().stripTrailingZeros(), order.items().size())
+        ));
+    }
+
+    private record Snapshot(String customerEmail, BigDecimal totalAmount, int itemCount) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.acmecorp.orders.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerHasherTest {
+
+    @Test
+    void hashShouldBeStablePerKeyAndNotContainTheEmail() {
+        CustomerHasher hasher = new CustomerHasher("key-1");
+
+        String hash = hasher.hash("demo@acme.test");
+
+        assertThat(hash).hasSize(64).isEqualTo(new CustomerHasher("key-1").hash("demo@acme.test"));
+        assertThat(hash).doesNotContain("demo").isNotEqualTo(hasher.hash("other@acme.test"));
+        assertThat(new CustomerHasher("key-2").hash("demo@acme.test")).isNotEqualTo(hash);
+        assertThatThrownBy(() -> new CustomerHasher(" ")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
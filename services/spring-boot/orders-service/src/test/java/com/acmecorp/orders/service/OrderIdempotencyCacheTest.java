@@ -0,0 +1,95 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.domain.OrderStatus;
+import com.acmecorp.orders.web.OrderRequest;
+import com.acmecorp.orders.web.OrderResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderIdempotencyCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderIdempotencyCache cache = new OrderIdempotencyCache(
+            1024 * 1024,
+            Duration.ofMinutes(10),
+            new ObjectMapper().findAndRegisterModules(),
+            meterRegistry
+    );
+
+    @Test
+    void replayShouldReturnRememberedResponseForSameRequest() {
+        OrderRequest request = request("SKU-1", "SKU-2");
+        cache.remember("key-1", request, response(7L));
+
+        // Item order does not change the request hash.
+        var replay = cache.replay("key-1", request("SKU-2", "SKU-1"));
+
+        assertThat(replay).isPresent();
+        assertThat(new String(replay.get(), StandardCharsets.UTF_8))
+                .contains("\"id\":7")
+                .contains("\"orderNumber\":\"ORD-2025-00007\"");
+        assertThat(cache.replay("key-2", request)).isEmpty();
+        assertThat(meterRegistry.get("acmecorp.orders.idempotency.replays").tag("source", "memory").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void replayShouldRejectKeyReusedWithDifferentRequest() {
+        cache.remember("key-1", request("SKU-1"), response(7L));
+
+        assertThatThrownBy(() -> cache.replay("key-1", request("SKU-9")))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode().value())
+                .isEqualTo(409);
+        assertThat(meterRegistry.get("acmecorp.orders.idempotency.conflicts").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictOrdersShouldForgetKeysOfDeletedOrders() {
+        cache.remember("key-1", request("SKU-1"), response(7L));
+        cache.remember("key-2", request("SKU-1"), response(8L));
+
+        cache.evictOrdersAfterCommit(List.of(7L));
+
+        assertThat(cache.replay("key-1", request("SKU-1"))).isEmpty();
+        assertThat(cache.replay("key-2", request("SKU-1"))).isPresent();
+    }
+
+    @Test
+    void evictOrdersShouldOnlyTouchTheKeyOfTheChangedOrder() {
+        cache.remember("key-1", request("SKU-1"), response(7L));
+        cache.evictOrdersAfterCommit(List.of(7L));
+        cache.remember("key-1", request("SKU-1"), response(7L));
+        cache.remember("key-3", request("SKU-1"), response(9L));
+
+        cache.evictOrdersAfterCommit(List.of(9L, 10L));
+
+        assertThat(cache.replay("key-1", request("SKU-1"))).isPresent();
+        assertThat(cache.replay("key-3", request("SKU-1"))).isEmpty();
+    }
+
+    private static OrderRequest request(String... productIds) {
+        return new OrderRequest(
+                "idempotent@acme.test",
+                java.util.Arrays.stream(productIds).map(productId -> new OrderRequest.Item(productId, 1)).toList(),
+                null
+        );
+    }
+
+    private static OrderResponse response(Long id) {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        return new OrderResponse(id, String.format("ORD-2025-%05d", id), "idempotent@acme.test", OrderStatus.NEW,
+                new BigDecimal("10.00"), "USD", now, now, List.of());
+    }
+}
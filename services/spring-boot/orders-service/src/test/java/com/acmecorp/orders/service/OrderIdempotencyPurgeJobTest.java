@@ -0,0 +1,95 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.client.AnalyticsClient;
+import com.acmecorp.orders.client.BillingClient;
+import com.acmecorp.orders.client.CatalogClient;
+import com.acmecorp.orders.domain.OrderIdempotency;
+import com.acmecorp.orders.messaging.NotificationPublisher;
+import com.acmecorp.orders.repository.OrderIdempotencyRepository;
+import com.acmecorp.orders.repository.OrderRepository;
+import com.acmecorp.orders.repository.OrderStatusHistoryRepository;
+import com.acmecorp.orders.web.OrderRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class OrderIdempotencyPurgeJobTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-01T12:00:00Z");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusHistoryRepository historyRepository;
+
+    @Autowired
+    private OrderIdempotencyRepository idempotencyRepository;
+
+    @MockBean
+    private CatalogClient catalogClient;
+
+    @MockBean
+    private BillingClient billingClient;
+
+    @MockBean
+    private AnalyticsClient analyticsClient;
+
+    @MockBean
+    private NotificationPublisher notificationPublisher;
+
+    @BeforeEach
+    void setUp() {
+        historyRepository.deleteAll();
+        idempotencyRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void purgeExpiredShouldDeleteKeysPastRetentionInBatches() {
+        for (int i = 1; i <= 5; i++) {
+            createWithKey("expired-" + i, NOW.minus(Duration.ofHours(25)));
+        }
+        createWithKey("fresh-1", NOW.minus(Duration.ofHours(23)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderIdempotencyPurgeJob job = new OrderIdempotencyPurgeJob(
+                idempotencyRepository, Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofHours(24), 2, meterRegistry);
+
+        assertThat(job.purgeExpired()).isEqualTo(5);
+
+        assertThat(idempotencyRepository.findAll())
+                .extracting(OrderIdempotency::getIdempotencyKey)
+                .containsExactly("fresh-1");
+        assertThat(orderRepository.count()).isEqualTo(6);
+        assertThat(meterRegistry.get("acmecorp.orders.idempotency.purged").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("acmecorp.orders.idempotency.stored").gauge().value()).isEqualTo(1);
+    }
+
+    private void createWithKey(String idempotencyKey, Instant createdAt) {
+        orderService.createOrder(new OrderRequest(
+                idempotencyKey + "@acme.test",
+                List.of(new OrderRequest.Item("SKU-PURGE-1", 1)),
+                null
+        ), idempotencyKey);
+        OrderIdempotency record = idempotencyRepository.findByIdempotencyKey(idempotencyKey).orElseThrow();
+        record.setCreatedAt(createdAt);
+        idempotencyRepository.save(record);
+    }
+}
@@ -0,0 +1,209 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.client.AnalyticsClient;
+import com.acmecorp.orders.client.BillingClient;
+import com.acmecorp.orders.client.BillingClient.InvoiceRequest;
+import com.acmecorp.orders.client.CatalogClient;
+import com.acmecorp.orders.domain.Order;
+import com.acmecorp.orders.messaging.NotificationPublisher;
+import com.acmecorp.orders.repository.OrderIdempotencyRepository;
+import com.acmecorp.orders.repository.OrderOutboxRepository;
+import com.acmecorp.orders.repository.OrderRepository;
+import com.acmecorp.orders.repository.OrderStatusHistoryRepository;
+import com.acmecorp.orders.web.OrderRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class OrderOutboxRelayTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusHistoryRepository historyRepository;
+
+    @Autowired
+    private OrderIdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private CatalogClient catalogClient;
+
+    @MockBean
+    private BillingClient billingClient;
+
+    @MockBean
+    private AnalyticsClient analyticsClient;
+
+    @MockBean
+    private NotificationPublisher notificationPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from order_outbox");
+        historyRepository.deleteAll();
+        idempotencyRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void confirmShouldOnlyRecordSideEffectsUntilTheRelayDeliversThemInOrder() {
+        Order order = confirmedOrder("outbox@acme.test");
+
+        Mockito.verifyNoInteractions(billingClient, notificationPublisher);
+        assertThat(outboxRepository.backlog().pending()).isEqualTo(3);
+
+        assertThat(relay(3).drain()).isEqualTo(3);
+
+        InOrder inOrder = Mockito.inOrder(billingClient, analyticsClient, notificationPublisher);
+        ArgumentCaptor<InvoiceRequest> invoice = ArgumentCaptor.forClass(InvoiceRequest.class);
+        inOrder.verify(billingClient).createInvoice(invoice.capture());
+        inOrder.verify(analyticsClient).publish(Mockito.eq("orders.confirmed"), Mockito.anyMap(), Mockito.any());
+        inOrder.verify(notificationPublisher).sendOrderConfirmation("outbox@acme.test", order.getOrderNumber());
+        assertThat(invoice.getValue().orderId()).isEqualTo(order.getId());
+        assertThat(invoice.getValue().items()).hasSize(1);
+        assertThat(outboxRepository.backlog().pending()).isZero();
+        assertThat(meterRegistry.get("acmecorp.orders.outbox.lag").tag("type", "billing_invoice").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void failedDeliveryShouldHoldBackLaterEntriesOfTheSameOrderUntilRetried() {
+        confirmedOrder("retry@acme.test");
+        Mockito.when(billingClient.createInvoice(Mockito.any()))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_GATEWAY, "billing down"))
+                .thenReturn(new BillingClient.InvoiceResponse(1L, "INV-1", "OPEN"));
+        OrderOutboxRelay relay = relay(3);
+
+        assertThat(relay.drain()).isZero();
+        Mockito.verify(analyticsClient, Mockito.never())
+                .publish(Mockito.eq("orders.confirmed"), Mockito.anyMap(), Mockito.any());
+        Mockito.verifyNoInteractions(notificationPublisher);
+        assertThat(meterRegistry.get("acmecorp.orders.outbox.failures")
+                .tag("type", "billing_invoice").tag("outcome", "retry").counter().count()).isEqualTo(1);
+
+        assertThat(relay.drain()).isEqualTo(3);
+        Mockito.verify(billingClient, Mockito.times(2)).createInvoice(Mockito.any());
+        Mockito.verify(notificationPublisher).sendOrderConfirmation(Mockito.eq("retry@acme.test"), Mockito.anyString());
+    }
+
+    @Test
+    void entryOutOfAttemptsShouldBeParkedAndKeepHoldingBackTheRestOfTheOrder() {
+        confirmedOrder("parked@acme.test");
+        Order other = confirmedOrder("other@acme.test");
+        Mockito.when(billingClient.createInvoice(Mockito.argThat(invoice -> !invoice.orderId().equals(other.getId()))))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_GATEWAY, "billing down"));
+        OrderOutboxRelay relay = relay(1);
+
+        assertThat(relay.drain()).isEqualTo(3);
+        assertThat(relay.drain()).isZero();
+
+        Mockito.verify(billingClient, Mockito.times(2)).createInvoice(Mockito.any());
+        Mockito.verify(notificationPublisher, Mockito.never())
+                .sendOrderConfirmation(Mockito.eq("parked@acme.test"), Mockito.anyString());
+        Mockito.verify(notificationPublisher).sendOrderConfirmation("other@acme.test", other.getOrderNumber());
+        assertThat(outboxRepository.backlog().failed()).isEqualTo(1);
+        assertThat(outboxRepository.backlog().pending()).isEqualTo(2);
+        assertThat(meterRegistry.get("acmecorp.orders.outbox.parked").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void unconfirmedAnalyticsPublishShouldKeepTheEntryForTheNextDrain() {
+        confirmedOrder("nack@acme.test");
+        Mockito.doThrow(new AmqpTimeoutException("no publisher confirm"))
+                .doNothing()
+                .when(analyticsClient).publish(Mockito.eq("orders.confirmed"), Mockito.anyMap(), Mockito.any());
+        OrderOutboxRelay relay = relay(3);
+
+        assertThat(relay.drain()).isEqualTo(1);
+        assertThat(outboxRepository.backlog().pending()).isEqualTo(2);
+        Mockito.verifyNoInteractions(notificationPublisher);
+        assertThat(meterRegistry.get("acmecorp.orders.outbox.failures")
+                .tag("type", "analytics_event").tag("outcome", "retry").counter().count()).isEqualTo(1);
+
+        assertThat(relay.drain()).isEqualTo(2);
+        Mockito.verify(analyticsClient, Mockito.times(2))
+                .publish(Mockito.eq("orders.confirmed"), Mockito.anyMap(), Mockito.any());
+        Mockito.verify(notificationPublisher).sendOrderConfirmation(Mockito.eq("nack@acme.test"), Mockito.anyString());
+    }
+
+    @Test
+    void analyticsEventsShouldKeepTheTimeTheyWereRecordedWhenDeliveredLate() {
+        Instant beforeConfirm = Instant.now();
+        confirmedOrder("late@acme.test");
+        Instant afterConfirm = Instant.now();
+
+        assertThat(relay(3, Clock.offset(Clock.systemUTC(), Duration.ofMinutes(10))).drain()).isEqualTo(3);
+
+        ArgumentCaptor<Instant> occurredAt = ArgumentCaptor.forClass(Instant.class);
+        Mockito.verify(analyticsClient).publish(Mockito.eq("orders.confirmed"), Mockito.anyMap(), occurredAt.capture());
+        assertThat(occurredAt.getValue()).isBetween(beforeConfirm, afterConfirm);
+    }
+
+    private Order confirmedOrder(String email) {
+        Order created = orderService.createOrder(new OrderRequest(
+                email,
+                List.of(new OrderRequest.Item("SKU-OUTBOX-1", 2)),
+                null
+        ));
+        return orderService.confirm(created.getId());
+    }
+
+    private OrderOutboxRelay relay(int maxAttempts) {
+        return relay(maxAttempts, Clock.systemUTC());
+    }
+
+    private OrderOutboxRelay relay(int maxAttempts, Clock clock) {
+        return new OrderOutboxRelay(
+                outboxRepository,
+                billingClient,
+                analyticsClient,
+                notificationPublisher,
+                objectMapper,
+                clock,
+                true,
+                10,
+                4,
+                Duration.ofSeconds(30),
+                maxAttempts,
+                Duration.ZERO,
+                Duration.ZERO,
+                meterRegistry
+        );
+    }
+}
@@ -0,0 +1,120 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.client.AnalyticsClient;
+import com.acmecorp.orders.client.BillingClient;
+import com.acmecorp.orders.client.CatalogClient;
+import com.acmecorp.orders.domain.Order;
+import com.acmecorp.orders.domain.OrderStatus;
+import com.acmecorp.orders.messaging.NotificationPublisher;
+import com.acmecorp.orders.repository.OrderIdempotencyRepository;
+import com.acmecorp.orders.repository.OrderRepository;
+import com.acmecorp.orders.repository.OrderStatusHistoryRepository;
+import com.acmecorp.orders.web.OrderRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles({"test", "batch-writes"})
+@TestPropertySource(properties = {
+        // Own database: this context maps ids to sequences, the other test contexts use identity columns.
+        "spring.datasource.url=jdbc:h2:mem:orders-batch;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class OrderServiceBatchWriteTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusHistoryRepository historyRepository;
+
+    @Autowired
+    private OrderIdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CatalogClient catalogClient;
+
+    @MockBean
+    private BillingClient billingClient;
+
+    @MockBean
+    private AnalyticsClient analyticsClient;
+
+    @MockBean
+    private NotificationPublisher notificationPublisher;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        historyRepository.deleteAll();
+        idempotencyRepository.deleteAll();
+        orderRepository.deleteAll();
+        Mockito.when(catalogClient.fetchProducts(Mockito.anyCollection())).thenAnswer(invocation -> {
+            java.util.Collection<String> productIds = invocation.getArgument(0);
+            return productIds.stream().collect(java.util.stream.Collectors.toMap(
+                    productId -> productId,
+                    productId -> new CatalogClient.CatalogProduct(productId, productId, "Product " + productId, null,
+                            new BigDecimal("12.50"), "USD", "batch", true)
+            ));
+        });
+    }
+
+    @Test
+    void createOrderShouldWriteThirtyItemsInAHandfulOfBatchedStatements() {
+        List<OrderRequest.Item> items = IntStream.rangeClosed(1, 30)
+                .mapToObj(i -> new OrderRequest.Item("SKU-BATCH-" + i, 1 + (i % 3)))
+                .toList();
+        statistics.clear();
+
+        Order created = orderService.createOrder(new OrderRequest("batch@acme.test", items, OrderStatus.NEW), "batch-key-1");
+
+        long statementCount = statistics.getPrepareStatementCount();
+        assertThat(created.getId()).isNotNull();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(33);
+        assertThat(statementCount)
+                .withFailMessage("Expected <=10 prepared statements for a 30-item order but statistics reported %d", statementCount)
+                .isLessThanOrEqualTo(10);
+        assertThat(orderRepository.findAllWithItemsByIds(java.util.Set.of(created.getId())))
+                .singleElement()
+                .satisfies(order -> assertThat(order.getItems()).hasSize(30));
+    }
+
+    @Test
+    void idsShouldComeFromTheDedicatedBatchSequences() {
+        Order created = orderService.createOrder(new OrderRequest("batch@acme.test",
+                List.of(new OrderRequest.Item("SKU-BATCH-1", 1)), OrderStatus.NEW), "batch-key-2");
+
+        Long nextReserved = jdbcTemplate.queryForObject(
+                "select base_value from information_schema.sequences where sequence_name = 'ORDERS_BATCH_ID_SEQ'",
+                Long.class);
+        assertThat(nextReserved).isGreaterThan(created.getId());
+    }
+}
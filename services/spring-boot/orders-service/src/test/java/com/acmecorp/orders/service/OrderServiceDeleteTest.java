@@ -10,6 +10,7 @@ import com.acmecorp.orders.repository.OrderIdempotencyRepository;
 import com.acmecorp.orders.repository.OrderRepository;
 import com.acmecorp.orders.repository.OrderStatusHistoryRepository;
 import com.acmecorp.orders.web.OrderRequest;
+import com.acmecorp.orders.web.OrderResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,6 +40,9 @@ class OrderServiceDeleteTest {
     @Autowired
     private OrderIdempotencyRepository idempotencyRepository;
 
+    @Autowired
+    private OrderIdempotencyCache idempotencyCache;
+
     @MockBean
     private CatalogClient catalogClient;
 
@@ -80,6 +84,23 @@ class OrderServiceDeleteTest {
         assertThat(idempotencyRepository.findByIdempotencyKey(idempotencyKey)).isEmpty();
     }
 
+    @Test
+    void retriedCreateShouldSeeTheCurrentOrderAfterItChanges() {
+        String idempotencyKey = "confirm-test-key-1";
+        OrderRequest request = new OrderRequest(
+                "confirm-me@acme.test",
+                List.of(new OrderRequest.Item("SKU-CONFIRM-1", 1)),
+                OrderStatus.NEW
+        );
+        Order created = orderService.createOrder(request, idempotencyKey);
+        idempotencyCache.remember(idempotencyKey, request, OrderResponse.from(created));
+
+        orderService.confirm(created.getId());
+
+        assertThat(idempotencyCache.replay(idempotencyKey, request)).isEmpty();
+        assertThat(orderService.createOrder(request, idempotencyKey).getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+    }
+
     @Test
     void deleteOrderShouldReturnNotFoundForUnknownOrder() {
         assertThatThrownBy(() -> orderService.deleteOrder(999_999L))
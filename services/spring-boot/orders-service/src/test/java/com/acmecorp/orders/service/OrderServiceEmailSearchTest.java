@@ -0,0 +1,102 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.client.AnalyticsClient;
+import com.acmecorp.orders.client.BillingClient;
+import com.acmecorp.orders.client.CatalogClient;
+import com.acmecorp.orders.domain.Order;
+import com.acmecorp.orders.domain.OrderStatus;
+import com.acmecorp.orders.messaging.NotificationPublisher;
+import com.acmecorp.orders.repository.OrderIdempotencyRepository;
+import com.acmecorp.orders.repository.OrderRepository;
+import com.acmecorp.orders.repository.OrderStatusHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class OrderServiceEmailSearchTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusHistoryRepository historyRepository;
+
+    @Autowired
+    private OrderIdempotencyRepository idempotencyRepository;
+
+    @MockBean
+    private CatalogClient catalogClient;
+
+    @MockBean
+    private BillingClient billingClient;
+
+    @MockBean
+    private AnalyticsClient analyticsClient;
+
+    @MockBean
+    private NotificationPublisher notificationPublisher;
+
+    @BeforeEach
+    void setUp() {
+        historyRepository.deleteAll();
+        idempotencyRepository.deleteAll();
+        orderRepository.deleteAll();
+        List.of(" Alice@Example.com", "malice@example.com", "bob@acme.test", "al_x@acme.test")
+                .forEach(email -> orderRepository.save(order(email)));
+    }
+
+    @Test
+    void strategyShouldFollowTheShapeOfTheInput() {
+        assertThat(CustomerEmailSearch.strategyFor("alice@example.com")).isEqualTo(CustomerEmailSearch.Strategy.EXACT);
+        assertThat(CustomerEmailSearch.strategyFor("al")).isEqualTo(CustomerEmailSearch.Strategy.PREFIX);
+        assertThat(CustomerEmailSearch.strategyFor("alice@")).isEqualTo(CustomerEmailSearch.Strategy.CONTAINS);
+    }
+
+    @Test
+    void completeAddressShouldMatchExactlyIgnoringCaseAndWhitespace() {
+        assertThat(search("ALICE@example.com ")).containsExactly(" Alice@Example.com");
+    }
+
+    @Test
+    void shortInputShouldMatchByPrefix() {
+        assertThat(search("Al")).containsExactlyInAnyOrder(" Alice@Example.com", "al_x@acme.test");
+    }
+
+    @Test
+    void longerFragmentShouldMatchAnywhereWithLikeWildcardsEscaped() {
+        assertThat(search("lice")).containsExactlyInAnyOrder(" Alice@Example.com", "malice@example.com");
+        assertThat(search("al_")).containsExactly("al_x@acme.test");
+    }
+
+    private List<String> search(String customerEmail) {
+        return orderService.listOrders(customerEmail, null, 0, 20).getContent().stream()
+                .map(Order::getCustomerEmail)
+                .toList();
+    }
+
+    private static Order order(String email) {
+        Order order = new Order();
+        order.setOrderNumber("ORD-EMAIL-" + email.trim());
+        order.setCustomerEmail(email);
+        order.setStatus(OrderStatus.NEW);
+        order.setTotalAmount(BigDecimal.TEN);
+        order.setCurrency("USD");
+        order.setCreatedAt(Instant.now());
+        order.setUpdatedAt(Instant.now());
+        return order;
+    }
+}
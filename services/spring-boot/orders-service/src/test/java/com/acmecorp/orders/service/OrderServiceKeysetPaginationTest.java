@@ -0,0 +1,122 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.client.AnalyticsClient;
+import com.acmecorp.orders.client.BillingClient;
+import com.acmecorp.orders.client.CatalogClient;
+import com.acmecorp.orders.domain.Order;
+import com.acmecorp.orders.domain.OrderStatus;
+import com.acmecorp.orders.messaging.NotificationPublisher;
+import com.acmecorp.orders.repository.OrderIdempotencyRepository;
+import com.acmecorp.orders.repository.OrderRepository;
+import com.acmecorp.orders.repository.OrderStatusHistoryRepository;
+import com.acmecorp.orders.web.CursorPageResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class OrderServiceKeysetPaginationTest {
+
+    private static final Instant BASE = Instant.parse("2025-03-01T10:00:00Z");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusHistoryRepository historyRepository;
+
+    @Autowired
+    private OrderIdempotencyRepository idempotencyRepository;
+
+    @MockBean
+    private CatalogClient catalogClient;
+
+    @MockBean
+    private BillingClient billingClient;
+
+    @MockBean
+    private AnalyticsClient analyticsClient;
+
+    @MockBean
+    private NotificationPublisher notificationPublisher;
+
+    @BeforeEach
+    void setUp() {
+        historyRepository.deleteAll();
+        idempotencyRepository.deleteAll();
+        orderRepository.deleteAll();
+        // Seven orders, several sharing a timestamp, so the id tie-breaker is exercised across page boundaries.
+        for (int i = 0; i < 7; i++) {
+            OrderStatus status = i % 2 == 0 ? OrderStatus.NEW : OrderStatus.CONFIRMED;
+            orderRepository.save(order("ORD-KEYSET-" + i, BASE.plusSeconds(i / 3), status));
+        }
+    }
+
+    @Test
+    void cursorPagesShouldWalkAllOrdersInOffsetOrderWithoutGapsOrDuplicates() {
+        List<String> expected = orderService.listOrders(null, null, 0, 100).getContent().stream()
+                .map(Order::getOrderNumber)
+                .toList();
+
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponse<Order> page = orderService.listOrdersByCursor(null, null, cursor, 3, false);
+            page.content().forEach(order -> walked.add(order.getOrderNumber()));
+            assertThat(page.totalElements()).isNull();
+            assertThat(page.hasNext()).isEqualTo(page.nextCursor() != null);
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void cursorPagesShouldApplyFiltersAndCountOnlyWhenAsked() {
+        CursorPageResponse<Order> first = orderService.listOrdersByCursor(null, OrderStatus.NEW, null, 2, true);
+        CursorPageResponse<Order> second = orderService.listOrdersByCursor(null, OrderStatus.NEW, first.nextCursor(), 2, false);
+
+        assertThat(first.totalElements()).isEqualTo(4L);
+        assertThat(first.content()).extracting(Order::getOrderNumber).containsExactly("ORD-KEYSET-6", "ORD-KEYSET-4");
+        assertThat(second.content()).extracting(Order::getOrderNumber).containsExactly("ORD-KEYSET-2", "ORD-KEYSET-0");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void malformedCursorShouldBeRejected() {
+        assertThatThrownBy(() -> orderService.listOrdersByCursor(null, null, "not-a-cursor", 3, false))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    private static Order order(String orderNumber, Instant createdAt, OrderStatus status) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        order.setCustomerEmail("keyset@acme.test");
+        order.setStatus(status);
+        order.setTotalAmount(BigDecimal.TEN);
+        order.setCurrency("USD");
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(createdAt);
+        return order;
+    }
+}
@@ -0,0 +1,86 @@
+package com.acmecorp.orders.service;
+
+import com.acmecorp.orders.client.AnalyticsClient;
+import com.acmecorp.orders.client.BillingClient;
+import com.acmecorp.orders.client.CatalogClient;
+import com.acmecorp.orders.domain.OrderStatus;
+import com.acmecorp.orders.messaging.NotificationPublisher;
+import com.acmecorp.orders.web.OrderRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class OrderServiceOrderNumberTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RecordingAllocator allocator;
+
+    @MockBean
+    private CatalogClient catalogClient;
+
+    @MockBean
+    private BillingClient billingClient;
+
+    @MockBean
+    private AnalyticsClient analyticsClient;
+
+    @MockBean
+    private NotificationPublisher notificationPublisher;
+
+    // A lease refill takes a pooled connection of its own; asked for inside the insert transaction, a burst of creates
+    // could hold every connection while waiting for a second one.
+    @Test
+    void createOrderShouldClaimItsNumberOutsideATransaction() {
+        OrderRequest request = new OrderRequest(
+                "lease@acme.test",
+                List.of(new OrderRequest.Item("SKU-LEASE-1", 1)),
+                OrderStatus.NEW
+        );
+
+        String created = orderService.createOrder(request, "lease-key-1").getOrderNumber();
+        String replayed = orderService.createOrder(request, "lease-key-1").getOrderNumber();
+        orderService.createOrder(request);
+
+        assertThat(replayed).isEqualTo(created);
+        assertThat(allocator.transactionActive).containsExactly(false, false);
+    }
+
+    @TestConfiguration
+    static class AllocatorConfig {
+
+        @Bean
+        @Primary
+        RecordingAllocator recordingOrderNumberAllocator() {
+            return new RecordingAllocator();
+        }
+    }
+
+    static class RecordingAllocator implements OrderNumberAllocator {
+
+        private final AtomicLong next = new AtomicLong(90_000);
+        private final List<Boolean> transactionActive = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String nextOrderNumber() {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return "ORD-2099-" + next.incrementAndGet();
+        }
+    }
+}
@@ -95,7 +95,7 @@ export type ApiError = Error & {
   path?: string;
 };
 
-async function handle<T>(path: string, init?: RequestInit): Promise<T> {
+async function request<T>(path: string, init?: RequestInit): Promise<{ body: T; headers: Headers }> {
   const res = await fetch(buildApiUrl(path), {
     headers: { 'Content-Type': 'application/json' },
     ...init
@@ -107,11 +107,30 @@ async function handle<T>(path: string, init?: RequestInit): Promise<T> {
     console.error('API error for', path, 'status:', res.status, 'body:', text);
     throw error;
   }
-  if (!text) {
-    return undefined as T;
-  }
+  return { body: (text ? JSON.parse(text) : undefined) as T, headers: res.headers };
+}
+
+async function handle<T>(path: string, init?: RequestInit): Promise<T> {
+  return (await request<T>(path, init)).body;
+}
 
-  return JSON.parse(text);
+const CATALOG_PAGE_SIZE = 100;
+
+// The gateway lists the catalog one page at a time and reports the full count in X-Total-Count;
+// keep fetching until we have that many (or the header is missing, as from an older gateway).
+async function fetchAllProducts(): Promise<Product[]> {
+  const products: Product[] = [];
+  for (let page = 0; ; page++) {
+    const { body, headers } = await request<Product[]>(
+      `/api/gateway/catalog?page=${page}&size=${CATALOG_PAGE_SIZE}`
+    );
+    const batch = body ?? [];
+    products.push(...batch);
+    const total = Number(headers.get('X-Total-Count'));
+    if (batch.length === 0 || !Number.isFinite(total) || products.length >= total) {
+      return products;
+    }
+  }
 }
 
 function toApiError(res: Response, text: string, path: string): ApiError {
@@ -146,7 +165,7 @@ export function fetchOrderHistory(id: string | number): Promise<OrderStatusHisto
 }
 
 export function fetchCatalog(): Promise<Product[]> {
-  return handle<Product[]>('/api/gateway/catalog');
+  return fetchAllProducts();
 }
 
 export type SystemStatus = {
@@ -210,7 +229,7 @@ export function cancelOrder(id: string): Promise<Order> {
 }
 
 export function listProducts(): Promise<Product[]> {
-  return handle<Product[]>('/api/gateway/catalog');
+  return fetchAllProducts();
 }
 
 export function getProduct(id: string): Promise<Product> {